@@ -4,16 +4,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.uber.client.api.ApiClient;
 import com.uber.client.model.*;
+import com.uber.client.util.AdaptivePoller;
 import com.uber.client.util.Theme;
 import com.uber.client.util.UIUtils;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
@@ -27,6 +28,7 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 管理後台主控制器
@@ -36,11 +38,20 @@ public class MainController {
     private final BorderPane root;
     private final ApiClient apiClient;
     private final ObjectMapper objectMapper;
-    private Timeline pollingTimeline;
+    // 增量同步輪詢：無變化時由 2 秒逐步放慢至 10 秒
+    private final AdaptivePoller poller;
+    
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+        .withZone(ZoneId.systemDefault());
+    
+    // 增量同步狀態 (GET /api/admin/changes)
+    private long changeSeq;
+    private String changeEpoch;
     
     // 側邊欄按鈕
     private Button ordersBtn;
     private Button driversBtn;
+    private Button heatmapBtn;
     private Button auditBtn;
     private Button settingsBtn;
     
@@ -58,6 +69,14 @@ public class MainController {
     private TableView<DriverRow> driversTable;
     private ObservableList<DriverRow> driversData;
     
+    // 熱度圖頁面
+    private VBox heatmapPage;
+    private Canvas heatmapCanvas;
+    private ComboBox<String> heatmapWindow;
+    private Label heatmapSummary;
+    private List<Map<String, Object>> heatmapCells = List.of();
+    private double heatmapCellSize = 1;
+    
     // 審計日誌頁面
     private VBox auditPage;
     private TableView<AuditRow> auditTable;
@@ -79,6 +98,8 @@ public class MainController {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.root = new BorderPane();
+        this.poller = new AdaptivePoller(Duration.seconds(2), Duration.seconds(10), this::syncChanges);
+        this.poller.pauseWhenHidden(root);
         
         initUI();
         showOrdersPage();
@@ -108,6 +129,7 @@ public class MainController {
         // 創建各頁面
         createOrdersPage();
         createDriversPage();
+        createHeatmapPage();
         createAuditPage();
         createSettingsPage();
     }
@@ -131,6 +153,9 @@ public class MainController {
         driversBtn = createNavButton("🚗 司機管理", false);
         driversBtn.setOnAction(e -> showDriversPage());
         
+        heatmapBtn = createNavButton("🔥 需求熱度", false);
+        heatmapBtn.setOnAction(e -> showHeatmapPage());
+        
         auditBtn = createNavButton("📝 審計日誌", false);
         auditBtn.setOnAction(e -> showAuditPage());
         
@@ -146,7 +171,7 @@ public class MainController {
         versionLabel.setFont(Font.font("Microsoft JhengHei", 11));
         versionLabel.setPadding(new Insets(0, 0, 0, 10));
         
-        sidebar.getChildren().addAll(logo, ordersBtn, driversBtn, auditBtn, settingsBtn, spacer, versionLabel);
+        sidebar.getChildren().addAll(logo, ordersBtn, driversBtn, heatmapBtn, auditBtn, settingsBtn, spacer, versionLabel);
         return sidebar;
     }
     
@@ -172,6 +197,7 @@ public class MainController {
     private void setActiveNav(Button activeBtn) {
         ordersBtn.setStyle(getNavButtonStyle(activeBtn == ordersBtn));
         driversBtn.setStyle(getNavButtonStyle(activeBtn == driversBtn));
+        heatmapBtn.setStyle(getNavButtonStyle(activeBtn == heatmapBtn));
         auditBtn.setStyle(getNavButtonStyle(activeBtn == auditBtn));
         settingsBtn.setStyle(getNavButtonStyle(activeBtn == settingsBtn));
     }
@@ -387,6 +413,48 @@ public class MainController {
         driversPage.getChildren().addAll(titleLabel, driversTable);
     }
     
+    private void createHeatmapPage() {
+        heatmapPage = new VBox(20);
+        heatmapPage.setPadding(new Insets(25));
+        
+        // 標題與視窗選擇
+        HBox header = new HBox(15);
+        header.setAlignment(Pos.CENTER_LEFT);
+        
+        Label titleLabel = new Label("🔥 需求熱度");
+        titleLabel.setFont(Font.font("Microsoft JhengHei", FontWeight.BOLD, 24));
+        titleLabel.setTextFill(Color.WHITE);
+        
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        
+        Label windowLabel = new Label("時間視窗:");
+        windowLabel.setTextFill(Color.web(Theme.TEXT_SECONDARY));
+        
+        heatmapWindow = new ComboBox<>();
+        heatmapWindow.getItems().addAll("1m", "15m", "1h");
+        heatmapWindow.setValue("15m");
+        heatmapWindow.setOnAction(e -> loadHeatmap());
+        
+        header.getChildren().addAll(titleLabel, spacer, windowLabel, heatmapWindow);
+        
+        heatmapSummary = new Label();
+        heatmapSummary.setTextFill(Color.web(Theme.TEXT_SECONDARY));
+        heatmapSummary.setFont(Font.font("Microsoft JhengHei", 13));
+        
+        // 畫布跟隨容器大小，尺寸改變時重畫
+        heatmapCanvas = new Canvas();
+        Pane canvasHolder = new Pane(heatmapCanvas);
+        canvasHolder.setStyle("-fx-background-color: " + Theme.BG_CARD + "; -fx-background-radius: 8;");
+        heatmapCanvas.widthProperty().bind(canvasHolder.widthProperty());
+        heatmapCanvas.heightProperty().bind(canvasHolder.heightProperty());
+        heatmapCanvas.widthProperty().addListener(o -> drawHeatmap());
+        heatmapCanvas.heightProperty().addListener(o -> drawHeatmap());
+        VBox.setVgrow(canvasHolder, Priority.ALWAYS);
+        
+        heatmapPage.getChildren().addAll(header, heatmapSummary, canvasHolder);
+    }
+    
     private void createAuditPage() {
         auditPage = new VBox(20);
         auditPage.setPadding(new Insets(25));
@@ -604,6 +672,13 @@ public class MainController {
         loadDrivers();
     }
     
+    private void showHeatmapPage() {
+        setActiveNav(heatmapBtn);
+        contentPane.getChildren().clear();
+        contentPane.getChildren().add(heatmapPage);
+        loadHeatmap();
+    }
+    
     private void showAuditPage() {
         setActiveNav(auditBtn);
         contentPane.getChildren().clear();
@@ -623,6 +698,8 @@ public class MainController {
             loadOrders();
         } else if (contentPane.getChildren().contains(driversPage)) {
             loadDrivers();
+        } else if (contentPane.getChildren().contains(heatmapPage)) {
+            loadHeatmap();
         } else if (contentPane.getChildren().contains(auditPage)) {
             loadAuditLogs();
         } else if (contentPane.getChildren().contains(settingsPage)) {
@@ -644,52 +721,7 @@ public class MainController {
                     
                     if (response.isSuccess()) {
                         Map<String, Object> data = response.getData();
-                        List<Map<String, Object>> orders = (List<Map<String, Object>>) data.get("orders");
-                        
-                        ordersData.clear();
-                        int pending = 0, completed = 0;
-                        
-                        if (orders != null) {
-                            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
-                                .withZone(ZoneId.systemDefault());
-                            
-                            for (Map<String, Object> order : orders) {
-                                String orderStatus = (String) order.get("status");
-                                if ("PENDING".equals(orderStatus)) pending++;
-                                if ("COMPLETED".equals(orderStatus)) completed++;
-                                
-                                Object fareObj = order.get("fare");
-                                if (fareObj == null) fareObj = order.get("estimatedFare");
-                                String fareStr = fareObj != null ? 
-                                    String.format("$%.0f", ((Number) fareObj).doubleValue()) : "--";
-                                
-                                String createdAt = "--";
-                                Object createdAtObj = order.get("createdAt");
-                                if (createdAtObj != null) {
-                                    try {
-                                        Instant instant = Instant.parse(createdAtObj.toString());
-                                        createdAt = formatter.format(instant);
-                                    } catch (Exception e) {
-                                        createdAt = createdAtObj.toString();
-                                    }
-                                }
-                                
-                                ordersData.add(new OrderRow(
-                                    (String) order.get("orderId"),
-                                    (String) order.get("passengerId"),
-                                    order.get("driverId") != null ? (String) order.get("driverId") : "--",
-                                    orderStatus,
-                                    order.get("vehicleType") != null ? (String) order.get("vehicleType") : "--",
-                                    fareStr,
-                                    createdAt
-                                ));
-                            }
-                        }
-                        
-                        // 更新統計
-                        totalOrdersLabel.setText(String.valueOf(orders != null ? orders.size() : 0));
-                        pendingOrdersLabel.setText(String.valueOf(pending));
-                        completedOrdersLabel.setText(String.valueOf(completed));
+                        replaceOrders((List<Map<String, Object>>) data.get("orders"));
                     }
                 });
             });
@@ -706,44 +738,286 @@ public class MainController {
                     
                     if (response.isSuccess()) {
                         Map<String, Object> data = response.getData();
-                        List<Map<String, Object>> drivers = (List<Map<String, Object>>) data.get("drivers");
-                        
-                        driversData.clear();
-                        int online = 0;
-                        
-                        if (drivers != null) {
-                            for (Map<String, Object> driver : drivers) {
-                                String status = (String) driver.get("status");
-                                if ("ONLINE".equals(status)) online++;
-                                
-                                Map<String, Object> location = (Map<String, Object>) driver.get("location");
-                                String locationStr = location != null ?
-                                    String.format("(%.0f, %.0f)", 
-                                        ((Number) location.get("x")).doubleValue(),
-                                        ((Number) location.get("y")).doubleValue()) : "--";
-                                
-                                Object busyObj = driver.get("busy");
-                                boolean busy = busyObj instanceof Boolean ? (Boolean) busyObj : false;
-                                
-                                driversData.add(new DriverRow(
-                                    (String) driver.get("driverId"),
-                                    driver.get("name") != null ? (String) driver.get("name") : "--",
-                                    driver.get("phone") != null ? (String) driver.get("phone") : "--",
-                                    driver.get("vehiclePlate") != null ? (String) driver.get("vehiclePlate") : "--",
-                                    driver.get("vehicleType") != null ? (String) driver.get("vehicleType") : "--",
-                                    status,
-                                    busy ? "是" : "否",
-                                    locationStr
-                                ));
-                            }
-                        }
-                        
-                        onlineDriversLabel.setText(String.valueOf(online));
+                        replaceDrivers((List<Map<String, Object>>) data.get("drivers"));
+                    }
+                });
+            });
+    }
+    
+    /**
+     * 增量同步：只取得上次同步後變更的訂單與司機並合併到表格
+     * 
+     * @return 完成值表示序號是否前進 (有新的變更)
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Boolean> syncChanges() {
+        long since = changeSeq;
+        return apiClient.getChanges(since, changeEpoch)
+            .whenComplete((response, error) -> {
+                Platform.runLater(() -> {
+                    if (error != null || !response.isSuccess()) {
+                        return;
+                    }
+                    
+                    Map<String, Object> data = response.getData();
+                    List<Map<String, Object>> orders = (List<Map<String, Object>>) data.get("orders");
+                    List<Map<String, Object>> drivers = (List<Map<String, Object>>) data.get("drivers");
+                    
+                    if (Boolean.TRUE.equals(data.get("reset"))) {
+                        replaceOrders(filterByStatus(orders));
+                        replaceDrivers(drivers);
+                    } else {
+                        applyOrderChanges(orders, (List<String>) data.get("deletedOrderIds"));
+                        applyDriverChanges(drivers, (List<String>) data.get("deletedDriverIds"));
+                    }
+                    changeEpoch = (String) data.get("epoch");
+                    changeSeq = ((Number) data.get("seq")).longValue();
+                });
+            })
+            .thenApply(response -> response.isSuccess()
+                    && ((Number) response.getData().get("seq")).longValue() != since);
+    }
+    
+    private void replaceOrders(List<Map<String, Object>> orders) {
+        ordersData.clear();
+        if (orders != null) {
+            for (Map<String, Object> order : orders) {
+                ordersData.add(toOrderRow(order));
+            }
+        }
+        updateOrderStats();
+    }
+    
+    private void replaceDrivers(List<Map<String, Object>> drivers) {
+        driversData.clear();
+        if (drivers != null) {
+            for (Map<String, Object> driver : drivers) {
+                driversData.add(toDriverRow(driver));
+            }
+        }
+        updateDriverStats();
+    }
+    
+    /**
+     * 依訂單 ID 合併變更；不符合目前狀態篩選的訂單自表格移除
+     */
+    private void applyOrderChanges(List<Map<String, Object>> orders, List<String> deletedIds) {
+        if (orders != null) {
+            String filter = orderStatusFilter.getValue();
+            for (Map<String, Object> order : orders) {
+                OrderRow row = toOrderRow(order);
+                int index = indexOfOrder(row.getOrderId());
+                boolean visible = "全部".equals(filter) || filter.equals(row.getStatus());
+                if (!visible) {
+                    if (index >= 0) {
+                        ordersData.remove(index);
+                    }
+                } else if (index >= 0) {
+                    ordersData.set(index, row);
+                } else {
+                    // 新訂單排在最前面
+                    ordersData.add(0, row);
+                }
+            }
+        }
+        if (deletedIds != null) {
+            ordersData.removeIf(row -> deletedIds.contains(row.getOrderId()));
+        }
+        updateOrderStats();
+    }
+    
+    private void applyDriverChanges(List<Map<String, Object>> drivers, List<String> deletedIds) {
+        if (drivers != null) {
+            for (Map<String, Object> driver : drivers) {
+                DriverRow row = toDriverRow(driver);
+                int index = indexOfDriver(row.getDriverId());
+                if (index >= 0) {
+                    driversData.set(index, row);
+                } else {
+                    driversData.add(row);
+                }
+            }
+        }
+        if (deletedIds != null) {
+            driversData.removeIf(row -> deletedIds.contains(row.getDriverId()));
+        }
+        updateDriverStats();
+    }
+    
+    private List<Map<String, Object>> filterByStatus(List<Map<String, Object>> orders) {
+        String filter = orderStatusFilter.getValue();
+        if (orders == null || "全部".equals(filter)) {
+            return orders;
+        }
+        return orders.stream()
+            .filter(order -> filter.equals(order.get("status")))
+            .toList();
+    }
+    
+    private int indexOfOrder(String orderId) {
+        for (int i = 0; i < ordersData.size(); i++) {
+            if (ordersData.get(i).getOrderId().equals(orderId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private int indexOfDriver(String driverId) {
+        for (int i = 0; i < driversData.size(); i++) {
+            if (driversData.get(i).getDriverId().equals(driverId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private void updateOrderStats() {
+        int pending = 0, completed = 0;
+        for (OrderRow row : ordersData) {
+            if ("PENDING".equals(row.getStatus())) pending++;
+            if ("COMPLETED".equals(row.getStatus())) completed++;
+        }
+        totalOrdersLabel.setText(String.valueOf(ordersData.size()));
+        pendingOrdersLabel.setText(String.valueOf(pending));
+        completedOrdersLabel.setText(String.valueOf(completed));
+    }
+    
+    private void updateDriverStats() {
+        int online = 0;
+        for (DriverRow row : driversData) {
+            if ("ONLINE".equals(row.getStatus())) online++;
+        }
+        onlineDriversLabel.setText(String.valueOf(online));
+    }
+    
+    private OrderRow toOrderRow(Map<String, Object> order) {
+        Object fareObj = order.get("fare");
+        if (fareObj == null) fareObj = order.get("estimatedFare");
+        String fareStr = fareObj != null ? 
+            String.format("$%.0f", ((Number) fareObj).doubleValue()) : "--";
+        
+        String createdAt = "--";
+        Object createdAtObj = order.get("createdAt");
+        if (createdAtObj != null) {
+            try {
+                Instant instant = Instant.parse(createdAtObj.toString());
+                createdAt = DATE_FORMATTER.format(instant);
+            } catch (Exception e) {
+                createdAt = createdAtObj.toString();
+            }
+        }
+        
+        return new OrderRow(
+            (String) order.get("orderId"),
+            (String) order.get("passengerId"),
+            order.get("driverId") != null ? (String) order.get("driverId") : "--",
+            (String) order.get("status"),
+            order.get("vehicleType") != null ? (String) order.get("vehicleType") : "--",
+            fareStr,
+            createdAt
+        );
+    }
+    
+    @SuppressWarnings("unchecked")
+    private DriverRow toDriverRow(Map<String, Object> driver) {
+        Map<String, Object> location = (Map<String, Object>) driver.get("location");
+        String locationStr = location != null ?
+            String.format("(%.0f, %.0f)", 
+                ((Number) location.get("x")).doubleValue(),
+                ((Number) location.get("y")).doubleValue()) : "--";
+        
+        Object busyObj = driver.get("busy");
+        boolean busy = busyObj instanceof Boolean ? (Boolean) busyObj : false;
+        
+        return new DriverRow(
+            (String) driver.get("driverId"),
+            driver.get("name") != null ? (String) driver.get("name") : "--",
+            driver.get("phone") != null ? (String) driver.get("phone") : "--",
+            driver.get("vehiclePlate") != null ? (String) driver.get("vehiclePlate") : "--",
+            driver.get("vehicleType") != null ? (String) driver.get("vehicleType") : "--",
+            (String) driver.get("status"),
+            busy ? "是" : "否",
+            locationStr
+        );
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void loadHeatmap() {
+        apiClient.getHeatmap(heatmapWindow.getValue())
+            .whenComplete((response, error) -> {
+                Platform.runLater(() -> {
+                    if (error != null || !response.isSuccess()) {
+                        return;
+                    }
+                    
+                    Map<String, Object> data = response.getData();
+                    List<Map<String, Object>> cells = (List<Map<String, Object>>) data.get("cells");
+                    heatmapCells = cells != null ? cells : List.of();
+                    heatmapCellSize = ((Number) data.get("cellSize")).doubleValue();
+                    
+                    int pickups = 0;
+                    int completions = 0;
+                    for (Map<String, Object> cell : heatmapCells) {
+                        pickups += ((Number) cell.get("pickups")).intValue();
+                        completions += ((Number) cell.get("completions")).intValue();
                     }
+                    heatmapSummary.setText(String.format("%d 個格子 · 叫車 %d · 完成 %d",
+                        heatmapCells.size(), pickups, completions));
+                    drawHeatmap();
                 });
             });
     }
     
+    /**
+     * 依有事件的格子範圍縮放繪製；叫車數決定填色深淺，完成數以外框標示
+     */
+    private void drawHeatmap() {
+        GraphicsContext gc = heatmapCanvas.getGraphicsContext2D();
+        double width = heatmapCanvas.getWidth();
+        double height = heatmapCanvas.getHeight();
+        gc.clearRect(0, 0, width, height);
+        if (heatmapCells.isEmpty() || width <= 0 || height <= 0) {
+            return;
+        }
+        
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        int maxPickups = 1;
+        int maxCompletions = 1;
+        for (Map<String, Object> cell : heatmapCells) {
+            double x = ((Number) cell.get("x")).doubleValue();
+            double y = ((Number) cell.get("y")).doubleValue();
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x + heatmapCellSize);
+            maxY = Math.max(maxY, y + heatmapCellSize);
+            maxPickups = Math.max(maxPickups, ((Number) cell.get("pickups")).intValue());
+            maxCompletions = Math.max(maxCompletions, ((Number) cell.get("completions")).intValue());
+        }
+        
+        double padding = 20;
+        double scale = Math.min((width - padding * 2) / (maxX - minX), (height - padding * 2) / (maxY - minY));
+        double size = heatmapCellSize * scale;
+        Color hot = Color.web(Theme.SECONDARY);
+        Color done = Color.web(Theme.SUCCESS);
+        gc.setLineWidth(2);
+        for (Map<String, Object> cell : heatmapCells) {
+            double sx = padding + (((Number) cell.get("x")).doubleValue() - minX) * scale;
+            double sy = padding + (((Number) cell.get("y")).doubleValue() - minY) * scale;
+            int pickups = ((Number) cell.get("pickups")).intValue();
+            int completions = ((Number) cell.get("completions")).intValue();
+            if (pickups > 0) {
+                gc.setFill(hot.deriveColor(0, 1, 1, 0.2 + 0.8 * pickups / maxPickups));
+                gc.fillRect(sx, sy, size, size);
+            }
+            if (completions > 0) {
+                gc.setStroke(done.deriveColor(0, 1, 1, 0.3 + 0.7 * completions / maxCompletions));
+                gc.strokeRect(sx + 1, sy + 1, size - 2, size - 2);
+            }
+        }
+    }
+    
     @SuppressWarnings("unchecked")
     private void loadAuditLogs() {
         String orderId = orderIdFilter.getText().trim();
@@ -810,20 +1084,12 @@ public class MainController {
     }
     
     private void startPolling() {
-        pollingTimeline = new Timeline(new KeyFrame(Duration.seconds(2), e -> {
-            if (contentPane.getChildren().contains(ordersPage)) {
-                loadOrders();
-            }
-            loadDrivers(); // 用於更新統計數據
-        }));
-        pollingTimeline.setCycleCount(Timeline.INDEFINITE);
-        pollingTimeline.play();
+        // 只同步變更的訂單與司機 (司機資料同時用於更新統計數據)；無變化時逐步放慢
+        poller.start();
     }
     
     public void shutdown() {
-        if (pollingTimeline != null) {
-            pollingTimeline.stop();
-        }
+        poller.stop();
     }
     
     // ============ Data Classes ============
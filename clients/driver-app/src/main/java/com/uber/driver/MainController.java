@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.uber.client.api.ApiClient;
 import com.uber.client.model.*;
+import com.uber.client.util.AdaptivePoller;
 import com.uber.client.util.Theme;
 import com.uber.client.util.UIUtils;
 import javafx.animation.KeyFrame;
@@ -21,6 +22,7 @@ import javafx.util.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 司機端主控制器
@@ -33,7 +35,10 @@ public class MainController {
     
     private Driver currentDriver;
     private Order currentOrder;
-    private Timeline pollingTimeline;
+    // 輪詢可接訂單 / 進行中訂單：無變化時由 1 秒逐步放慢至 5 秒
+    private final AdaptivePoller poller;
+    // 上一次輪詢的回應 (ETag 未變時 ApiClient 回傳同一物件)
+    private volatile Object lastPollResponse;
     
     // Views
     private VBox loginView;
@@ -67,6 +72,8 @@ public class MainController {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.root = new BorderPane();
+        this.poller = new AdaptivePoller(Duration.seconds(1), Duration.seconds(5), this::refreshOffers);
+        this.poller.pauseWhenHidden(root);
         
         initUI();
         showLoginView();
@@ -424,6 +431,8 @@ public class MainController {
     
     private void showOrderView() {
         root.setCenter(orderView);
+        // 開始追蹤訂單狀態：回到最短輪詢間隔
+        poller.wake();
     }
     
     private void registerAndLogin() {
@@ -507,6 +516,7 @@ public class MainController {
                         if (error == null && response.isSuccess()) {
                             currentDriver = response.getData();
                             updateMainView();
+                            poller.wake();
                         } else {
                             onlineToggle.setSelected(false);
                             UIUtils.showError("上線失敗", 
@@ -559,16 +569,19 @@ public class MainController {
         );
     }
     
+    /**
+     * 輪詢一次；完成值表示資料是否有變化
+     */
     @SuppressWarnings("unchecked")
-    private void refreshOffers() {
+    private CompletableFuture<Boolean> refreshOffers() {
         if (currentDriver == null || currentDriver.getStatus() != DriverStatus.ONLINE) {
-            return;
+            return CompletableFuture.completedFuture(false);
         }
         
         if (currentDriver.isBusy()) {
             // 已有訂單，輪詢訂單狀態
             if (currentOrder != null) {
-                apiClient.getOrder(currentOrder.getOrderId())
+                return apiClient.getOrder(currentOrder.getOrderId())
                     .whenComplete((response, error) -> {
                         Platform.runLater(() -> {
                             if (error == null && response.isSuccess()) {
@@ -584,12 +597,13 @@ public class MainController {
                                 }
                             }
                         });
-                    });
+                    })
+                    .thenApply(this::isNewResponse);
             }
-            return;
+            return CompletableFuture.completedFuture(false);
         }
         
-        apiClient.getOffers(currentDriver.getDriverId())
+        return apiClient.getOffers(currentDriver.getDriverId())
             .whenComplete((response, error) -> {
                 Platform.runLater(() -> {
                     if (error == null && response.isSuccess()) {
@@ -598,7 +612,14 @@ public class MainController {
                         updateOffersList(offers != null ? offers : new ArrayList<>());
                     }
                 });
-            });
+            })
+            .thenApply(this::isNewResponse);
+    }
+    
+    private boolean isNewResponse(Object response) {
+        boolean changed = response != lastPollResponse;
+        lastPollResponse = response;
+        return changed;
     }
     
     private void updateOffersList(List<Map<String, Object>> offers) {
@@ -873,20 +894,11 @@ public class MainController {
     }
     
     private void startPolling() {
-        if (pollingTimeline != null) {
-            pollingTimeline.stop();
-        }
-        
-        pollingTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> refreshOffers()));
-        pollingTimeline.setCycleCount(Timeline.INDEFINITE);
-        pollingTimeline.play();
+        poller.start();
     }
     
     private void stopPolling() {
-        if (pollingTimeline != null) {
-            pollingTimeline.stop();
-            pollingTimeline = null;
-        }
+        poller.stop();
     }
     
     public void shutdown() {
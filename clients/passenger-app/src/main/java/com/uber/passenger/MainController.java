@@ -2,10 +2,10 @@ package com.uber.passenger;
 
 import com.uber.client.api.ApiClient;
 import com.uber.client.model.*;
+import com.uber.client.util.AdaptivePoller;
+import com.uber.client.util.SimulatedMap;
 import com.uber.client.util.Theme;
 import com.uber.client.util.UIUtils;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -17,6 +17,8 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.util.Duration;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 乘客端主控制器
@@ -28,7 +30,13 @@ public class MainController {
     private final String passengerId;
     
     private Order currentOrder;
-    private Timeline pollingTimeline;
+    // 輪詢訂單狀態：無變化時由 1 秒逐步放慢至 5 秒
+    private final AdaptivePoller poller;
+    // 上一次輪詢的回應 (ETag 未變時 ApiClient 回傳同一物件)
+    private volatile Object lastPollResponse;
+    private volatile Object lastDriverResponse;
+    
+    private static final String DRIVER_MARKER = "driver";
     
     // UI Components
     private VBox homeView;
@@ -46,6 +54,9 @@ public class MainController {
     // Order View Components
     private Label orderStatusLabel;
     private Label driverInfoLabel;
+    private SimulatedMap driverMap;
+    // 地圖目前對準的訂單與狀態 (狀態改變時重新對準)
+    private String fittedKey;
     private Label pickupLabel;
     private Label dropoffLabel;
     private Label fareLabel;
@@ -56,6 +67,8 @@ public class MainController {
         this.apiClient = new ApiClient();
         this.passengerId = "passenger-" + System.currentTimeMillis() % 1000;
         this.root = new BorderPane();
+        this.poller = new AdaptivePoller(Duration.seconds(1), Duration.seconds(5), this::pollOrderStatus);
+        this.poller.pauseWhenHidden(root);
         
         initUI();
         showHomeView();
@@ -296,7 +309,14 @@ public class MainController {
         driverInfoLabel.setFont(Font.font("Microsoft JhengHei", 14));
         driverInfoLabel.setWrapText(true);
         
-        driverCard.getChildren().addAll(driverTitle, driverInfoLabel);
+        // 司機位置 (接單後顯示，兩次輪詢之間以內插平滑移動)
+        driverMap = new SimulatedMap();
+        driverMap.setPrefHeight(120);
+        driverMap.setMinHeight(120);
+        driverMap.setVisible(false);
+        driverMap.setManaged(false);
+        
+        driverCard.getChildren().addAll(driverTitle, driverInfoLabel, driverMap);
         
         // 路線資訊
         VBox routeCard = new VBox(12);
@@ -610,6 +630,21 @@ public class MainController {
             driverInfoLabel.setTextFill(Color.web(Theme.TEXT_SECONDARY));
         }
         
+        // 司機位置地圖：已接單或行程中才顯示
+        boolean tracking = tracksDriver(currentOrder);
+        driverMap.setVisible(tracking);
+        driverMap.setManaged(tracking);
+        if (tracking) {
+            Location pickup = currentOrder.getPickupLocation();
+            Location dropoff = currentOrder.getDropoffLocation();
+            driverMap.setMarkers(List.of(
+                new SimulatedMap.Marker(pickup.getX(), pickup.getY(), Color.web(Theme.SUCCESS), "上車"),
+                new SimulatedMap.Marker(dropoff.getX(), dropoff.getY(), Color.web(Theme.ERROR), "下車")));
+        } else {
+            driverMap.removeTrackedMarker(DRIVER_MARKER);
+            fittedKey = null;
+        }
+        
         // 更新路線
         pickupLabel.setText("上車: " + currentOrder.getPickupLocation());
         dropoffLabel.setText("下車: " + currentOrder.getDropoffLocation());
@@ -636,26 +671,20 @@ public class MainController {
     }
     
     private void startPolling() {
-        if (pollingTimeline != null) {
-            pollingTimeline.stop();
-        }
-        
-        pollingTimeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> pollOrderStatus()));
-        pollingTimeline.setCycleCount(Timeline.INDEFINITE);
-        pollingTimeline.play();
+        poller.start();
     }
     
     private void stopPolling() {
-        if (pollingTimeline != null) {
-            pollingTimeline.stop();
-            pollingTimeline = null;
-        }
+        poller.stop();
     }
     
-    private void pollOrderStatus() {
-        if (currentOrder == null) return;
+    /**
+     * 輪詢一次訂單狀態 (已接單或行程中時一併取得司機位置)；完成值表示是否有變化
+     */
+    private CompletableFuture<Boolean> pollOrderStatus() {
+        if (currentOrder == null) return CompletableFuture.completedFuture(false);
         
-        apiClient.getOrder(currentOrder.getOrderId())
+        return apiClient.getOrder(currentOrder.getOrderId())
             .whenComplete((response, error) -> {
                 Platform.runLater(() -> {
                     if (error == null && response.isSuccess()) {
@@ -663,9 +692,63 @@ public class MainController {
                         updateOrderView();
                     }
                 });
+            })
+            .thenCompose(response -> {
+                boolean changed = response != lastPollResponse;
+                lastPollResponse = response;
+                Order order = response.isSuccess() ? response.getData() : null;
+                if (order == null || !tracksDriver(order)) {
+                    return CompletableFuture.completedFuture(changed);
+                }
+                return apiClient.getDriver(order.getDriverId())
+                    .thenApply(driverResponse -> {
+                        if (driverResponse.isSuccess()) {
+                            Platform.runLater(() -> showDriverPosition(driverResponse.getData()));
+                        }
+                        boolean moved = driverResponse != lastDriverResponse;
+                        lastDriverResponse = driverResponse;
+                        return changed || moved;
+                    });
             });
     }
     
+    private static boolean tracksDriver(Order order) {
+        return order.getDriverId() != null
+            && (order.getStatus() == OrderStatus.ACCEPTED || order.getStatus() == OrderStatus.ONGOING);
+    }
+    
+    /**
+     * 以司機的位置樣本更新地圖標記 (updatedAt 用於推算移動速度)
+     */
+    private void showDriverPosition(Driver driver) {
+        Location location = driver.getLocation();
+        if (location == null || currentOrder == null || !tracksDriver(currentOrder)) {
+            return;
+        }
+        // 未上車時對準上車點，行程中對準下車點
+        Location target = currentOrder.getStatus() == OrderStatus.ACCEPTED
+            ? currentOrder.getPickupLocation() : currentOrder.getDropoffLocation();
+        String key = currentOrder.getOrderId() + ":" + currentOrder.getStatus();
+        if (!key.equals(fittedKey)) {
+            fitDriverMap(location, target);
+            fittedKey = key;
+        }
+        driverMap.updateTrackedMarker(DRIVER_MARKER, location.getX(), location.getY(),
+            driver.getLastUpdatedAt(), Color.web(Theme.PRIMARY_LIGHT), "司機");
+    }
+    
+    /**
+     * 調整地圖中心與縮放，讓司機與目標點都在畫面內
+     */
+    private void fitDriverMap(Location driver, Location target) {
+        double dx = Math.max(Math.abs(driver.getX() - target.getX()), 0.01);
+        double dy = Math.max(Math.abs(driver.getY() - target.getY()), 0.01);
+        double width = driverMap.getWidth() > 0 ? driverMap.getWidth() : 300;
+        double height = driverMap.getHeight() > 0 ? driverMap.getHeight() : driverMap.getPrefHeight();
+        driverMap.setScale(Math.min(width / dx, height / dy) * 0.7);
+        driverMap.setCenter((driver.getX() + target.getX()) / 2, (driver.getY() + target.getY()) / 2);
+    }
+    
     public void shutdown() {
         stopPolling();
     }
@@ -0,0 +1,62 @@
+package com.uber.client.api;
+
+import java.time.Duration;
+
+/**
+ * 依近期延遲調整的請求逾時
+ *
+ * 以 TCP 重傳逾時 (RFC 6298) 的方式估算：逾時 = 平滑延遲 + 4 × 延遲變異，
+ * 並限制在 [min, max] 之間；發生逾時時加倍，下一次成功回應後重新估算。
+ */
+final class AdaptiveTimeout {
+
+    private static final double ALPHA = 0.125;
+    private static final double BETA = 0.25;
+
+    private final long minNanos;
+    private final long maxNanos;
+
+    // 尚無樣本時為 -1
+    private double smoothed = -1;
+    private double variance;
+    private long currentNanos;
+
+    AdaptiveTimeout(Duration min, Duration initial, Duration max) {
+        this.minNanos = min.toNanos();
+        this.maxNanos = max.toNanos();
+        this.currentNanos = clamp(initial.toNanos());
+    }
+
+    /**
+     * 目前的逾時
+     */
+    synchronized Duration current() {
+        return Duration.ofNanos(currentNanos);
+    }
+
+    /**
+     * 記錄一次成功回應的延遲
+     */
+    synchronized void record(Duration latency) {
+        double sample = latency.toNanos();
+        if (smoothed < 0) {
+            smoothed = sample;
+            variance = sample / 2;
+        } else {
+            variance = (1 - BETA) * variance + BETA * Math.abs(smoothed - sample);
+            smoothed = (1 - ALPHA) * smoothed + ALPHA * sample;
+        }
+        currentNanos = clamp((long) (smoothed + 4 * variance));
+    }
+
+    /**
+     * 請求逾時：放寬逾時，避免伺服器暫時變慢時連續失敗
+     */
+    synchronized void onTimeout() {
+        currentNanos = clamp(currentNanos * 2);
+    }
+
+    private long clamp(long nanos) {
+        return Math.clamp(nanos, minNanos, maxNanos);
+    }
+}
@@ -3,18 +3,21 @@ package com.uber.client.api;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.uber.client.model.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
 /**
  * REST API 客戶端
@@ -25,8 +28,25 @@ public class ApiClient {
     private static final String DEFAULT_BASE_URL = "http://localhost:8080/api";
     
     private final String baseUrl;
-    private final HttpClient httpClient;
+    // 共用的 HTTP/2 傳輸層 (並行上限、GET 合併、自適應逾時)
+    private final HttpTransport transport;
     private final ObjectMapper objectMapper;
+    // 伺服器以 Smile 回應時使用，設定與 objectMapper 相同
+    private final ObjectMapper smileMapper;
+    
+    private static final String SMILE_TYPE = "application/x-jackson-smile";
+    // 優先要求 Smile，伺服器不支援時退回 JSON
+    private static final String ACCEPT = SMILE_TYPE + ", application/json;q=0.9";
+    
+    // GET 路徑 → 最近一次帶 ETag 的回應 (LRU，最多 ETAG_CACHE_SIZE 筆)
+    private static final int ETAG_CACHE_SIZE = 256;
+    private final Map<String, CachedResponse> etagCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                    return size() > ETAG_CACHE_SIZE;
+                }
+            });
     
     public ApiClient() {
         this(DEFAULT_BASE_URL);
@@ -34,12 +54,13 @@ public class ApiClient {
     
     public ApiClient(String baseUrl) {
         this.baseUrl = baseUrl;
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        this.transport = HttpTransport.shared();
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.smileMapper = new ObjectMapper(new SmileFactory());
+        this.smileMapper.registerModule(new JavaTimeModule());
+        this.smileMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     }
     
     // ============ Passenger API ============
@@ -172,6 +193,28 @@ public class ApiClient {
         return get("/admin/orders" + query, new TypeReference<ApiResponse<Map<String, Object>>>() {});
     }
     
+    /**
+     * 增量同步訂單與司機 (since 序號之後的變更)
+     * 
+     * @param epoch 上次回應的 epoch，首次同步傳 null
+     */
+    public CompletableFuture<ApiResponse<Map<String, Object>>> getChanges(long since, String epoch) {
+        String query = "?since=" + since;
+        if (epoch != null) {
+            query += "&epoch=" + epoch;
+        }
+        return get("/admin/changes" + query, new TypeReference<ApiResponse<Map<String, Object>>>() {});
+    }
+    
+    /**
+     * 取得需求熱度圖
+     * 
+     * @param window 1m、15m 或 1h
+     */
+    public CompletableFuture<ApiResponse<Map<String, Object>>> getHeatmap(String window) {
+        return get("/admin/heatmap?window=" + window, new TypeReference<ApiResponse<Map<String, Object>>>() {});
+    }
+    
     /**
      * 取得所有司機
      */
@@ -217,24 +260,50 @@ public class ApiClient {
     
     // ============ HTTP 方法 ============
     
+    /**
+     * GET 請求；要求 Smile 與 gzip 的精簡回應。
+     * 伺服器回傳 ETag 時記住解析後的結果，
+     * 下次帶 If-None-Match，收到 304 直接回傳快取物件 (省去傳輸與 JSON 解析)。
+     * 同一路徑的前一次 GET 尚未回應時 (例如輪詢重疊)，直接共用該次結果
+     */
     private <T> CompletableFuture<T> get(String path, TypeReference<T> typeRef) {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + path))
+        String uri = baseUrl + path;
+        return transport.coalesce(uri, () -> fetch(uri, path, typeRef));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> fetch(String uri, String path, TypeReference<T> typeRef) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(uri))
                 .header("Content-Type", "application/json")
-                .GET()
-                .build();
+                .header("Accept", ACCEPT)
+                .header("Accept-Encoding", "gzip")
+                .GET();
+        CachedResponse cached = etagCache.get(path);
+        if (cached != null) {
+            builder.header("If-None-Match", cached.etag());
+        }
         
-        return sendRequest(request, typeRef);
+        return transport.send(builder, true)
+                .thenApply(response -> {
+                    if (response.statusCode() == 304 && cached != null) {
+                        return (T) cached.value();
+                    }
+                    T value = parse(response, typeRef);
+                    response.headers().firstValue("ETag").ifPresentOrElse(
+                            etag -> etagCache.put(path, new CachedResponse(etag, value)),
+                            () -> etagCache.remove(path));
+                    return value;
+                });
     }
     
     private <T> CompletableFuture<T> post(String path, Object body, TypeReference<T> typeRef) {
         try {
             String jsonBody = objectMapper.writeValueAsString(body);
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(URI.create(baseUrl + path))
                     .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                    .build();
+                    .POST(HttpRequest.BodyPublishers.ofString(jsonBody));
             
             return sendRequest(request, typeRef);
         } catch (IOException e) {
@@ -245,11 +314,10 @@ public class ApiClient {
     private <T> CompletableFuture<T> put(String path, Object body, TypeReference<T> typeRef) {
         try {
             String jsonBody = body != null ? objectMapper.writeValueAsString(body) : "{}";
-            HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder request = HttpRequest.newBuilder()
                     .uri(URI.create(baseUrl + path))
                     .header("Content-Type", "application/json")
-                    .PUT(HttpRequest.BodyPublishers.ofString(jsonBody))
-                    .build();
+                    .PUT(HttpRequest.BodyPublishers.ofString(jsonBody));
             
             return sendRequest(request, typeRef);
         } catch (IOException e) {
@@ -257,14 +325,38 @@ public class ApiClient {
         }
     }
     
-    private <T> CompletableFuture<T> sendRequest(HttpRequest request, TypeReference<T> typeRef) {
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-                    try {
-                        return objectMapper.readValue(response.body(), typeRef);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to parse response: " + response.body(), e);
-                    }
-                });
+    private <T> CompletableFuture<T> sendRequest(HttpRequest.Builder request, TypeReference<T> typeRef) {
+        return transport.send(request, false)
+                .thenApply(response -> parse(response, typeRef));
+    }
+    
+    /**
+     * 依 Content-Encoding 解壓、依 Content-Type 選擇 Smile 或 JSON 解析
+     */
+    private <T> T parse(HttpResponse<byte[]> response, TypeReference<T> typeRef) {
+        byte[] body = response.body();
+        try {
+            boolean gzip = response.headers().firstValue("Content-Encoding")
+                    .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                    .orElse(false);
+            if (gzip) {
+                try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                    body = in.readAllBytes();
+                }
+            }
+            boolean smile = response.headers().firstValue("Content-Type")
+                    .map(type -> type.startsWith(SMILE_TYPE))
+                    .orElse(false);
+            return (smile ? smileMapper : objectMapper).readValue(body, typeRef);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse response (HTTP " + response.statusCode() + ", "
+                    + body.length + " bytes)", e);
+        }
+    }
+    
+    /**
+     * 依 ETag 快取的 GET 結果
+     */
+    private record CachedResponse(String etag, Object value) {
     }
 }
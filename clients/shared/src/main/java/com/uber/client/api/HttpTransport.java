@@ -0,0 +1,122 @@
+package com.uber.client.api;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * HTTP 傳輸層
+ *
+ * 所有 ApiClient 共用一個偏好 HTTP/2 的 HttpClient (同一條連線多工多個請求)；
+ * 請求在虛擬執行緒上送出，並以 semaphore 限制同時進行中的請求數。
+ * 相同 URI 的 GET 在前一次尚未回應時合併為同一個結果，
+ * GET 的逾時依近期延遲自動調整 (AdaptiveTimeout)。
+ */
+final class HttpTransport {
+
+    static final int MAX_CONCURRENT_REQUESTS = 8;
+    // 寫入請求 (POST/PUT) 不套用自適應逾時，避免伺服器已處理但客戶端提早放棄
+    static final Duration WRITE_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final HttpTransport SHARED = new HttpTransport();
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final Semaphore permits = new Semaphore(MAX_CONCURRENT_REQUESTS);
+    private final AdaptiveTimeout readTimeout = new AdaptiveTimeout(
+            Duration.ofSeconds(2), Duration.ofSeconds(10), WRITE_TIMEOUT);
+    // URI → 進行中的 GET
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private HttpTransport() {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("api-client-", 0).factory());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    static HttpTransport shared() {
+        return SHARED;
+    }
+
+    /**
+     * 送出請求
+     *
+     * @param read 是否為讀取請求 (套用自適應逾時並記錄延遲)
+     */
+    CompletableFuture<HttpResponse<byte[]>> send(HttpRequest.Builder builder, boolean read) {
+        HttpRequest request = builder.timeout(read ? readTimeout.current() : WRITE_TIMEOUT).build();
+        return CompletableFuture.supplyAsync(() -> sendBlocking(request, read), executor);
+    }
+
+    /**
+     * 合併相同 key 的進行中請求：前一次尚未完成時直接共用其結果，
+     * 完成後移除，下一次呼叫重新送出
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> coalesce(String key, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<Object> shared = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            return existing.thenApply(value -> (T) value);
+        }
+        CompletableFuture<T> source;
+        try {
+            source = call.get();
+        } catch (RuntimeException e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+        source.whenComplete((value, error) -> {
+            inFlight.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(value);
+            }
+        });
+        // 各呼叫者拿到獨立的 future，取消或串接不影響其他呼叫者
+        return shared.thenApply(value -> (T) value);
+    }
+
+    private HttpResponse<byte[]> sendBlocking(HttpRequest request, boolean read) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (read) {
+                readTimeout.record(Duration.ofNanos(System.nanoTime() - start));
+            }
+            return response;
+        } catch (HttpTimeoutException e) {
+            if (read) {
+                readTimeout.onTimeout();
+            }
+            throw new CompletionException(e);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } finally {
+            permits.release();
+        }
+    }
+}
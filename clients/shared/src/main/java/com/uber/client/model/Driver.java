@@ -1,5 +1,6 @@
 package com.uber.client.model;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -27,5 +28,7 @@ public class Driver {
     private boolean busy;
     private String currentOrderId;
     
+    // 伺服器回應欄位為 updatedAt
+    @JsonAlias("updatedAt")
     private Instant lastUpdatedAt;
 }
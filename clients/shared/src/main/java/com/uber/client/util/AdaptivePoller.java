@@ -0,0 +1,157 @@
+package com.uber.client.util;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 自適應輪詢
+ *
+ * 上一次請求完成後才排定下一次 (不會重疊)；
+ * 回應沒有變化時間隔加倍 (最多 maxInterval)，有變化時立即回到 minInterval。
+ * 請求進行中呼叫 wake() 時，該請求完成後立即再輪詢一次並維持 minInterval。
+ * 視窗最小化或隱藏時暫停，恢復顯示後立即輪詢一次。
+ * 所有方法都應在 JavaFX Application Thread 呼叫。
+ */
+public class AdaptivePoller {
+
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    // 執行一次輪詢，完成值表示資料是否有變化
+    private final Supplier<CompletableFuture<Boolean>> task;
+    private final PauseTransition timer = new PauseTransition();
+
+    private Duration interval;
+    private boolean running;
+    private boolean inFlight;
+    // 請求進行中時被 wake()：完成後立即再輪詢一次
+    private boolean wakePending;
+    private boolean hidden;
+    private Stage watchedStage;
+
+    public AdaptivePoller(Duration minInterval, Duration maxInterval, Supplier<CompletableFuture<Boolean>> task) {
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.task = task;
+        this.interval = minInterval;
+        this.timer.setOnFinished(e -> poll());
+    }
+
+    /**
+     * 開始輪詢 (立即執行第一次)
+     */
+    public void start() {
+        running = true;
+        interval = minInterval;
+        timer.stop();
+        poll();
+    }
+
+    public void stop() {
+        running = false;
+        wakePending = false;
+        timer.stop();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 使用者操作後呼叫：回到最短間隔並立即輪詢
+     */
+    public void wake() {
+        interval = minInterval;
+        if (inFlight) {
+            // 進行中的回應可能是操作前的資料，等它完成後再輪詢
+            wakePending = true;
+        } else if (running && !hidden) {
+            timer.stop();
+            poll();
+        }
+    }
+
+    /**
+     * 節點所在的視窗最小化或隱藏時暫停輪詢
+     */
+    public void pauseWhenHidden(Node node) {
+        node.sceneProperty().addListener((obs, oldScene, scene) -> watchScene(scene));
+        watchScene(node.getScene());
+    }
+
+    private void watchScene(Scene scene) {
+        if (scene == null) {
+            return;
+        }
+        scene.windowProperty().addListener((obs, oldWindow, window) -> watchWindow(window));
+        watchWindow(scene.getWindow());
+    }
+
+    private void watchWindow(Window window) {
+        if (!(window instanceof Stage stage) || stage == watchedStage) {
+            return;
+        }
+        watchedStage = stage;
+        stage.iconifiedProperty().addListener((obs, was, iconified) -> updateHidden());
+        stage.showingProperty().addListener((obs, was, showing) -> updateHidden());
+    }
+
+    private void updateHidden() {
+        boolean nowHidden = watchedStage.isIconified() || !watchedStage.isShowing();
+        if (nowHidden == hidden) {
+            return;
+        }
+        hidden = nowHidden;
+        if (hidden) {
+            timer.stop();
+        } else {
+            wake();
+        }
+    }
+
+    private void poll() {
+        if (!running || hidden || inFlight) {
+            return;
+        }
+        inFlight = true;
+        CompletableFuture<Boolean> result;
+        try {
+            result = task.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((changed, error) ->
+                Platform.runLater(() -> onResult(error == null && Boolean.TRUE.equals(changed))));
+    }
+
+    private void onResult(boolean changed) {
+        inFlight = false;
+        if (wakePending) {
+            wakePending = false;
+            interval = minInterval;
+            if (running && !hidden) {
+                timer.stop();
+                poll();
+            }
+            return;
+        }
+        if (changed) {
+            interval = minInterval;
+        } else {
+            // 沒有變化或請求失敗：拉長間隔
+            Duration doubled = interval.multiply(2);
+            interval = doubled.greaterThan(maxInterval) ? maxInterval : doubled;
+        }
+        if (running && !hidden) {
+            timer.setDuration(interval);
+            timer.playFromStart();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.uber.client.util;
+
+import javafx.geometry.Point2D;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 位置內插 / 外推 (dead reckoning)
+ *
+ * 以最近兩個位置樣本與其時間戳推算速度，顯示時由最新樣本沿速度外推；
+ * 外推時間最多為樣本間隔的 MAX_EXTRAPOLATION 倍，避免目標停下後標記仍持續前進。
+ * 新樣本到達時，由目前顯示的位置在 blend 時間內平滑過渡到新軌跡，標記不會跳動。
+ *
+ * 速度以伺服器時間戳計算，外推則以本機收到樣本的時間為基準，不受兩端時鐘差影響。
+ * 非執行緒安全，應只在 JavaFX Application Thread 使用。
+ */
+public class PositionInterpolator {
+
+    private static final double MAX_EXTRAPOLATION = 1.5;
+
+    private final long blendNanos;
+    private final Map<String, Track> tracks = new HashMap<>();
+
+    public PositionInterpolator(Duration blend) {
+        this.blendNanos = blend.toNanos();
+    }
+
+    /**
+     * 加入一個位置樣本
+     *
+     * @param sampledAt 伺服器記錄此位置的時間，null 時以本機時間代替
+     * @param nowNanos  System.nanoTime()
+     * @return 是否為新樣本 (重複的輪詢結果會被忽略)
+     */
+    public boolean update(String id, double x, double y, Instant sampledAt, long nowNanos) {
+        long sampleMillis = sampledAt != null ? sampledAt.toEpochMilli() : System.currentTimeMillis();
+        Track track = tracks.get(id);
+        if (track == null) {
+            tracks.put(id, new Track(x, y, sampleMillis, nowNanos));
+            return true;
+        }
+        if (sampleMillis <= track.sampleMillis) {
+            return false;
+        }
+        Point2D shown = position(track, nowNanos);
+        long interval = sampleMillis - track.sampleMillis;
+        track.vx = (x - track.x) / interval;
+        track.vy = (y - track.y) / interval;
+        track.maxExtrapolationMillis = interval * MAX_EXTRAPOLATION;
+        track.fromX = shown.getX();
+        track.fromY = shown.getY();
+        track.x = x;
+        track.y = y;
+        track.sampleMillis = sampleMillis;
+        track.receivedNanos = nowNanos;
+        return true;
+    }
+
+    /**
+     * 目前應顯示的位置，沒有樣本時回傳 null
+     */
+    public Point2D position(String id, long nowNanos) {
+        Track track = tracks.get(id);
+        return track != null ? position(track, nowNanos) : null;
+    }
+
+    public void remove(String id) {
+        tracks.remove(id);
+    }
+
+    public boolean isEmpty() {
+        return tracks.isEmpty();
+    }
+
+    private Point2D position(Track track, long nowNanos) {
+        long sinceReceived = Math.max(0, nowNanos - track.receivedNanos);
+        double elapsedMillis = Math.min(sinceReceived / 1_000_000.0, track.maxExtrapolationMillis);
+        double x = track.x + track.vx * elapsedMillis;
+        double y = track.y + track.vy * elapsedMillis;
+        if (sinceReceived < blendNanos) {
+            double t = (double) sinceReceived / blendNanos;
+            // ease-out：修正初期移動較快，接近新軌跡時放慢
+            double a = 1 - (1 - t) * (1 - t);
+            x = track.fromX + (x - track.fromX) * a;
+            y = track.fromY + (y - track.fromY) * a;
+        }
+        return new Point2D(x, y);
+    }
+
+    /**
+     * 單一目標的軌跡 (速度單位為每毫秒)
+     */
+    private static class Track {
+        double x;
+        double y;
+        long sampleMillis;
+        long receivedNanos;
+        double vx;
+        double vy;
+        double maxExtrapolationMillis;
+        // 收到最新樣本時正在顯示的位置
+        double fromX;
+        double fromY;
+
+        Track(double x, double y, long sampleMillis, long receivedNanos) {
+            this.x = x;
+            this.y = y;
+            this.sampleMillis = sampleMillis;
+            this.receivedNanos = receivedNanos;
+            this.fromX = x;
+            this.fromY = y;
+        }
+    }
+}
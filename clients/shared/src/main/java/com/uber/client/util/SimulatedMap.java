@@ -1,16 +1,22 @@
 package com.uber.client.util;
 
+import javafx.animation.AnimationTimer;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.geometry.Point2D;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.StrokeLineCap;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.function.Consumer;
 
@@ -20,6 +26,8 @@ import java.util.function.Consumer;
 public class SimulatedMap extends Pane {
     
     private final Canvas canvas;
+    // 標記圖層 (不接收滑鼠事件)
+    private final Canvas overlay;
     // 預設中心點 (台北信義區附近模擬座標)
     private final DoubleProperty centerX = new SimpleDoubleProperty(25.0330); 
     private final DoubleProperty centerY = new SimpleDoubleProperty(121.5654);
@@ -32,16 +40,47 @@ public class SimulatedMap extends Pane {
     
     private Consumer<Point2D> onMapClickListener;
     
-    // 預先生成的街道數據
-    private final List<Street> streets = new ArrayList<>();
+    // 預先生成的街道數據，依位置排序 (橫向以緯度、縱向以經度)
+    private double[] horizontalPos;
+    private double[] horizontalWidth;
+    private double[] verticalPos;
+    private double[] verticalWidth;
     
-    // 虛擬世界尺寸 (放大比例，讓經緯度移動有感)
+    // 街道圖層快取與其左上角的世界座標
+    private WritableImage streetLayer;
+    private double layerOriginX;
+    private double layerOriginY;
+    
+    private List<Marker> markers = List.of();
+    // 持續移動的標記 (例如司機)：位置由內插器推算，每個畫面影格重繪上層畫布
+    private final Map<String, Marker> trackedMarkers = new LinkedHashMap<>();
+    private final PositionInterpolator interpolator = new PositionInterpolator(java.time.Duration.ofMillis(500));
+    private final AnimationTimer animation = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drawMarkers(now);
+        }
+    };
+    
+    // 預設縮放比例 (放大比例，讓經緯度移動有感)
     private static final double WORLD_SCALE = 10000.0; 
+    // 街道快取比視窗四周多出的像素，拖曳超出時才重繪
+    private static final double CACHE_MARGIN = 256;
+    // 線寬超出邊界的容許量 (像素)
+    private static final double STREET_PAD = 10;
+    private static final double MARKER_RADIUS = 6;
+    private static final Color MAJOR_STREET = Color.web("#2c2c2c");
+    private static final Color MINOR_STREET = Color.web("#1f1f1f");
+    
+    // 每單位世界座標的像素數
+    private double scale = WORLD_SCALE;
     
     public SimulatedMap() {
         // 全螢幕畫布
         canvas = new Canvas();
-        getChildren().add(canvas);
+        overlay = new Canvas();
+        overlay.setMouseTransparent(true);
+        getChildren().addAll(canvas, overlay);
         
         // 生成隨機街道
         generateStreets();
@@ -68,6 +107,8 @@ public class SimulatedMap extends Pane {
     protected void layoutChildren() {
         canvas.setWidth(getWidth());
         canvas.setHeight(getHeight());
+        overlay.setWidth(getWidth());
+        overlay.setHeight(getHeight());
         draw();
     }
     
@@ -92,8 +133,8 @@ public class SimulatedMap extends Pane {
             
             if (isDragging) {
                 // 移動地圖中心 (反向移動)
-                centerX.set(centerX.get() - dx / WORLD_SCALE);
-                centerY.set(centerY.get() - dy / WORLD_SCALE);
+                centerX.set(centerX.get() - dx / scale);
+                centerY.set(centerY.get() - dy / scale);
                 
                 lastMouseX = e.getX();
                 lastMouseY = e.getY();
@@ -112,8 +153,8 @@ public class SimulatedMap extends Pane {
                 
                 // 螢幕座標 -> 世界座標
                 // worldX = centerX + (screenX - w/2) / SCALE
-                double worldX = centerX.get() + (clickX - w/2) / WORLD_SCALE;
-                double worldY = centerY.get() + (clickY - h/2) / WORLD_SCALE;
+                double worldX = centerX.get() + (clickX - w/2) / scale;
+                double worldY = centerY.get() + (clickY - h/2) / scale;
                 
                 onMapClickListener.accept(new Point2D(worldX, worldY));
             }
@@ -125,6 +166,8 @@ public class SimulatedMap extends Pane {
     
     private void generateStreets() {
         Random rand = new Random(12345); 
+        List<Street> horizontal = new ArrayList<>();
+        List<Street> vertical = new ArrayList<>();
         
         // 調整街道生成的範圍與密度以配合經緯度比例
         // 假設範圍在 25.0 ~ 25.1, 121.5 ~ 121.6 之間
@@ -136,101 +179,197 @@ public class SimulatedMap extends Pane {
         // 橫向街道 (緯度線)
         for (double y = minLat; y <= maxLat; y += 0.001 + rand.nextDouble() * 0.0005) {
             double width = rand.nextBoolean() ? 4 : 2; 
-            streets.add(new Street(true, y, width)); // 這裡的 pos 是緯度
+            horizontal.add(new Street(true, y, width)); // 這裡的 pos 是緯度
         }
         
         // 縱向街道 (經度線) - 修正：原本這裡是 y, 應該是 x (經度)
         for (double x = minLon; x <= maxLon; x += 0.001 + rand.nextDouble() * 0.0005) {
             double width = rand.nextBoolean() ? 4 : 2;
-            streets.add(new Street(false, x, width)); // 這裡的 pos 是經度
+            vertical.add(new Street(false, x, width)); // 這裡的 pos 是經度
         }
+        
+        horizontal.sort(Comparator.comparingDouble(street -> street.pos));
+        vertical.sort(Comparator.comparingDouble(street -> street.pos));
+        horizontalPos = horizontal.stream().mapToDouble(street -> street.pos).toArray();
+        horizontalWidth = horizontal.stream().mapToDouble(street -> street.width).toArray();
+        verticalPos = vertical.stream().mapToDouble(street -> street.pos).toArray();
+        verticalWidth = vertical.stream().mapToDouble(street -> street.width).toArray();
     }
     
+    /**
+     * 重繪地圖
+     *
+     * 街道圖層快取為點陣影像 (比視窗四周多 CACHE_MARGIN 像素)，拖曳時只平移貼圖；
+     * 視窗超出快取範圍、尺寸或縮放比例改變時才重新繪製街道。標記繪製於獨立的上層畫布。
+     */
     public void draw() {
-        GraphicsContext gc = canvas.getGraphicsContext2D();
         double w = getWidth();
         double h = getHeight();
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        // 視窗左上角的世界座標 (X = 經度, Y = 緯度)
+        double left = centerX.get() - w / 2 / scale;
+        double top = centerY.get() - h / 2 / scale;
+        if (!layerCovers(left, top, w, h)) {
+            renderStreetLayer(left, top, w, h);
+        }
         
-        // 1. 繪製背景 (深色城市夜景)
-        gc.setFill(Color.web("#121212")); 
-        gc.fillRect(0, 0, w, h);
-        
-        // 中心點偏移量
-        double currentCx = centerX.get(); // Lat (Y in math, but map X/Y usually Lon/Lat) -> Let's treat CX as Lat? No.
-        // Screen X = Lon, Screen Y = Lat (inverted usually)
-        // Let's stick to standard: X = Lon, Y = Lat.
-        // centerX = Lon, centerY = Lat.
-        // Note: In init we set centerX = 25.03 (Lat?), centerY = 121.56 (Lon?) -> Wait.
-        // Usually X is Longitude, Y is Latitude.
-        // Let's assume centerX is Latitude (25.03) and centerY is Longitude (121.56) based on init? 
-        // Logic check: "centerX = new SimpleDoubleProperty(25.0330)" -> 25 is Lat.
-        // "centerY = new SimpleDoubleProperty(121.5654)" -> 121 is Lon.
-        // But maps usually act as X=Lon, Y=Lat.
-        // Let's swap them to match standard Cartesian. X=Longitude (121), Y=Latitude (25)
-        // Wait, property names in original code were simply X/Y.
-        // I'll swap the init values: X=121.5654 (Lon), Y=25.0330 (Lat).
-        
-        // But wait, the original code used X=25, Y=35.
-        // For drawing:
-        // Screen X corresponds to World X (Lon)
-        // Screen Y corresponds to World Y (Lat) - usually inverted in screen coords (Y goes down).
-        
-        double centerLon = centerY.get(); // Using Y property as Longitude for now based on init? NO.
-        // Let's REDEFINE CLEARLY:
-        // centerX = World X (Longitude)
-        // centerY = World Y (Latitude)
-        
-        // So I should fix the init values in memory, but here I just read them.
-        // Let's assume the user of this class sets them correctly.
-        // But I set them in constructor: 
-        // centerX = 25.03 (Lat value), centerY = 121.56 (Lon value).
-        // This is confusing. Let's swap them to standard in the drawing logic or constructor.
-        // I will use X = Lon (121), Y = Lat (25) for consistency.
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setImageSmoothing(false);
+        gc.drawImage(streetLayer,
+                Math.round((layerOriginX - left) * scale),
+                Math.round((layerOriginY - top) * scale));
+        drawMarkers();
+    }
+    
+    /**
+     * 設定要顯示的標記 (只重繪上層畫布)
+     */
+    public void setMarkers(List<Marker> markers) {
+        this.markers = List.copyOf(markers);
+        drawMarkers();
+    }
+    
+    /**
+     * 更新持續移動的標記位置
+     * 
+     * 標記不會直接跳到新位置，而是依最近兩個樣本內插 / 外推，以畫面更新率平滑移動
+     * 
+     * @param sampledAt 伺服器記錄此位置的時間 (例如司機的 updatedAt)，可為 null
+     */
+    public void updateTrackedMarker(String id, double x, double y, Instant sampledAt, Color color, String label) {
+        interpolator.update(id, x, y, sampledAt, System.nanoTime());
+        trackedMarkers.put(id, new Marker(x, y, color, label));
+        animation.start();
+    }
+    
+    public void removeTrackedMarker(String id) {
+        interpolator.remove(id);
+        if (trackedMarkers.remove(id) != null && trackedMarkers.isEmpty()) {
+            animation.stop();
+        }
+        drawMarkers();
+    }
+    
+    /**
+     * 設定縮放比例 (每單位世界座標的像素數)，街道圖層隨之重繪
+     */
+    public void setScale(double scale) {
+        if (scale == this.scale) {
+            return;
+        }
+        this.scale = scale;
+        streetLayer = null;
+        draw();
+    }
+    
+    private void drawMarkers() {
+        drawMarkers(System.nanoTime());
+    }
+    
+    private void drawMarkers(long now) {
+        GraphicsContext gc = overlay.getGraphicsContext2D();
+        gc.clearRect(0, 0, overlay.getWidth(), overlay.getHeight());
+        for (Marker marker : markers) {
+            drawMarker(gc, marker.x(), marker.y(), marker);
+        }
+        for (Map.Entry<String, Marker> entry : trackedMarkers.entrySet()) {
+            Point2D position = interpolator.position(entry.getKey(), now);
+            if (position != null) {
+                drawMarker(gc, position.getX(), position.getY(), entry.getValue());
+            }
+        }
+    }
+    
+    private void drawMarker(GraphicsContext gc, double worldX, double worldY, Marker marker) {
+        double x = worldToScreenX(worldX);
+        double y = worldToScreenY(worldY);
+        if (x < -MARKER_RADIUS || x > getWidth() + MARKER_RADIUS
+                || y < -MARKER_RADIUS || y > getHeight() + MARKER_RADIUS) {
+            return;
+        }
+        gc.setFill(marker.color());
+        gc.fillOval(x - MARKER_RADIUS, y - MARKER_RADIUS, MARKER_RADIUS * 2, MARKER_RADIUS * 2);
+        if (marker.label() != null) {
+            gc.setFill(Color.WHITE);
+            gc.fillText(marker.label(), x + MARKER_RADIUS + 2, y + 4);
+        }
+    }
+    
+    private boolean layerCovers(double left, double top, double w, double h) {
+        if (streetLayer == null) {
+            return false;
+        }
+        double layerRight = layerOriginX + streetLayer.getWidth() / scale;
+        double layerBottom = layerOriginY + streetLayer.getHeight() / scale;
+        return left >= layerOriginX && top >= layerOriginY
+                && left + w / scale <= layerRight && top + h / scale <= layerBottom;
+    }
+    
+    /**
+     * 將視窗周圍的街道繪製到離屏畫布並快取成影像
+     */
+    private void renderStreetLayer(double left, double top, double w, double h) {
+        double layerW = Math.ceil(w + CACHE_MARGIN * 2);
+        double layerH = Math.ceil(h + CACHE_MARGIN * 2);
+        layerOriginX = left - CACHE_MARGIN / scale;
+        layerOriginY = top - CACHE_MARGIN / scale;
         
-        // Re-fix constructor values in my head -> I will verify this in the next step or assume generic X/Y.
-        // For drawing lines:
+        Canvas offscreen = new Canvas(layerW, layerH);
+        GraphicsContext gc = offscreen.getGraphicsContext2D();
         
-        Point2D offset = new Point2D(w / 2 - centerX.get() * WORLD_SCALE, h / 2 - centerY.get() * WORLD_SCALE);
+        // 背景 (深色城市夜景)
+        gc.setFill(Color.web("#121212"));
+        gc.fillRect(0, 0, layerW, layerH);
         
-        // 3. 繪製街道
+        // 街道：以二分搜尋找出可見範圍，只繪製範圍內的街道
         gc.setLineCap(StrokeLineCap.BUTT);
-        
-        for (Street street : streets) {
-            if (street.isHorizontal) {
-                // 水平線: 代表緯度線? 原本邏輯 "y is fixed". 
-                // In generic map: Horizontal line = constant Latitude (Y).
-                // So street.pos = Lat.
-                // Screen Y = (Lat * Scale) + OffsetY
-                // But screen Y increases downwards. Lat increases upwards. 
-                // For simulation simple city, we just map 1:1.
-                
-                double screenY = street.pos * WORLD_SCALE + offset.getY();
-                
-                if (screenY >= -10 && screenY <= h + 10) {
-                    gc.setStroke(street.width > 3 ? Color.web("#2c2c2c") : Color.web("#1f1f1f"));
-                    gc.setLineWidth(street.width);
-                    gc.strokeLine(0, screenY, w, screenY);
-                }
-            } else {
-                // 垂直線: constant Longitude (X).
-                double screenX = street.pos * WORLD_SCALE + offset.getX();
-                
-                if (screenX >= -10 && screenX <= w + 10) {
-                    gc.setStroke(street.width > 3 ? Color.web("#2c2c2c") : Color.web("#1f1f1f"));
-                    gc.setLineWidth(street.width);
-                    gc.strokeLine(screenX, 0, screenX, h);
-                }
-            }
+        double pad = STREET_PAD / scale;
+        int from = lowerBound(horizontalPos, layerOriginY - pad);
+        for (int i = from; i < horizontalPos.length && horizontalPos[i] <= layerOriginY + layerH / scale + pad; i++) {
+            double y = (horizontalPos[i] - layerOriginY) * scale;
+            strokeStreet(gc, horizontalWidth[i], 0, y, layerW, y);
+        }
+        from = lowerBound(verticalPos, layerOriginX - pad);
+        for (int i = from; i < verticalPos.length && verticalPos[i] <= layerOriginX + layerW / scale + pad; i++) {
+            double x = (verticalPos[i] - layerOriginX) * scale;
+            strokeStreet(gc, verticalWidth[i], x, 0, x, layerH);
         }
         
         // 繪製地標 (測試用 - 台北101)
-        double t101Lon = 121.5645;
-        double t101Lat = 25.0336;
-        double t101X = t101Lon * WORLD_SCALE + offset.getX();
-        double t101Y = t101Lat * WORLD_SCALE + offset.getY();
-        
+        double t101X = (121.5645 - layerOriginX) * scale;
+        double t101Y = (25.0336 - layerOriginY) * scale;
         gc.setFill(Color.web("#333"));
         gc.fillOval(t101X - 10, t101Y - 10, 20, 20); // 簡單地標底座
+        
+        // 尺寸相同時重用原影像
+        WritableImage reuse = streetLayer != null && streetLayer.getWidth() == layerW
+                && streetLayer.getHeight() == layerH ? streetLayer : null;
+        streetLayer = offscreen.snapshot(null, reuse);
+    }
+    
+    private static void strokeStreet(GraphicsContext gc, double width, double x1, double y1, double x2, double y2) {
+        gc.setStroke(width > 3 ? MAJOR_STREET : MINOR_STREET);
+        gc.setLineWidth(width);
+        gc.strokeLine(x1, y1, x2, y2);
+    }
+    
+    /**
+     * 第一個 &gt;= key 的索引
+     */
+    private static int lowerBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
     }
     
     // 獲取當前視野中心的座標
@@ -250,14 +389,20 @@ public class SimulatedMap extends Pane {
      * 將世界座標 X (經度) 轉換為螢幕 X 座標
      */
     public double worldToScreenX(double worldX) {
-        return (worldX - centerX.get()) * WORLD_SCALE + getWidth() / 2;
+        return (worldX - centerX.get()) * scale + getWidth() / 2;
     }
 
     /**
      * 將世界座標 Y (緯度) 轉換為螢幕 Y 座標
      */
     public double worldToScreenY(double worldY) {
-        return (worldY - centerY.get()) * WORLD_SCALE + getHeight() / 2;
+        return (worldY - centerY.get()) * scale + getHeight() / 2;
+    }
+    
+    /**
+     * 地圖標記 (世界座標、顏色、可選的文字標籤)
+     */
+    public record Marker(double x, double y, Color color, String label) {
     }
     
     private static class Street {
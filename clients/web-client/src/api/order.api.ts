@@ -32,5 +32,12 @@ export const orderApi = {
 
   // 更新路徑 (共享路徑給乘客端)
   updateRoute: (orderId: string, routePathJson: string) =>
-    apiClient.put<ApiResponse<{ orderId: string; routePathJson: string }>>(`/orders/${orderId}/route`, { routePathJson }),
+    apiClient.put<ApiResponse<{ orderId: string; points: number; encodedBytes: number }>>(`/orders/${orderId}/route`, { routePathJson }),
+
+  // 查詢路徑 (路徑不含在訂單回應中，需另外查詢)；帶上次的 ETag 時，路徑未變更回傳 304 (無內容)
+  getRoute: (orderId: string, etag?: string) =>
+    apiClient.get<ApiResponse<{ orderId: string; points: number; routePathJson?: string }>>(`/orders/${orderId}/route`, {
+      headers: etag ? { 'If-None-Match': etag } : undefined,
+      validateStatus: (status) => (status >= 200 && status < 300) || status === 304,
+    }),
 };
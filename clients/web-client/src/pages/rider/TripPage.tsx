@@ -26,6 +26,7 @@ export function TripPage() {
   const [tripPath, setTripPath] = useState<MapLocation[] | null>(null);
   const [driverStopped, setDriverStopped] = useState(false); // 司機是否已停止
   const lastPositionsRef = useRef<MapLocation[]>([]); // 追蹤最近位置
+  const routeCacheRef = useRef<{ etag?: string; routePathJson?: string }>({}); // 上次下載的路徑與 ETag
   
   // 地圖控制
   const [autoCenter, setAutoCenter] = useState(true);
@@ -101,6 +102,18 @@ export function TripPage() {
         const response = await orderApi.get(orderId);
         if (response.data.success && response.data.data) {
           const o = response.data.data;
+          // 路徑不含在訂單回應中，行程進行中另外查詢司機端上傳的路徑
+          if (o.status === 'ACCEPTED' || o.status === 'ONGOING') {
+            // 帶上次的 ETag，路徑未變更時伺服器回傳 304，沿用已下載的路徑
+            const route = await orderApi.getRoute(orderId, routeCacheRef.current.etag).catch(() => null);
+            if (route?.status === 200) {
+              routeCacheRef.current = {
+                etag: route.headers['etag'] as string | undefined,
+                routePathJson: route.data.data?.routePathJson,
+              };
+            }
+            o.routePathJson = routeCacheRef.current.routePathJson;
+          }
           setOrder(o);
 
           // 1. 同步真實司機位置 (後端 Location: x=lat, y=lng)
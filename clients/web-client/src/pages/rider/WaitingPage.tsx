@@ -32,6 +32,8 @@ export function WaitingPage() {
   
   // 追蹤最近的司機位置用於檢測停止
   const lastPositionsRef = useRef<MapLocation[]>([]);
+  // 上次下載的路徑與 ETag
+  const routeCacheRef = useRef<{ etag?: string; routePathJson?: string }>({});
   
   // 地圖相關狀態 (從 Session 恢復)
   const savedPickup = sessionStorage.getItem('currentOrderPickup');
@@ -82,6 +84,18 @@ export function WaitingPage() {
         const response = await orderApi.get(orderId);
         if (response.data.success && response.data.data) {
           const o = response.data.data;
+          // 路徑不含在訂單回應中，行程進行中另外查詢司機端上傳的路徑
+          if (o.status === 'ACCEPTED' || o.status === 'ONGOING') {
+            // 帶上次的 ETag，路徑未變更時伺服器回傳 304，沿用已下載的路徑
+            const route = await orderApi.getRoute(orderId, routeCacheRef.current.etag).catch(() => null);
+            if (route?.status === 200) {
+              routeCacheRef.current = {
+                etag: route.headers['etag'] as string | undefined,
+                routePathJson: route.data.data?.routePathJson,
+              };
+            }
+            o.routePathJson = routeCacheRef.current.routePathJson;
+          }
           setOrder(o);
 
           // 更新司機位置 (從後端獲取)
@@ -41,7 +41,7 @@ export interface Order {
   cancelledAt?: string;
   cancelledBy?: string;
   cancelFee?: number;
-  routePathJson?: string; // 共享的路徑資料 (JSON string)
+  routePathJson?: string; // 共享的路徑資料 (JSON string，由 GET /orders/{id}/route 另外取得)
 }
 
 export interface CreateOrderRequest {
@@ -0,0 +1,40 @@
+package com.uber.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.uber.exception.BusinessException;
+
+import java.io.IOException;
+
+/**
+ * 節點間訊息的 JSON 編解碼
+ */
+final class ClusterCodec {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private ClusterCodec() {
+    }
+
+    static byte[] encode(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("CLUSTER_CODEC_ERROR", "節點訊息編碼失敗", 500);
+        }
+    }
+
+    static <T> T decode(byte[] bytes, Class<T> type) {
+        try {
+            return objectMapper.readValue(bytes, type);
+        } catch (IOException e) {
+            throw new BusinessException("CLUSTER_CODEC_ERROR", "節點訊息解碼失敗", 500);
+        }
+    }
+}
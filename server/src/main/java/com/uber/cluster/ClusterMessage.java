@@ -0,0 +1,79 @@
+package com.uber.cluster;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.uber.model.Driver;
+import com.uber.model.Location;
+import com.uber.model.VehicleType;
+
+import java.time.Instant;
+
+/**
+ * 節點間訊息
+ *
+ * 每個訊息對應分區引擎 (OrderService / DriverService) 上的一個操作，
+ * 以 type 欄位區分型別，方便透過任何傳輸層序列化。
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = ClusterMessage.CreateOrder.class, name = "CREATE_ORDER"),
+        @JsonSubTypes.Type(value = ClusterMessage.GetOrder.class, name = "GET_ORDER"),
+        @JsonSubTypes.Type(value = ClusterMessage.AcceptOrder.class, name = "ACCEPT_ORDER"),
+        @JsonSubTypes.Type(value = ClusterMessage.StartTrip.class, name = "START_TRIP"),
+        @JsonSubTypes.Type(value = ClusterMessage.CompleteTrip.class, name = "COMPLETE_TRIP"),
+        @JsonSubTypes.Type(value = ClusterMessage.CancelOrder.class, name = "CANCEL_ORDER"),
+        @JsonSubTypes.Type(value = ClusterMessage.DeclineOrder.class, name = "DECLINE_ORDER"),
+        @JsonSubTypes.Type(value = ClusterMessage.UpdateRoute.class, name = "UPDATE_ROUTE"),
+        @JsonSubTypes.Type(value = ClusterMessage.GetRoute.class, name = "GET_ROUTE"),
+        @JsonSubTypes.Type(value = ClusterMessage.RegisterDriver.class, name = "REGISTER_DRIVER"),
+        @JsonSubTypes.Type(value = ClusterMessage.GoOnline.class, name = "GO_ONLINE"),
+        @JsonSubTypes.Type(value = ClusterMessage.GoOffline.class, name = "GO_OFFLINE"),
+        @JsonSubTypes.Type(value = ClusterMessage.UpdateDriverLocation.class, name = "UPDATE_DRIVER_LOCATION"),
+        @JsonSubTypes.Type(value = ClusterMessage.GetOffers.class, name = "GET_OFFERS"),
+        @JsonSubTypes.Type(value = ClusterMessage.GetDriver.class, name = "GET_DRIVER"),
+        @JsonSubTypes.Type(value = ClusterMessage.ReleaseDriver.class, name = "RELEASE_DRIVER"),
+        @JsonSubTypes.Type(value = ClusterMessage.AdoptDriver.class, name = "ADOPT_DRIVER")
+})
+public sealed interface ClusterMessage {
+
+    /** scheduledPickupAt 不為 null 時建立預約訂單 */
+    record CreateOrder(String passengerId, Location pickup, Location dropoff, VehicleType vehicleType,
+                       boolean pooled, Instant scheduledPickupAt) implements ClusterMessage {}
+
+    record GetOrder(String orderId) implements ClusterMessage {}
+
+    record AcceptOrder(String orderId, String driverId) implements ClusterMessage {}
+
+    record StartTrip(String orderId, String driverId) implements ClusterMessage {}
+
+    record CompleteTrip(String orderId, String driverId, Integer simulatedDuration) implements ClusterMessage {}
+
+    record CancelOrder(String orderId, String cancelledBy) implements ClusterMessage {}
+
+    record DeclineOrder(String orderId, String driverId) implements ClusterMessage {}
+
+    /** 路徑存放在訂單所屬節點，points 每個點為 {lat, lng} */
+    record UpdateRoute(String orderId, double[][] points) implements ClusterMessage {}
+
+    record GetRoute(String orderId) implements ClusterMessage {}
+
+    record RegisterDriver(String driverId, String name, String phone, String vehiclePlate,
+                          VehicleType vehicleType) implements ClusterMessage {}
+
+    record GoOnline(String driverId, Location location) implements ClusterMessage {}
+
+    record GoOffline(String driverId) implements ClusterMessage {}
+
+    record UpdateDriverLocation(String driverId, Location location) implements ClusterMessage {}
+
+    record GetOffers(String driverId) implements ClusterMessage {}
+
+    /** 查詢司機是否由目標節點管理 (不會自動建立司機) */
+    record GetDriver(String driverId) implements ClusterMessage {}
+
+    /** 交接第一步：自原節點移除司機並回傳其完整狀態 */
+    record ReleaseDriver(String driverId) implements ClusterMessage {}
+
+    /** 交接第二步：新節點接收司機狀態 */
+    record AdoptDriver(Driver driver) implements ClusterMessage {}
+}
@@ -0,0 +1,98 @@
+package com.uber.cluster;
+
+import com.uber.exception.BusinessException;
+import com.uber.model.Driver;
+import com.uber.repository.DriverRepository;
+import com.uber.service.DriverService;
+import com.uber.service.OrderService;
+import com.uber.service.RouteService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 叢集節點 - 單一節點上的分區引擎
+ *
+ * 直接沿用既有的 OrderService / DriverService / RouteService / Repository 作為本節點所擁有分區的派單引擎，
+ * 只負責把節點間訊息轉成對應的服務呼叫。
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ClusterNode {
+
+    @Getter
+    private final String nodeId;
+    private final OrderService orderService;
+    private final DriverService driverService;
+    private final DriverRepository driverRepository;
+    private final RouteService routeService;
+
+    /**
+     * 處理一則節點間訊息
+     */
+    public ClusterReply handle(ClusterMessage message) {
+        try {
+            return switch (message) {
+                case ClusterMessage.CreateOrder m -> ClusterReply.of(m.scheduledPickupAt() != null
+                        ? orderService.scheduleOrder(m.passengerId(), m.pickup(), m.dropoff(), m.vehicleType(),
+                                m.pooled(), m.scheduledPickupAt())
+                        : orderService.createOrder(m.passengerId(), m.pickup(), m.dropoff(), m.vehicleType(),
+                                m.pooled()));
+                case ClusterMessage.GetOrder m -> ClusterReply.of(orderService.getOrder(m.orderId()));
+                case ClusterMessage.AcceptOrder m -> ClusterReply.of(
+                        orderService.acceptOrder(m.orderId(), m.driverId()));
+                case ClusterMessage.StartTrip m -> ClusterReply.of(
+                        orderService.startTrip(m.orderId(), m.driverId()));
+                case ClusterMessage.CompleteTrip m -> ClusterReply.of(
+                        orderService.completeTrip(m.orderId(), m.driverId(), m.simulatedDuration()));
+                case ClusterMessage.CancelOrder m -> ClusterReply.of(
+                        orderService.cancelOrder(m.orderId(), m.cancelledBy()));
+                case ClusterMessage.DeclineOrder m -> ClusterReply.of(
+                        orderService.declineOrder(m.orderId(), m.driverId()));
+                case ClusterMessage.UpdateRoute m -> ClusterReply.ofRouteBytes(
+                        routeService.updateRoute(m.orderId(), m.points()));
+                case ClusterMessage.GetRoute m -> ClusterReply.ofRoute(routeService.getRoute(m.orderId()));
+                case ClusterMessage.RegisterDriver m -> ClusterReply.of(driverService.registerDriver(
+                        m.driverId(), m.name(), m.phone(), m.vehiclePlate(), m.vehicleType()));
+                case ClusterMessage.GoOnline m -> ClusterReply.of(
+                        driverService.goOnline(m.driverId(), m.location()));
+                case ClusterMessage.GoOffline m -> ClusterReply.of(driverService.goOffline(m.driverId()));
+                case ClusterMessage.UpdateDriverLocation m -> ClusterReply.of(
+                        driverService.updateLocation(m.driverId(), m.location()));
+                case ClusterMessage.GetOffers m -> ClusterReply.of(driverService.getOffers(m.driverId()));
+                case ClusterMessage.GetDriver m -> ClusterReply.of(findLocalDriver(m.driverId()));
+                case ClusterMessage.ReleaseDriver m -> ClusterReply.of(releaseDriver(m.driverId()));
+                case ClusterMessage.AdoptDriver m -> ClusterReply.of(adoptDriver(m.driver()));
+            };
+        } catch (BusinessException e) {
+            return ClusterReply.error(e);
+        }
+    }
+
+    private Driver findLocalDriver(String driverId) {
+        return driverRepository.findById(driverId)
+                .orElseThrow(() -> new BusinessException("DRIVER_NOT_FOUND", "司機不存在", 404));
+    }
+
+    /**
+     * 交接：自本節點移除司機 (行程中的司機不可交接)
+     */
+    private Driver releaseDriver(String driverId) {
+        Driver driver = findLocalDriver(driverId);
+        if (driver.isBusy()) {
+            throw new BusinessException("DRIVER_BUSY", "司機正在忙碌");
+        }
+        driverRepository.deleteById(driverId);
+        log.info("Driver {} released from node {}", driverId, nodeId);
+        return driver;
+    }
+
+    /**
+     * 交接：由本節點接手司機
+     */
+    private Driver adoptDriver(Driver driver) {
+        driverRepository.save(driver);
+        log.info("Driver {} adopted by node {}", driver.getDriverId(), nodeId);
+        return driver;
+    }
+}
@@ -0,0 +1,90 @@
+package com.uber.cluster;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.uber.exception.BusinessException;
+import com.uber.model.Driver;
+import com.uber.model.Order;
+
+import java.util.List;
+
+/**
+ * 節點間訊息回覆
+ *
+ * 成功時帶回對應實體；失敗時帶回 BusinessException 的代碼與 HTTP 狀態，
+ * 由呼叫端還原成相同的例外，讓叢集模式與單機模式的錯誤語意一致。
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ClusterReply(Order order,
+                           Driver driver,
+                           List<Order> orders,
+                           double[][] route,
+                           Integer routeBytes,
+                           String errorCode,
+                           String errorMessage,
+                           Integer errorStatus) {
+
+    public static ClusterReply of(Order order) {
+        return new ClusterReply(order, null, null, null, null, null, null, null);
+    }
+
+    public static ClusterReply of(Driver driver) {
+        return new ClusterReply(null, driver, null, null, null, null, null, null);
+    }
+
+    public static ClusterReply of(List<Order> orders) {
+        return new ClusterReply(null, null, orders, null, null, null, null, null);
+    }
+
+    public static ClusterReply ofRoute(double[][] route) {
+        return new ClusterReply(null, null, null, route, null, null, null, null);
+    }
+
+    /**
+     * 路徑更新結果 (壓縮後的大小)
+     */
+    public static ClusterReply ofRouteBytes(int routeBytes) {
+        return new ClusterReply(null, null, null, null, routeBytes, null, null, null);
+    }
+
+    public static ClusterReply error(BusinessException e) {
+        return new ClusterReply(null, null, null, null, null, e.getCode(), e.getMessage(), e.getHttpStatus());
+    }
+
+    @JsonIgnore
+    public boolean isError() {
+        return errorCode != null;
+    }
+
+    public Order orderOrThrow() {
+        throwIfError();
+        return order;
+    }
+
+    public Driver driverOrThrow() {
+        throwIfError();
+        return driver;
+    }
+
+    public List<Order> ordersOrThrow() {
+        throwIfError();
+        return orders != null ? orders : List.of();
+    }
+
+    public double[][] routeOrThrow() {
+        throwIfError();
+        return route != null ? route : new double[0][];
+    }
+
+    public int routeBytesOrThrow() {
+        throwIfError();
+        return routeBytes != null ? routeBytes : 0;
+    }
+
+    private void throwIfError() {
+        if (isError()) {
+            throw new BusinessException(errorCode, errorMessage,
+                    errorStatus != null ? errorStatus : 400);
+        }
+    }
+}
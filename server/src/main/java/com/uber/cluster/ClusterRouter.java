@@ -0,0 +1,253 @@
+package com.uber.cluster;
+
+import com.uber.exception.BusinessException;
+import com.uber.model.Driver;
+import com.uber.model.Location;
+import com.uber.model.Order;
+import com.uber.model.VehicleType;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 叢集路由器
+ *
+ * 將請求送往擁有該地理分區的節點：
+ * 1. 建立訂單 → 上車點所在分區的節點 (配對在該節點內完成)
+ * 2. 司機上線 / 位置更新 → 新位置所在分區的節點；跨分區時先交接 (release → adopt)
+ * 3. 行程中的司機固定留在訂單所屬節點，直到行程結束後的下一次位置更新才交接
+ * 4. 接單時若司機不在訂單所屬節點，先將司機交接過去再接單
+ * 5. 開始 / 完成 / 取消 / 拒絕與路徑 → 訂單所屬節點；下線與查詢司機 → 司機所在節點
+ *
+ * 訂單與司機所在節點會快取在本地；快取未命中或失效時向所有節點查詢。
+ *
+ * 已知限制：取得派單只詢問司機所在節點，分區邊界另一側的待派訂單不會派給這位司機，
+ * 要等司機移動進該分區 (交接) 後才會出現。
+ */
+@Slf4j
+public class ClusterRouter {
+
+    @Getter
+    private final RegionPartitioner partitioner;
+    private final ClusterTransport transport;
+
+    private final Map<String, String> orderOwners = new ConcurrentHashMap<>();
+    private final Map<String, String> driverHomes = new ConcurrentHashMap<>();
+
+    public ClusterRouter(RegionPartitioner partitioner, ClusterTransport transport) {
+        this.partitioner = partitioner;
+        this.transport = transport;
+    }
+
+    /**
+     * 取得座標所屬的節點
+     */
+    public String nodeFor(Location location) {
+        return partitioner.ownerOf(location);
+    }
+
+    // ========== 訂單 ==========
+
+    public Order createOrder(String passengerId, Location pickup, Location dropoff, VehicleType vehicleType) {
+        return createOrder(passengerId, pickup, dropoff, vehicleType, false, null);
+    }
+
+    /**
+     * 建立訂單 (可為共乘或預約)
+     *
+     * @param scheduledPickupAt 預約上車時間，null 表示即時叫車
+     */
+    public Order createOrder(String passengerId, Location pickup, Location dropoff, VehicleType vehicleType,
+                             boolean pooled, Instant scheduledPickupAt) {
+        String owner = nodeFor(pickup);
+        Order order = transport.send(owner, new ClusterMessage.CreateOrder(
+                passengerId, pickup, dropoff, vehicleType, pooled, scheduledPickupAt)).orderOrThrow();
+        orderOwners.put(order.getOrderId(), owner);
+        return order;
+    }
+
+    public Order getOrder(String orderId) {
+        return transport.send(locateOrder(orderId), new ClusterMessage.GetOrder(orderId)).orderOrThrow();
+    }
+
+    public Order acceptOrder(String orderId, String driverId) {
+        String owner = locateOrder(orderId);
+        String home = locateDriver(driverId, false);
+        if (home != null && !home.equals(owner)) {
+            handoff(driverId, home, owner);
+        }
+        return transport.send(owner, new ClusterMessage.AcceptOrder(orderId, driverId)).orderOrThrow();
+    }
+
+    public Order startTrip(String orderId, String driverId) {
+        return transport.send(locateOrder(orderId), new ClusterMessage.StartTrip(orderId, driverId)).orderOrThrow();
+    }
+
+    public Order completeTrip(String orderId, String driverId, Integer simulatedDuration) {
+        return transport.send(locateOrder(orderId),
+                new ClusterMessage.CompleteTrip(orderId, driverId, simulatedDuration)).orderOrThrow();
+    }
+
+    public Order cancelOrder(String orderId, String cancelledBy) {
+        return transport.send(locateOrder(orderId),
+                new ClusterMessage.CancelOrder(orderId, cancelledBy)).orderOrThrow();
+    }
+
+    public Order declineOrder(String orderId, String driverId) {
+        return transport.send(locateOrder(orderId),
+                new ClusterMessage.DeclineOrder(orderId, driverId)).orderOrThrow();
+    }
+
+    /**
+     * 更新訂單路徑
+     *
+     * @return 壓縮後的大小 (bytes)
+     */
+    public int updateRoute(String orderId, double[][] points) {
+        return transport.send(locateOrder(orderId),
+                new ClusterMessage.UpdateRoute(orderId, points)).routeBytesOrThrow();
+    }
+
+    public double[][] getRoute(String orderId) {
+        return transport.send(locateOrder(orderId), new ClusterMessage.GetRoute(orderId)).routeOrThrow();
+    }
+
+    // ========== 司機 ==========
+
+    public Driver registerDriver(String driverId, String name, String phone,
+                                 String vehiclePlate, VehicleType vehicleType) {
+        String home = locateDriver(driverId, false);
+        if (home == null) {
+            home = partitioner.ownerOfKey(driverId);
+        }
+        Driver driver = transport.send(home, new ClusterMessage.RegisterDriver(
+                driverId, name, phone, vehiclePlate, vehicleType)).driverOrThrow();
+        driverHomes.put(driverId, home);
+        return driver;
+    }
+
+    public Driver goOnline(String driverId, Location location) {
+        return moveDriver(driverId, location, new ClusterMessage.GoOnline(driverId, location));
+    }
+
+    public Driver updateDriverLocation(String driverId, Location location) {
+        return moveDriver(driverId, location, new ClusterMessage.UpdateDriverLocation(driverId, location));
+    }
+
+    public Driver goOffline(String driverId) {
+        return sendToDriver(driverId, new ClusterMessage.GoOffline(driverId)).driverOrThrow();
+    }
+
+    public Driver getDriver(String driverId) {
+        return sendToDriver(driverId, new ClusterMessage.GetDriver(driverId)).driverOrThrow();
+    }
+
+    public List<Order> getOffers(String driverId) {
+        return sendToDriver(driverId, new ClusterMessage.GetOffers(driverId)).ordersOrThrow();
+    }
+
+    /**
+     * 取得司機目前所在節點 (找不到時回傳 null)
+     */
+    public String driverHome(String driverId) {
+        return locateDriver(driverId, false);
+    }
+
+    /**
+     * 送往司機所在節點；快取的節點已沒有這位司機時 (已被交接走) 重新定位後再送一次
+     */
+    private ClusterReply sendToDriver(String driverId, ClusterMessage message) {
+        for (boolean refresh : new boolean[] {false, true}) {
+            String home = locateDriver(driverId, refresh);
+            if (home == null) {
+                break;
+            }
+            ClusterReply reply = transport.send(home, message);
+            if (!"DRIVER_NOT_FOUND".equals(reply.errorCode())) {
+                return reply;
+            }
+        }
+        throw new BusinessException("DRIVER_NOT_FOUND", "司機不存在");
+    }
+
+    private Driver moveDriver(String driverId, Location location, ClusterMessage update) {
+        try {
+            return doMoveDriver(driverId, location, update, false);
+        } catch (BusinessException e) {
+            if (!"DRIVER_NOT_FOUND".equals(e.getCode())) {
+                throw e;
+            }
+            // 快取的所在節點可能已被其他節點交接走，重新定位後再試一次
+            return doMoveDriver(driverId, location, update, true);
+        }
+    }
+
+    private Driver doMoveDriver(String driverId, Location location, ClusterMessage update, boolean refresh) {
+        String target = nodeFor(location);
+        String home = locateDriver(driverId, refresh);
+        if (home != null && !home.equals(target)) {
+            Driver current = transport.send(home, new ClusterMessage.GetDriver(driverId)).driverOrThrow();
+            if (current.isBusy()) {
+                // 行程中不交接，避免訂單與司機分屬不同節點
+                target = home;
+            } else {
+                handoff(driverId, home, target);
+            }
+        }
+        Driver driver = transport.send(target, update).driverOrThrow();
+        driverHomes.put(driverId, target);
+        return driver;
+    }
+
+    /**
+     * 司機交接：自原節點移除後由新節點接手；接手失敗時退回原節點
+     */
+    private void handoff(String driverId, String from, String to) {
+        Driver driver = transport.send(from, new ClusterMessage.ReleaseDriver(driverId)).driverOrThrow();
+        try {
+            transport.send(to, new ClusterMessage.AdoptDriver(driver)).driverOrThrow();
+        } catch (BusinessException e) {
+            transport.send(from, new ClusterMessage.AdoptDriver(driver));
+            throw e;
+        }
+        driverHomes.put(driverId, to);
+        log.info("Driver {} handed off from {} to {}", driverId, from, to);
+    }
+
+    // ========== 定位 ==========
+
+    private String locateOrder(String orderId) {
+        String cached = orderOwners.get(orderId);
+        if (cached != null) {
+            return cached;
+        }
+        for (String nodeId : partitioner.getNodeIds()) {
+            if (!transport.send(nodeId, new ClusterMessage.GetOrder(orderId)).isError()) {
+                orderOwners.put(orderId, nodeId);
+                return nodeId;
+            }
+        }
+        throw new BusinessException("ORDER_NOT_FOUND", "訂單不存在");
+    }
+
+    private String locateDriver(String driverId, boolean refresh) {
+        if (!refresh) {
+            String cached = driverHomes.get(driverId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        driverHomes.remove(driverId);
+        for (String nodeId : partitioner.getNodeIds()) {
+            if (!transport.send(nodeId, new ClusterMessage.GetDriver(driverId)).isError()) {
+                driverHomes.put(driverId, nodeId);
+                return nodeId;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.uber.cluster;
+
+/**
+ * 節點間傳輸層
+ *
+ * 實作可替換：InProcessClusterTransport 讓整個叢集跑在同一個 JVM (測試用)，
+ * HttpClusterTransport 則透過 HTTP (含 loopback) 連線到其他節點。
+ */
+public interface ClusterTransport {
+
+    /**
+     * 將訊息送到指定節點並等待回覆
+     *
+     * @throws com.uber.exception.BusinessException 目標節點無法連線時 (NODE_UNAVAILABLE)
+     */
+    ClusterReply send(String nodeId, ClusterMessage message);
+}
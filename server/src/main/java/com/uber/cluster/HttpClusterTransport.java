@@ -0,0 +1,78 @@
+package com.uber.cluster;
+
+import com.uber.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * HTTP 傳輸層
+ *
+ * 將訊息以 JSON POST 到目標節點的 /internal/cluster/messages，並以 X-Cluster-Secret 標頭帶上共用密鑰。
+ * 送往本節點的訊息直接在程序內處理，不經過網路。
+ * 多個節點可用不同 port 跑在同一台機器 (loopback) 上。
+ */
+@Slf4j
+public class HttpClusterTransport implements ClusterTransport {
+
+    static final String MESSAGE_PATH = "/internal/cluster/messages";
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    private final String localNodeId;
+    private final ClusterNode localNode;
+    private final Map<String, String> nodeUrls;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final String secret;
+
+    public HttpClusterTransport(ClusterNode localNode, Map<String, String> nodeUrls, Duration requestTimeout,
+                                String secret) {
+        this.localNodeId = localNode.getNodeId();
+        this.localNode = localNode;
+        this.nodeUrls = Map.copyOf(nodeUrls);
+        this.requestTimeout = requestTimeout;
+        this.secret = secret;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+    }
+
+    @Override
+    public ClusterReply send(String nodeId, ClusterMessage message) {
+        if (localNodeId.equals(nodeId)) {
+            return localNode.handle(message);
+        }
+        String baseUrl = nodeUrls.get(nodeId);
+        if (baseUrl == null) {
+            throw new BusinessException("NODE_UNAVAILABLE", "未知的叢集節點: " + nodeId, 503);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + MESSAGE_PATH))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header(SECRET_HEADER, secret)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(ClusterCodec.encode(message)))
+                .build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new BusinessException("NODE_UNAVAILABLE",
+                        "叢集節點回應異常: " + nodeId + " (" + response.statusCode() + ")", 503);
+            }
+            return ClusterCodec.decode(response.body(), ClusterReply.class);
+        } catch (IOException e) {
+            log.warn("Cluster node {} unreachable: {}", nodeId, e.getMessage());
+            throw new BusinessException("NODE_UNAVAILABLE", "叢集節點無法連線: " + nodeId, 503);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("NODE_UNAVAILABLE", "叢集節點請求中斷: " + nodeId, 503);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.uber.cluster;
+
+import com.uber.exception.BusinessException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 同一 JVM 內的傳輸層
+ *
+ * 讓整個叢集在單一程序內運作，方便在一台機器上測試分區路由與司機交接。
+ * 預設會將訊息與回覆以 JSON 來回編解碼一次，模擬跨節點時沒有共享物件的情況。
+ */
+public class InProcessClusterTransport implements ClusterTransport {
+
+    private final Map<String, ClusterNode> nodes = new ConcurrentHashMap<>();
+    private final boolean copyMessages;
+
+    public InProcessClusterTransport() {
+        this(true);
+    }
+
+    public InProcessClusterTransport(boolean copyMessages) {
+        this.copyMessages = copyMessages;
+    }
+
+    /**
+     * 註冊節點
+     */
+    public void register(ClusterNode node) {
+        nodes.put(node.getNodeId(), node);
+    }
+
+    /**
+     * 移除節點 (模擬節點離線)
+     */
+    public void unregister(String nodeId) {
+        nodes.remove(nodeId);
+    }
+
+    @Override
+    public ClusterReply send(String nodeId, ClusterMessage message) {
+        ClusterNode node = nodes.get(nodeId);
+        if (node == null) {
+            throw new BusinessException("NODE_UNAVAILABLE", "叢集節點無法連線: " + nodeId, 503);
+        }
+        if (!copyMessages) {
+            return node.handle(message);
+        }
+        ClusterMessage copied = ClusterCodec.decode(ClusterCodec.encode(message), ClusterMessage.class);
+        ClusterReply reply = node.handle(copied);
+        return ClusterCodec.decode(ClusterCodec.encode(reply), ClusterReply.class);
+    }
+}
@@ -0,0 +1,91 @@
+package com.uber.cluster;
+
+import com.uber.model.Location;
+
+import java.util.List;
+
+/**
+ * 地理分區器
+ *
+ * 將座標依固定格網切成分區 (partition)，再以 rendezvous hashing 決定每個分區的擁有節點。
+ * 所有節點只要使用相同的節點清單與格網大小，就能各自算出一致的分區歸屬；
+ * 增減節點時只有原本屬於該節點的分區會搬移。
+ */
+public class RegionPartitioner {
+
+    private final double cellSize;
+    private final List<String> nodeIds;
+
+    /**
+     * @param cellSize 每個分區的邊長 (座標單位)
+     * @param nodeIds 叢集內所有節點 ID
+     */
+    public RegionPartitioner(double cellSize, List<String> nodeIds) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("分區大小必須大於 0");
+        }
+        if (nodeIds == null || nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("節點清單不可為空");
+        }
+        this.cellSize = cellSize;
+        this.nodeIds = List.copyOf(nodeIds);
+    }
+
+    /**
+     * 計算座標所在的分區編號 (高 32 位元為列、低 32 位元為欄)
+     */
+    public long partitionOf(Location location) {
+        long row = (long) Math.floor(location.getX() / cellSize);
+        long col = (long) Math.floor(location.getY() / cellSize);
+        return (row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 取得分區的擁有節點
+     */
+    public String ownerOf(long partition) {
+        String owner = null;
+        long bestScore = 0;
+        for (String nodeId : nodeIds) {
+            long score = mix(nodeId.hashCode() * 0x9E3779B97F4A7C15L ^ partition);
+            // 分數相同時以節點 ID 較小者優先，確保各節點結果一致
+            if (owner == null || score > bestScore
+                    || (score == bestScore && nodeId.compareTo(owner) < 0)) {
+                owner = nodeId;
+                bestScore = score;
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * 取得座標所在分區的擁有節點
+     */
+    public String ownerOf(Location location) {
+        return ownerOf(partitionOf(location));
+    }
+
+    /**
+     * 取得沒有位置資訊之實體 (例如剛註冊的司機) 的預設歸屬節點
+     */
+    public String ownerOfKey(String key) {
+        return ownerOf(mix(key.hashCode()));
+    }
+
+    public List<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * SplitMix64 finalizer，讓相鄰分區的雜湊值充分分散
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
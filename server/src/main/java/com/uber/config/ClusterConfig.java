@@ -0,0 +1,54 @@
+package com.uber.config;
+
+import com.uber.cluster.ClusterNode;
+import com.uber.cluster.ClusterRouter;
+import com.uber.cluster.ClusterTransport;
+import com.uber.cluster.HttpClusterTransport;
+import com.uber.cluster.RegionPartitioner;
+import com.uber.repository.DriverRepository;
+import com.uber.service.DriverService;
+import com.uber.service.OrderService;
+import com.uber.service.RouteService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 叢集配置
+ * 僅在 cluster.enabled=true 時啟用，本節點的服務即為所擁有分區的派單引擎
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cluster", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfig {
+
+    @Bean
+    public ClusterNode localClusterNode(ClusterProperties properties, OrderService orderService,
+                                        DriverService driverService, DriverRepository driverRepository,
+                                        RouteService routeService) {
+        if (!properties.getNodes().containsKey(properties.getNodeId())) {
+            throw new IllegalStateException("cluster.nodes 未包含本節點: " + properties.getNodeId());
+        }
+        if (properties.getSecret() == null || properties.getSecret().isBlank()) {
+            throw new IllegalStateException("啟用叢集時必須設定 cluster.secret");
+        }
+        return new ClusterNode(properties.getNodeId(), orderService, driverService, driverRepository, routeService);
+    }
+
+    @Bean
+    public ClusterTransport clusterTransport(ClusterProperties properties, ClusterNode localClusterNode) {
+        return new HttpClusterTransport(localClusterNode, properties.getNodes(),
+                Duration.ofMillis(properties.getRequestTimeoutMs()), properties.getSecret());
+    }
+
+    @Bean
+    public ClusterRouter clusterRouter(ClusterProperties properties, ClusterTransport clusterTransport) {
+        RegionPartitioner partitioner = new RegionPartitioner(
+                properties.getPartitionSize(), List.copyOf(properties.getNodes().keySet()));
+        return new ClusterRouter(partitioner, clusterTransport);
+    }
+}
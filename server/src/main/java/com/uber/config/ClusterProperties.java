@@ -0,0 +1,33 @@
+package com.uber.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 叢集設定 (cluster.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterProperties {
+
+    /** 是否啟用多節點分區模式 */
+    private boolean enabled = false;
+
+    /** 本節點 ID，必須出現在 nodes 中 */
+    private String nodeId = "node-1";
+
+    /** 分區格網邊長 (座標單位) */
+    private double partitionSize = 0.05;
+
+    /** 節點間請求逾時 (毫秒) */
+    private long requestTimeoutMs = 2000;
+
+    /** 節點間共用密鑰，隨每則節點間訊息以 X-Cluster-Secret 標頭送出；啟用叢集時必填 */
+    private String secret = "";
+
+    /** 節點 ID → 節點 base URL (例如 http://localhost:8081) */
+    private Map<String, String> nodes = new LinkedHashMap<>();
+}
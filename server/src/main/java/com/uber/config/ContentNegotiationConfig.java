@@ -0,0 +1,51 @@
+package com.uber.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * 回應格式協商
+ *
+ * Accept: application/x-jackson-smile 時以 Smile (二進位 JSON) 回應，其餘維持 JSON。
+ * Smile 使用與 JSON 相同的 ObjectMapper 設定 (模組、日期格式)；
+ * 設定 api.smile.enabled=false 可關閉。gzip 壓縮由 server.compression 設定。
+ */
+@Configuration
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+    private final boolean smileEnabled;
+
+    public ContentNegotiationConfig(Jackson2ObjectMapperBuilder objectMapperBuilder,
+                                    @Value("${api.smile.enabled:true}") boolean smileEnabled) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.smileEnabled = smileEnabled;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring 偵測到 Smile 時會加入預設設定的轉換器，改用與 JSON 一致的設定
+        converters.removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+        if (!smileEnabled) {
+            return;
+        }
+        MappingJackson2SmileHttpMessageConverter smile = new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build());
+        // 排在 JSON 之後，未指定 Accept 的請求仍回應 JSON
+        int json = -1;
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                json = i;
+            }
+        }
+        converters.add(json + 1, smile);
+    }
+}
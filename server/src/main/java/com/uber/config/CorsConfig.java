@@ -28,6 +28,9 @@ public class CorsConfig {
         // 允許的 Headers
         config.addAllowedHeader("*");
         
+        // 讓前端讀取 ETag，之後以 If-None-Match 輪詢
+        config.addExposedHeader("ETag");
+        
         // 允許攜帶 Cookie
         config.setAllowCredentials(true);
         
@@ -0,0 +1,21 @@
+package com.uber.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson 配置
+ *
+ * 註冊 Blackbird 模組：序列化器建立時以 LambdaMetafactory 產生欄位存取器，
+ * 取代每次序列化的反射呼叫 (搭配 com.uber.dto 的 record 回應)。
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,60 @@
+package com.uber.config;
+
+import com.uber.repository.PersistentRepository;
+import com.uber.util.JsonFileUtil;
+import com.uber.util.SnapshotFileUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 啟動時平行載入各儲存庫快照，關閉時寫出尚未寫入的快照
+ *
+ * 在所有 singleton 建立完成後、Web Server 開始接受請求前執行，
+ * 每個儲存庫各用一條虛擬執行緒載入，並記錄每個檔案的耗時。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RepositoryLoader implements SmartInitializingSingleton, DisposableBean {
+
+    private final List<PersistentRepository> repositories;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (JsonFileUtil.isTestEnv()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Void>> futures = repositories.stream()
+                    .map(repository -> CompletableFuture.runAsync(() -> load(repository), executor))
+                    .toList();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+        log.info("Loaded {} repositories in {} ms", repositories.size(), elapsedMillis(start));
+    }
+
+    @Override
+    public void destroy() {
+        // 合併寫入模式下，關閉前把等待中的快照寫出
+        SnapshotFileUtil.flushAll();
+    }
+
+    private void load(PersistentRepository repository) {
+        long start = System.nanoTime();
+        int count = repository.loadData();
+        log.info("  {}: {} records in {} ms", repository.snapshotName(), count, elapsedMillis(start));
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
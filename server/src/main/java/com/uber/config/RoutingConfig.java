@@ -0,0 +1,31 @@
+package com.uber.config;
+
+import com.uber.routing.EtaProvider;
+import com.uber.routing.RoadGraph;
+import com.uber.routing.RoadGraphEtaProvider;
+import com.uber.routing.StraightLineEtaProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * 配對用的 ETA 提供者
+ * 設定 routing.graph-file 時使用路網 ETA，否則以直線距離估算
+ */
+@Slf4j
+@Configuration
+public class RoutingConfig {
+
+    @Bean
+    public EtaProvider etaProvider(@Value("${routing.graph-file:}") String graphFile) {
+        if (graphFile.isBlank()) {
+            return new StraightLineEtaProvider();
+        }
+        RoadGraph graph = RoadGraph.load(Path.of(graphFile));
+        log.info("Loaded road graph {} ({} nodes)", graphFile, graph.nodeCount());
+        return new RoadGraphEtaProvider(graph);
+    }
+}
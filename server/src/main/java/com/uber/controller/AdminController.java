@@ -1,7 +1,18 @@
 package com.uber.controller;
 
 import com.uber.dto.ApiResponse;
+import com.uber.dto.ChangesResponse;
+import com.uber.dto.HeatmapResponse;
+import com.uber.dto.OrderCursorPageResponse;
+import com.uber.dto.OrderDetailResponse;
+import com.uber.dto.OrderPageResponse;
+import com.uber.dto.OrderSummaryResponse;
+import com.uber.exception.BusinessException;
 import com.uber.model.*;
+import com.uber.repository.ChangeFeed;
+import com.uber.repository.DemandHeatmap;
+import com.uber.repository.OrderCursor;
+import com.uber.repository.OrderQuery;
 import com.uber.service.AuditService;
 import com.uber.service.DriverService;
 import com.uber.service.FareService;
@@ -26,8 +37,10 @@ import java.util.stream.Collectors;
  * 
  * 端點:
  * - GET /api/admin/orders          : 取得所有訂單 (支援分頁和狀態篩選)
+ * - GET /api/admin/orders?limit=N  : 游標分頁查詢訂單 (支援多條件篩選)
  * - GET /api/admin/orders/{orderId}: 取得單一訂單詳情
  * - GET /api/admin/drivers         : 取得所有司機
+ * - GET /api/admin/changes         : 增量同步訂單與司機 (since 序號之後的變更)
  * - GET /api/admin/audit-logs      : 取得 Audit Log (支援篩選)
  * - GET /api/admin/accept-stats/{orderId}: 取得搶單統計 (H2 驗證用)
  * - GET /api/admin/rate-plans      : 取得費率設定
@@ -46,12 +59,14 @@ public class AdminController {
     private final RiderService riderService;
     private final ValidationService validationService;
     
+    private static final int MAX_PAGE_LIMIT = 200;
+    
     /**
      * 取得所有訂單 (支援分頁和狀態篩選)
      * GET /api/admin/orders
      */
     @GetMapping("/orders")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getAllOrders(
+    public ResponseEntity<ApiResponse<OrderPageResponse>> getAllOrders(
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
@@ -81,32 +96,122 @@ public class AdminController {
                 : List.of();
         
         // 轉換為 API 回應格式
-        List<Map<String, Object>> orderList = pagedOrders.stream()
-                .map(this::buildOrderSummary)
-                .collect(Collectors.toList());
-        
-        Map<String, Object> pagination = new HashMap<>();
-        pagination.put("page", page);
-        pagination.put("size", size);
-        pagination.put("totalElements", totalElements);
-        pagination.put("totalPages", totalPages);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("orders", orderList);
-        response.put("pagination", pagination);
+        List<OrderSummaryResponse> orderList = pagedOrders.stream()
+                .map(OrderSummaryResponse::from)
+                .toList();
         
+        OrderPageResponse response = new OrderPageResponse(orderList,
+                new OrderPageResponse.Pagination(page, size, totalElements, totalPages));
         return ResponseEntity.ok(ApiResponse.success(response));
     }
     
+    /**
+     * 游標分頁查詢訂單，依建立時間由新到舊
+     * GET /api/admin/orders?limit=N[&cursor=...]
+     * 
+     * 篩選: status, vehicleType, driverId, passengerId, from/to (ISO-8601，from 含、to 不含)
+     * 下一頁以回應的 nextCursor 作為 cursor 參數
+     */
+    @GetMapping(value = "/orders", params = "limit")
+    public ResponseEntity<ApiResponse<OrderCursorPageResponse>> getOrdersByCursor(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String vehicleType,
+            @RequestParam(required = false) String driverId,
+            @RequestParam(required = false) String passengerId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            throw new BusinessException("INVALID_REQUEST", "limit 必須介於 1 到 " + MAX_PAGE_LIMIT);
+        }
+        OrderQuery query = OrderQuery.builder()
+                .status(RequestParams.parseEnum(OrderStatus.class, status))
+                .vehicleType(RequestParams.parseEnum(VehicleType.class, vehicleType))
+                .driverId(RequestParams.blankToNull(driverId))
+                .passengerId(RequestParams.blankToNull(passengerId))
+                .from(RequestParams.parseInstant("from", from))
+                .to(RequestParams.parseInstant("to", to))
+                .build();
+        OrderCursor after = cursor != null && !cursor.isEmpty() ? OrderCursor.decode(cursor) : null;
+        
+        // 多取一筆判斷是否還有下一頁
+        List<Order> orders = orderService.findOrders(query, after, limit + 1);
+        boolean hasMore = orders.size() > limit;
+        List<Order> pageOrders = hasMore ? orders.subList(0, limit) : orders;
+        
+        List<OrderSummaryResponse> orderList = pageOrders.stream()
+                .map(OrderSummaryResponse::from)
+                .toList();
+        String nextCursor = hasMore ? OrderCursor.of(pageOrders.get(limit - 1)).encode() : null;
+        
+        return ResponseEntity.ok(ApiResponse.success(new OrderCursorPageResponse(orderList, nextCursor, hasMore)));
+    }
+    
     /**
      * 取得單一訂單詳情
      * GET /api/admin/orders/{orderId}
      */
     @GetMapping("/orders/{orderId}")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getOrderDetail(
+    public ResponseEntity<ApiResponse<OrderDetailResponse>> getOrderDetail(
             @PathVariable String orderId) {
         Order order = orderService.getOrder(orderId);
-        return ResponseEntity.ok(ApiResponse.success(buildOrderDetail(order)));
+        return ResponseEntity.ok(ApiResponse.success(OrderDetailResponse.from(order)));
+    }
+    
+    /**
+     * 增量同步訂單與司機
+     * GET /api/admin/changes?since=<seq>&epoch=<epoch>
+     * 
+     * 首次呼叫 (since=0)、伺服器重新啟動 (epoch 不符) 或儲存庫曾被清空時
+     * 回傳完整資料 (reset=true，訂單取最新 limit 筆)
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<ChangesResponse>> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) String epoch,
+            @RequestParam(defaultValue = "100") int limit) {
+        // 先取序號再查詢：之後發生的變更下次會再送一次，不會遺漏
+        long seq = ChangeFeed.currentSequence();
+        boolean reset = since <= 0 || since > seq || !ChangeFeed.epoch().equals(epoch);
+        
+        ChangeFeed.Delta<Order> orderDelta = null;
+        ChangeFeed.Delta<Driver> driverDelta = null;
+        if (!reset) {
+            orderDelta = orderService.getOrdersChangedSince(since);
+            driverDelta = driverService.getDriversChangedSince(since);
+            reset = orderDelta.reset() || driverDelta.reset();
+        }
+        
+        ChangesResponse response;
+        if (reset) {
+            List<Order> orders = orderService.findOrders(OrderQuery.ALL, null, Math.clamp(limit, 1, MAX_PAGE_LIMIT));
+            response = new ChangesResponse(ChangeFeed.epoch(), seq, true,
+                    orders.stream().map(OrderSummaryResponse::from).toList(),
+                    driverService.getAllDrivers().stream().map(this::buildDriverSummary).toList(),
+                    List.of(), List.of());
+        } else {
+            response = new ChangesResponse(ChangeFeed.epoch(), seq, false,
+                    orderDelta.updated().stream().map(OrderSummaryResponse::from).toList(),
+                    driverDelta.updated().stream().map(this::buildDriverSummary).toList(),
+                    orderDelta.deleted(), driverDelta.deleted());
+        }
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+    
+    /**
+     * 需求熱度圖
+     * GET /api/admin/heatmap?window=1m|15m|1h
+     * 
+     * 由訂單儲存庫串流彙總的叫車 (上車點) 與完成 (下車點) 數，依格子列出
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<ApiResponse<HeatmapResponse>> getHeatmap(
+            @RequestParam(defaultValue = "15m") String window) {
+        DemandHeatmap.Window parsed = DemandHeatmap.Window.parse(window);
+        return ResponseEntity.ok(ApiResponse.success(
+                HeatmapResponse.of(parsed, orderService.getDemandHeatmapCellSize(),
+                        orderService.getDemandHeatmap(parsed))));
     }
     
     /**
@@ -389,56 +494,6 @@ public class AdminController {
     
     // ========== 私有方法 ==========
     
-    private Map<String, Object> buildOrderSummary(Order order) {
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("orderId", order.getOrderId());
-        summary.put("passengerId", order.getPassengerId());
-        summary.put("status", order.getStatus().name());
-        summary.put("vehicleType", order.getVehicleType().name());
-        summary.put("createdAt", order.getCreatedAt());
-        
-        if (order.getDriverId() != null) {
-            summary.put("driverId", order.getDriverId());
-        }
-        if (order.getActualFare() != null && order.getActualFare() > 0) {
-            summary.put("fare", order.getActualFare());
-        }
-        if (order.getCompletedAt() != null) {
-            summary.put("completedAt", order.getCompletedAt());
-        }
-        if (order.getCancelledAt() != null) {
-            summary.put("cancelledAt", order.getCancelledAt());
-        }
-        
-        return summary;
-    }
-    
-    private Map<String, Object> buildOrderDetail(Order order) {
-        Map<String, Object> detail = buildOrderSummary(order);
-        detail.put("pickupLocation", order.getPickupLocation());
-        detail.put("dropoffLocation", order.getDropoffLocation());
-        detail.put("estimatedFare", order.getEstimatedFare());
-        detail.put("distance", order.getDistance());
-        
-        if (order.getAcceptedAt() != null) {
-            detail.put("acceptedAt", order.getAcceptedAt());
-        }
-        if (order.getStartedAt() != null) {
-            detail.put("startedAt", order.getStartedAt());
-        }
-        if (order.getDuration() != null && order.getDuration() > 0) {
-            detail.put("duration", order.getDuration());
-        }
-        if (order.getCancelFee() != null && order.getCancelFee() > 0) {
-            detail.put("cancelFee", order.getCancelFee());
-        }
-        if (order.getCancelledBy() != null) {
-            detail.put("cancelledBy", order.getCancelledBy());
-        }
-        
-        return detail;
-    }
-    
     private Map<String, Object> buildDriverSummary(Driver driver) {
         Map<String, Object> summary = new HashMap<>();
         summary.put("driverId", driver.getDriverId());
@@ -0,0 +1,56 @@
+package com.uber.controller;
+
+import com.uber.cluster.ClusterMessage;
+import com.uber.cluster.ClusterNode;
+import com.uber.cluster.ClusterReply;
+import com.uber.cluster.HttpClusterTransport;
+import com.uber.config.ClusterProperties;
+import com.uber.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 叢集節點間 API (僅供 HttpClusterTransport 使用)
+ * 
+ * 端點:
+ * - POST /internal/cluster/messages : 由本節點的分區引擎處理節點間訊息
+ *
+ * 請求必須帶有與 cluster.secret 相同的 X-Cluster-Secret 標頭，否則回傳 401
+ */
+@RestController
+@RequestMapping("/internal/cluster")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cluster", name = "enabled", havingValue = "true")
+public class ClusterEndpointController {
+
+    private final ClusterNode localClusterNode;
+    private final ClusterProperties clusterProperties;
+
+    @PostMapping("/messages")
+    public ClusterReply handle(
+            @RequestHeader(value = HttpClusterTransport.SECRET_HEADER, required = false) String secret,
+            @RequestBody ClusterMessage message) {
+        if (!authorized(secret)) {
+            throw new BusinessException("UNAUTHORIZED", "叢集密鑰錯誤", 401);
+        }
+        return localClusterNode.handle(message);
+    }
+
+    private boolean authorized(String secret) {
+        String expected = clusterProperties.getSecret();
+        if (secret == null || expected == null || expected.isBlank()) {
+            return false;
+        }
+        // 固定時間比對，避免由回應時間推測密鑰
+        return MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                expected.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,14 +1,20 @@
 package com.uber.controller;
 
+import com.uber.cluster.ClusterRouter;
 import com.uber.dto.ApiResponse;
 import com.uber.dto.DriverOnlineRequest;
+import com.uber.dto.DriverResponse;
+import com.uber.dto.OfferListResponse;
+import com.uber.dto.OfferResponse;
 import com.uber.dto.RegisterDriverRequest;
 import com.uber.model.Driver;
 import com.uber.model.Location;
 import com.uber.model.Order;
 import com.uber.service.DriverService;
+import com.uber.util.ETags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +38,11 @@ import java.util.stream.Collectors;
  * - PUT    /api/drivers/{driverId}/offline : 司機下線
  * - PUT    /api/drivers/{driverId}/location: 更新位置
  * - GET    /api/drivers/{driverId}/offers  : 取得可接訂單
+ *
+ * 變更請求 (POST/PUT) 支援 Idempotency-Key 標頭，重送時回傳第一次的回應 (IdempotencyCache)
+ *
+ * 叢集模式 (cluster.enabled=true) 下，註冊 / 上下線 / 位置更新 / 查詢 / 取得訂單經由 ClusterRouter
+ * 送往司機所在分區的節點 (跨分區時由 ClusterRouter 交接司機)
  */
 @RestController
 @RequestMapping("/api/drivers")
@@ -38,24 +50,35 @@ import java.util.stream.Collectors;
 public class DriverController {
     
     private final DriverService driverService;
+    private final IdempotencyCache idempotencyCache;
+    private final Optional<ClusterRouter> clusterRouter;
     
     /**
      * 註冊司機
      * POST /api/drivers
      */
     @PostMapping
-    public ResponseEntity<ApiResponse<Map<String, Object>>> registerDriver(
+    public ResponseEntity<ApiResponse<DriverResponse>> registerDriver(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody RegisterDriverRequest request) {
-        Driver driver = driverService.registerDriver(
-                request.getDriverId(),
-                request.getName(),
-                request.getPhone(),
-                request.getVehiclePlate(),
-                request.getVehicleType()
-        );
-        return ResponseEntity
-                .status(HttpStatus.CREATED)
-                .body(ApiResponse.success(buildDriverResponse(driver)));
+        return idempotencyCache.execute(idempotencyKey, request.getDriverId(), "register", request, () -> {
+            Driver driver = clusterRouter
+                    .map(router -> router.registerDriver(
+                            request.getDriverId(),
+                            request.getName(),
+                            request.getPhone(),
+                            request.getVehiclePlate(),
+                            request.getVehicleType()))
+                    .orElseGet(() -> driverService.registerDriver(
+                            request.getDriverId(),
+                            request.getName(),
+                            request.getPhone(),
+                            request.getVehiclePlate(),
+                            request.getVehicleType()));
+            return ResponseEntity
+                    .status(HttpStatus.CREATED)
+                    .body(ApiResponse.success(DriverResponse.from(driver)));
+        });
     }
     
     /**
@@ -63,11 +86,16 @@ public class DriverController {
      * PUT /api/drivers/{driverId}/online
      */
     @PutMapping("/{driverId}/online")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> goOnline(
+    public ResponseEntity<ApiResponse<DriverResponse>> goOnline(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @PathVariable String driverId,
             @Valid @RequestBody DriverOnlineRequest request) {
-        Driver driver = driverService.goOnline(driverId, request.getLocation());
-        return ResponseEntity.ok(ApiResponse.success(buildDriverResponse(driver)));
+        return idempotencyCache.execute(idempotencyKey, driverId, "online", request, () -> {
+            Driver driver = clusterRouter
+                    .map(router -> router.goOnline(driverId, request.getLocation()))
+                    .orElseGet(() -> driverService.goOnline(driverId, request.getLocation()));
+            return ResponseEntity.ok(ApiResponse.success(DriverResponse.from(driver)));
+        });
     }
     
     /**
@@ -75,9 +103,15 @@ public class DriverController {
      * PUT /api/drivers/{driverId}/offline
      */
     @PutMapping("/{driverId}/offline")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> goOffline(@PathVariable String driverId) {
-        Driver driver = driverService.goOffline(driverId);
-        return ResponseEntity.ok(ApiResponse.success(buildDriverResponse(driver)));
+    public ResponseEntity<ApiResponse<DriverResponse>> goOffline(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+            @PathVariable String driverId) {
+        return idempotencyCache.execute(idempotencyKey, driverId, "offline", null, () -> {
+            Driver driver = clusterRouter
+                    .map(router -> router.goOffline(driverId))
+                    .orElseGet(() -> driverService.goOffline(driverId));
+            return ResponseEntity.ok(ApiResponse.success(DriverResponse.from(driver)));
+        });
     }
     
     /**
@@ -86,56 +120,72 @@ public class DriverController {
      */
     @PutMapping("/{driverId}/location")
     public ResponseEntity<ApiResponse<Map<String, Object>>> updateLocation(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @PathVariable String driverId,
             @RequestBody Location location) {
-        Driver driver = driverService.updateLocation(driverId, location);
+        return idempotencyCache.execute(idempotencyKey, driverId, "location", location, () -> {
+            Driver driver = clusterRouter
+                    .map(router -> router.updateDriverLocation(driverId, location))
+                    .orElseGet(() -> driverService.updateLocation(driverId, location));
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("driverId", driver.getDriverId());
-        response.put("location", driver.getLocation());
-        response.put("updatedAt", driver.getLastUpdatedAt());
+            Map<String, Object> response = new HashMap<>();
+            response.put("driverId", driver.getDriverId());
+            response.put("location", driver.getLocation());
+            response.put("updatedAt", driver.getLastUpdatedAt());
         
-        return ResponseEntity.ok(ApiResponse.success(response));
+            return ResponseEntity.ok(ApiResponse.success(response));
+        });
     }
     
     /**
      * 取得可接訂單列表
      * GET /api/drivers/{driverId}/offers
+     * 
+     * 支援 If-None-Match：列表與各訂單皆未變更時回傳 304 (叢集模式下訂單版本只在擁有節點上，不提供 ETag)
      */
     @GetMapping("/{driverId}/offers")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getOffers(@PathVariable String driverId) {
+    public ResponseEntity<ApiResponse<OfferListResponse>> getOffers(
+            @PathVariable String driverId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (clusterRouter.isPresent()) {
+            List<OfferResponse> offerList = clusterRouter.get().getOffers(driverId).stream()
+                    .map(OfferResponse::from)
+                    .toList();
+            return ResponseEntity.ok(ApiResponse.success(OfferListResponse.of(offerList)));
+        }
         List<Order> offers = driverService.getOffers(driverId);
+        String etag = ETags.of(driverService.getOffersVersion(offers));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         
         // 轉換為精簡的 offer 格式
-        List<Map<String, Object>> offerList = offers.stream()
-                .map(order -> {
-                    Map<String, Object> offer = new HashMap<>();
-                    offer.put("orderId", order.getOrderId());
-                    offer.put("pickupLocation", order.getPickupLocation());
-                    offer.put("dropoffLocation", order.getDropoffLocation());
-                    offer.put("vehicleType", order.getVehicleType().name());
-                    offer.put("distance", order.getDistance());
-                    offer.put("estimatedFare", order.getEstimatedFare());
-                    offer.put("createdAt", order.getCreatedAt());
-                    return offer;
-                })
-                .collect(Collectors.toList());
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("offers", offerList);
-        response.put("count", offerList.size());
+        List<OfferResponse> offerList = offers.stream()
+                .map(OfferResponse::from)
+                .toList();
         
-        return ResponseEntity.ok(ApiResponse.success(response));
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success(OfferListResponse.of(offerList)));
     }
     
     /**
      * 取得司機資訊
      * GET /api/drivers/{driverId}
+     * 
+     * 支援 If-None-Match：司機資料未變更時回傳 304 (叢集模式下司機版本只在所在節點上，不提供 ETag)
      */
     @GetMapping("/{driverId}")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getDriver(@PathVariable String driverId) {
+    public ResponseEntity<ApiResponse<DriverResponse>> getDriver(
+            @PathVariable String driverId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (clusterRouter.isPresent()) {
+            return ResponseEntity.ok(ApiResponse.success(DriverResponse.from(clusterRouter.get().getDriver(driverId))));
+        }
+        String etag = ETags.of(driverService.getDriverVersion(driverId));
         Driver driver = driverService.getDriver(driverId);
-        return ResponseEntity.ok(ApiResponse.success(buildDriverResponse(driver)));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success(DriverResponse.from(driver)));
     }
     
     /**
@@ -154,8 +204,8 @@ public class DriverController {
                     .toList();
         }
         
-        List<Map<String, Object>> driverList = drivers.stream()
-                .map(this::buildDriverResponse)
+        List<DriverResponse> driverList = drivers.stream()
+                .map(DriverResponse::from)
                 .collect(Collectors.toList());
         
         Map<String, Object> response = new HashMap<>();
@@ -164,32 +214,4 @@ public class DriverController {
         
         return ResponseEntity.ok(ApiResponse.success(response));
     }
-    
-    /**
-     * 建構司機回應資料
-     */
-    private Map<String, Object> buildDriverResponse(Driver driver) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("driverId", driver.getDriverId());
-        response.put("name", driver.getName());
-        response.put("status", driver.getStatus().name());
-        response.put("vehicleType", driver.getVehicleType().name());
-        response.put("busy", driver.isBusy());
-        response.put("updatedAt", driver.getLastUpdatedAt());
-        
-        if (driver.getPhone() != null) {
-            response.put("phone", driver.getPhone());
-        }
-        if (driver.getVehiclePlate() != null) {
-            response.put("vehiclePlate", driver.getVehiclePlate());
-        }
-        if (driver.getLocation() != null) {
-            response.put("location", driver.getLocation());
-        }
-        if (driver.getCurrentOrderId() != null) {
-            response.put("currentOrderId", driver.getCurrentOrderId());
-        }
-        
-        return response;
-    }
 }
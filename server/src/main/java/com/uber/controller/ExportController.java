@@ -0,0 +1,172 @@
+package com.uber.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.exception.BusinessException;
+import com.uber.model.AuditLog;
+import com.uber.model.Order;
+import com.uber.model.OrderStatus;
+import com.uber.model.VehicleType;
+import com.uber.repository.OrderQuery;
+import com.uber.service.AuditService;
+import com.uber.service.OrderService;
+import com.uber.util.ExportWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 資料匯出 API Controller
+ * 
+ * 直接走訪儲存庫逐筆寫出 NDJSON 或 CSV，不在記憶體中建立結果列表。
+ * 
+ * 端點:
+ * - GET /api/admin/export/audit-logs : 匯出審計日誌 (orderId, action, from/to)
+ * - GET /api/admin/export/orders     : 匯出訂單 (status, vehicleType, driverId, passengerId, from/to)
+ * 
+ * 共用參數: format=ndjson|csv (預設 ndjson)、gzip=true 時輸出 .gz 檔
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+public class ExportController {
+    
+    private static final List<String> AUDIT_COLUMNS = List.of("id", "timestamp", "orderId", "action",
+            "actorType", "actorId", "previousState", "newState", "success", "failureReason");
+    private static final List<String> ORDER_COLUMNS = List.of("orderId", "passengerId", "driverId", "status",
+            "vehicleType", "estimatedFare", "actualFare", "distance", "duration",
+            "createdAt", "acceptedAt", "completedAt", "cancelledAt", "cancelledBy", "cancelFee");
+    
+    private final AuditService auditService;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * 匯出審計日誌
+     * GET /api/admin/export/audit-logs
+     */
+    @GetMapping("/audit-logs")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String orderId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        ExportWriter.Format exportFormat = parseFormat(format);
+        String orderIdFilter = RequestParams.blankToNull(orderId);
+        String actionFilter = action != null && !action.isBlank() ? action.toUpperCase() : null;
+        Instant fromTime = RequestParams.parseInstant("from", from);
+        Instant toTime = RequestParams.parseInstant("to", to);
+        
+        StreamingResponseBody body = out -> {
+            try (ExportWriter<AuditLog> writer = new ExportWriter<>(out, exportFormat, gzip, objectMapper,
+                    AUDIT_COLUMNS, ExportController::auditRow)) {
+                auditService.forEachLog(orderIdFilter, actionFilter, fromTime, toTime, writeTo(writer));
+                log.info("Exported {} audit logs as {}", writer.count(), exportFormat);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return download("audit-logs", exportFormat, gzip, body);
+    }
+    
+    /**
+     * 匯出訂單 (依建立時間由新到舊)
+     * GET /api/admin/export/orders
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String vehicleType,
+            @RequestParam(required = false) String driverId,
+            @RequestParam(required = false) String passengerId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        ExportWriter.Format exportFormat = parseFormat(format);
+        OrderQuery query = OrderQuery.builder()
+                .status(RequestParams.parseEnum(OrderStatus.class, status))
+                .vehicleType(RequestParams.parseEnum(VehicleType.class, vehicleType))
+                .driverId(RequestParams.blankToNull(driverId))
+                .passengerId(RequestParams.blankToNull(passengerId))
+                .from(RequestParams.parseInstant("from", from))
+                .to(RequestParams.parseInstant("to", to))
+                .build();
+        
+        StreamingResponseBody body = out -> {
+            try (ExportWriter<Order> writer = new ExportWriter<>(out, exportFormat, gzip, objectMapper,
+                    ORDER_COLUMNS, ExportController::orderRow)) {
+                orderService.forEachOrder(query, writeTo(writer));
+                log.info("Exported {} orders as {}", writer.count(), exportFormat);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return download("orders", exportFormat, gzip, body);
+    }
+    
+    // ========== 私有方法 ==========
+    
+    private static ExportWriter.Format parseFormat(String format) {
+        try {
+            return ExportWriter.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_REQUEST", "format 必須為 ndjson 或 csv");
+        }
+    }
+    
+    /**
+     * 儲存庫以 Consumer 回呼，寫入錯誤 (通常是客戶端中斷) 包成 UncheckedIOException 中止走訪
+     */
+    private static <T> Consumer<T> writeTo(ExportWriter<T> writer) {
+        return record -> {
+            try {
+                writer.write(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+    
+    private static ResponseEntity<StreamingResponseBody> download(String name, ExportWriter.Format format,
+                                                                  boolean gzip, StreamingResponseBody body) {
+        String filename = name + "." + format.extension() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : MediaType.parseMediaType(format.contentType() + ";charset=UTF-8");
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+    
+    private static Object[] auditRow(AuditLog log) {
+        return new Object[]{log.getId(), log.getTimestamp(), log.getOrderId(), log.getAction(),
+                log.getActorType(), log.getActorId(), log.getPreviousState(), log.getNewState(),
+                log.isSuccess(), log.getFailureReason()};
+    }
+    
+    private static Object[] orderRow(Order order) {
+        return new Object[]{order.getOrderId(), order.getPassengerId(), order.getDriverId(),
+                order.getStatus(), order.getVehicleType(), order.getEstimatedFare(), order.getActualFare(),
+                order.getDistance(), order.getDuration(), order.getCreatedAt(), order.getAcceptedAt(),
+                order.getCompletedAt(), order.getCancelledAt(), order.getCancelledBy(), order.getCancelFee()};
+    }
+}
@@ -0,0 +1,171 @@
+package com.uber.controller;
+
+import com.uber.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key 回應快取
+ *
+ * 客戶端在變更請求加上 Idempotency-Key 標頭時，第一次執行的成功回應 (2xx) 會依 (呼叫者, 操作, key) 保存；
+ * 相同 key 重送時直接回傳保存的回應 (加上 Idempotent-Replayed 標頭)，不再呼叫服務層。
+ * - 同一 key 搭配不同的請求內容：422 IDEMPOTENCY_KEY_REUSED
+ * - 第一次請求尚未完成時重送：409 IDEMPOTENCY_IN_PROGRESS
+ * - 失敗的回應不保存，客戶端可以用相同 key 重試
+ *
+ * 紀錄依建立順序保存 (即到期順序)：寫入時由最舊一端清除超過 ttl 的紀錄，
+ * 超過 max-entries 時淘汰最舊的已完成紀錄；處理中的紀錄不會被淘汰，避免重送時重複執行。
+ */
+@Component
+@Slf4j
+public class IdempotencyCache {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyCache(@Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256);
+    }
+
+    /**
+     * 以 Idempotency-Key 執行變更請求
+     *
+     * @param key       Idempotency-Key 標頭，null 或空白時直接執行
+     * @param caller    呼叫者 (乘客或司機 ID，請求不含身分時為目標 ID)，不同呼叫者使用相同 key 互不影響
+     * @param operation 操作與目標 (例如 "accept order-1")，同一 key 用於不同操作互不影響
+     * @param request   請求內容，以 equals 比對 key 是否被重複用於不同請求
+     */
+    public <T> ResponseEntity<T> execute(String key, String caller, String operation, Object request,
+                                         Supplier<ResponseEntity<T>> action) {
+        return execute(key, caller, operation, request, action, System.currentTimeMillis());
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> ResponseEntity<T> execute(String key, String caller, String operation, Object request,
+                                  Supplier<ResponseEntity<T>> action, long nowMillis) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("INVALID_REQUEST", HEADER + " 長度不可超過 " + MAX_KEY_LENGTH);
+        }
+        String cacheKey = caller + "\n" + operation + "\n" + key;
+        Entry entry;
+        synchronized (entries) {
+            purgeExpired(nowMillis);
+            Entry existing = entries.get(cacheKey);
+            if (existing != null) {
+                if (!Objects.equals(existing.request, request)) {
+                    throw new BusinessException("IDEMPOTENCY_KEY_REUSED",
+                            "相同的 " + HEADER + " 已用於不同的請求", 422);
+                }
+                if (existing.response == null) {
+                    throw new BusinessException("IDEMPOTENCY_IN_PROGRESS", "相同的請求處理中，請稍後重試", 409);
+                }
+                log.debug("Idempotent replay: {} key={}", operation, key);
+                return replay((ResponseEntity<T>) existing.response);
+            }
+            entry = new Entry(request, nowMillis);
+            entries.put(cacheKey, entry);
+            evictOverflow();
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(cacheKey, entry);
+            throw e;
+        }
+        if (response.getStatusCode().is2xxSuccessful()) {
+            synchronized (entries) {
+                entry.response = response;
+            }
+        } else {
+            release(cacheKey, entry);
+        }
+        return response;
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void release(String cacheKey, Entry entry) {
+        synchronized (entries) {
+            entries.remove(cacheKey, entry);
+        }
+    }
+
+    /**
+     * 由最舊的一端清除過期紀錄，遇到未過期者即停止 (依建立順序排列，之後的紀錄都較新)
+     */
+    private void purgeExpired(long nowMillis) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (!eldest.expired(nowMillis, ttlMillis)) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 超過上限時由最舊的一端淘汰已完成的紀錄；全部都在處理中時暫時超過上限
+     */
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().response != null) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static <T> ResponseEntity<T> replay(ResponseEntity<T> stored) {
+        return ResponseEntity.status(stored.getStatusCode())
+                .headers(headers -> {
+                    headers.addAll(stored.getHeaders());
+                    headers.set(REPLAYED_HEADER, "true");
+                })
+                .body(stored.getBody());
+    }
+
+    /**
+     * 單一 key 的紀錄；response 為 null 表示第一次請求仍在處理中
+     */
+    private static final class Entry {
+        final Object request;
+        final long createdAt;
+        ResponseEntity<?> response;
+
+        Entry(Object request, long createdAt) {
+            this.request = request;
+            this.createdAt = createdAt;
+        }
+
+        boolean expired(long nowMillis, long ttlMillis) {
+            return nowMillis - createdAt >= ttlMillis;
+        }
+    }
+}
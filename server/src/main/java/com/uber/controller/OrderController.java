@@ -1,22 +1,30 @@
 package com.uber.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.cluster.ClusterRouter;
 import com.uber.dto.AcceptOrderRequest;
 import com.uber.dto.ApiResponse;
 import com.uber.dto.CancelOrderRequest;
 import com.uber.dto.CompleteOrderRequest;
 import com.uber.dto.CreateOrderRequest;
+import com.uber.dto.OrderResponse;
+import com.uber.exception.BusinessException;
 import com.uber.model.Order;
-import com.uber.model.OrderStatus;
 import com.uber.service.FareService;
 import com.uber.service.OrderService;
+import com.uber.service.RouteService;
+import com.uber.util.ETags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * 訂單 API Controller
@@ -30,6 +38,12 @@ import java.util.Map;
  * - PUT    /api/orders/{orderId}/start    : 開始行程
  * - PUT    /api/orders/{orderId}/complete : 完成行程
  * - PUT    /api/orders/{orderId}/cancel   : 取消訂單
+ * - PUT    /api/orders/{orderId}/route    : 上傳行程路徑
+ * - GET    /api/orders/{orderId}/route    : 查詢行程路徑
+ *
+ * 變更請求 (POST/PUT) 支援 Idempotency-Key 標頭，重送時回傳第一次的回應 (IdempotencyCache)
+ *
+ * 叢集模式 (cluster.enabled=true) 下，所有訂單操作與路徑都經由 ClusterRouter 送往擁有該訂單分區的節點
  */
 @RestController
 @RequestMapping("/api/orders")
@@ -38,36 +52,73 @@ public class OrderController {
     
     private final OrderService orderService;
     private final FareService fareService;
+    private final RouteService routeService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyCache idempotencyCache;
+    private final Optional<ClusterRouter> clusterRouter;
     
     /**
      * 建立叫車請求
      * POST /api/orders
      */
     @PostMapping
-    public ResponseEntity<ApiResponse<Map<String, Object>>> createOrder(
+    public ResponseEntity<ApiResponse<OrderResponse>> createOrder(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody CreateOrderRequest request) {
-        Order order = orderService.createOrder(
-                request.getPassengerId(),
-                request.getPickupLocation(),
-                request.getDropoffLocation(),
-                request.getVehicleType()
-        );
+        return idempotencyCache.execute(idempotencyKey, request.getPassengerId(), "create", request, () -> {
+            boolean pooled = Boolean.TRUE.equals(request.getPooled());
+            Order order;
+            if (clusterRouter.isPresent()) {
+                order = clusterRouter.get().createOrder(
+                        request.getPassengerId(),
+                        request.getPickupLocation(),
+                        request.getDropoffLocation(),
+                        request.getVehicleType(),
+                        pooled,
+                        request.getScheduledPickupAt());
+            } else {
+                order = request.getScheduledPickupAt() != null
+                        ? orderService.scheduleOrder(
+                                request.getPassengerId(),
+                                request.getPickupLocation(),
+                                request.getDropoffLocation(),
+                                request.getVehicleType(),
+                                pooled,
+                                request.getScheduledPickupAt())
+                        : orderService.createOrder(
+                                request.getPassengerId(),
+                                request.getPickupLocation(),
+                                request.getDropoffLocation(),
+                                request.getVehicleType(),
+                                pooled);
+            }
         
-        Map<String, Object> response = buildOrderResponse(order);
-        return ResponseEntity
-                .status(HttpStatus.CREATED)
-                .body(ApiResponse.success(response));
+            return ResponseEntity
+                    .status(HttpStatus.CREATED)
+                    .body(ApiResponse.success(OrderResponse.from(order)));
+        });
     }
     
     /**
      * 查詢訂單狀態
      * GET /api/orders/{orderId}
+     * 
+     * 支援 If-None-Match：訂單未變更時回傳 304 (叢集模式下訂單版本只在擁有節點上，不提供 ETag)
      */
     @GetMapping("/{orderId}")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getOrder(@PathVariable String orderId) {
+    public ResponseEntity<ApiResponse<OrderResponse>> getOrder(
+            @PathVariable String orderId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (clusterRouter.isPresent()) {
+            return ResponseEntity.ok(ApiResponse.success(OrderResponse.from(clusterRouter.get().getOrder(orderId))));
+        }
+        // 先取版本再讀訂單：期間若有變更，下次輪詢會再取得新資料
+        String etag = ETags.of(orderService.getOrderVersion(orderId));
         Order order = orderService.getOrder(orderId);
-        Map<String, Object> response = buildOrderResponse(order);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(ApiResponse.success(OrderResponse.from(order)));
     }
     
     /**
@@ -78,19 +129,24 @@ public class OrderController {
      */
     @PutMapping("/{orderId}/accept")
     public ResponseEntity<ApiResponse<Map<String, Object>>> acceptOrder(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @PathVariable String orderId,
             @Valid @RequestBody AcceptOrderRequest request) {
-        Order order = orderService.acceptOrder(orderId, request.getDriverId());
+        return idempotencyCache.execute(idempotencyKey, request.getDriverId(), "accept " + orderId, request, () -> {
+            Order order = clusterRouter
+                    .map(router -> router.acceptOrder(orderId, request.getDriverId()))
+                    .orElseGet(() -> orderService.acceptOrder(orderId, request.getDriverId()));
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("orderId", order.getOrderId());
-        response.put("status", order.getStatus().name());
-        response.put("driverId", order.getDriverId());
-        response.put("acceptedAt", order.getAcceptedAt());
-        response.put("pickupLocation", order.getPickupLocation());
-        response.put("dropoffLocation", order.getDropoffLocation());
+            Map<String, Object> response = new HashMap<>();
+            response.put("orderId", order.getOrderId());
+            response.put("status", order.getStatus().name());
+            response.put("driverId", order.getDriverId());
+            response.put("acceptedAt", order.getAcceptedAt());
+            response.put("pickupLocation", order.getPickupLocation());
+            response.put("dropoffLocation", order.getDropoffLocation());
         
-        return ResponseEntity.ok(ApiResponse.success(response));
+            return ResponseEntity.ok(ApiResponse.success(response));
+        });
     }
     
     /**
@@ -99,16 +155,21 @@ public class OrderController {
      */
     @PutMapping("/{orderId}/start")
     public ResponseEntity<ApiResponse<Map<String, Object>>> startTrip(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @PathVariable String orderId,
             @Valid @RequestBody AcceptOrderRequest request) {
-        Order order = orderService.startTrip(orderId, request.getDriverId());
+        return idempotencyCache.execute(idempotencyKey, request.getDriverId(), "start " + orderId, request, () -> {
+            Order order = clusterRouter
+                    .map(router -> router.startTrip(orderId, request.getDriverId()))
+                    .orElseGet(() -> orderService.startTrip(orderId, request.getDriverId()));
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("orderId", order.getOrderId());
-        response.put("status", order.getStatus().name());
-        response.put("startedAt", order.getStartedAt());
+            Map<String, Object> response = new HashMap<>();
+            response.put("orderId", order.getOrderId());
+            response.put("status", order.getStatus().name());
+            response.put("startedAt", order.getStartedAt());
         
-        return ResponseEntity.ok(ApiResponse.success(response));
+            return ResponseEntity.ok(ApiResponse.success(response));
+        });
     }
     
     /**
@@ -117,33 +178,42 @@ public class OrderController {
      */
     @PutMapping("/{orderId}/complete")
     public ResponseEntity<ApiResponse<Map<String, Object>>> completeTrip(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @PathVariable String orderId,
             @Valid @RequestBody CompleteOrderRequest request) {
-        // 傳入模擬時間（如果有的話）
-        Order order = orderService.completeTrip(orderId, request.getDriverId(), request.getSimulatedDuration());
+        return idempotencyCache.execute(idempotencyKey, request.getDriverId(), "complete " + orderId, request, () -> {
+            // 傳入模擬時間（如果有的話）
+            Order order = clusterRouter
+                    .map(router -> router.completeTrip(orderId, request.getDriverId(), request.getSimulatedDuration()))
+                    .orElseGet(() -> orderService.completeTrip(
+                            orderId, request.getDriverId(), request.getSimulatedDuration()));
         
-        // 計算費用明細
-        var ratePlan = fareService.getRatePlan(order.getVehicleType());
-        double baseFare = ratePlan.getBaseFare();
-        double distanceFare = order.getDistance() * ratePlan.getPerKmRate();
-        double timeFare = order.getDuration() * ratePlan.getPerMinRate();
+            // 計算費用明細
+            var ratePlan = fareService.getRatePlan(order.getVehicleType());
+            double baseFare = ratePlan.getBaseFare();
+            double distanceFare = order.getDistance() * ratePlan.getPerKmRate();
+            double timeFare = order.getDuration() * ratePlan.getPerMinRate();
         
-        Map<String, Object> fareBreakdown = new HashMap<>();
-        fareBreakdown.put("baseFare", baseFare);
-        fareBreakdown.put("distanceFare", Math.round(distanceFare * 100.0) / 100.0);
-        fareBreakdown.put("timeFare", Math.round(timeFare * 100.0) / 100.0);
-        fareBreakdown.put("total", order.getActualFare());
+            Map<String, Object> fareBreakdown = new HashMap<>();
+            fareBreakdown.put("baseFare", baseFare);
+            fareBreakdown.put("distanceFare", Math.round(distanceFare * 100.0) / 100.0);
+            fareBreakdown.put("timeFare", Math.round(timeFare * 100.0) / 100.0);
+            if (order.getSurgeMultiplier() != null && order.getSurgeMultiplier() > 1.0) {
+                fareBreakdown.put("surgeMultiplier", order.getSurgeMultiplier());
+            }
+            fareBreakdown.put("total", order.getActualFare());
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("orderId", order.getOrderId());
-        response.put("status", order.getStatus().name());
-        response.put("completedAt", order.getCompletedAt());
-        response.put("fare", order.getActualFare());
-        response.put("distance", order.getDistance());
-        response.put("duration", order.getDuration());
-        response.put("fareBreakdown", fareBreakdown);
+            Map<String, Object> response = new HashMap<>();
+            response.put("orderId", order.getOrderId());
+            response.put("status", order.getStatus().name());
+            response.put("completedAt", order.getCompletedAt());
+            response.put("fare", order.getActualFare());
+            response.put("distance", order.getDistance());
+            response.put("duration", order.getDuration());
+            response.put("fareBreakdown", fareBreakdown);
         
-        return ResponseEntity.ok(ApiResponse.success(response));
+            return ResponseEntity.ok(ApiResponse.success(response));
+        });
     }
     
     /**
@@ -152,18 +222,23 @@ public class OrderController {
      */
     @PutMapping("/{orderId}/cancel")
     public ResponseEntity<ApiResponse<Map<String, Object>>> cancelOrder(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @PathVariable String orderId,
             @RequestBody CancelOrderRequest request) {
-        Order order = orderService.cancelOrder(orderId, request.getCancelledBy());
+        return idempotencyCache.execute(idempotencyKey, request.getCancelledBy(), "cancel " + orderId, request, () -> {
+            Order order = clusterRouter
+                    .map(router -> router.cancelOrder(orderId, request.getCancelledBy()))
+                    .orElseGet(() -> orderService.cancelOrder(orderId, request.getCancelledBy()));
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("orderId", order.getOrderId());
-        response.put("status", order.getStatus().name());
-        response.put("cancelledAt", order.getCancelledAt());
-        response.put("cancelledBy", order.getCancelledBy());
-        response.put("cancelFee", order.getCancelFee());
+            Map<String, Object> response = new HashMap<>();
+            response.put("orderId", order.getOrderId());
+            response.put("status", order.getStatus().name());
+            response.put("cancelledAt", order.getCancelledAt());
+            response.put("cancelledBy", order.getCancelledBy());
+            response.put("cancelFee", order.getCancelFee());
         
-        return ResponseEntity.ok(ApiResponse.success(response));
+            return ResponseEntity.ok(ApiResponse.success(response));
+        });
     }
     
     /**
@@ -172,78 +247,92 @@ public class OrderController {
      */
     @PutMapping("/{orderId}/decline")
     public ResponseEntity<ApiResponse<Map<String, Object>>> declineOrder(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @PathVariable String orderId,
             @Valid @RequestBody AcceptOrderRequest request) {
-        Order order = orderService.declineOrder(orderId, request.getDriverId());
+        return idempotencyCache.execute(idempotencyKey, request.getDriverId(), "decline " + orderId, request, () -> {
+            Order order = clusterRouter
+                    .map(router -> router.declineOrder(orderId, request.getDriverId()))
+                    .orElseGet(() -> orderService.declineOrder(orderId, request.getDriverId()));
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("orderId", order.getOrderId());
-        response.put("status", order.getStatus().name());
-        response.put("assignedDriverId", order.getAssignedDriverId());
-        response.put("message", order.getAssignedDriverId() != null 
-                ? "訂單已重新配對給其他司機" 
-                : "目前沒有其他可用司機，訂單等待中");
+            Map<String, Object> response = new HashMap<>();
+            response.put("orderId", order.getOrderId());
+            response.put("status", order.getStatus().name());
+            response.put("assignedDriverId", order.getAssignedDriverId());
+            response.put("message", order.getAssignedDriverId() != null 
+                    ? "訂單已重新配對給其他司機" 
+                    : "目前沒有其他可用司機，訂單等待中");
         
-        return ResponseEntity.ok(ApiResponse.success(response));
+            return ResponseEntity.ok(ApiResponse.success(response));
+        });
     }
     
     /**
      * 更新訂單路徑 (前端上傳計算好的路徑，實現司機/乘客共享)
      * PUT /api/orders/{orderId}/route
+     *
+     * 請求: { "routePathJson": "[[lat, lng], ...]" }；路徑壓縮後另外儲存，不寫入訂單
      */
     @PutMapping("/{orderId}/route")
     public ResponseEntity<ApiResponse<Map<String, Object>>> updateRoute(
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
             @PathVariable String orderId,
             @RequestBody Map<String, String> request) {
-        String routePathJson = request.get("routePathJson");
+        return idempotencyCache.execute(idempotencyKey, orderId, "route", request, () -> {
+            String routePathJson = request.get("routePathJson");
+            if (routePathJson == null || routePathJson.isBlank()) {
+                throw new BusinessException("INVALID_REQUEST", "routePathJson 不可為空");
+            }
+            double[][] points;
+            try {
+                points = objectMapper.readValue(routePathJson, double[][].class);
+            } catch (JsonProcessingException e) {
+                throw new BusinessException("INVALID_REQUEST", "routePathJson 格式錯誤");
+            }
+            int encodedBytes = clusterRouter
+                    .map(router -> router.updateRoute(orderId, points))
+                    .orElseGet(() -> routeService.updateRoute(orderId, points));
         
-        Order order = orderService.getOrder(orderId);
-        order.setRoutePathJson(routePathJson);
-        orderService.updateOrder(order); // need to add this method
+            Map<String, Object> response = new HashMap<>();
+            response.put("orderId", orderId);
+            response.put("points", points.length);
+            response.put("encodedBytes", encodedBytes);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("orderId", order.getOrderId());
-        response.put("routePathJson", order.getRoutePathJson());
-        
-        return ResponseEntity.ok(ApiResponse.success(response));
+            return ResponseEntity.ok(ApiResponse.success(response));
+        });
     }
     
     /**
-     * 建構訂單回應資料
+     * 查詢訂單路徑
+     * GET /api/orders/{orderId}/route
+     *
+     * 路徑不含在訂單回應中；尚未上傳時 points 為 0 且沒有 routePathJson
+     * 支援 If-None-Match：路徑未變更時回傳 304，乘客端輪詢不必每次重新下載整條路徑
+     * (叢集模式下路徑只在擁有節點上，不提供 ETag)
      */
-    private Map<String, Object> buildOrderResponse(Order order) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("orderId", order.getOrderId());
-        response.put("passengerId", order.getPassengerId());
-        response.put("status", order.getStatus().name());
-        response.put("vehicleType", order.getVehicleType().name());
-        response.put("pickupLocation", order.getPickupLocation());
-        response.put("dropoffLocation", order.getDropoffLocation());
-        response.put("estimatedFare", order.getEstimatedFare());
-        response.put("estimatedDistance", order.getDistance());
-        response.put("createdAt", order.getCreatedAt());
-        
-        // 條件性欄位
-        if (order.getDriverId() != null) {
-            response.put("driverId", order.getDriverId());
-        }
-        if (order.getAcceptedAt() != null) {
-            response.put("acceptedAt", order.getAcceptedAt());
+    @GetMapping("/{orderId}/route")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getRoute(
+            @PathVariable String orderId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+            throws JsonProcessingException {
+        if (clusterRouter.isPresent()) {
+            return ResponseEntity.ok(ApiResponse.success(routeResponse(orderId, clusterRouter.get().getRoute(orderId))));
         }
-        if (order.getStartedAt() != null) {
-            response.put("startedAt", order.getStartedAt());
+        String etag = ETags.of(routeService.getRouteVersion(orderId));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
         }
-        if (order.getCompletedAt() != null) {
-            response.put("completedAt", order.getCompletedAt());
-            response.put("fare", order.getActualFare());
-            response.put("duration", order.getDuration());
-        }
-        if (order.getStatus() == OrderStatus.CANCELLED) {
-            response.put("cancelledAt", order.getCancelledAt());
-            response.put("cancelledBy", order.getCancelledBy());
-            response.put("cancelFee", order.getCancelFee());
+        return ResponseEntity.ok().eTag(etag)
+                .body(ApiResponse.success(routeResponse(orderId, routeService.getRoute(orderId))));
+    }
+    
+    private Map<String, Object> routeResponse(String orderId, double[][] points) throws JsonProcessingException {
+        Map<String, Object> response = new HashMap<>();
+        response.put("orderId", orderId);
+        response.put("points", points.length);
+        if (points.length > 0) {
+            response.put("routePathJson", objectMapper.writeValueAsString(points));
         }
-        
         return response;
     }
 }
@@ -0,0 +1,44 @@
+package com.uber.controller;
+
+import com.uber.exception.BusinessException;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 查詢參數解析 (管理後台列表與匯出共用)
+ */
+final class RequestParams {
+
+    private RequestParams() {
+    }
+
+    /**
+     * 解析列舉參數，無效值視為不篩選 (與狀態篩選一致)
+     */
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static Instant parseInstant(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("INVALID_REQUEST", name + " 必須為 ISO-8601 時間格式");
+        }
+    }
+
+    static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,21 @@
+package com.uber.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 管理後台增量同步 (GET /api/admin/changes)
+ *
+ * reset 為 true 時 orders/drivers 為完整資料，客戶端應取代整張表；
+ * 否則只包含 since 之後變更的項目，依 ID 合併即可。
+ * 下次查詢以 seq 作為 since、epoch 原樣帶回。
+ */
+public record ChangesResponse(
+        String epoch,
+        long seq,
+        boolean reset,
+        List<OrderSummaryResponse> orders,
+        List<Map<String, Object>> drivers,
+        List<String> deletedOrderIds,
+        List<String> deletedDriverIds) {
+}
@@ -9,6 +9,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 /**
  * 建立叫車請求 DTO
  */
@@ -36,6 +38,12 @@ public class CreateOrderRequest {
     @NotNull(message = "車種不可為空")
     private VehicleType vehicleType;
 
+    // 是否願意共乘 (可省略，預設不共乘)
+    private Boolean pooled;
+
+    // 預約上車時間 (可省略，省略時為即時叫車)
+    private Instant scheduledPickupAt;
+
     // 支援 nested { x, y } 物件，並回填到座標欄位
     @JsonProperty("pickupLocation")
     private void unpackPickupLocation(java.util.Map<String, Double> loc) {
@@ -0,0 +1,37 @@
+package com.uber.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.uber.model.Driver;
+import com.uber.model.Location;
+
+import java.time.Instant;
+
+/**
+ * 司機回應 (/api/drivers)
+ */
+public record DriverResponse(
+        String driverId,
+        String name,
+        String status,
+        String vehicleType,
+        boolean busy,
+        Instant updatedAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String phone,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String vehiclePlate,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Location location,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String currentOrderId) {
+
+    public static DriverResponse from(Driver driver) {
+        return new DriverResponse(
+                driver.getDriverId(),
+                driver.getName(),
+                driver.getStatus().name(),
+                driver.getVehicleType().name(),
+                driver.isBusy(),
+                driver.getLastUpdatedAt(),
+                driver.getPhone(),
+                driver.getVehiclePlate(),
+                driver.getLocation(),
+                driver.getCurrentOrderId());
+    }
+}
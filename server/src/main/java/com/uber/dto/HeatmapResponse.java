@@ -0,0 +1,30 @@
+package com.uber.dto;
+
+import com.uber.repository.DemandHeatmap;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 需求熱度圖 (GET /api/admin/heatmap)
+ *
+ * 每個格子的左下角座標為 (x, y)、邊長為 cellSize；只列出視窗內有事件的格子。
+ */
+public record HeatmapResponse(
+        String window,
+        double cellSize,
+        Instant generatedAt,
+        List<Cell> cells) {
+
+    public record Cell(double x, double y, int pickups, int completions) {
+    }
+
+    public static HeatmapResponse of(DemandHeatmap.Window window, double cellSize,
+                                     List<DemandHeatmap.CellCount> counts) {
+        return new HeatmapResponse(window.label(), cellSize, Instant.now(),
+                counts.stream()
+                        .map(count -> new Cell(count.row() * cellSize, count.col() * cellSize,
+                                count.pickups(), count.completions()))
+                        .toList());
+    }
+}
@@ -0,0 +1,13 @@
+package com.uber.dto;
+
+import java.util.List;
+
+/**
+ * 司機可接訂單列表
+ */
+public record OfferListResponse(List<OfferResponse> offers, int count) {
+
+    public static OfferListResponse of(List<OfferResponse> offers) {
+        return new OfferListResponse(offers, offers.size());
+    }
+}
@@ -0,0 +1,30 @@
+package com.uber.dto;
+
+import com.uber.model.Location;
+import com.uber.model.Order;
+
+import java.time.Instant;
+
+/**
+ * 司機可接訂單 (GET /api/drivers/{driverId}/offers) 的精簡格式
+ */
+public record OfferResponse(
+        String orderId,
+        Location pickupLocation,
+        Location dropoffLocation,
+        String vehicleType,
+        Double distance,
+        Double estimatedFare,
+        Instant createdAt) {
+
+    public static OfferResponse from(Order order) {
+        return new OfferResponse(
+                order.getOrderId(),
+                order.getPickupLocation(),
+                order.getDropoffLocation(),
+                order.getVehicleType().name(),
+                order.getDistance(),
+                order.getEstimatedFare(),
+                order.getCreatedAt());
+    }
+}
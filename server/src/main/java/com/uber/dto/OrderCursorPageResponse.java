@@ -0,0 +1,11 @@
+package com.uber.dto;
+
+import java.util.List;
+
+/**
+ * 管理後台訂單游標分頁 (GET /api/admin/orders?limit=N[&cursor=...])
+ *
+ * nextCursor 為本頁最後一筆的游標；hasMore 為 false 時 nextCursor 為 null。
+ */
+public record OrderCursorPageResponse(List<OrderSummaryResponse> orders, String nextCursor, boolean hasMore) {
+}
@@ -0,0 +1,56 @@
+package com.uber.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.uber.model.Location;
+import com.uber.model.Order;
+
+import java.time.Instant;
+
+/**
+ * 管理後台訂單詳情 (GET /api/admin/orders/{orderId})
+ *
+ * 包含列表項目 (OrderSummaryResponse) 的所有欄位，另加上地點與行程資訊。
+ */
+public record OrderDetailResponse(
+        String orderId,
+        String passengerId,
+        String status,
+        String vehicleType,
+        Instant createdAt,
+        Location pickupLocation,
+        Location dropoffLocation,
+        Double estimatedFare,
+        Double distance,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String driverId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Double fare,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant acceptedAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant startedAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant completedAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer duration,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant cancelledAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String cancelledBy,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Double cancelFee) {
+
+    public static OrderDetailResponse from(Order order) {
+        Integer duration = order.getDuration();
+        return new OrderDetailResponse(
+                order.getOrderId(),
+                order.getPassengerId(),
+                order.getStatus().name(),
+                order.getVehicleType().name(),
+                order.getCreatedAt(),
+                order.getPickupLocation(),
+                order.getDropoffLocation(),
+                order.getEstimatedFare(),
+                order.getDistance(),
+                order.getDriverId(),
+                OrderSummaryResponse.positive(order.getActualFare()),
+                order.getAcceptedAt(),
+                order.getStartedAt(),
+                order.getCompletedAt(),
+                duration != null && duration > 0 ? duration : null,
+                order.getCancelledAt(),
+                order.getCancelledBy(),
+                OrderSummaryResponse.positive(order.getCancelFee()));
+    }
+}
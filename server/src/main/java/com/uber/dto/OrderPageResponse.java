@@ -0,0 +1,12 @@
+package com.uber.dto;
+
+import java.util.List;
+
+/**
+ * 管理後台訂單分頁 (GET /api/admin/orders)
+ */
+public record OrderPageResponse(List<OrderSummaryResponse> orders, Pagination pagination) {
+
+    public record Pagination(int page, int size, int totalElements, int totalPages) {
+    }
+}
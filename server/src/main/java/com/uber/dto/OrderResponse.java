@@ -0,0 +1,69 @@
+package com.uber.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.uber.model.Location;
+import com.uber.model.Order;
+import com.uber.model.OrderStatus;
+
+import java.time.Instant;
+
+/**
+ * 訂單回應 (GET/POST /api/orders)
+ *
+ * 條件性欄位為 null 時不輸出，JSON 格式與原本的 Map 回應相同；
+ * 有動態加價時另輸出 surgeMultiplier；共乘訂單另輸出 pooled 與分攤比例 poolFareShare；
+ * 預約訂單另輸出 scheduledPickupAt。
+ */
+public record OrderResponse(
+        String orderId,
+        String passengerId,
+        String status,
+        String vehicleType,
+        Location pickupLocation,
+        Location dropoffLocation,
+        Double estimatedFare,
+        Double estimatedDistance,
+        Instant createdAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String driverId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant acceptedAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant startedAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant completedAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Double fare,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer duration,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant cancelledAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String cancelledBy,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Double cancelFee,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Double surgeMultiplier,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Boolean pooled,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Double poolFareShare,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant scheduledPickupAt) {
+
+    public static OrderResponse from(Order order) {
+        boolean completed = order.getCompletedAt() != null;
+        boolean cancelled = order.getStatus() == OrderStatus.CANCELLED;
+        Double surge = order.getSurgeMultiplier();
+        return new OrderResponse(
+                order.getOrderId(),
+                order.getPassengerId(),
+                order.getStatus().name(),
+                order.getVehicleType().name(),
+                order.getPickupLocation(),
+                order.getDropoffLocation(),
+                order.getEstimatedFare(),
+                order.getDistance(),
+                order.getCreatedAt(),
+                order.getDriverId(),
+                order.getAcceptedAt(),
+                order.getStartedAt(),
+                order.getCompletedAt(),
+                completed ? order.getActualFare() : null,
+                completed ? order.getDuration() : null,
+                cancelled ? order.getCancelledAt() : null,
+                cancelled ? order.getCancelledBy() : null,
+                cancelled ? order.getCancelFee() : null,
+                surge != null && surge > 1.0 ? surge : null,
+                order.isPooled() ? Boolean.TRUE : null,
+                order.getPoolFareShare(),
+                order.getScheduledPickupAt());
+    }
+}
@@ -0,0 +1,38 @@
+package com.uber.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.uber.model.Order;
+
+import java.time.Instant;
+
+/**
+ * 管理後台訂單列表項目 (GET /api/admin/orders)
+ */
+public record OrderSummaryResponse(
+        String orderId,
+        String passengerId,
+        String status,
+        String vehicleType,
+        Instant createdAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String driverId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Double fare,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant completedAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Instant cancelledAt) {
+
+    public static OrderSummaryResponse from(Order order) {
+        return new OrderSummaryResponse(
+                order.getOrderId(),
+                order.getPassengerId(),
+                order.getStatus().name(),
+                order.getVehicleType().name(),
+                order.getCreatedAt(),
+                order.getDriverId(),
+                positive(order.getActualFare()),
+                order.getCompletedAt(),
+                order.getCancelledAt());
+    }
+
+    static Double positive(Double value) {
+        return value != null && value > 0 ? value : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.uber.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 接單鎖事件：事件持續時間為持鎖時間，另記錄等待時間
+ */
+@Name("com.uber.AcceptLock")
+@Label("Accept Lock")
+@Category({"Ride Dispatch", "Locking"})
+@Description("OrderService acceptLock 的等待與持有時間")
+@Enabled(false)
+@StackTrace(false)
+public class AcceptLockEvent extends Event {
+
+    @Label("Order ID")
+    public String orderId;
+
+    @Label("Driver ID")
+    public String driverId;
+
+    @Label("Wait Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long waitTime;
+
+    @Label("Queue Length")
+    @Description("取得鎖時仍在排隊的執行緒數 (估計值)")
+    public int queueLength;
+}
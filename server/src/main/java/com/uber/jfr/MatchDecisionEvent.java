@@ -0,0 +1,44 @@
+package com.uber.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 配對決策事件：一次最佳司機搜尋
+ */
+@Name("com.uber.MatchDecision")
+@Label("Match Decision")
+@Category({"Ride Dispatch", "Matching"})
+@Description("搜尋最佳司機：掃描候選數、選中的司機與距離")
+@Enabled(false)
+@StackTrace(false)
+public class MatchDecisionEvent extends Event {
+
+    @Label("Source")
+    @Description("CREATE_ORDER / MATCHING_SERVICE / DECLINE")
+    public String source;
+
+    @Label("Order ID")
+    public String orderId;
+
+    @Label("Vehicle Type")
+    public String vehicleType;
+
+    @Label("Drivers Scanned")
+    public int driversScanned;
+
+    @Label("Candidates")
+    @Description("通過狀態、車種、半徑篩選的候選司機數")
+    public int candidates;
+
+    @Label("Chosen Driver")
+    public String chosenDriverId;
+
+    @Label("Distance")
+    public double distance;
+}
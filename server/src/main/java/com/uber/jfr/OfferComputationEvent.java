@@ -0,0 +1,34 @@
+package com.uber.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 派單計算事件：司機輪詢一次 offers
+ */
+@Name("com.uber.OfferComputation")
+@Label("Offer Computation")
+@Category({"Ride Dispatch", "Matching"})
+@Description("計算司機可接訂單的耗時與結果")
+@Enabled(false)
+@StackTrace(false)
+public class OfferComputationEvent extends Event {
+
+    @Label("Driver ID")
+    public String driverId;
+
+    @Label("Pending Orders Scanned")
+    public int pendingScanned;
+
+    @Label("Offered Order")
+    public String offeredOrderId;
+
+    @Label("Assigned")
+    @Description("是否為預先指派給該司機的訂單")
+    public boolean assigned;
+}
@@ -0,0 +1,36 @@
+package com.uber.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 資料檔寫入事件 (快照或 JSON)
+ */
+@Name("com.uber.SnapshotWrite")
+@Label("Snapshot Write")
+@Category({"Ride Dispatch", "Persistence"})
+@Description("寫入資料檔的耗時與大小")
+@Enabled(false)
+@StackTrace(false)
+public class SnapshotWriteEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("Format")
+    @Description("SMILE / JSON")
+    public String format;
+
+    @Label("Records")
+    public int records;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
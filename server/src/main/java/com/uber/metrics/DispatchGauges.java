@@ -0,0 +1,42 @@
+package com.uber.metrics;
+
+import com.uber.model.VehicleType;
+import com.uber.repository.DriverRepository;
+import com.uber.repository.OrderRepository;
+import com.uber.util.SnapshotFileUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 派單狀態量表 (scrape 時讀取 Repository 維護的計數，不掃描資料)
+ */
+@Component
+@RequiredArgsConstructor
+public class DispatchGauges implements MeterBinder {
+
+    private final OrderRepository orderRepository;
+    private final DriverRepository driverRepository;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("dispatch.orders.pending", orderRepository,
+                        repository -> repository.pendingCount())
+                .description("待接訂單數")
+                .register(registry);
+
+        for (VehicleType vehicleType : VehicleType.values()) {
+            Gauge.builder("dispatch.drivers.available", driverRepository,
+                            repository -> repository.availableCount(vehicleType))
+                    .description("可接單司機數")
+                    .tag("vehicleType", vehicleType.name())
+                    .register(registry);
+        }
+
+        Gauge.builder("repository.persist.queue", SnapshotFileUtil::pendingCount)
+                .description("等待合併寫入的快照數")
+                .register(registry);
+    }
+}
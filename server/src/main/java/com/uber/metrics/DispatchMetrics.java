@@ -0,0 +1,76 @@
+package com.uber.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 派單熱路徑的指標
+ *
+ * 直接註冊在 Metrics.globalRegistry：Spring Boot 會把 Prometheus registry 加入全域 registry，
+ * 服務與儲存庫不必注入 MeterRegistry (單元測試以 new 建立時也不受影響)。
+ * 計時器都發佈百分位直方圖，可在 Prometheus 端以 histogram_quantile 彙整多個節點。
+ */
+public final class DispatchMetrics {
+
+    public static final Timer CREATE_ORDER = timer("dispatch.order.create", "建立訂單耗時");
+    public static final Timer ACCEPT_ORDER = timer("dispatch.order.accept", "接單耗時 (含等待鎖)");
+    public static final Timer GET_OFFERS = timer("dispatch.driver.offers", "司機取得派單耗時");
+    public static final Timer FIND_BEST_DRIVER = timer("dispatch.match.find_best_driver", "搜尋最佳司機耗時");
+
+    public static final Timer TIME_TO_MATCH = timer("dispatch.order.time_to_match", "訂單建立到指派司機的時間");
+    public static final Timer TIME_TO_ACCEPT = timer("dispatch.order.time_to_accept", "訂單建立到司機接單的時間");
+
+    private static final Map<String, Counter> acceptConflicts = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> repositorySaves = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> repositoryPersists = new ConcurrentHashMap<>();
+
+    private DispatchMetrics() {
+    }
+
+    /**
+     * 接單衝突 (依失敗原因)
+     */
+    public static void acceptConflict(String reason) {
+        acceptConflicts.computeIfAbsent(reason, key -> Counter.builder("dispatch.accept.conflicts")
+                .description("接單失敗次數")
+                .tag("reason", key)
+                .register(Metrics.globalRegistry))
+                .increment();
+    }
+
+    /**
+     * 儲存庫 save (含同步寫檔或排入合併寫入)
+     */
+    public static Timer repositorySave(String repository) {
+        return repositorySaves.computeIfAbsent(repository, key -> Timer.builder("repository.save")
+                .description("儲存庫 save 耗時")
+                .tag("repository", key)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry));
+    }
+
+    /**
+     * 快照實際寫入磁碟
+     */
+    public static Timer repositoryPersist(String repository) {
+        return repositoryPersists.computeIfAbsent(repository, key -> Timer.builder("repository.persist")
+                .description("快照寫入磁碟耗時")
+                .tag("repository", key)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry));
+    }
+
+    private static Timer timer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(30))
+                .register(Metrics.globalRegistry);
+    }
+}
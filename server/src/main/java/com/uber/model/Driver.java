@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import java.time.Instant;
+import java.util.List;
 
 /**
  * 司機實體
@@ -28,5 +29,8 @@ public class Driver {
     private boolean busy; // 是否有進行中的訂單
     private String currentOrderId; // 當前訂單 ID
     
+    // 共乘行程尚未經過的停靠點 (依行駛順序)；null 或空表示沒有進行中的共乘行程
+    private List<RouteStop> route;
+    
     private Instant lastUpdatedAt;
 }
@@ -30,11 +30,18 @@ public class Order {
     private Location dropoffLocation;
     
     private Double estimatedFare;
+    // 建立訂單時鎖定的動態加價倍率 (null 表示不加價，舊資料)
+    private Double surgeMultiplier;
+    // 共乘訂單：可與其他訂單同車，車資依 poolFareShare (相對獨乘車資的比例) 計算
+    private boolean pooled;
+    private Double poolFareShare;
     private Double actualFare;
     private Double distance;
     private Integer duration; // 分鐘
     private Double driverEarnings; // 平台分帳後司機收入
     private Instant createdAt;
+    // 預約上車時間 (null 表示即時叫車)
+    private Instant scheduledPickupAt;
     private Instant acceptedAt;
     private Instant startedAt;
     private Instant completedAt;
@@ -51,7 +58,4 @@ public class Order {
     private String driverPhone;
     private String vehiclePlate;
     private Location driverLocation;
-    
-    // 路徑 JSON (供顯示行程路徑用)
-    private String routePathJson;
 }
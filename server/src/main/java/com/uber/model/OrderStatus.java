@@ -4,6 +4,7 @@ package com.uber.model;
  * 訂單狀態列舉
  */
 public enum OrderStatus {
+    SCHEDULED,  // 預約中 (尚未釋放到配對流程)
     PENDING,    // 等待接單
     ACCEPTED,   // 已接單
     ONGOING,    // 行程中
@@ -0,0 +1,17 @@
+package com.uber.model;
+
+/**
+ * 共乘路線上的停靠點
+ *
+ * @param pickup true 為上車點，false 為下車點
+ */
+public record RouteStop(String orderId, Location location, boolean pickup) {
+
+    public static RouteStop pickupOf(Order order) {
+        return new RouteStop(order.getOrderId(), order.getPickupLocation(), true);
+    }
+
+    public static RouteStop dropoffOf(Order order) {
+        return new RouteStop(order.getOrderId(), order.getDropoffLocation(), false);
+    }
+}
@@ -1,94 +1,254 @@
 package com.uber.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.uber.metrics.DispatchMetrics;
 import com.uber.model.AuditLog;
+import com.uber.util.AuditSegmentStore;
 import com.uber.util.JsonFileUtil;
+import com.uber.util.SnapshotFileUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * 審計日誌儲存庫 (In-Memory with file persistence)
+ *
+ * 設定 audit.store=segment 時改用 AuditSegmentStore (mmap 分段檔)：
+ * 新增紀錄只 append，不再整份重寫，查詢直接掃描分段。
  */
+@Slf4j
 @Repository
-public class AuditLogRepository {
+public class AuditLogRepository implements PersistentRepository {
     
     private final List<AuditLog> logs = new CopyOnWriteArrayList<>();
-    private static final String FILE_NAME = "audit_logs.json";
-    
+    private static final String SNAPSHOT_NAME = "audit_logs";
+
+    private static final String SEGMENT_STORE = "segment";
+
+    private final String storeType;
+    private final DataSize segmentSize;
+    private final int maxSegments;
+    private final Duration retention;
+
+    // 啟用分段儲存時非 null
+    private volatile AuditSegmentStore segmentStore;
+
     public AuditLogRepository() {
-        loadData();
+        this("snapshot", DataSize.ofMegabytes(64), 32, Duration.ZERO);
     }
 
-    private void loadData() {
-        if (JsonFileUtil.isTestEnv()) {
-            return;
+    /**
+     * @param storeType   snapshot (整份快照) 或 segment (分段檔)
+     * @param segmentSize 分段大小
+     * @param maxSegments 最多保留分段數
+     * @param retention   分段保留時間，0 表示不限
+     */
+    @Autowired
+    public AuditLogRepository(@Value("${audit.store:snapshot}") String storeType,
+                              @Value("${audit.segment.size:64MB}") DataSize segmentSize,
+                              @Value("${audit.segment.max-segments:32}") int maxSegments,
+                              @Value("${audit.segment.retention:0d}") Duration retention) {
+        this.storeType = storeType;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.retention = retention;
+    }
+    
+    @Override
+    public String snapshotName() {
+        return SNAPSHOT_NAME;
+    }
+
+    @Override
+    public int loadData() {
+        AuditSegmentStore store = openSegmentStore();
+        if (store != null) {
+            if (store.count() == 0) {
+                // 首次啟用分段儲存：將既有快照搬進分段
+                SnapshotFileUtil.load(SNAPSHOT_NAME, AuditLog.class, store::append, () -> clearSegments(store));
+            }
+            segmentStore = store;
+            return (int) store.count();
+        }
+        // CopyOnWriteArrayList 每次 add 都會複製陣列，先收集再一次加入
+        List<AuditLog> loaded = new ArrayList<>();
+        int count = SnapshotFileUtil.load(SNAPSHOT_NAME, AuditLog.class, loaded::add, loaded::clear);
+        logs.addAll(loaded);
+        return count;
+    }
+
+    /**
+     * 開啟分段儲存；未啟用或測試環境時回傳 null
+     */
+    private AuditSegmentStore openSegmentStore() {
+        if (JsonFileUtil.isTestEnv() || !SEGMENT_STORE.equalsIgnoreCase(storeType)) {
+            return null;
+        }
+        try {
+            return AuditSegmentStore.open(new AuditSegmentStore.Options(
+                    JsonFileUtil.dataDir().toPath().resolve("audit"),
+                    Math.toIntExact(segmentSize.toBytes()),
+                    maxSegments,
+                    retention.isZero() ? null : retention));
+        } catch (IOException e) {
+            log.error("Failed to open audit segments, falling back to snapshot", e);
+            return null;
+        }
+    }
+
+    /**
+     * 刪除超過保留設定的舊分段；未啟用分段儲存時不做事
+     */
+    public void enforceRetention() {
+        AuditSegmentStore store = segmentStore;
+        if (store != null) {
+            store.enforceRetention();
         }
-        List<AuditLog> data = JsonFileUtil.loadFromFile(FILE_NAME, new TypeReference<List<AuditLog>>() {});
-        logs.addAll(data);
     }
 
     private void saveData() {
         if (JsonFileUtil.isTestEnv()) {
             return;
         }
-        JsonFileUtil.saveToFile(FILE_NAME, new ArrayList<>(logs));
+        SnapshotFileUtil.save(SNAPSHOT_NAME, () -> new ArrayList<>(logs));
+    }
+
+    private static void clearSegments(AuditSegmentStore store) {
+        try {
+            store.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 依 orderId 查詢；分段儲存時先以紀錄檔頭的 orderId hash 過濾
+     */
+    private List<AuditLog> select(String orderId, Predicate<AuditLog> predicate) {
+        AuditSegmentStore store = segmentStore;
+        if (store == null) {
+            return logs.stream()
+                    .filter(log -> orderId == null || orderId.equals(log.getOrderId()))
+                    .filter(predicate)
+                    .collect(Collectors.toList());
+        }
+        List<AuditLog> result = new ArrayList<>();
+        store.scan(header -> orderId == null || header.matchesOrder(orderId), log -> {
+            if ((orderId == null || orderId.equals(log.getOrderId())) && predicate.test(log)) {
+                result.add(log);
+            }
+        });
+        return result;
     }
     
     public AuditLog save(AuditLog auditLog) {
+        AuditSegmentStore store = segmentStore;
+        if (store != null) {
+            DispatchMetrics.repositorySave(SNAPSHOT_NAME).record(() -> store.append(auditLog));
+            return auditLog;
+        }
         logs.add(auditLog);
         saveData();
         return auditLog;
     }
     
     public List<AuditLog> findAll() {
-        return new ArrayList<>(logs);
+        AuditSegmentStore store = segmentStore;
+        return store != null ? store.readAll() : new ArrayList<>(logs);
     }
     
     public List<AuditLog> findByOrderId(String orderId) {
-        return logs.stream()
-                .filter(log -> orderId.equals(log.getOrderId()))
-                .collect(Collectors.toList());
+        return select(orderId, log -> true);
     }
     
     public List<AuditLog> findByAction(String action) {
-        return logs.stream()
-                .filter(log -> action.equals(log.getAction()))
-                .collect(Collectors.toList());
+        return select(null, log -> action.equals(log.getAction()));
     }
     
     public List<AuditLog> findByOrderIdAndAction(String orderId, String action) {
-        return logs.stream()
-                .filter(log -> orderId.equals(log.getOrderId()))
-                .filter(log -> action.equals(log.getAction()))
-                .collect(Collectors.toList());
+        return select(orderId, log -> action.equals(log.getAction()));
     }
     
     public long countSuccessByOrderIdAndAction(String orderId, String action) {
-        return logs.stream()
-                .filter(log -> orderId.equals(log.getOrderId()))
-                .filter(log -> action.equals(log.getAction()))
-                .filter(AuditLog::isSuccess)
-                .count();
+        return select(orderId, log -> action.equals(log.getAction()) && log.isSuccess()).size();
     }
     
     public long countFailureByOrderIdAndAction(String orderId, String action) {
-        return logs.stream()
-                .filter(log -> orderId.equals(log.getOrderId()))
-                .filter(log -> action.equals(log.getAction()))
-                .filter(log -> !log.isSuccess())
-                .count();
+        return select(orderId, log -> action.equals(log.getAction()) && !log.isSuccess()).size();
+    }
+    
+    /**
+     * 依條件逐筆送出紀錄，不建立結果列表 (串流匯出用)
+     * 
+     * 分段儲存時先以檔頭的時間與 orderId hash 過濾，不符合的紀錄不解碼。
+     * 條件為 null 表示不篩選；時間範圍 from 含、to 不含。
+     */
+    public void forEach(String orderId, String action, Instant from, Instant to, Consumer<AuditLog> sink) {
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        Predicate<AuditLog> predicate = log -> (orderId == null || orderId.equals(log.getOrderId()))
+                && (action == null || action.equals(log.getAction()))
+                && inRange(log.getTimestamp(), from, to);
+        
+        AuditSegmentStore store = segmentStore;
+        if (store == null) {
+            // CopyOnWriteArrayList 的迭代器走訪當下的陣列，不複製
+            for (AuditLog log : logs) {
+                if (predicate.test(log)) {
+                    sink.accept(log);
+                }
+            }
+            return;
+        }
+        store.scan(header -> header.timestamp() >= fromMillis && header.timestamp() < toMillis
+                        && (orderId == null || header.matchesOrder(orderId)),
+                log -> {
+                    if (predicate.test(log)) {
+                        sink.accept(log);
+                    }
+                });
+    }
+
+    private static boolean inRange(Instant timestamp, Instant from, Instant to) {
+        if (timestamp == null) {
+            return from == null && to == null;
+        }
+        return (from == null || !timestamp.isBefore(from)) && (to == null || timestamp.isBefore(to));
     }
     
     public void deleteAll() {
+        AuditSegmentStore store = segmentStore;
+        if (store != null) {
+            clearSegments(store);
+            return;
+        }
         logs.clear();
         saveData();
     }
     
     public int count() {
-        return logs.size();
+        AuditSegmentStore store = segmentStore;
+        return store != null ? (int) store.count() : logs.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        AuditSegmentStore store = segmentStore;
+        if (store != null) {
+            store.close();
+        }
     }
 }
@@ -0,0 +1,118 @@
+package com.uber.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * 儲存庫變更序號
+ *
+ * 所有儲存庫共用一個單調遞增的序號；每個實體只保留最後一次變更，
+ * 因此變更記錄的大小與實體數成正比，不會隨寫入次數成長。
+ * 序號只存在記憶體，重新啟動後以新的 epoch 區分，客戶端需重新完整同步。
+ */
+public class ChangeFeed {
+
+    private static final String EPOCH = UUID.randomUUID().toString();
+    private static final Object LOCK = new Object();
+    private static long sequence; // guarded by LOCK
+
+    /**
+     * 變更結果
+     *
+     * @param reset 為 true 時 since 之後曾清空儲存庫，呼叫端需完整重新載入
+     */
+    public record Delta<T>(List<T> updated, List<String> deleted, boolean reset) {
+    }
+
+    private record Change(String id, boolean deleted) {
+    }
+
+    private final NavigableMap<Long, Change> changes = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> latest = new ConcurrentHashMap<>();
+    private volatile long resetSequence;
+
+    /**
+     * 本次啟動的識別碼
+     */
+    public static String epoch() {
+        return EPOCH;
+    }
+
+    /**
+     * 目前序號；小於等於此序號的變更都已可查詢
+     */
+    public static long currentSequence() {
+        synchronized (LOCK) {
+            return sequence;
+        }
+    }
+
+    void updated(String id) {
+        record(id, false);
+    }
+
+    void deleted(String id) {
+        record(id, true);
+    }
+
+    /**
+     * 儲存庫清空：捨棄變更記錄，since 早於此序號的查詢需完整重新載入
+     */
+    void reset() {
+        synchronized (LOCK) {
+            changes.clear();
+            latest.clear();
+            resetSequence = ++sequence;
+        }
+    }
+
+    /**
+     * 實體目前的版本 (最後一次變更的序號)；啟動後未變更過為 0
+     */
+    long versionOf(String id) {
+        return latest.getOrDefault(id, 0L);
+    }
+
+    boolean requiresReset(long since) {
+        return since < resetSequence;
+    }
+
+    /**
+     * since 之後變更過的實體，依變更順序
+     *
+     * @param lookup 由 ID 取得目前的實體；找不到時視為已刪除
+     */
+    <T> Delta<T> delta(long since, Function<String, T> lookup) {
+        if (requiresReset(since)) {
+            return new Delta<>(List.of(), List.of(), true);
+        }
+        List<T> updated = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        for (Change change : changes.tailMap(since, false).values()) {
+            T entity = change.deleted() ? null : lookup.apply(change.id());
+            if (entity != null) {
+                updated.add(entity);
+            } else {
+                deleted.add(change.id());
+            }
+        }
+        return new Delta<>(updated, deleted, false);
+    }
+
+    private void record(String id, boolean deleted) {
+        synchronized (LOCK) {
+            long seq = ++sequence;
+            Long previous = latest.put(id, seq);
+            if (previous != null) {
+                changes.remove(previous);
+            }
+            changes.put(seq, new Change(id, deleted));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.uber.repository;
+
+import com.uber.model.Location;
+import com.uber.model.VehicleType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 供需格網計數
+ *
+ * 以固定邊長的格子 (經緯度，由 surge.cell-size 設定) 劃分座標，依 (格子, 車種) 計數。
+ * 實體會被原地修改，因此記住每個 ID 上次計入的格子，狀態或位置改變時把計數由舊格子移到新格子；
+ * 另外維護各車種的總數 (供監控量表)；讀取為 O(1) 且不加鎖，寫入以 synchronized 序列化。
+ */
+public class DemandGrid {
+
+    // 預設格子邊長 (經緯度，0.01° 約 1.1 km，約為一個商圈)
+    public static final double DEFAULT_CELL_SIZE = 0.01;
+
+    /**
+     * 格子與車種
+     */
+    public record Cell(long row, long col, VehicleType vehicleType) {
+    }
+
+    private final double cellSize;
+    private final Map<String, Cell> counted = new ConcurrentHashMap<>();
+    private final Map<Cell, AtomicInteger> counts = new ConcurrentHashMap<>();
+    // 建構後不再新增或移除鍵，只更新計數，可不加鎖讀取
+    private final Map<VehicleType, AtomicInteger> totals = new EnumMap<>(VehicleType.class);
+
+    public DemandGrid(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("格子邊長必須大於 0: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        for (VehicleType vehicleType : VehicleType.values()) {
+            totals.put(vehicleType, new AtomicInteger());
+        }
+    }
+
+    /**
+     * 座標所在的格子
+     */
+    public Cell cellOf(Location location, VehicleType vehicleType) {
+        return new Cell((long) Math.floor(location.getX() / cellSize),
+                (long) Math.floor(location.getY() / cellSize), vehicleType);
+    }
+
+    public double cellSize() {
+        return cellSize;
+    }
+
+    /**
+     * 更新實體目前所在的格子
+     *
+     * @param cell null 表示不計入 (例如訂單已非 PENDING、司機離線)
+     */
+    synchronized void update(String id, Cell cell) {
+        Cell previous = cell != null ? counted.put(id, cell) : counted.remove(id);
+        if (cell != null && cell.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            counts.get(previous).decrementAndGet();
+            adjustTotal(previous, -1);
+        }
+        if (cell != null) {
+            counts.computeIfAbsent(cell, key -> new AtomicInteger()).incrementAndGet();
+            adjustTotal(cell, 1);
+        }
+    }
+
+    private void adjustTotal(Cell cell, int delta) {
+        if (cell.vehicleType() != null) {
+            totals.get(cell.vehicleType()).addAndGet(delta);
+        }
+    }
+
+    synchronized void remove(String id) {
+        update(id, null);
+    }
+
+    synchronized void clear() {
+        counted.clear();
+        counts.clear();
+        totals.values().forEach(total -> total.set(0));
+    }
+
+    public int count(Cell cell) {
+        AtomicInteger count = counts.get(cell);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * 所有格子中該車種的總數 (O(1))
+     */
+    public int total(VehicleType vehicleType) {
+        return totals.get(vehicleType).get();
+    }
+
+    /**
+     * 所有格子、所有車種的總數
+     */
+    public int total() {
+        int sum = 0;
+        for (AtomicInteger total : totals.values()) {
+            sum += total.get();
+        }
+        return sum;
+    }
+}
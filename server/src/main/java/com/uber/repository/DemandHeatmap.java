@@ -0,0 +1,178 @@
+package com.uber.repository;
+
+import com.uber.exception.BusinessException;
+import com.uber.model.Location;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 需求熱度圖 (串流彙總)
+ *
+ * 依固定邊長的格子 (經緯度，由 heatmap.cell-size 設定，比加價格子更細) 累計叫車 (上車點) 與完成 (下車點) 事件；
+ * 每個格子以 SLOT_SECONDS 秒為一格的環狀緩衝 (int 陣列) 保存最近一小時，
+ * 查詢 1 分鐘 / 15 分鐘 / 1 小時視窗時只加總對應的槽位。
+ * 記憶體只與 (格子數 × 槽位數) 有關，與訂單總數無關；一小時內沒有事件的格子於查詢時移除。
+ */
+public class DemandHeatmap {
+
+    // 預設格子邊長 (經緯度，0.005° 約 550 m，可分辨同一商圈內的熱點)
+    public static final double DEFAULT_CELL_SIZE = 0.005;
+    static final int SLOT_SECONDS = 10;
+    static final int SLOTS = 360;
+
+    /**
+     * 查詢視窗
+     */
+    public enum Window {
+        ONE_MINUTE("1m", Duration.ofMinutes(1)),
+        FIFTEEN_MINUTES("15m", Duration.ofMinutes(15)),
+        ONE_HOUR("1h", Duration.ofHours(1));
+
+        private final String label;
+        private final int slots;
+
+        Window(String label, Duration length) {
+            this.label = label;
+            this.slots = (int) (length.toSeconds() / SLOT_SECONDS);
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public static Window parse(String value) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(value)) {
+                    return window;
+                }
+            }
+            throw new BusinessException("INVALID_REQUEST", "window 必須為 1m、15m 或 1h");
+        }
+    }
+
+    /**
+     * 單一格子在視窗內的事件數
+     */
+    public record CellCount(long row, long col, int pickups, int completions) {
+    }
+
+    private final double cellSize;
+    private final Map<Long, Counters> cells = new ConcurrentHashMap<>();
+
+    public DemandHeatmap() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public DemandHeatmap(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("格子邊長必須大於 0: " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    public double cellSize() {
+        return cellSize;
+    }
+
+    public void recordPickup(Location location, Instant at) {
+        record(location, at, true);
+    }
+
+    public void recordCompletion(Location location, Instant at) {
+        record(location, at, false);
+    }
+
+    /**
+     * 視窗內有事件的格子
+     */
+    public List<CellCount> snapshot(Window window, Instant now) {
+        long nowSlot = slotOf(now);
+        List<CellCount> result = new ArrayList<>();
+        cells.entrySet().removeIf(entry -> entry.getValue().expired(nowSlot));
+        cells.forEach((key, counters) -> {
+            CellCount count = counters.sum(key >> 32, (int) (long) key, nowSlot, window.slots);
+            if (count != null) {
+                result.add(count);
+            }
+        });
+        return result;
+    }
+
+    void clear() {
+        cells.clear();
+    }
+
+    int cellCount() {
+        return cells.size();
+    }
+
+    private void record(Location location, Instant at, boolean pickup) {
+        if (location == null || at == null) {
+            return;
+        }
+        long slot = slotOf(at);
+        // 超出環狀緩衝範圍的舊事件 (例如啟動時載入的歷史訂單) 不計入
+        if (slot <= slotOf(Instant.now()) - SLOTS) {
+            return;
+        }
+        long row = (long) Math.floor(location.getX() / cellSize);
+        long col = (long) Math.floor(location.getY() / cellSize);
+        cells.computeIfAbsent((row << 32) | (col & 0xFFFFFFFFL), key -> new Counters()).add(slot, pickup);
+    }
+
+    private static long slotOf(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), SLOT_SECONDS);
+    }
+
+    /**
+     * 單一格子的環狀計數器；slotIds 記錄每個槽位目前代表的時間槽，過期槽位在寫入時歸零
+     */
+    private static final class Counters {
+        private final int[] pickups = new int[SLOTS];
+        private final int[] completions = new int[SLOTS];
+        private final long[] slotIds = new long[SLOTS];
+        private long latestSlot = Long.MIN_VALUE;
+
+        synchronized void add(long slot, boolean pickup) {
+            int index = (int) Math.floorMod(slot, (long) SLOTS);
+            if (slotIds[index] != slot) {
+                if (slotIds[index] > slot) {
+                    // 槽位已被更新的時間槽使用
+                    return;
+                }
+                slotIds[index] = slot;
+                pickups[index] = 0;
+                completions[index] = 0;
+            }
+            if (pickup) {
+                pickups[index]++;
+            } else {
+                completions[index]++;
+            }
+            latestSlot = Math.max(latestSlot, slot);
+        }
+
+        synchronized CellCount sum(long row, long col, long nowSlot, int windowSlots) {
+            int pickupTotal = 0;
+            int completionTotal = 0;
+            for (long slot = nowSlot - windowSlots + 1; slot <= nowSlot; slot++) {
+                int index = (int) Math.floorMod(slot, (long) SLOTS);
+                if (slotIds[index] == slot) {
+                    pickupTotal += pickups[index];
+                    completionTotal += completions[index];
+                }
+            }
+            return pickupTotal == 0 && completionTotal == 0
+                    ? null : new CellCount(row, col, pickupTotal, completionTotal);
+        }
+
+        synchronized boolean expired(long nowSlot) {
+            return latestSlot <= nowSlot - SLOTS;
+        }
+    }
+}
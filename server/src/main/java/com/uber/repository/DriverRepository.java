@@ -1,10 +1,12 @@
 package com.uber.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.uber.model.Driver;
 import com.uber.model.DriverStatus;
 import com.uber.model.VehicleType;
 import com.uber.util.JsonFileUtil;
+import com.uber.util.SnapshotFileUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
@@ -16,34 +18,51 @@ import java.util.stream.Collectors;
 
 /**
  * 司機儲存庫 (In-Memory with file persistence)
+ *
+ * 另維護各格子可接單 (ONLINE 且非 busy) 司機數 (DemandGrid)，供動態加價計算。
  */
 @Repository
-public class DriverRepository {
+public class DriverRepository implements PersistentRepository {
     
     private final Map<String, Driver> drivers = new ConcurrentHashMap<>();
-    private static final String FILE_NAME = "drivers.json";
+    private final ChangeFeed changes = new ChangeFeed();
+    private final DemandGrid availableSupply;
+    private static final String SNAPSHOT_NAME = "drivers";
     
     public DriverRepository() {
-        loadData();
+        this(DemandGrid.DEFAULT_CELL_SIZE);
+    }
+    
+    @Autowired
+    public DriverRepository(@Value("${surge.cell-size:0.01}") double cellSize) {
+        this.availableSupply = new DemandGrid(cellSize);
+    }
+    
+    @Override
+    public String snapshotName() {
+        return SNAPSHOT_NAME;
     }
 
-    private void loadData() {
-        if (JsonFileUtil.isTestEnv()) {
-            return;
-        }
-        List<Driver> data = JsonFileUtil.loadFromFile(FILE_NAME, new TypeReference<List<Driver>>() {});
-        data.forEach(driver -> drivers.put(driver.getDriverId(), driver));
+    @Override
+    public int loadData() {
+        return SnapshotFileUtil.load(SNAPSHOT_NAME, Driver.class,
+                driver -> {
+                    drivers.put(driver.getDriverId(), driver);
+                    availableSupply.update(driver.getDriverId(), supplyCell(driver));
+                }, this::clearMemory);
     }
 
     private void saveData() {
         if (JsonFileUtil.isTestEnv()) {
             return;
         }
-        JsonFileUtil.saveToFile(FILE_NAME, new ArrayList<>(drivers.values()));
+        SnapshotFileUtil.save(SNAPSHOT_NAME, () -> new ArrayList<>(drivers.values()));
     }
     
     public Driver save(Driver driver) {
         drivers.put(driver.getDriverId(), driver);
+        changes.updated(driver.getDriverId());
+        availableSupply.update(driver.getDriverId(), supplyCell(driver));
         saveData();
         return driver;
     }
@@ -70,12 +89,60 @@ public class DriverRepository {
                 .collect(Collectors.toList());
     }
     
+    public void deleteById(String driverId) {
+        drivers.remove(driverId);
+        changes.deleted(driverId);
+        availableSupply.remove(driverId);
+        saveData();
+    }
+    
     public void deleteAll() {
-        drivers.clear();
+        clearMemory();
+        changes.reset();
         saveData();
     }
     
+    /**
+     * since 序號之後新增或變更的司機 (ChangeFeed)
+     */
+    public ChangeFeed.Delta<Driver> findChangedSince(long since) {
+        return changes.delta(since, drivers::get);
+    }
+    
+    /**
+     * 司機版本，每次 save 遞增 (作為 ETag)
+     */
+    public long versionOf(String driverId) {
+        return changes.versionOf(driverId);
+    }
+    
+    /**
+     * 格子內可接單司機數 (O(1))
+     */
+    public int availableCount(DemandGrid.Cell cell) {
+        return availableSupply.count(cell);
+    }
+    
+    /**
+     * 該車種可接單司機總數 (O(1)，不含尚未回報位置的司機)
+     */
+    public int availableCount(VehicleType vehicleType) {
+        return availableSupply.total(vehicleType);
+    }
+    
     public int count() {
         return drivers.size();
     }
+    
+    private DemandGrid.Cell supplyCell(Driver driver) {
+        if (driver.getStatus() != DriverStatus.ONLINE || driver.isBusy() || driver.getLocation() == null) {
+            return null;
+        }
+        return availableSupply.cellOf(driver.getLocation(), driver.getVehicleType());
+    }
+    
+    private void clearMemory() {
+        drivers.clear();
+        availableSupply.clear();
+    }
 }
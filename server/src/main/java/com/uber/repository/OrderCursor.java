@@ -0,0 +1,55 @@
+package com.uber.repository;
+
+import com.uber.exception.BusinessException;
+import com.uber.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * 訂單排序鍵 / 分頁游標 (createdAt, orderId)
+ *
+ * 同時作為 OrderIndex 的排序鍵；對外以 Base64URL 字串傳遞，
+ * 下一頁從游標之後 (較舊的訂單) 開始，不受新增訂單影響。
+ */
+public record OrderCursor(Instant createdAt, String orderId) implements Comparable<OrderCursor> {
+
+    private static final Comparator<OrderCursor> ORDER = Comparator
+            .comparing(OrderCursor::createdAt)
+            .thenComparing(OrderCursor::orderId);
+
+    public static OrderCursor of(Order order) {
+        Instant createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : Instant.EPOCH;
+        return new OrderCursor(createdAt, order.getOrderId());
+    }
+
+    /**
+     * 排在該時間點所有訂單之前的鍵 (時間範圍下界)
+     */
+    static OrderCursor lowest(Instant createdAt) {
+        return new OrderCursor(createdAt, "");
+    }
+
+    @Override
+    public int compareTo(OrderCursor other) {
+        return ORDER.compare(this, other);
+    }
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new OrderCursor(createdAt, parts[2]);
+        } catch (RuntimeException e) {
+            throw new BusinessException("INVALID_CURSOR", "無效的分頁游標");
+        }
+    }
+}
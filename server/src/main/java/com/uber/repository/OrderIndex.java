@@ -0,0 +1,135 @@
+package com.uber.repository;
+
+import com.uber.model.Order;
+import com.uber.model.OrderStatus;
+import com.uber.model.VehicleType;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 訂單排序索引
+ *
+ * 以 (createdAt, orderId) 排序的 skip list，另依狀態、車種、(狀態, 車種)、司機、乘客各建一組子索引；
+ * 查詢時挑選最精確的索引，分頁成本為 O(log n + 頁大小)。
+ * 讀取不加鎖，寫入由 OrderRepository 序列化。
+ */
+class OrderIndex {
+
+    /**
+     * 上次寫入索引時的欄位值 (Order 會被原地修改，需記住舊值才能移出子索引)
+     */
+    private record Entry(OrderCursor key, OrderStatus status, VehicleType vehicleType,
+                         String driverId, String passengerId) {
+
+        StatusType statusType() {
+            return status != null && vehicleType != null ? new StatusType(status, vehicleType) : null;
+        }
+    }
+
+    /**
+     * 狀態與車種的組合鍵
+     */
+    private record StatusType(OrderStatus status, VehicleType vehicleType) {
+    }
+
+    private static final NavigableSet<OrderCursor> EMPTY = Collections.emptyNavigableSet();
+
+    private final NavigableSet<OrderCursor> all = new ConcurrentSkipListSet<>();
+    private final Map<OrderStatus, NavigableSet<OrderCursor>> byStatus = new ConcurrentHashMap<>();
+    private final Map<VehicleType, NavigableSet<OrderCursor>> byVehicleType = new ConcurrentHashMap<>();
+    private final Map<StatusType, NavigableSet<OrderCursor>> byStatusAndType = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<OrderCursor>> byDriver = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<OrderCursor>> byPassenger = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @return 上次寫入索引時的狀態，新訂單為 null
+     */
+    OrderStatus update(Order order) {
+        Entry next = new Entry(OrderCursor.of(order), order.getStatus(), order.getVehicleType(),
+                order.getDriverId(), order.getPassengerId());
+        Entry previous = entries.put(order.getOrderId(), next);
+        if (next.equals(previous)) {
+            return previous.status();
+        }
+        if (previous != null) {
+            remove(previous);
+        }
+        all.add(next.key());
+        add(byStatus, next.status(), next.key());
+        add(byVehicleType, next.vehicleType(), next.key());
+        add(byStatusAndType, next.statusType(), next.key());
+        add(byDriver, next.driverId(), next.key());
+        add(byPassenger, next.passengerId(), next.key());
+        return previous != null ? previous.status() : null;
+    }
+
+    void clear() {
+        entries.clear();
+        all.clear();
+        byStatus.clear();
+        byVehicleType.clear();
+        byStatusAndType.clear();
+        byDriver.clear();
+        byPassenger.clear();
+    }
+
+    /**
+     * 依查詢條件挑選候選鍵集合 (其餘條件由呼叫端再過濾)
+     */
+    NavigableSet<OrderCursor> candidates(OrderQuery query) {
+        NavigableSet<OrderCursor> keys = all;
+        if (query.driverId() != null) {
+            keys = byDriver.getOrDefault(query.driverId(), EMPTY);
+        } else if (query.passengerId() != null) {
+            keys = byPassenger.getOrDefault(query.passengerId(), EMPTY);
+        } else if (query.status() != null && query.vehicleType() != null) {
+            keys = byStatusAndType.getOrDefault(new StatusType(query.status(), query.vehicleType()), EMPTY);
+        } else if (query.status() != null) {
+            keys = byStatus.getOrDefault(query.status(), EMPTY);
+        } else if (query.vehicleType() != null) {
+            keys = byVehicleType.getOrDefault(query.vehicleType(), EMPTY);
+        }
+        if (query.from() != null && query.to() != null) {
+            if (!query.from().isBefore(query.to())) {
+                return EMPTY;
+            }
+            return keys.subSet(OrderCursor.lowest(query.from()), true, OrderCursor.lowest(query.to()), false);
+        }
+        if (query.from() != null) {
+            return keys.tailSet(OrderCursor.lowest(query.from()), true);
+        }
+        if (query.to() != null) {
+            return keys.headSet(OrderCursor.lowest(query.to()), false);
+        }
+        return keys;
+    }
+
+    private void remove(Entry entry) {
+        all.remove(entry.key());
+        remove(byStatus, entry.status(), entry.key());
+        remove(byVehicleType, entry.vehicleType(), entry.key());
+        remove(byStatusAndType, entry.statusType(), entry.key());
+        remove(byDriver, entry.driverId(), entry.key());
+        remove(byPassenger, entry.passengerId(), entry.key());
+    }
+
+    private static <K> void add(Map<K, NavigableSet<OrderCursor>> index, K value, OrderCursor key) {
+        if (value != null) {
+            index.computeIfAbsent(value, v -> new ConcurrentSkipListSet<>()).add(key);
+        }
+    }
+
+    private static <K> void remove(Map<K, NavigableSet<OrderCursor>> index, K value, OrderCursor key) {
+        if (value != null) {
+            NavigableSet<OrderCursor> keys = index.get(value);
+            if (keys != null) {
+                keys.remove(key);
+            }
+        }
+    }
+}
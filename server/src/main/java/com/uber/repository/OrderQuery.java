@@ -0,0 +1,45 @@
+package com.uber.repository;
+
+import com.uber.model.Order;
+import com.uber.model.OrderStatus;
+import com.uber.model.VehicleType;
+import lombok.Builder;
+
+import java.time.Instant;
+
+/**
+ * 訂單查詢條件 (null 表示不篩選)
+ *
+ * 時間範圍以 createdAt 計算，from 含、to 不含。
+ */
+@Builder
+public record OrderQuery(
+        OrderStatus status,
+        VehicleType vehicleType,
+        String driverId,
+        String passengerId,
+        Instant from,
+        Instant to) {
+
+    public static final OrderQuery ALL = OrderQuery.builder().build();
+
+    public boolean matches(Order order) {
+        if (status != null && order.getStatus() != status) {
+            return false;
+        }
+        if (vehicleType != null && order.getVehicleType() != vehicleType) {
+            return false;
+        }
+        if (driverId != null && !driverId.equals(order.getDriverId())) {
+            return false;
+        }
+        if (passengerId != null && !passengerId.equals(order.getPassengerId())) {
+            return false;
+        }
+        Instant createdAt = order.getCreatedAt();
+        if (from != null && (createdAt == null || createdAt.isBefore(from))) {
+            return false;
+        }
+        return to == null || (createdAt != null && createdAt.isBefore(to));
+    }
+}
@@ -1,48 +1,92 @@
 package com.uber.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.uber.model.Location;
 import com.uber.model.Order;
 import com.uber.model.OrderStatus;
+import com.uber.model.VehicleType;
 import com.uber.util.JsonFileUtil;
+import com.uber.util.SnapshotFileUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * 訂單儲存庫 (In-Memory with file persistence)
+ *
+ * 另維護 (createdAt, orderId) 排序索引 (OrderIndex)，供游標分頁查詢；
+ * 以及各格子待派 (PENDING) 訂單數 (DemandGrid)，供動態加價計算；
+ * 叫車與完成事件另彙總到需求熱度圖 (DemandHeatmap)；
+ * 預約 (SCHEDULED) 訂單依上車時間排入 ScheduleQueue。
+ * 訂單路徑另存於 RouteRepository：訂單結束時釋放記憶體中的路徑，刪除訂單時一併刪除。
  */
 @Repository
-public class OrderRepository {
+public class OrderRepository implements PersistentRepository {
     
     private final Map<String, Order> orders = new ConcurrentHashMap<>();
-    private static final String FILE_NAME = "orders.json";
+    private final ChangeFeed changes = new ChangeFeed();
+    private final OrderIndex index = new OrderIndex();
+    private final DemandGrid pendingDemand;
+    private final DemandHeatmap heatmap;
+    private final ScheduleQueue scheduled = new ScheduleQueue();
+    private final RouteRepository routes;
+    private static final String SNAPSHOT_NAME = "orders";
     
     public OrderRepository() {
-        loadData();
+        this(new RouteRepository());
+    }
+    
+    public OrderRepository(RouteRepository routes) {
+        this(routes, DemandGrid.DEFAULT_CELL_SIZE, DemandHeatmap.DEFAULT_CELL_SIZE);
+    }
+    
+    @Autowired
+    public OrderRepository(RouteRepository routes,
+                           @Value("${surge.cell-size:0.01}") double demandCellSize,
+                           @Value("${heatmap.cell-size:0.005}") double heatmapCellSize) {
+        this.routes = routes;
+        this.pendingDemand = new DemandGrid(demandCellSize);
+        this.heatmap = new DemandHeatmap(heatmapCellSize);
+    }
+    
+    @Override
+    public String snapshotName() {
+        return SNAPSHOT_NAME;
     }
 
-    private void loadData() {
-        if (JsonFileUtil.isTestEnv()) {
-            return;
-        }
-        List<Order> data = JsonFileUtil.loadFromFile(FILE_NAME, new TypeReference<List<Order>>() {});
-        data.forEach(order -> orders.put(order.getOrderId(), order));
+    @Override
+    public int loadData() {
+        return SnapshotFileUtil.load(SNAPSHOT_NAME, Order.class,
+                order -> {
+                    orders.put(order.getOrderId(), order);
+                    indexOrder(order);
+                }, this::clearMemory);
     }
 
     private void saveData() {
         if (JsonFileUtil.isTestEnv()) {
             return;
         }
-        JsonFileUtil.saveToFile(FILE_NAME, new ArrayList<>(orders.values()));
+        SnapshotFileUtil.save(SNAPSHOT_NAME, () -> new ArrayList<>(orders.values()));
     }
     
     public Order save(Order order) {
         orders.put(order.getOrderId(), order);
+        changes.updated(order.getOrderId());
+        indexOrder(order);
+        if (order.getStatus() == OrderStatus.COMPLETED || order.getStatus() == OrderStatus.CANCELLED) {
+            routes.evict(order.getOrderId());
+        }
         saveData();
         return order;
     }
@@ -73,11 +117,141 @@ public class OrderRepository {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 游標分頁查詢，依 (createdAt, orderId) 由新到舊
+     *
+     * @param after 上一頁最後一筆的游標，null 表示第一頁
+     * @param limit 最多回傳筆數
+     */
+    public List<Order> findPage(OrderQuery query, OrderCursor after, int limit) {
+        NavigableSet<OrderCursor> keys = index.candidates(query);
+        if (after != null) {
+            keys = keys.headSet(after, false);
+        }
+        List<Order> page = new ArrayList<>(Math.min(limit, 64));
+        Iterator<OrderCursor> iterator = keys.descendingIterator();
+        while (iterator.hasNext() && page.size() < limit) {
+            Order order = orders.get(iterator.next().orderId());
+            // 索引與資料之間可能有短暫落差，以實際資料再比對一次
+            if (order != null && query.matches(order)) {
+                page.add(order);
+            }
+        }
+        return page;
+    }
+    
+    /**
+     * 依條件逐筆送出訂單 (由新到舊)，直接走訪索引不建立結果列表
+     */
+    public void forEach(OrderQuery query, Consumer<Order> sink) {
+        Iterator<OrderCursor> iterator = index.candidates(query).descendingIterator();
+        while (iterator.hasNext()) {
+            Order order = orders.get(iterator.next().orderId());
+            if (order != null && query.matches(order)) {
+                sink.accept(order);
+            }
+        }
+    }
+    
     public void deleteAll() {
-        orders.clear();
+        clearMemory();
+        changes.reset();
+        routes.deleteAll();
         saveData();
     }
     
+    private void indexOrder(Order order) {
+        synchronized (index) {
+            OrderStatus previous = index.update(order);
+            pendingDemand.update(order.getOrderId(), pendingCell(order));
+            boolean isScheduled = order.getStatus() == OrderStatus.SCHEDULED;
+            scheduled.update(order.getOrderId(), isScheduled ? order.getScheduledPickupAt() : null);
+            // 預約訂單在釋放到配對流程時才計入叫車
+            if (previous == null && !isScheduled) {
+                heatmap.recordPickup(order.getPickupLocation(), order.getCreatedAt());
+            } else if (previous == OrderStatus.SCHEDULED && !isScheduled) {
+                heatmap.recordPickup(order.getPickupLocation(), Instant.now());
+            }
+            if (order.getStatus() == OrderStatus.COMPLETED && previous != OrderStatus.COMPLETED) {
+                heatmap.recordCompletion(order.getDropoffLocation(), order.getCompletedAt());
+            }
+        }
+    }
+    
+    private DemandGrid.Cell pendingCell(Order order) {
+        if (order.getStatus() != OrderStatus.PENDING || order.getPickupLocation() == null) {
+            return null;
+        }
+        return pendingDemand.cellOf(order.getPickupLocation(), order.getVehicleType());
+    }
+    
+    private void clearMemory() {
+        synchronized (index) {
+            orders.clear();
+            index.clear();
+            pendingDemand.clear();
+            heatmap.clear();
+            scheduled.clear();
+        }
+    }
+    
+    /**
+     * since 序號之後新增或變更的訂單 (ChangeFeed)
+     */
+    public ChangeFeed.Delta<Order> findChangedSince(long since) {
+        return changes.delta(since, orders::get);
+    }
+    
+    /**
+     * 訂單版本，每次 save 遞增 (作為 ETag)
+     */
+    public long versionOf(String orderId) {
+        return changes.versionOf(orderId);
+    }
+    
+    /**
+     * 座標所在的需求格子
+     */
+    public DemandGrid.Cell demandCell(Location location, VehicleType vehicleType) {
+        return pendingDemand.cellOf(location, vehicleType);
+    }
+    
+    /**
+     * 格子內待派訂單數 (O(1))
+     */
+    public int pendingCount(DemandGrid.Cell cell) {
+        return pendingDemand.count(cell);
+    }
+    
+    /**
+     * 待派訂單總數 (O(1)，不含沒有上車點的訂單)
+     */
+    public int pendingCount() {
+        return pendingDemand.total();
+    }
+    
+    /**
+     * 需求熱度圖：視窗內各格子的叫車與完成數
+     */
+    public List<DemandHeatmap.CellCount> heatmap(DemandHeatmap.Window window) {
+        return heatmap.snapshot(window, Instant.now());
+    }
+    
+    public double heatmapCellSize() {
+        return heatmap.cellSize();
+    }
+    
+    /**
+     * 預約上車時間不晚於 cutoff 的預約訂單 ID (由早到晚)
+     */
+    public List<String> findDueScheduled(Instant cutoff, int limit) {
+        return scheduled.due(cutoff, limit);
+    }
+    
+    public int scheduledCount() {
+        return scheduled.size();
+    }
+    
     public int count() {
         return orders.size();
     }
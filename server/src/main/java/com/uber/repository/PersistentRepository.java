@@ -0,0 +1,21 @@
+package com.uber.repository;
+
+/**
+ * 有快照持久化的儲存庫
+ *
+ * 啟動時由 RepositoryLoader 平行載入，不在建構子中讀檔。
+ */
+public interface PersistentRepository {
+
+    /**
+     * 快照名稱 (data/&lt;name&gt;.snap)
+     */
+    String snapshotName();
+
+    /**
+     * 自快照載入資料
+     *
+     * @return 載入筆數
+     */
+    int loadData();
+}
@@ -1,6 +1,7 @@
 package com.uber.repository;
 
 import com.uber.model.Rider;
+import com.uber.util.SnapshotFileUtil;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
@@ -13,22 +14,24 @@ import java.util.concurrent.ConcurrentHashMap;
  * 乘客儲存庫 - 記憶體實作
  */
 @Repository
-public class RiderRepository {
+public class RiderRepository implements PersistentRepository {
     
     private final Map<String, Rider> riders = new ConcurrentHashMap<>();
-    private static final String FILE_NAME = "riders.json";
+    private static final String SNAPSHOT_NAME = "riders";
     
-    public RiderRepository() {
-        loadData();
+    @Override
+    public String snapshotName() {
+        return SNAPSHOT_NAME;
     }
 
-    private void loadData() {
-        List<Rider> data = com.uber.util.JsonFileUtil.loadFromFile(FILE_NAME, new com.fasterxml.jackson.core.type.TypeReference<List<Rider>>() {});
-        data.forEach(item -> riders.put(item.getRiderId(), item));
+    @Override
+    public int loadData() {
+        return SnapshotFileUtil.load(SNAPSHOT_NAME, Rider.class,
+                item -> riders.put(item.getRiderId(), item), riders::clear);
     }
 
     private void saveData() {
-        com.uber.util.JsonFileUtil.saveToFile(FILE_NAME, new ArrayList<>(riders.values()));
+        SnapshotFileUtil.save(SNAPSHOT_NAME, () -> new ArrayList<>(riders.values()));
     }
     
     public Rider save(Rider rider) {
@@ -0,0 +1,167 @@
+package com.uber.repository;
+
+import com.uber.util.AtomicFiles;
+import com.uber.util.JsonFileUtil;
+import com.uber.util.PolylineCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * 訂單路徑儲存庫
+ *
+ * 路徑以 PolylineCodec 壓縮後依 orderId 各存一個檔案 (data/routes/&lt;orderId&gt;.route)，
+ * 不放在 Order 上，訂單快照與訂單回應都不含路徑。
+ * 啟動時不載入，第一次查詢某張訂單的路徑時才讀檔；記憶體中只保存壓縮後的 bytes，
+ * 並以 LRU 限制最多 MAX_CACHED 筆 (被淘汰的路徑仍在檔案中，下次查詢再讀回)。
+ * 訂單完成或取消後由 OrderRepository 呼叫 evict 釋放記憶體；刪除訂單時一併刪除路徑檔。
+ */
+@Slf4j
+@Repository
+public class RouteRepository {
+
+    private static final String DIRECTORY = "routes";
+    private static final String SUFFIX = ".route";
+    private static final Pattern SAFE_ID = Pattern.compile("[A-Za-z0-9_-]+");
+    // 記憶體中最多保存的路徑數
+    static final int MAX_CACHED = 1000;
+
+    private final Map<String, byte[]> routes;
+    // null 表示只存在記憶體 (測試環境)，此時不淘汰
+    private final Path directory;
+
+    public RouteRepository() {
+        this(JsonFileUtil.isTestEnv() ? null : JsonFileUtil.dataDir().toPath().resolve(DIRECTORY));
+    }
+
+    RouteRepository(Path directory) {
+        this.directory = directory;
+        this.routes = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return directory != null && size() > MAX_CACHED;
+            }
+        });
+    }
+
+    /**
+     * 儲存 (取代) 訂單路徑
+     *
+     * @return 壓縮後的大小 (bytes)
+     */
+    public int save(String orderId, double[][] points) {
+        byte[] encoded = PolylineCodec.encode(points);
+        routes.put(orderId, encoded);
+        Path file = fileOf(orderId);
+        if (file != null) {
+            try {
+                Files.createDirectories(directory);
+                AtomicFiles.write(file, false, channel -> channel.write(ByteBuffer.wrap(encoded)));
+            } catch (IOException e) {
+                log.error("Failed to save route for order {}", orderId, e);
+            }
+        }
+        return encoded.length;
+    }
+
+    /**
+     * 訂單路徑 (尚未載入時讀檔)
+     */
+    public Optional<double[][]> findById(String orderId) {
+        byte[] encoded = findEncoded(orderId);
+        if (encoded == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(PolylineCodec.decode(encoded));
+        } catch (IllegalArgumentException e) {
+            log.error("Corrupted route for order {}", orderId, e);
+            routes.remove(orderId);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 壓縮後路徑的 CRC32 (不解碼，作為 ETag)；沒有路徑時為 0
+     */
+    public long checksumOf(String orderId) {
+        byte[] encoded = findEncoded(orderId);
+        if (encoded == null) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(encoded);
+        return crc.getValue();
+    }
+
+    private byte[] findEncoded(String orderId) {
+        byte[] encoded = routes.get(orderId);
+        return encoded != null ? encoded : load(orderId);
+    }
+
+    /**
+     * 釋放記憶體中的路徑 (檔案保留，之後查詢再讀回)；只存在記憶體時不釋放
+     */
+    public void evict(String orderId) {
+        if (directory != null) {
+            routes.remove(orderId);
+        }
+    }
+
+    /**
+     * 刪除所有路徑 (記憶體與檔案)
+     */
+    public void deleteAll() {
+        routes.clear();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.error("Failed to delete routes in {}", directory, e);
+        }
+    }
+
+    /**
+     * 已載入記憶體的路徑數
+     */
+    int loadedCount() {
+        return routes.size();
+    }
+
+    private byte[] load(String orderId) {
+        Path file = fileOf(orderId);
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        try {
+            byte[] encoded = Files.readAllBytes(file);
+            byte[] existing = routes.putIfAbsent(orderId, encoded);
+            return existing != null ? existing : encoded;
+        } catch (IOException e) {
+            log.error("Failed to load route for order {}", orderId, e);
+            return null;
+        }
+    }
+
+    private Path fileOf(String orderId) {
+        if (directory == null || !SAFE_ID.matcher(orderId).matches()) {
+            return null;
+        }
+        return directory.resolve(orderId + SUFFIX);
+    }
+}
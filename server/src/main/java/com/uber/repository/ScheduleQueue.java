@@ -0,0 +1,68 @@
+package com.uber.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * 預約訂單的時間排序佇列
+ *
+ * 以 (預約上車時間, orderId) 排序；訂單離開 SCHEDULED 狀態時由 OrderRepository 移出。
+ * 佇列本身不另外持久化，重新啟動時隨訂單快照載入而重建。
+ * 取出到期項目為 O(log n + k)，不需掃描全部訂單。
+ */
+class ScheduleQueue {
+
+    private record Entry(Instant pickupAt, String orderId) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int cmp = pickupAt.compareTo(other.pickupAt);
+            return cmp != 0 ? cmp : orderId.compareTo(other.orderId);
+        }
+    }
+
+    private final NavigableSet<Entry> queue = new TreeSet<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * @param pickupAt null 表示移出佇列
+     */
+    synchronized void update(String orderId, Instant pickupAt) {
+        Entry next = pickupAt != null ? new Entry(pickupAt, orderId) : null;
+        Entry previous = next != null ? entries.put(orderId, next) : entries.remove(orderId);
+        if (previous != null && !previous.equals(next)) {
+            queue.remove(previous);
+        }
+        if (next != null) {
+            queue.add(next);
+        }
+    }
+
+    /**
+     * 預約時間不晚於 cutoff 的訂單 ID (由早到晚，最多 limit 筆)
+     */
+    synchronized List<String> due(Instant cutoff, int limit) {
+        List<String> result = new ArrayList<>();
+        for (Entry entry : queue) {
+            if (entry.pickupAt().isAfter(cutoff) || result.size() >= limit) {
+                break;
+            }
+            result.add(entry.orderId());
+        }
+        return result;
+    }
+
+    synchronized int size() {
+        return queue.size();
+    }
+
+    synchronized void clear() {
+        queue.clear();
+        entries.clear();
+    }
+}
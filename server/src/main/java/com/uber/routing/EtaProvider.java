@@ -0,0 +1,80 @@
+package com.uber.routing;
+
+import com.uber.model.Driver;
+import com.uber.model.Location;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 預估行駛時間 (ETA) 提供者
+ *
+ * 配對時先以直線距離取最近的 TOP_K 位司機 (空間篩選)，再以 ETA 決定最佳者；
+ * 實作可為直線估算 (StraightLineEtaProvider) 或路網 (RoadGraphEtaProvider)。
+ */
+public interface EtaProvider {
+
+    // 每張訂單以 ETA 評估的候選司機數
+    int TOP_K = 8;
+
+    /**
+     * 由司機 ETA 排序的候選者
+     *
+     * @param distance   直線距離
+     * @param etaSeconds 預估行駛秒數
+     */
+    record Candidate(Driver driver, double distance, double etaSeconds) {
+    }
+
+    /**
+     * 由 from 行駛到 to 的預估秒數；無法到達時回傳 Double.POSITIVE_INFINITY
+     */
+    double etaSeconds(Location from, Location to);
+
+    /**
+     * 多個起點到同一終點的預估秒數 (路網實作可用一次搜尋算完)
+     */
+    default double[] etaSeconds(List<Location> from, Location to) {
+        double[] result = new double[from.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = etaSeconds(from.get(i), to);
+        }
+        return result;
+    }
+
+    /**
+     * 在直線距離最近的 TOP_K 位司機中挑出 ETA 最短者 (相同時 ID 較小者優先)
+     *
+     * @param drivers 已篩選可接單且有位置的司機
+     */
+    default Optional<Candidate> fastest(List<Driver> drivers, Location pickup) {
+        List<Driver> nearest = drivers.stream()
+                .sorted(Comparator.comparingDouble((Driver d) -> d.getLocation().distanceTo(pickup))
+                        .thenComparing(Driver::getDriverId))
+                .limit(TOP_K)
+                .toList();
+        if (nearest.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Location> origins = new ArrayList<>(nearest.size());
+        for (Driver driver : nearest) {
+            origins.add(driver.getLocation());
+        }
+        double[] etas = etaSeconds(origins, pickup);
+        Candidate best = null;
+        for (int i = 0; i < nearest.size(); i++) {
+            Driver driver = nearest.get(i);
+            if (Double.isInfinite(etas[i])) {
+                continue;
+            }
+            if (best == null || etas[i] < best.etaSeconds()
+                    || (etas[i] == best.etaSeconds()
+                        && driver.getDriverId().compareTo(best.driver().getDriverId()) < 0)) {
+                best = new Candidate(driver, driver.getLocation().distanceTo(pickup), etas[i]);
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+}
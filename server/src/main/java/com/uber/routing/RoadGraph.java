@@ -0,0 +1,390 @@
+package com.uber.routing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路網圖 (不可變，可多執行緒共用)
+ *
+ * 節點與邊以 CSR 陣列保存 (正向與反向各一份)；邊權為行駛秒數 = 長度 / 車速。
+ * 另以格子索引節點，將任意座標吸附到最近的節點；格子邊長依路網密度決定
+ * (涵蓋範圍面積 / 節點數 開根號，平均每格約一個節點)，不受座標單位影響。
+ *
+ * 檔案格式 (UTF-8，# 開頭為註解)：
+ * <pre>
+ * node &lt;id&gt; &lt;x&gt; &lt;y&gt;
+ * edge &lt;from&gt; &lt;to&gt; &lt;車速 (座標單位/小時)&gt; [oneway]
+ * </pre>
+ */
+public final class RoadGraph {
+
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] forwardStart;
+    private final int[] forwardTarget;
+    private final double[] forwardSeconds;
+    private final int[] reverseStart;
+    private final int[] reverseTarget;
+    private final double[] reverseSeconds;
+    private final double maxSpeed;
+    private final double minSpeed;
+    private final double snapCell;
+    private final Map<Long, int[]> snapCells = new HashMap<>();
+    private final double minX;
+    private final double maxX;
+    private final double minY;
+    private final double maxY;
+
+    private RoadGraph(double[] xs, double[] ys, int[] from, int[] to, double[] seconds,
+                      double maxSpeed, double minSpeed) {
+        this.xs = xs;
+        this.ys = ys;
+        this.maxSpeed = maxSpeed;
+        this.minSpeed = minSpeed;
+        int n = xs.length;
+        forwardStart = new int[n + 1];
+        forwardTarget = new int[from.length];
+        forwardSeconds = new double[from.length];
+        reverseStart = new int[n + 1];
+        reverseTarget = new int[from.length];
+        reverseSeconds = new double[from.length];
+        toCsr(from, to, seconds, forwardStart, forwardTarget, forwardSeconds);
+        toCsr(to, from, seconds, reverseStart, reverseTarget, reverseSeconds);
+
+        double x0 = Double.MAX_VALUE, x1 = -Double.MAX_VALUE, y0 = Double.MAX_VALUE, y1 = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            x0 = Math.min(x0, xs[i]);
+            x1 = Math.max(x1, xs[i]);
+            y0 = Math.min(y0, ys[i]);
+            y1 = Math.max(y1, ys[i]);
+        }
+        minX = x0;
+        maxX = x1;
+        minY = y0;
+        maxY = y1;
+        snapCell = snapCellSize(x1 - x0, y1 - y0, n);
+
+        Map<Long, List<Integer>> cells = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            cells.computeIfAbsent(cellKey(cellOf(xs[i]), cellOf(ys[i])), key -> new ArrayList<>()).add(i);
+        }
+        cells.forEach((key, nodes) -> snapCells.put(key, nodes.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * 吸附格子邊長：平均每格約一個節點；節點共線時以長邊平均間距計，只有一個點時為 1
+     */
+    private static double snapCellSize(double width, double height, int nodeCount) {
+        double area = width * height;
+        if (area > 0) {
+            return Math.sqrt(area / nodeCount);
+        }
+        double extent = Math.max(width, height);
+        return extent > 0 ? extent / nodeCount : 1.0;
+    }
+
+    /**
+     * 由檔案載入路網
+     */
+    public static RoadGraph load(Path file) {
+        try {
+            return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("無法讀取路網檔案: " + file, e);
+        }
+    }
+
+    /**
+     * 由檔案內容 (每行一筆) 建立路網
+     */
+    public static RoadGraph parse(List<String> lines) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<double[]> nodes = new ArrayList<>();
+        List<String[]> edges = new ArrayList<>();
+        for (String raw : lines) {
+            String line = raw.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            if (parts[0].equals("node") && parts.length == 4) {
+                if (ids.putIfAbsent(parts[1], nodes.size()) != null) {
+                    throw new IllegalStateException("路網節點重複: " + parts[1]);
+                }
+                nodes.add(new double[] {Double.parseDouble(parts[2]), Double.parseDouble(parts[3])});
+            } else if (parts[0].equals("edge") && (parts.length == 4 || parts.length == 5)) {
+                edges.add(parts);
+            } else {
+                throw new IllegalStateException("無法解析路網資料: " + line);
+            }
+        }
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException("路網沒有任何節點");
+        }
+
+        double[] xs = new double[nodes.size()];
+        double[] ys = new double[nodes.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = nodes.get(i)[0];
+            ys[i] = nodes.get(i)[1];
+        }
+        int count = 0;
+        int[] from = new int[edges.size() * 2];
+        int[] to = new int[edges.size() * 2];
+        double[] seconds = new double[edges.size() * 2];
+        double maxSpeed = 0;
+        double minSpeed = Double.MAX_VALUE;
+        for (String[] edge : edges) {
+            Integer a = ids.get(edge[1]);
+            Integer b = ids.get(edge[2]);
+            double speed = Double.parseDouble(edge[3]);
+            if (a == null || b == null || speed <= 0) {
+                throw new IllegalStateException("無效的路段: " + String.join(" ", edge));
+            }
+            double cost = Math.hypot(xs[a] - xs[b], ys[a] - ys[b]) / speed * 3600;
+            maxSpeed = Math.max(maxSpeed, speed);
+            minSpeed = Math.min(minSpeed, speed);
+            from[count] = a;
+            to[count] = b;
+            seconds[count++] = cost;
+            if (edge.length == 4) {
+                from[count] = b;
+                to[count] = a;
+                seconds[count++] = cost;
+            } else if (!edge[4].equals("oneway")) {
+                throw new IllegalStateException("無效的路段: " + String.join(" ", edge));
+            }
+        }
+        return new RoadGraph(xs, ys, Arrays.copyOf(from, count), Arrays.copyOf(to, count),
+                Arrays.copyOf(seconds, count), maxSpeed > 0 ? maxSpeed : 1, maxSpeed > 0 ? minSpeed : 1);
+    }
+
+    public int nodeCount() {
+        return xs.length;
+    }
+
+    /**
+     * 最慢路段的車速 (座標單位 / 小時，沒有路段時為 1)
+     */
+    double minSpeed() {
+        return minSpeed;
+    }
+
+    double snapCell() {
+        return snapCell;
+    }
+
+    double x(int node) {
+        return xs[node];
+    }
+
+    double y(int node) {
+        return ys[node];
+    }
+
+    /**
+     * 最近的節點 (由所在格子向外一圈一圈搜尋)
+     */
+    int nearestNode(double x, double y) {
+        long cx = cellOf(x);
+        long cy = cellOf(y);
+        double reach = Math.max(Math.max(Math.abs(x - minX), Math.abs(x - maxX)),
+                Math.max(Math.abs(y - minY), Math.abs(y - maxY)));
+        long maxRing = (long) Math.ceil(reach / snapCell) + 1;
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (long ring = 0; ring <= maxRing; ring++) {
+            // 第 ring 圈的格子與查詢點至少相距 (ring - 1) 格
+            if (best >= 0 && (ring - 1) * snapCell > bestDistance) {
+                break;
+            }
+            for (long i = cx - ring; i <= cx + ring; i++) {
+                for (long j = cy - ring; j <= cy + ring; j++) {
+                    if (Math.max(Math.abs(i - cx), Math.abs(j - cy)) != ring) {
+                        continue;
+                    }
+                    int[] nodes = snapCells.get(cellKey(i, j));
+                    if (nodes == null) {
+                        continue;
+                    }
+                    for (int node : nodes) {
+                        double d = Math.hypot(xs[node] - x, ys[node] - y);
+                        if (d < bestDistance) {
+                            bestDistance = d;
+                            best = node;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 多個起點到同一終點的最短行駛秒數
+     *
+     * 在反向圖上由終點做一次 A* 搜尋，啟發值為到最近起點的直線距離 / 最高車速 (一致且不高估)，
+     * 所有起點都確定後即停止；無法到達的起點為 Double.POSITIVE_INFINITY。
+     */
+    double[] travelSeconds(int[] sources, int target) {
+        double[] result = new double[sources.length];
+        Arrays.fill(result, Double.POSITIVE_INFINITY);
+        Search search = SEARCH.get().reset(xs.length);
+        Map<Integer, List<Integer>> pending = new HashMap<>();
+        for (int i = 0; i < sources.length; i++) {
+            pending.computeIfAbsent(sources[i], key -> new ArrayList<>()).add(i);
+        }
+
+        search.relax(target, 0, heuristic(target, sources));
+        while (!pending.isEmpty() && search.size > 0) {
+            int node = search.pop();
+            if (!search.settle(node)) {
+                continue;
+            }
+            double g = search.g[node];
+            List<Integer> hits = pending.remove(node);
+            if (hits != null) {
+                for (int index : hits) {
+                    result[index] = g;
+                }
+            }
+            for (int e = reverseStart[node]; e < reverseStart[node + 1]; e++) {
+                int next = reverseTarget[e];
+                search.relax(next, g + reverseSeconds[e], heuristic(next, sources));
+            }
+        }
+        return result;
+    }
+
+    private double heuristic(int node, int[] sources) {
+        double min = Double.MAX_VALUE;
+        for (int source : sources) {
+            min = Math.min(min, Math.hypot(xs[node] - xs[source], ys[node] - ys[source]));
+        }
+        return min / maxSpeed * 3600;
+    }
+
+    private static void toCsr(int[] from, int[] to, double[] seconds, int[] start, int[] target, double[] weight) {
+        for (int a : from) {
+            start[a + 1]++;
+        }
+        for (int i = 0; i < start.length - 1; i++) {
+            start[i + 1] += start[i];
+        }
+        int[] fill = Arrays.copyOf(start, start.length - 1);
+        for (int e = 0; e < from.length; e++) {
+            int slot = fill[from[e]]++;
+            target[slot] = to[e];
+            weight[slot] = seconds[e];
+        }
+    }
+
+    private long cellOf(double value) {
+        return (long) Math.floor(value / snapCell);
+    }
+
+    private static long cellKey(long i, long j) {
+        return (i << 32) | (j & 0xFFFFFFFFL);
+    }
+
+    private static final ThreadLocal<Search> SEARCH = ThreadLocal.withInitial(Search::new);
+
+    /**
+     * 每條執行緒重複使用的搜尋工作區；以世代編號取代每次清空陣列
+     */
+    private static final class Search {
+        double[] g = new double[0];
+        int[] visited = new int[0];
+        int[] settled = new int[0];
+        int generation;
+
+        // 二元堆積 (允許重複節點，取出時略過已確定者)
+        int[] heapNodes = new int[64];
+        double[] heapKeys = new double[64];
+        int size;
+
+        Search reset(int nodeCount) {
+            if (g.length < nodeCount) {
+                g = new double[nodeCount];
+                visited = new int[nodeCount];
+                settled = new int[nodeCount];
+                generation = 0;
+            }
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                Arrays.fill(settled, 0);
+                generation = 1;
+            }
+            size = 0;
+            return this;
+        }
+
+        void relax(int node, double cost, double heuristic) {
+            if (settled[node] == generation || (visited[node] == generation && g[node] <= cost)) {
+                return;
+            }
+            visited[node] = generation;
+            g[node] = cost;
+            push(node, cost + heuristic);
+        }
+
+        boolean settle(int node) {
+            if (settled[node] == generation) {
+                return false;
+            }
+            settled[node] = generation;
+            return true;
+        }
+
+        private void push(int node, double key) {
+            if (size == heapNodes.length) {
+                heapNodes = Arrays.copyOf(heapNodes, size * 2);
+                heapKeys = Arrays.copyOf(heapKeys, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapKeys[parent] <= key) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[parent];
+                heapKeys[i] = heapKeys[parent];
+                i = parent;
+            }
+            heapNodes[i] = node;
+            heapKeys[i] = key;
+        }
+
+        int pop() {
+            int top = heapNodes[0];
+            int lastNode = heapNodes[--size];
+            double lastKey = heapKeys[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heapKeys[child + 1] < heapKeys[child]) {
+                    child++;
+                }
+                if (heapKeys[child] >= lastKey) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[child];
+                heapKeys[i] = heapKeys[child];
+                i = child;
+            }
+            heapNodes[i] = lastNode;
+            heapKeys[i] = lastKey;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.uber.routing;
+
+import com.uber.model.Location;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路網 ETA
+ *
+ * 起訖點先吸附到最近的路網節點，節點間以 RoadGraph 的 A* 求最短行駛時間，
+ * 再加上起訖點到節點的接駁時間。路網檔的座標與車速單位由檔案決定 (例如經緯度 / 小時)，
+ * 因此接駁車速不另設絕對值，而取路網最慢路段車速的 ACCESS_SPEED_RATIO 倍：
+ * 未收錄於路網的巷弄不會比收錄的最慢道路快。
+ * 節點對的結果放入 LRU 快取，熱門格子之間的重複查詢不需再搜尋；
+ * 同一張訂單的多位候選司機以一次反向搜尋算完。
+ */
+public class RoadGraphEtaProvider implements EtaProvider {
+
+    // 接駁車速相對於路網最慢路段車速的比例
+    static final double ACCESS_SPEED_RATIO = 0.5;
+    static final int CACHE_SIZE = 100_000;
+
+    private final RoadGraph graph;
+    private final double accessSpeed;
+    private final Map<Long, Double> cache = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public RoadGraphEtaProvider(RoadGraph graph) {
+        this.graph = graph;
+        this.accessSpeed = graph.minSpeed() * ACCESS_SPEED_RATIO;
+    }
+
+    @Override
+    public double etaSeconds(Location from, Location to) {
+        return etaSeconds(List.of(from), to)[0];
+    }
+
+    @Override
+    public double[] etaSeconds(List<Location> from, Location to) {
+        int target = graph.nearestNode(to.getX(), to.getY());
+        double[] result = new double[from.size()];
+        int[] sources = new int[from.size()];
+        int[] missing = new int[from.size()];
+        int missingCount = 0;
+        synchronized (cache) {
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = graph.nearestNode(from.get(i).getX(), from.get(i).getY());
+                Double cached = cache.get(key(sources[i], target));
+                if (cached != null) {
+                    result[i] = cached;
+                } else {
+                    missing[missingCount++] = i;
+                }
+            }
+        }
+
+        if (missingCount > 0) {
+            int[] missingSources = new int[missingCount];
+            for (int i = 0; i < missingCount; i++) {
+                missingSources[i] = sources[missing[i]];
+            }
+            double[] computed = graph.travelSeconds(missingSources, target);
+            synchronized (cache) {
+                for (int i = 0; i < missingCount; i++) {
+                    result[missing[i]] = computed[i];
+                    cache.put(key(missingSources[i], target), computed[i]);
+                }
+            }
+        }
+
+        double egress = access(to, target);
+        for (int i = 0; i < result.length; i++) {
+            result[i] += access(from.get(i), sources[i]) + egress;
+        }
+        return result;
+    }
+
+    int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private double access(Location location, int node) {
+        return Math.hypot(location.getX() - graph.x(node), location.getY() - graph.y(node)) / accessSpeed * 3600;
+    }
+
+    private static long key(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,19 @@
+package com.uber.routing;
+
+import com.uber.model.Location;
+
+/**
+ * 直線距離 ETA (未設定路網時的預設實作)
+ *
+ * 以固定平均車速換算直線距離，排序結果與直線距離相同。
+ */
+public class StraightLineEtaProvider implements EtaProvider {
+
+    // 平均車速 (座標單位 / 小時)
+    static final double SPEED_PER_HOUR = 30.0;
+
+    @Override
+    public double etaSeconds(Location from, Location to) {
+        return from.distanceTo(to) / SPEED_PER_HOUR * 3600;
+    }
+}
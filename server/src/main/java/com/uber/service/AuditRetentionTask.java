@@ -0,0 +1,67 @@
+package com.uber.service;
+
+import com.uber.repository.AuditLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 審計分段保留任務
+ *
+ * 分段儲存只在換檔時刪除過期分段，寫入量低時舊分段可能遠超過保留時間仍未刪除；
+ * 每隔 interval 執行一次保留檢查。未啟用分段儲存時不做事。
+ */
+@Component
+@Slf4j
+public class AuditRetentionTask implements SmartLifecycle {
+
+    private final AuditLogRepository auditLogRepository;
+    private final Duration interval;
+
+    private volatile ScheduledExecutorService executor;
+
+    public AuditRetentionTask(AuditLogRepository auditLogRepository,
+                              @Value("${audit.segment.retention-check:1h}") Duration interval) {
+        this.auditLogRepository = auditLogRepository;
+        this.interval = interval;
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::enforceSafely, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = executor;
+        if (current != null) {
+            current.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    private void enforceSafely() {
+        try {
+            auditLogRepository.enforceRetention();
+        } catch (Exception e) {
+            log.error("審計分段保留檢查失敗", e);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * 審計日誌服務
@@ -68,6 +69,13 @@ public class AuditService {
         return auditLogRepository.findAll();
     }
     
+    /**
+     * 依條件逐筆處理審計日誌 (串流匯出用，條件為 null 表示不篩選)
+     */
+    public void forEachLog(String orderId, String action, Instant from, Instant to, Consumer<AuditLog> sink) {
+        auditLogRepository.forEach(orderId, action, from, to, sink);
+    }
+    
     public Map<String, Long> getAcceptStats(String orderId) {
         long success = auditLogRepository.countSuccessByOrderIdAndAction(orderId, "ACCEPT");
         long failure = auditLogRepository.countFailureByOrderIdAndAction(orderId, "ACCEPT");
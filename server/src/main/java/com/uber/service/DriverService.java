@@ -1,15 +1,21 @@
 package com.uber.service;
 
 import com.uber.exception.BusinessException;
+import com.uber.jfr.OfferComputationEvent;
+import com.uber.metrics.DispatchMetrics;
 import com.uber.model.*;
+import com.uber.repository.ChangeFeed;
 import com.uber.repository.DriverRepository;
 import com.uber.repository.OrderRepository;
+import com.uber.routing.EtaProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 司機服務
@@ -25,6 +31,7 @@ public class DriverService {
     
     private final DriverRepository driverRepository;
     private final OrderRepository orderRepository;
+    private final EtaProvider etaProvider;
     
     /**
      * 司機上線
@@ -86,6 +93,19 @@ public class DriverService {
      * 2. 如果沒有已指派的訂單，嘗試動態配對一張未指派的訂單
      */
     public List<Order> getOffers(String driverId) {
+        OfferComputationEvent event = new OfferComputationEvent();
+        event.begin();
+        List<Order> offers = DispatchMetrics.GET_OFFERS.record(() -> doGetOffers(driverId, event));
+        event.end();
+        if (event.shouldCommit()) {
+            event.driverId = driverId;
+            event.offeredOrderId = offers.isEmpty() ? null : offers.get(0).getOrderId();
+            event.commit();
+        }
+        return offers;
+    }
+
+    private List<Order> doGetOffers(String driverId, OfferComputationEvent event) {
         Driver driver = driverRepository.findById(driverId)
                 .orElseThrow(() -> new BusinessException("DRIVER_NOT_FOUND", "司機不存在"));
         
@@ -93,46 +113,54 @@ public class DriverService {
             throw new BusinessException("DRIVER_OFFLINE", "司機不在線，無法取得訂單");
         }
         
-        if (driver.isBusy()) {
-            return List.of(); // 忙碌中不顯示新訂單
+        // 忙碌中不顯示新訂單；共乘行程中仍可收到指派給自己的共乘訂單
+        boolean pooling = RouteInsertion.isPooling(driver);
+        if (driver.isBusy() && !pooling) {
+            return List.of();
         }
         
         VehicleType driverVehicleType = driver.getVehicleType();
         Location driverLocation = driver.getLocation();
         
+        List<Order> pendingOrders = orderRepository.findByStatus(OrderStatus.PENDING);
+        event.pendingScanned = pendingOrders.size();
+        
         // Step 1: 優先查找已指派給這個司機的訂單
-        for (Order order : orderRepository.findByStatus(OrderStatus.PENDING)) {
+        for (Order order : pendingOrders) {
             if (order.getVehicleType() == driverVehicleType && 
-                driverId.equals(order.getAssignedDriverId())) {
+                driverId.equals(order.getAssignedDriverId()) &&
+                (!pooling || order.isPooled())) {
                 // 返回第一張已指派的訂單 (一次只返回一張)
+                event.assigned = true;
                 return List.of(enrichOrder(order));
             }
         }
         
-        // Step 2: 沒有已指派的訂單，嘗試動態配對一張未指派的訂單
-        if (driverLocation != null) {
-            // 找到離司機最近的未配對訂單
+        // Step 2: 沒有已指派的訂單，嘗試動態配對一張未指派的訂單 (共乘行程中不做)
+        if (driverLocation != null && !pooling) {
+            // 與 getAvailableOrders 相同，只評估直線距離最近的 TOP_K 張未指派訂單，
+            // 避免每次輪詢都對所有待派訂單排序司機並做 ETA 搜尋
+            List<Order> nearest = pendingOrders.stream()
+                    .filter(order -> order.getVehicleType() == driverVehicleType)
+                    .filter(order -> order.getAssignedDriverId() == null) // 已被其他司機指派
+                    .filter(order -> order.getPickupLocation() != null)
+                    .sorted(Comparator
+                            .comparingDouble((Order o) -> o.getPickupLocation().distanceTo(driverLocation))
+                            .thenComparing(Order::getOrderId))
+                    .limit(EtaProvider.TOP_K)
+                    .toList();
+            List<Driver> available = nearest.isEmpty() ? List.of() : availableDrivers(driverVehicleType);
             Order closestOrder = null;
-            double closestDistance = Double.MAX_VALUE;
+            double closestEta = Double.MAX_VALUE;
             
-            for (Order order : orderRepository.findByStatus(OrderStatus.PENDING)) {
-                if (order.getVehicleType() != driverVehicleType) {
-                    continue;
-                }
-                if (order.getAssignedDriverId() != null) {
-                    continue; // 已被其他司機指派
-                }
-                if (order.getPickupLocation() == null) {
-                    continue;
-                }
-                
-                // 檢查這個司機是否是最近的可用司機
-                if (isClosestAvailableDriver(order, driver)) {
-                    double distance = driverLocation.distanceTo(order.getPickupLocation());
-                    if (distance < closestDistance) {
-                        closestDistance = distance;
-                        closestOrder = order;
-                    }
+            // 在這個司機為最佳司機的訂單中，找到 ETA 最短的一張
+            for (Order order : nearest) {
+                // 與派單相同：直線距離最近的 TOP_K 位可用司機中 ETA 最短者才能接這張單
+                Optional<EtaProvider.Candidate> fastest = etaProvider.fastest(available, order.getPickupLocation());
+                if (fastest.isPresent() && fastest.get().driver().getDriverId().equals(driverId)
+                        && fastest.get().etaSeconds() < closestEta) {
+                    closestEta = fastest.get().etaSeconds();
+                    closestOrder = order;
                 }
             }
             
@@ -148,42 +176,15 @@ public class DriverService {
     }
     
     /**
-     * 檢查指定司機是否是訂單的最近可用司機
+     * 指定車種中 ONLINE、非忙碌且有位置的司機
      */
-    private boolean isClosestAvailableDriver(Order order, Driver targetDriver) {
-        if (order.getPickupLocation() == null || targetDriver.getLocation() == null) {
-            return false;
-        }
-        
-        double targetDistance = targetDriver.getLocation().distanceTo(order.getPickupLocation());
-        
-        // 檢查是否有更近的可用司機
-        for (Driver other : driverRepository.findAll()) {
-            if (other.getDriverId().equals(targetDriver.getDriverId())) {
-                continue; // 跳過自己
-            }
-            if (other.getStatus() != DriverStatus.ONLINE || other.isBusy()) {
-                continue; // 跳過不可用的司機
-            }
-            if (other.getVehicleType() != order.getVehicleType()) {
-                continue; // 跳過車種不符的司機
-            }
-            if (other.getLocation() == null) {
-                continue;
-            }
-            
-            double otherDistance = other.getLocation().distanceTo(order.getPickupLocation());
-            if (otherDistance < targetDistance) {
-                return false; // 有更近的司機
-            }
-            // Tie-break: ID 較小者優先
-            if (otherDistance == targetDistance && 
-                other.getDriverId().compareTo(targetDriver.getDriverId()) < 0) {
-                return false;
-            }
-        }
-        
-        return true; // 這個司機是最近的
+    private List<Driver> availableDrivers(VehicleType vehicleType) {
+        return driverRepository.findAll().stream()
+                .filter(driver -> driver.getStatus() == DriverStatus.ONLINE)
+                .filter(driver -> !driver.isBusy())
+                .filter(driver -> driver.getVehicleType() == vehicleType)
+                .filter(driver -> driver.getLocation() != null)
+                .toList();
     }
     
     /**
@@ -232,6 +233,32 @@ public class DriverService {
         return driverRepository.findAll();
     }
     
+    /**
+     * 取得司機版本 (每次儲存遞增)
+     */
+    public long getDriverVersion(String driverId) {
+        return driverRepository.versionOf(driverId);
+    }
+    
+    /**
+     * 可接訂單列表的版本：由各訂單 ID 與版本組合而成，任一訂單變更或列表改變時不同
+     */
+    public long getOffersVersion(List<Order> offers) {
+        long version = 1;
+        for (Order order : offers) {
+            version = 31 * version + order.getOrderId().hashCode();
+            version = 31 * version + orderRepository.versionOf(order.getOrderId());
+        }
+        return version;
+    }
+    
+    /**
+     * 取得 since 序號之後變更的司機
+     */
+    public ChangeFeed.Delta<Driver> getDriversChangedSince(long since) {
+        return driverRepository.findChangedSince(since);
+    }
+    
     /**
      * 註冊/更新司機資料
      */
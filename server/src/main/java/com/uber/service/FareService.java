@@ -6,6 +6,7 @@ import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -52,20 +53,59 @@ public class FareService {
      * 計算預估車資 (僅距離)
      */
     public double calculateEstimatedFare(VehicleType vehicleType, double distance) {
+        return calculateEstimatedFare(vehicleType, distance, 1.0);
+    }
+    
+    /**
+     * 計算預估車資 (僅距離)，套用動態加價倍率
+     */
+    public double calculateEstimatedFare(VehicleType vehicleType, double distance, double surgeMultiplier) {
         RatePlan plan = ratePlans.get(vehicleType);
         double fare = plan.getBaseFare() + (distance * plan.getPerKmRate());
-        return Math.max(fare, plan.getMinFare());
+        return Math.max(fare, plan.getMinFare()) * surgeMultiplier;
     }
     
     /**
      * 計算實際車資 (距離 + 時間)
      */
     public double calculateFare(VehicleType vehicleType, double distance, int durationMinutes) {
+        return calculateFare(vehicleType, distance, durationMinutes, 1.0);
+    }
+    
+    /**
+     * 計算實際車資 (距離 + 時間)，套用建立訂單時鎖定的動態加價倍率
+     */
+    public double calculateFare(VehicleType vehicleType, double distance, int durationMinutes,
+                                double surgeMultiplier) {
         RatePlan plan = ratePlans.get(vehicleType);
         double fare = plan.getBaseFare() 
                 + (distance * plan.getPerKmRate()) 
                 + (durationMinutes * plan.getPerMinRate());
-        return Math.round(Math.max(fare, plan.getMinFare()) * 100.0) / 100.0;
+        return Math.round(Math.max(fare, plan.getMinFare()) * surgeMultiplier * 100.0) / 100.0;
+    }
+    
+    /**
+     * 共乘車資分攤
+     * 
+     * 整條共乘路線視為一趟 (起步價只收一次)，依各乘客的直線距離比例分攤，
+     * 每人不超過自己獨乘的車資。
+     * 
+     * @param routeDistance 共乘路線距離
+     * @param directDistances 訂單 ID → 該乘客上下車點的直線距離
+     * @return 訂單 ID → 應付車資相對於獨乘車資的比例 (0, 1]
+     */
+    public Map<String, Double> splitPooledFare(VehicleType vehicleType, double routeDistance,
+                                               Map<String, Double> directDistances) {
+        RatePlan plan = ratePlans.get(vehicleType);
+        double total = Math.max(plan.getBaseFare() + routeDistance * plan.getPerKmRate(), plan.getMinFare());
+        double totalDirect = directDistances.values().stream().mapToDouble(Double::doubleValue).sum();
+        Map<String, Double> shares = new HashMap<>();
+        directDistances.forEach((orderId, direct) -> {
+            double solo = calculateEstimatedFare(vehicleType, direct);
+            double share = totalDirect > 0 ? total * direct / totalDirect : solo;
+            shares.put(orderId, Math.round(Math.min(1.0, share / solo) * 100.0) / 100.0);
+        });
+        return shares;
     }
     
     /**
@@ -1,14 +1,20 @@
 package com.uber.service;
 
+import com.uber.jfr.MatchDecisionEvent;
+import com.uber.metrics.DispatchMetrics;
 import com.uber.model.*;
 import com.uber.repository.DriverRepository;
 import com.uber.repository.OrderRepository;
+import com.uber.routing.EtaProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -22,8 +28,8 @@ import java.util.stream.Collectors;
  * 配對規則：
  * 1. 司機必須為 ONLINE 且非 Busy
  * 2. 車種必須匹配
- * 3. 距離最近優先
- * 4. 距離相同時，ID 較小者優先 (tie-break)
+ * 3. 直線距離最近的 TOP_K 位司機中，預估行駛時間 (ETA) 最短者優先
+ * 4. ETA 相同時，ID 較小者優先 (tie-break)
  * 
  * // BUG_FIX_2024_007: 修復距離計算溢位問題，改用 BigDecimal 處理大數值
  * // TODO_ALGORITHM_001: 實現更智能的匹配算法，考慮交通狀況和司機偏好
@@ -36,6 +42,7 @@ public class MatchingService {
     
     private final DriverRepository driverRepository;
     private final OrderRepository orderRepository;
+    private final EtaProvider etaProvider;
     
     // 預設搜尋半徑 (可由管理員配置)
     private double searchRadius = 10.0; // km
@@ -47,6 +54,20 @@ public class MatchingService {
      * @return 最佳匹配的司機，若無則返回 empty
      */
     public Optional<Driver> findBestDriver(Order order) {
+        MatchDecisionEvent event = new MatchDecisionEvent();
+        event.begin();
+        Optional<Driver> best = DispatchMetrics.FIND_BEST_DRIVER.record(() -> doFindBestDriver(order, event));
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = "MATCHING_SERVICE";
+            event.orderId = order != null ? order.getOrderId() : null;
+            event.chosenDriverId = best.map(Driver::getDriverId).orElse(null);
+            event.commit();
+        }
+        return best;
+    }
+
+    private Optional<Driver> doFindBestDriver(Order order, MatchDecisionEvent event) {
         if (order == null || order.getPickupLocation() == null) {
             return Optional.empty();
         }
@@ -54,7 +75,11 @@ public class MatchingService {
         Location pickupLocation = order.getPickupLocation();
         VehicleType requiredType = order.getVehicleType();
         
-        List<DriverCandidate> candidates = driverRepository.findAll().stream()
+        List<Driver> drivers = driverRepository.findAll();
+        event.vehicleType = requiredType != null ? requiredType.name() : null;
+        event.driversScanned = drivers.size();
+        
+        List<Driver> candidates = drivers.stream()
                 // 篩選條件: ONLINE 且非 Busy
                 .filter(driver -> driver.getStatus() == DriverStatus.ONLINE)
                 .filter(driver -> !driver.isBusy())
@@ -62,28 +87,26 @@ public class MatchingService {
                 .filter(driver -> driver.getVehicleType() == requiredType)
                 // 檢查是否有位置資訊
                 .filter(driver -> driver.getLocation() != null)
-                // 計算距離並建立候選者
-                .map(driver -> new DriverCandidate(
-                        driver, 
-                        driver.getLocation().distanceTo(pickupLocation)))
                 // 過濾搜尋半徑範圍內的司機
-                .filter(candidate -> candidate.distance <= searchRadius)
+                .filter(driver -> driver.getLocation().distanceTo(pickupLocation) <= searchRadius)
                 .collect(Collectors.toList());
         
-        if (candidates.isEmpty()) {
-            log.info("No matching driver found for order {} with vehicle type {}", 
+        // 直線距離最近的 TOP_K 位中取 ETA 最短者，相同時 ID 較小者優先
+        Optional<EtaProvider.Candidate> best = etaProvider.fastest(candidates, pickupLocation);
+        if (best.isEmpty()) {
+            log.debug("No matching driver found for order {} with vehicle type {}", 
                     order.getOrderId(), requiredType);
             return Optional.empty();
         }
         
-        // 排序: 距離優先，相同距離時 ID 較小者優先
-        candidates.sort(Comparator
-                .comparingDouble((DriverCandidate c) -> c.distance)
-                .thenComparing(c -> c.driver.getDriverId()));
-        
-        Driver bestDriver = candidates.get(0).driver;
-        log.info("Best driver found for order {}: {} (distance: {})", 
-                order.getOrderId(), bestDriver.getDriverId(), candidates.get(0).distance);
+        Driver bestDriver = best.get().driver();
+        event.candidates = candidates.size();
+        event.distance = best.get().distance();
+        // 熱路徑：多個參數會配置 varargs 陣列並裝箱數值，先檢查等級
+        if (log.isDebugEnabled()) {
+            log.debug("Best driver found for order {}: {} (distance: {}, eta: {}s)", 
+                    order.getOrderId(), bestDriver.getDriverId(), best.get().distance(), best.get().etaSeconds());
+        }
         
         return Optional.of(bestDriver);
     }
@@ -92,7 +115,7 @@ public class MatchingService {
      * 取得司機可接的訂單列表
      * 
      * @param driver 司機
-     * @return 可接訂單列表，按距離排序
+     * @return 可接訂單列表；直線距離最近的 TOP_K 張依 ETA 排序 (無法到達者排除)，其餘依距離接在後面
      */
     public List<Order> getAvailableOrders(Driver driver) {
         if (driver == null || driver.getLocation() == null) {
@@ -110,7 +133,7 @@ public class MatchingService {
         Location driverLocation = driver.getLocation();
         VehicleType driverVehicleType = driver.getVehicleType();
         
-        return orderRepository.findByStatus(OrderStatus.PENDING).stream()
+        List<Order> inRange = orderRepository.findByStatus(OrderStatus.PENDING).stream()
                 // 過濾車種匹配的訂單
                 .filter(order -> order.getVehicleType() == driverVehicleType)
                 // 過濾有上車點的訂單
@@ -125,6 +148,21 @@ public class MatchingService {
                         .comparingDouble((Order o) -> driverLocation.distanceTo(o.getPickupLocation()))
                         .thenComparing(Order::getOrderId))
                 .collect(Collectors.toList());
+        
+        // 直線距離最近的 TOP_K 張改以 ETA 排序 (與派單相同的候選數)
+        List<Order> nearest = inRange.subList(0, Math.min(EtaProvider.TOP_K, inRange.size()));
+        Map<String, Double> etas = new HashMap<>();
+        for (Order order : nearest) {
+            etas.put(order.getOrderId(), etaProvider.etaSeconds(driverLocation, order.getPickupLocation()));
+        }
+        List<Order> ranked = nearest.stream()
+                .filter(order -> !etas.get(order.getOrderId()).isInfinite())
+                .sorted(Comparator
+                        .comparingDouble((Order o) -> etas.get(o.getOrderId()))
+                        .thenComparing(Order::getOrderId))
+                .collect(Collectors.toCollection(ArrayList::new));
+        ranked.addAll(inRange.subList(nearest.size(), inRange.size()));
+        return ranked;
     }
     
     /**
@@ -171,17 +209,4 @@ public class MatchingService {
         }
         return driver.getLocation().distanceTo(order.getPickupLocation());
     }
-    
-    /**
-     * 內部類: 司機候選者
-     */
-    private static class DriverCandidate {
-        final Driver driver;
-        final double distance;
-        
-        DriverCandidate(Driver driver, double distance) {
-            this.driver = driver;
-            this.distance = distance;
-        }
-    }
 }
@@ -1,15 +1,28 @@
 package com.uber.service;
 
 import com.uber.exception.BusinessException;
+import com.uber.jfr.AcceptLockEvent;
+import com.uber.jfr.MatchDecisionEvent;
+import com.uber.metrics.DispatchMetrics;
 import com.uber.model.*;
+import com.uber.repository.ChangeFeed;
+import com.uber.repository.DemandHeatmap;
 import com.uber.repository.DriverRepository;
+import com.uber.repository.OrderCursor;
+import com.uber.repository.OrderQuery;
 import com.uber.repository.OrderRepository;
+import com.uber.routing.EtaProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -29,10 +42,15 @@ public class OrderService {
     private final DriverRepository driverRepository;
     private final AuditService auditService;
     private final FareService fareService;
+    private final SurgePricingService surgePricingService;
+    private final EtaProvider etaProvider;
     
-    // 用於 accept 操作的鎖
+    // 用於 accept 操作的鎖；取消與預約釋放也在此鎖內檢查並轉換狀態
     private final ReentrantLock acceptLock = new ReentrantLock();
     
+    // 預約叫車最遠可預約的時間
+    private static final Duration MAX_SCHEDULE_AHEAD = Duration.ofDays(30);
+    
     /**
      * 建立叫車請求
      * 
@@ -40,36 +58,65 @@ public class OrderService {
      */
     public Order createOrder(String passengerId, Location pickup, 
                             Location dropoff, VehicleType vehicleType) {
+        return createOrder(passengerId, pickup, dropoff, vehicleType, false);
+    }
+    
+    /**
+     * 建立叫車請求 (可選擇共乘)
+     * 
+     * 共乘訂單會指派給插入後路線增加距離最少的司機，該司機可能已有其他共乘乘客
+     */
+    public Order createOrder(String passengerId, Location pickup,
+                             Location dropoff, VehicleType vehicleType, boolean pooled) {
+        return DispatchMetrics.CREATE_ORDER.record(
+                () -> doCreateOrder(passengerId, pickup, dropoff, vehicleType, pooled));
+    }
+
+    private Order doCreateOrder(String passengerId, Location pickup,
+                                Location dropoff, VehicleType vehicleType, boolean pooled) {
+        long start = System.nanoTime();
         // 驗證上下車點不可相同
         if (pickup.getX() == dropoff.getX() && pickup.getY() == dropoff.getY()) {
             throw new BusinessException("INVALID_REQUEST", "上車地點與下車地點不可相同");
         }
         
         double distance = pickup.distanceTo(dropoff);
-        double estimatedFare = fareService.calculateEstimatedFare(vehicleType, distance);
+        // 依上車點格子的供需計算加價倍率，並鎖定於訂單供完成時計費
+        double surgeMultiplier = surgePricingService.surgeMultiplier(pickup, vehicleType);
+        double estimatedFare = fareService.calculateEstimatedFare(vehicleType, distance, surgeMultiplier);
         
         // 自動配對：找到最近的可用司機
-        String assignedDriverId = findBestDriverId(pickup, vehicleType);
+        String orderId = UUID.randomUUID().toString();
+        MatchDecisionEvent matchEvent = new MatchDecisionEvent();
+        matchEvent.begin();
+        String assignedDriverId = pooled
+                ? findBestPoolDriverId(orderId, pickup, dropoff, vehicleType, null, matchEvent)
+                : findBestDriverId(pickup, vehicleType, matchEvent);
+        matchEvent.end();
         if (assignedDriverId != null) {
-            log.info("Order auto-assigned to driver: {}", assignedDriverId);
+            DispatchMetrics.TIME_TO_MATCH.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Order auto-assigned to driver: {}", assignedDriverId);
         } else {
             log.warn("No available driver found for order with vehicleType: {}", vehicleType);
         }
         
         Order order = Order.builder()
-                .orderId(UUID.randomUUID().toString())
+                .orderId(orderId)
                 .passengerId(passengerId)
                 .status(OrderStatus.PENDING)
                 .vehicleType(vehicleType)
+                .pooled(pooled)
                 .pickupLocation(pickup)
                 .dropoffLocation(dropoff)
                 .estimatedFare(estimatedFare)
+                .surgeMultiplier(surgeMultiplier)
                 .distance(distance)
                 .assignedDriverId(assignedDriverId)  // 設定指派的司機
                 .createdAt(Instant.now())
                 .build();
         
         orderRepository.save(order);
+        commitMatchEvent(matchEvent, "CREATE_ORDER", order, assignedDriverId);
         
         auditService.logSuccess(order.getOrderId(), "CREATE", "PASSENGER", 
                 passengerId, null, "PENDING");
@@ -79,28 +126,186 @@ public class OrderService {
     }
     
     /**
-     * 找到最佳匹配司機（最近且可用的司機）
+     * 建立預約叫車
+     * 
+     * 訂單以 SCHEDULED 狀態保存，不參與配對也不計入供需；
+     * 由 ScheduledOrderDispatcher 在上車前 lead time 呼叫 releaseScheduledOrder 釋放
+     */
+    public Order scheduleOrder(String passengerId, Location pickup, Location dropoff,
+                               VehicleType vehicleType, boolean pooled, Instant pickupAt) {
+        if (pickup.getX() == dropoff.getX() && pickup.getY() == dropoff.getY()) {
+            throw new BusinessException("INVALID_REQUEST", "上車地點與下車地點不可相同");
+        }
+        Instant now = Instant.now();
+        if (!pickupAt.isAfter(now)) {
+            throw new BusinessException("INVALID_REQUEST", "預約時間必須晚於現在");
+        }
+        if (pickupAt.isAfter(now.plus(MAX_SCHEDULE_AHEAD))) {
+            throw new BusinessException("INVALID_REQUEST", "預約時間不可超過 30 天後");
+        }
+        
+        double distance = pickup.distanceTo(dropoff);
+        Order order = Order.builder()
+                .orderId(UUID.randomUUID().toString())
+                .passengerId(passengerId)
+                .status(OrderStatus.SCHEDULED)
+                .vehicleType(vehicleType)
+                .pooled(pooled)
+                .pickupLocation(pickup)
+                .dropoffLocation(dropoff)
+                // 動態加價於釋放時才鎖定，此處為不加價的預估
+                .estimatedFare(fareService.calculateEstimatedFare(vehicleType, distance))
+                .distance(distance)
+                .scheduledPickupAt(pickupAt)
+                .createdAt(now)
+                .build();
+        orderRepository.save(order);
+        
+        auditService.logSuccess(order.getOrderId(), "SCHEDULE", "PASSENGER",
+                passengerId, null, "SCHEDULED");
+        
+        log.info("Order scheduled: {} (pickup at {})", order.getOrderId(), pickupAt);
+        return order;
+    }
+    
+    /**
+     * 釋放預約訂單到一般配對流程 (SCHEDULED → PENDING)
      * 
+     * 此時才計算加價並配對司機；訂單已非 SCHEDULED (例如已取消) 時不做任何事。
+     * 狀態檢查與轉換在 acceptLock 內進行，不會與同時的取消交錯 (取消後又被改回 PENDING)
+     */
+    public Order releaseScheduledOrder(String orderId) {
+        acceptLock.lock();
+        try {
+            return doReleaseScheduledOrder(orderId);
+        } finally {
+            acceptLock.unlock();
+        }
+    }
+    
+    private Order doReleaseScheduledOrder(String orderId) {
+        Order order = getOrder(orderId);
+        if (order.getStatus() != OrderStatus.SCHEDULED) {
+            return order;
+        }
+        
+        Location pickup = order.getPickupLocation();
+        double surgeMultiplier = surgePricingService.surgeMultiplier(pickup, order.getVehicleType());
+        MatchDecisionEvent matchEvent = new MatchDecisionEvent();
+        matchEvent.begin();
+        String assignedDriverId = order.isPooled()
+                ? findBestPoolDriverId(orderId, pickup, order.getDropoffLocation(), order.getVehicleType(), null,
+                        matchEvent)
+                : findBestDriverId(pickup, order.getVehicleType(), matchEvent);
+        matchEvent.end();
+        
+        order.setStatus(OrderStatus.PENDING);
+        order.setSurgeMultiplier(surgeMultiplier);
+        order.setEstimatedFare(fareService.calculateEstimatedFare(
+                order.getVehicleType(), order.getDistance(), surgeMultiplier));
+        order.setAssignedDriverId(assignedDriverId);
+        orderRepository.save(order);
+        commitMatchEvent(matchEvent, "SCHEDULED_RELEASE", order, assignedDriverId);
+        
+        auditService.logSuccess(orderId, "RELEASE", "SYSTEM",
+                "SYSTEM", "SCHEDULED", "PENDING");
+        
+        log.info("Scheduled order {} released (assigned to: {})", orderId, assignedDriverId);
+        return order;
+    }
+    
+    /**
+     * 記錄配對決策 JFR 事件 (事件未啟用時不做任何計算)；掃描數與候選數由配對方法於搜尋時填入
+     */
+    private void commitMatchEvent(MatchDecisionEvent event, String source, Order order, String chosenDriverId) {
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.source = source;
+        event.orderId = order.getOrderId();
+        event.vehicleType = order.getVehicleType().name();
+        event.chosenDriverId = chosenDriverId;
+        if (chosenDriverId != null) {
+            driverRepository.findById(chosenDriverId)
+                    .map(Driver::getLocation)
+                    .ifPresent(location -> event.distance = location.distanceTo(order.getPickupLocation()));
+        }
+        event.commit();
+    }
+    
+    /**
+     * 找到最佳匹配司機（預估行駛時間最短且可用的司機）
+     * 
+     * @param event 記錄實際掃描的司機數與通過篩選的候選數
      * @return 最佳司機 ID，若無則返回 null
      */
-    private String findBestDriverId(Location pickupLocation, VehicleType requiredType) {
-        return driverRepository.findAll().stream()
-                // 篩選條件: ONLINE 且非 Busy
-                .filter(driver -> driver.getStatus() == DriverStatus.ONLINE)
-                .filter(driver -> !driver.isBusy())
-                // 篩選車種
-                .filter(driver -> driver.getVehicleType() == requiredType)
-                // 檢查是否有位置資訊
-                .filter(driver -> driver.getLocation() != null)
-                // 按距離排序
-                .min((d1, d2) -> {
-                    double dist1 = d1.getLocation().distanceTo(pickupLocation);
-                    double dist2 = d2.getLocation().distanceTo(pickupLocation);
-                    int cmp = Double.compare(dist1, dist2);
-                    return cmp != 0 ? cmp : d1.getDriverId().compareTo(d2.getDriverId());
-                })
-                .map(Driver::getDriverId)
-                .orElse(null);
+    private String findBestDriverId(Location pickupLocation, VehicleType requiredType, MatchDecisionEvent event) {
+        return DispatchMetrics.FIND_BEST_DRIVER.record(() -> {
+            List<Driver> drivers = driverRepository.findAll();
+            List<Driver> available = drivers.stream()
+                    // 篩選條件: ONLINE 且非 Busy
+                    .filter(driver -> driver.getStatus() == DriverStatus.ONLINE)
+                    .filter(driver -> !driver.isBusy())
+                    // 篩選車種
+                    .filter(driver -> driver.getVehicleType() == requiredType)
+                    // 檢查是否有位置資訊
+                    .filter(driver -> driver.getLocation() != null)
+                    .toList();
+            event.driversScanned = drivers.size();
+            event.candidates = available.size();
+            // 直線距離最近的 TOP_K 位中取 ETA 最短者
+            return etaProvider.fastest(available, pickupLocation)
+                    .map(candidate -> candidate.driver().getDriverId())
+                    .orElse(null);
+        });
+    }
+    
+    /**
+     * 找到最佳共乘司機
+     * 
+     * 閒置司機或共乘行程中的司機皆可，以插入新訂單後路線增加的距離最少者優先；
+     * 閒置司機的增加距離即為空車前往上車點加上行程本身
+     * 
+     * @param excludeDriverId 排除的司機 (拒絕此訂單者)，可為 null
+     * @param event 記錄實際掃描的司機數與可插入行程的候選數
+     * @return 最佳司機 ID，若無則返回 null
+     */
+    private String findBestPoolDriverId(String orderId, Location pickup, Location dropoff, VehicleType requiredType,
+                                        String excludeDriverId, MatchDecisionEvent event) {
+        RouteStop pickupStop = new RouteStop(orderId, pickup, true);
+        RouteStop dropoffStop = new RouteStop(orderId, dropoff, false);
+        return DispatchMetrics.FIND_BEST_DRIVER.record(() -> {
+            String bestId = null;
+            double bestCost = Double.MAX_VALUE;
+            List<Driver> drivers = driverRepository.findAll();
+            int candidates = 0;
+            for (Driver driver : drivers) {
+                if (driver.getStatus() != DriverStatus.ONLINE
+                        || driver.getVehicleType() != requiredType
+                        || driver.getLocation() == null
+                        || driver.getDriverId().equals(excludeDriverId)) {
+                    continue;
+                }
+                // 獨乘行程中的司機不加入共乘
+                if (driver.isBusy() && !RouteInsertion.isPooling(driver)) {
+                    continue;
+                }
+                RouteInsertion.Insertion insertion = RouteInsertion.best(
+                        driver.getLocation(), driver.getRoute(), pickupStop, dropoffStop);
+                if (insertion == null) {
+                    continue;
+                }
+                candidates++;
+                double cost = insertion.addedDistance();
+                if (cost < bestCost || (cost == bestCost && driver.getDriverId().compareTo(bestId) < 0)) {
+                    bestCost = cost;
+                    bestId = driver.getDriverId();
+                }
+            }
+            event.driversScanned = drivers.size();
+            event.candidates = candidates;
+            return bestId;
+        });
     }
     
     /**
@@ -111,8 +316,17 @@ public class OrderService {
      * 使用 ReentrantLock 確保同一時間只有一位司機能成功接單 (H2: 併發安全)
      */
     public Order acceptOrder(String orderId, String driverId) {
+        return DispatchMetrics.ACCEPT_ORDER.record(() -> doAcceptOrder(orderId, driverId));
+    }
+
+    private Order doAcceptOrder(String orderId, String driverId) {
+        AcceptLockEvent lockEvent = new AcceptLockEvent();
+        long waitStart = System.nanoTime();
         // BUG_FIX_2024_001: 使用 ReentrantLock 防止併發接單問題
         acceptLock.lock();
+        // 事件持續時間 = 持鎖時間
+        lockEvent.begin();
+        long waitTime = System.nanoTime() - waitStart;
         try {
             Order order = orderRepository.findById(orderId)
                     .orElseThrow(() -> new BusinessException("ORDER_NOT_FOUND", "訂單不存在"));
@@ -120,7 +334,7 @@ public class OrderService {
             // H4: 冪等性 - 若同一司機已接此單，直接回傳成功
             if (order.getStatus() == OrderStatus.ACCEPTED && 
                 driverId.equals(order.getDriverId())) {
-                log.info("Idempotent accept - order already accepted by same driver");
+                log.debug("Idempotent accept - order already accepted by same driver");
                 return order;
             }
             
@@ -133,6 +347,7 @@ public class OrderService {
                 
                 auditService.logFailure(orderId, "ACCEPT", "DRIVER", 
                         driverId, order.getStatus().name(), reason);
+                DispatchMetrics.acceptConflict(reason);
                 
                 if (order.getStatus() == OrderStatus.ACCEPTED) {
                     throw new BusinessException(reason, message, 409);
@@ -161,12 +376,16 @@ public class OrderService {
             if (driver.getStatus() != DriverStatus.ONLINE) {
                 auditService.logFailure(orderId, "ACCEPT", "DRIVER", 
                         driverId, "PENDING", "DRIVER_OFFLINE");
+                DispatchMetrics.acceptConflict("DRIVER_OFFLINE");
                 throw new BusinessException("DRIVER_OFFLINE", "司機不在線");
             }
             
-            if (driver.isBusy()) {
+            // 共乘行程中的司機只能再接共乘訂單
+            boolean joinsPool = order.isPooled() && RouteInsertion.isPooling(driver);
+            if (driver.isBusy() && !joinsPool) {
                 auditService.logFailure(orderId, "ACCEPT", "DRIVER", 
                         driverId, "PENDING", "DRIVER_BUSY");
+                DispatchMetrics.acceptConflict("DRIVER_BUSY");
                 throw new BusinessException("DRIVER_BUSY", "司機正在忙碌");
             }
             
@@ -174,9 +393,25 @@ public class OrderService {
             if (order.getAssignedDriverId() != null && !driverId.equals(order.getAssignedDriverId())) {
                 auditService.logFailure(orderId, "ACCEPT", "DRIVER", 
                         driverId, "PENDING", "NOT_ASSIGNED_DRIVER");
+                DispatchMetrics.acceptConflict("NOT_ASSIGNED_DRIVER");
                 throw new BusinessException("NOT_ASSIGNED_DRIVER", "此訂單未指派給您", 403);
             }
             
+            // 共乘：以司機目前的路線重新計算插入位置 (建立訂單後路線可能已改變)
+            List<RouteStop> route = null;
+            if (order.isPooled()) {
+                Location start = driver.getLocation() != null ? driver.getLocation() : order.getPickupLocation();
+                RouteInsertion.Insertion insertion = RouteInsertion.best(start, driver.getRoute(),
+                        RouteStop.pickupOf(order), RouteStop.dropoffOf(order));
+                if (insertion == null) {
+                    auditService.logFailure(orderId, "ACCEPT", "DRIVER", 
+                            driverId, "PENDING", "POOL_DETOUR_EXCEEDED");
+                    DispatchMetrics.acceptConflict("POOL_DETOUR_EXCEEDED");
+                    throw new BusinessException("POOL_DETOUR_EXCEEDED", "加入此共乘訂單會超出繞路或座位上限", 409);
+                }
+                route = insertion.route();
+            }
+            
             // 執行接單
             order.setStatus(OrderStatus.ACCEPTED);
             order.setDriverId(driverId);
@@ -185,17 +420,37 @@ public class OrderService {
             
             // 更新司機狀態
             driver.setBusy(true);
-            driver.setCurrentOrderId(orderId);
+            if (!joinsPool) {
+                driver.setCurrentOrderId(orderId);
+            }
+            if (route != null) {
+                driver.setRoute(route);
+            }
             driverRepository.save(driver);
+            if (joinsPool) {
+                updatePoolFareShares(driver);
+            }
             
             auditService.logSuccess(orderId, "ACCEPT", "DRIVER", 
                     driverId, "PENDING", "ACCEPTED");
+            if (order.getCreatedAt() != null) {
+                DispatchMetrics.TIME_TO_ACCEPT.record(Duration.between(order.getCreatedAt(), order.getAcceptedAt()));
+            }
             
             log.info("Order {} accepted by driver {}", orderId, driverId);
             return order;
             
         } finally {
+            int queueLength = acceptLock.getQueueLength();
             acceptLock.unlock();
+            lockEvent.end();
+            if (lockEvent.shouldCommit()) {
+                lockEvent.orderId = orderId;
+                lockEvent.driverId = driverId;
+                lockEvent.waitTime = waitTime;
+                lockEvent.queueLength = queueLength;
+                lockEvent.commit();
+            }
         }
     }
     
@@ -223,6 +478,18 @@ public class OrderService {
         order.setStartedAt(Instant.now());
         orderRepository.save(order);
         
+        // 共乘：乘客已上車，自路線移除上車點
+        if (order.isPooled()) {
+            driverRepository.findById(driverId).ifPresent(driver -> {
+                if (RouteInsertion.isPooling(driver)) {
+                    driver.setRoute(driver.getRoute().stream()
+                            .filter(stop -> !(stop.pickup() && stop.orderId().equals(orderId)))
+                            .toList());
+                    driverRepository.save(driver);
+                }
+            });
+        }
+        
         auditService.logSuccess(orderId, "START", "DRIVER", 
                 driverId, "ACCEPTED", "ONGOING");
         
@@ -266,11 +533,11 @@ public class OrderService {
         int duration;
         if (simulatedDuration != null && simulatedDuration > 0) {
             duration = simulatedDuration;
-            log.info("Using simulated duration: {} minutes for order {}", duration, orderId);
+            log.debug("Using simulated duration: {} minutes for order {}", duration, orderId);
         } else {
             Instant startTime = order.getStartedAt();
             duration = (int) ((endTime.toEpochMilli() - startTime.toEpochMilli()) / 60000);
-            log.info("Using actual duration: {} minutes for order {}", duration, orderId);
+            log.debug("Using actual duration: {} minutes for order {}", duration, orderId);
         }
         // 確保至少為 1 分鐘
         duration = Math.max(1, duration);
@@ -278,8 +545,12 @@ public class OrderService {
         double fare = fareService.calculateFare(
                 order.getVehicleType(), 
                 order.getDistance(), 
-                duration
+                duration,
+                order.getSurgeMultiplier() != null ? order.getSurgeMultiplier() : 1.0
         );
+        if (order.getPoolFareShare() != null) {
+            fare = Math.round(fare * order.getPoolFareShare() * 100.0) / 100.0;
+        }
         
         order.setStatus(OrderStatus.COMPLETED);
         order.setCompletedAt(endTime);
@@ -288,11 +559,7 @@ public class OrderService {
         orderRepository.save(order);
         
         // 釋放司機
-        driverRepository.findById(driverId).ifPresent(driver -> {
-            driver.setBusy(false);
-            driver.setCurrentOrderId(null);
-            driverRepository.save(driver);
-        });
+        releaseDriver(driverId, orderId);
         
         auditService.logSuccess(orderId, "COMPLETE", "DRIVER", 
                 driverId, "ONGOING", "COMPLETED");
@@ -321,11 +588,21 @@ public class OrderService {
             throw new BusinessException("NOT_ASSIGNED_DRIVER", "您不是此訂單的指派司機", 403);
         }
         
-        // 找到下一個最近的可用司機 (排除拒絕的司機)
-        String nextDriverId = findNextBestDriverId(order.getPickupLocation(), order.getVehicleType(), driverId);
+        // 找到下一個最佳司機 (排除拒絕的司機)；共乘訂單與建立時相同，也可改派給共乘行程中的司機
+        MatchDecisionEvent matchEvent = new MatchDecisionEvent();
+        matchEvent.begin();
+        String nextDriverId = order.isPooled()
+                ? findBestPoolDriverId(orderId, order.getPickupLocation(), order.getDropoffLocation(),
+                        order.getVehicleType(), driverId, matchEvent)
+                : findNextBestDriverId(order.getPickupLocation(), order.getVehicleType(), driverId, matchEvent);
+        matchEvent.end();
+        commitMatchEvent(matchEvent, "DECLINE", order, nextDriverId);
         
         if (nextDriverId != null) {
             order.setAssignedDriverId(nextDriverId);
+            if (order.getCreatedAt() != null) {
+                DispatchMetrics.TIME_TO_MATCH.record(Duration.between(order.getCreatedAt(), Instant.now()));
+            }
             log.info("Order {} reassigned from {} to {}", orderId, driverId, nextDriverId);
         } else {
             // 沒有其他可用司機，清除指派 (訂單將持續等待)
@@ -344,27 +621,36 @@ public class OrderService {
     /**
      * 找到下一個最佳匹配司機（排除指定司機）
      */
-    private String findNextBestDriverId(Location pickupLocation, VehicleType requiredType, String excludeDriverId) {
-        return driverRepository.findAll().stream()
+    private String findNextBestDriverId(Location pickupLocation, VehicleType requiredType, String excludeDriverId,
+                                        MatchDecisionEvent event) {
+        List<Driver> drivers = driverRepository.findAll();
+        List<Driver> available = drivers.stream()
                 .filter(driver -> driver.getStatus() == DriverStatus.ONLINE)
                 .filter(driver -> !driver.isBusy())
                 .filter(driver -> driver.getVehicleType() == requiredType)
                 .filter(driver -> driver.getLocation() != null)
                 .filter(driver -> !driver.getDriverId().equals(excludeDriverId)) // 排除拒絕的司機
-                .min((d1, d2) -> {
-                    double dist1 = d1.getLocation().distanceTo(pickupLocation);
-                    double dist2 = d2.getLocation().distanceTo(pickupLocation);
-                    int cmp = Double.compare(dist1, dist2);
-                    return cmp != 0 ? cmp : d1.getDriverId().compareTo(d2.getDriverId());
-                })
-                .map(Driver::getDriverId)
+                .toList();
+        event.driversScanned = drivers.size();
+        event.candidates = available.size();
+        return etaProvider.fastest(available, pickupLocation)
+                .map(candidate -> candidate.driver().getDriverId())
                 .orElse(null);
     }
     
     /**
-     * 取消訂單
+     * 取消訂單 (在 acceptLock 內，與接單、預約釋放互斥)
      */
     public Order cancelOrder(String orderId, String cancelledBy) {
+        acceptLock.lock();
+        try {
+            return doCancelOrder(orderId, cancelledBy);
+        } finally {
+            acceptLock.unlock();
+        }
+    }
+    
+    private Order doCancelOrder(String orderId, String cancelledBy) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new BusinessException("ORDER_NOT_FOUND", "訂單不存在"));
         
@@ -378,7 +664,8 @@ public class OrderService {
             throw new BusinessException("FORBIDDEN", "您無權取消此訂單", 403);
         }
 
-        if (order.getStatus() != OrderStatus.PENDING &&
+        if (order.getStatus() != OrderStatus.SCHEDULED &&
+            order.getStatus() != OrderStatus.PENDING &&
             order.getStatus() != OrderStatus.ACCEPTED) {
             throw new BusinessException("INVALID_STATE", "此訂單狀態無法取消");
         }
@@ -392,11 +679,7 @@ public class OrderService {
             
             // 釋放司機
             if (order.getDriverId() != null) {
-                driverRepository.findById(order.getDriverId()).ifPresent(driver -> {
-                    driver.setBusy(false);
-                    driver.setCurrentOrderId(null);
-                    driverRepository.save(driver);
-                });
+                releaseDriver(order.getDriverId(), orderId);
             }
         }
         
@@ -414,9 +697,18 @@ public class OrderService {
     }
 
     /**
-     * 系統／管理員強制取消訂單（不檢查乘客身分）
+     * 系統／管理員強制取消訂單（不檢查乘客身分，同樣在 acceptLock 內）
      */
     public Order adminCancelOrder(String orderId, String cancelledBy) {
+        acceptLock.lock();
+        try {
+            return doAdminCancelOrder(orderId, cancelledBy);
+        } finally {
+            acceptLock.unlock();
+        }
+    }
+
+    private Order doAdminCancelOrder(String orderId, String cancelledBy) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new BusinessException("ORDER_NOT_FOUND", "訂單不存在"));
 
@@ -429,11 +721,7 @@ public class OrderService {
 
         // 釋放駕駛佔用狀態
         if (order.getDriverId() != null) {
-            driverRepository.findById(order.getDriverId()).ifPresent(driver -> {
-                driver.setBusy(false);
-                driver.setCurrentOrderId(null);
-                driverRepository.save(driver);
-            });
+            releaseDriver(order.getDriverId(), orderId);
         }
 
         order.setStatus(OrderStatus.CANCELLED);
@@ -449,6 +737,56 @@ public class OrderService {
         return order;
     }
     
+    /**
+     * 訂單結束後釋放司機；共乘行程中仍有其他乘客時只移除此訂單的停靠點
+     */
+    private void releaseDriver(String driverId, String orderId) {
+        driverRepository.findById(driverId).ifPresent(driver -> {
+            if (RouteInsertion.isPooling(driver)) {
+                List<RouteStop> remaining = driver.getRoute().stream()
+                        .filter(stop -> !stop.orderId().equals(orderId))
+                        .toList();
+                if (!remaining.isEmpty()) {
+                    driver.setRoute(remaining);
+                    if (orderId.equals(driver.getCurrentOrderId())) {
+                        driver.setCurrentOrderId(remaining.get(0).orderId());
+                    }
+                    driverRepository.save(driver);
+                    return;
+                }
+            }
+            driver.setBusy(false);
+            driver.setCurrentOrderId(null);
+            driver.setRoute(null);
+            driverRepository.save(driver);
+        });
+    }
+    
+    /**
+     * 依司機目前的共乘路線重新分攤車資
+     * 
+     * 比例只降不升，乘客不會因後加入的乘客而多付
+     */
+    private void updatePoolFareShares(Driver driver) {
+        Map<String, Double> directDistances = new LinkedHashMap<>();
+        for (RouteStop stop : driver.getRoute()) {
+            orderRepository.findById(stop.orderId())
+                    .filter(o -> o.getDistance() != null)
+                    .ifPresent(o -> directDistances.put(o.getOrderId(), o.getDistance()));
+        }
+        if (directDistances.size() < 2) {
+            return;
+        }
+        Map<String, Double> shares = fareService.splitPooledFare(driver.getVehicleType(),
+                RouteInsertion.length(null, driver.getRoute()), directDistances);
+        shares.forEach((id, share) -> orderRepository.findById(id).ifPresent(o -> {
+            if (o.getPoolFareShare() == null || share < o.getPoolFareShare()) {
+                o.setPoolFareShare(share);
+                orderRepository.save(o);
+            }
+        }));
+    }
+    
     /**
      * 查詢訂單
      */
@@ -457,6 +795,13 @@ public class OrderService {
                 .orElseThrow(() -> new BusinessException("ORDER_NOT_FOUND", "訂單不存在"));
     }
     
+    /**
+     * 取得訂單版本 (每次儲存遞增)
+     */
+    public long getOrderVersion(String orderId) {
+        return orderRepository.versionOf(orderId);
+    }
+    
     /**
      * 取得所有待派單訂單
      */
@@ -471,15 +816,51 @@ public class OrderService {
         return orderRepository.findAll();
     }
     
+    /**
+     * 游標分頁查詢訂單 (由新到舊)
+     */
+    public java.util.List<Order> findOrders(OrderQuery query, OrderCursor after, int limit) {
+        return orderRepository.findPage(query, after, limit);
+    }
+    
+    /**
+     * 依條件逐筆處理訂單 (串流匯出用，由新到舊)
+     */
+    public void forEachOrder(OrderQuery query, java.util.function.Consumer<Order> sink) {
+        orderRepository.forEach(query, sink);
+    }
+    
+    /**
+     * 取得 since 序號之後變更的訂單
+     */
+    public ChangeFeed.Delta<Order> getOrdersChangedSince(long since) {
+        return orderRepository.findChangedSince(since);
+    }
+    
+    /**
+     * 需求熱度圖 (串流彙總，不掃描訂單)
+     */
+    public java.util.List<DemandHeatmap.CellCount> getDemandHeatmap(DemandHeatmap.Window window) {
+        return orderRepository.heatmap(window);
+    }
+    
+    /**
+     * 需求熱度圖的格子邊長
+     */
+    public double getDemandHeatmapCellSize() {
+        return orderRepository.heatmapCellSize();
+    }
+    
     /**
      * 清理超時未接單的訂單
      */
     public int cleanupStaleOrders() {
-        // 找出超過 5 分鐘未被接單的 PENDING 訂單
+        // 找出超過 5 分鐘未被接單的 PENDING 訂單 (預約訂單自預約上車時間起算)
         Instant fiveMinutesAgo = Instant.now().minusSeconds(300);
         var staleOrders = orderRepository.findAll().stream()
                 .filter(order -> order.getStatus() == OrderStatus.PENDING)
-                .filter(order -> order.getCreatedAt().isBefore(fiveMinutesAgo))
+                .filter(order -> (order.getScheduledPickupAt() != null
+                        ? order.getScheduledPickupAt() : order.getCreatedAt()).isBefore(fiveMinutesAgo))
                 .toList();
         
         // 自動取消這些訂單
@@ -525,12 +906,4 @@ public class OrderService {
         }
         return order;
     }
-    
-    /**
-     * 更新訂單資訊
-     */
-    public Order updateOrder(Order order) {
-        orderRepository.save(order);
-        return order;
-    }
 }
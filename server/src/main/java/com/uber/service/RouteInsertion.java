@@ -0,0 +1,134 @@
+package com.uber.service;
+
+import com.uber.model.Driver;
+import com.uber.model.Location;
+import com.uber.model.RouteStop;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 共乘路線插入啟發式
+ *
+ * 把新訂單的上車點與下車點嘗試插入司機現有路線的每一對位置 (上車點在下車點之前)，
+ * 取路線增加距離最少、且符合限制的插入方式：
+ * 1. 同時在車上的乘客不超過 CAPACITY
+ * 2. 每位乘客的乘車距離不超過直線距離的 (1 + MAX_DETOUR) 倍；已上車的乘客以司機目前位置起算
+ * 路線最多 2 × CAPACITY 個停靠點，逐一嘗試的成本可忽略。
+ */
+public final class RouteInsertion {
+
+    static final int CAPACITY = 3;
+    static final double MAX_DETOUR = 0.5;
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * 插入結果
+     *
+     * @param route         插入後的路線
+     * @param addedDistance 路線增加的距離
+     */
+    public record Insertion(List<RouteStop> route, double addedDistance) {
+    }
+
+    private RouteInsertion() {
+    }
+
+    /**
+     * 司機是否正在執行共乘行程
+     */
+    public static boolean isPooling(Driver driver) {
+        return driver.getRoute() != null && !driver.getRoute().isEmpty();
+    }
+
+    /**
+     * 找出成本最低的插入方式
+     *
+     * @param start 司機目前位置
+     * @param route 尚未經過的停靠點，null 視為空路線
+     * @return 沒有符合限制的插入方式時回傳 null
+     */
+    public static Insertion best(Location start, List<RouteStop> route, RouteStop pickup, RouteStop dropoff) {
+        List<RouteStop> current = route != null ? route : List.of();
+        double baseLength = length(start, current);
+        Insertion best = null;
+        for (int i = 0; i <= current.size(); i++) {
+            for (int j = i; j <= current.size(); j++) {
+                List<RouteStop> candidate = new ArrayList<>(current.size() + 2);
+                candidate.addAll(current);
+                candidate.add(i, pickup);
+                candidate.add(j + 1, dropoff);
+                if (!feasible(start, candidate)) {
+                    continue;
+                }
+                double added = length(start, candidate) - baseLength;
+                if (best == null || added < best.addedDistance()) {
+                    best = new Insertion(candidate, added);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 依序經過所有停靠點的距離
+     *
+     * @param start 起點，null 時由第一個停靠點起算
+     */
+    public static double length(Location start, List<RouteStop> stops) {
+        double total = 0;
+        Location previous = start;
+        for (RouteStop stop : stops) {
+            if (previous != null) {
+                total += previous.distanceTo(stop.location());
+            }
+            previous = stop.location();
+        }
+        return total;
+    }
+
+    private static boolean feasible(Location start, List<RouteStop> stops) {
+        // 路線中沒有上車點的訂單表示乘客已在車上
+        Map<String, RouteStop> pickups = new HashMap<>();
+        int load = 0;
+        for (RouteStop stop : stops) {
+            if (stop.pickup()) {
+                pickups.put(stop.orderId(), stop);
+            }
+        }
+        for (RouteStop stop : stops) {
+            if (!stop.pickup() && !pickups.containsKey(stop.orderId())) {
+                load++;
+            }
+        }
+        if (load > CAPACITY) {
+            return false;
+        }
+
+        Map<String, Double> boardedAt = new HashMap<>();
+        double travelled = 0;
+        Location previous = start;
+        for (RouteStop stop : stops) {
+            travelled += previous.distanceTo(stop.location());
+            previous = stop.location();
+            if (stop.pickup()) {
+                if (++load > CAPACITY) {
+                    return false;
+                }
+                boardedAt.put(stop.orderId(), travelled);
+                continue;
+            }
+            load--;
+            RouteStop pickup = pickups.get(stop.orderId());
+            Location from = pickup != null ? pickup.location() : start;
+            double ride = travelled - boardedAt.getOrDefault(stop.orderId(), 0.0);
+            if (ride > from.distanceTo(stop.location()) * (1 + MAX_DETOUR) + EPSILON) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
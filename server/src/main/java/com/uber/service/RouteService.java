@@ -0,0 +1,70 @@
+package com.uber.service;
+
+import com.uber.exception.BusinessException;
+import com.uber.repository.OrderRepository;
+import com.uber.repository.RouteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * 訂單路徑服務
+ *
+ * 司機端上傳計算好的行程路徑，乘客端另外查詢；路徑壓縮後存於 RouteRepository，不寫入訂單。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RouteService {
+
+    // 單一路徑最多點數
+    static final int MAX_POINTS = 20_000;
+
+    private final OrderRepository orderRepository;
+    private final RouteRepository routeRepository;
+
+    /**
+     * 更新訂單路徑
+     *
+     * @param points 每個點為 {lat, lng}
+     * @return 壓縮後的大小 (bytes)
+     */
+    public int updateRoute(String orderId, double[][] points) {
+        requireOrder(orderId);
+        if (points == null || points.length == 0) {
+            throw new BusinessException("INVALID_REQUEST", "路徑不可為空");
+        }
+        if (points.length > MAX_POINTS) {
+            throw new BusinessException("INVALID_REQUEST", "路徑點數不可超過 " + MAX_POINTS);
+        }
+        try {
+            int size = routeRepository.save(orderId, points);
+            log.debug("Route updated: order={}, points={}, bytes={}", orderId, points.length, size);
+            return size;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_REQUEST", "路徑點必須為 [lat, lng] 數值");
+        }
+    }
+
+    /**
+     * 查詢訂單路徑，尚未上傳時回傳空陣列
+     */
+    public double[][] getRoute(String orderId) {
+        requireOrder(orderId);
+        return routeRepository.findById(orderId).orElse(new double[0][]);
+    }
+
+    /**
+     * 路徑版本 (壓縮後內容的 CRC32，路徑改變時改變)，供 ETag 使用
+     */
+    public long getRouteVersion(String orderId) {
+        requireOrder(orderId);
+        return routeRepository.checksumOf(orderId);
+    }
+
+    private void requireOrder(String orderId) {
+        if (orderRepository.findById(orderId).isEmpty()) {
+            throw new BusinessException("ORDER_NOT_FOUND", "訂單不存在");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.uber.service;
+
+import com.uber.exception.BusinessException;
+import com.uber.model.OrderStatus;
+import com.uber.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 預約訂單派發器
+ *
+ * 每個 tick 只從 OrderRepository 的預約佇列取出「上車時間 - leadTime」已到的訂單，
+ * 交給 OrderService 釋放到一般配對流程；不掃描全部訂單，數萬筆預約也只有到期的部分會被處理。
+ * 以 SmartLifecycle 啟動，在 RepositoryLoader 載入快照 (重建佇列) 之後才開始派發。
+ */
+@Component
+@Slf4j
+public class ScheduledOrderDispatcher implements SmartLifecycle {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final Duration leadTime;
+    private final Duration tick;
+
+    private volatile ScheduledExecutorService executor;
+
+    public ScheduledOrderDispatcher(OrderRepository orderRepository, OrderService orderService,
+                                    @Value("${dispatch.scheduled.lead-time:10m}") Duration leadTime,
+                                    @Value("${dispatch.scheduled.tick:1s}") Duration tick) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.leadTime = leadTime;
+        this.tick = tick;
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::dispatchSafely, 0, tick.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Scheduled dispatcher started ({} pending, lead time {})", orderRepository.scheduledCount(), leadTime);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = executor;
+        if (current != null) {
+            current.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * 釋放所有已到 lead time 的預約訂單
+     *
+     * @return 釋放的筆數
+     */
+    public int dispatchDue(Instant now) {
+        Instant cutoff = now.plus(leadTime);
+        int released = 0;
+        while (true) {
+            List<String> due = orderRepository.findDueScheduled(cutoff, BATCH_SIZE);
+            int before = released;
+            for (String orderId : due) {
+                if (release(orderId)) {
+                    released++;
+                }
+            }
+            // 整批都釋放失敗時留待下個 tick 重試，避免空轉
+            if (due.size() < BATCH_SIZE || released == before) {
+                return released;
+            }
+        }
+    }
+
+    private boolean release(String orderId) {
+        try {
+            return orderService.releaseScheduledOrder(orderId).getStatus() != OrderStatus.SCHEDULED;
+        } catch (BusinessException e) {
+            log.warn("Failed to release scheduled order {}: {}", orderId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void dispatchSafely() {
+        try {
+            int released = dispatchDue(Instant.now());
+            if (released > 0) {
+                log.info("排程任務：釋放了 {} 筆預約訂單", released);
+            }
+        } catch (Exception e) {
+            log.error("排程任務執行失敗", e);
+        }
+    }
+}
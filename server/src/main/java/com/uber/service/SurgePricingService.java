@@ -0,0 +1,78 @@
+package com.uber.service;
+
+import com.uber.model.Location;
+import com.uber.model.VehicleType;
+import com.uber.repository.DemandGrid;
+import com.uber.repository.DriverRepository;
+import com.uber.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 動態加價服務
+ *
+ * 依上車點所在格子 (邊長 surge.cell-size) 的待派訂單數與可接單司機數 (由儲存庫增量維護，O(1) 讀取) 計算倍率：
+ * 待派訂單超過可用司機時，倍率 = 1 + (訂單數 / 司機數 - 1) × SENSITIVITY，上限 MAX_MULTIPLIER。
+ * 每個格子的倍率以時間常數 SMOOTHING_MILLIS 做指數平滑，避免供需瞬間變化造成價格跳動。
+ */
+@Service
+@RequiredArgsConstructor
+public class SurgePricingService {
+
+    static final double MAX_MULTIPLIER = 2.5;
+    static final double SENSITIVITY = 0.25;
+    static final long SMOOTHING_MILLIS = 60_000;
+
+    private final OrderRepository orderRepository;
+    private final DriverRepository driverRepository;
+
+    private final Map<DemandGrid.Cell, Smoothed> smoothed = new ConcurrentHashMap<>();
+
+    /**
+     * 取得上車點目前的加價倍率 (1.0 表示不加價，以 0.1 為級距)
+     */
+    public double surgeMultiplier(Location pickup, VehicleType vehicleType) {
+        return surgeMultiplier(pickup, vehicleType, System.currentTimeMillis());
+    }
+
+    double surgeMultiplier(Location pickup, VehicleType vehicleType, long nowMillis) {
+        if (pickup == null) {
+            return 1.0;
+        }
+        DemandGrid.Cell cell = orderRepository.demandCell(pickup, vehicleType);
+        double target = rawMultiplier(orderRepository.pendingCount(cell), driverRepository.availableCount(cell));
+        double value = smoothed.computeIfAbsent(cell, key -> new Smoothed()).update(target, nowMillis);
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * 未平滑的倍率
+     */
+    static double rawMultiplier(int pending, int available) {
+        if (pending <= available) {
+            return 1.0;
+        }
+        double ratio = (double) pending / Math.max(available, 1);
+        return Math.min(1.0 + (ratio - 1.0) * SENSITIVITY, MAX_MULTIPLIER);
+    }
+
+    /**
+     * 單一格子的平滑倍率 (依距上次更新的時間衰減)
+     */
+    private static final class Smoothed {
+        private double value = 1.0;
+        private long updatedAt = -1;
+
+        synchronized double update(double target, long now) {
+            if (updatedAt >= 0) {
+                double alpha = 1 - Math.exp(-(double) Math.max(0, now - updatedAt) / SMOOTHING_MILLIS);
+                value += (target - value) * alpha;
+            }
+            updatedAt = now;
+            return value;
+        }
+    }
+}
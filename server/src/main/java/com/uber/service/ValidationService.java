@@ -149,6 +149,7 @@ public class ValidationService {
         
         // 檢查合法轉換
         boolean isValidTransition = switch (from) {
+            case SCHEDULED -> to == OrderStatus.PENDING || to == OrderStatus.CANCELLED;
             case PENDING -> to == OrderStatus.ACCEPTED || to == OrderStatus.CANCELLED;
             case ACCEPTED -> to == OrderStatus.ONGOING || to == OrderStatus.CANCELLED;
             case ONGOING -> to == OrderStatus.COMPLETED;
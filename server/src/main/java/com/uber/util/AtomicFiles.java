@@ -0,0 +1,94 @@
+package com.uber.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 原子性檔案發佈
+ *
+ * 寫入暫存檔 → fsync → (保留上一代) → atomic rename → fsync 目錄。
+ * 任何時間點當機，目標檔案不是舊的完整版本就是新的完整版本；
+ * 若當機發生在兩次 rename 之間，上一代檔案 (.prev) 仍可使用。
+ */
+public final class AtomicFiles {
+
+    private static final Logger logger = LoggerFactory.getLogger(AtomicFiles.class);
+
+    static final String TEMP_SUFFIX = ".tmp";
+    static final String PREVIOUS_SUFFIX = ".prev";
+
+    /**
+     * 寫入內容到 channel
+     */
+    @FunctionalInterface
+    public interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * 以原子方式取代目標檔案
+     *
+     * @param keepPrevious 是否將原檔保留為 &lt;target&gt;.prev
+     */
+    public static void write(Path target, boolean keepPrevious, ChannelWriter writer) throws IOException {
+        Path temp = sibling(target, TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.write(channel);
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        if (keepPrevious && Files.exists(target)) {
+            move(target, previousOf(target));
+        }
+        move(temp, target);
+        fsyncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * 上一代檔案路徑
+     */
+    public static Path previousOf(Path target) {
+        return sibling(target, PREVIOUS_SUFFIX);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * fsync 目錄，確保 rename 本身寫入磁碟 (Windows 不支援開啟目錄，略過)
+     */
+    static void fsyncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Directory fsync not supported for {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static Path sibling(Path target, String suffix) {
+        return target.resolveSibling(target.getFileName() + suffix);
+    }
+}
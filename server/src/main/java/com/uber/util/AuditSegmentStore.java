@@ -0,0 +1,379 @@
+package com.uber.util;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.uber.model.AuditLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 審計日誌的記憶體映射 (mmap) 分段儲存
+ *
+ * 每個分段是固定大小的檔案 (audit-&lt;id&gt;.seg)，以 FileChannel.map 映射：
+ * <pre>
+ * 分段檔頭 16 bytes: magic "RDAS" | version | reserved | 建立時間 (epoch ms)
+ * 紀錄檔頭 24 bytes: payload 長度 | CRC32C | 時間戳 (epoch ms) | orderId hash | flags | reserved
+ * payload  n bytes : Smile 編碼的 AuditLog
+ * </pre>
+ * 寫入時以游標 append；分段寫滿即換新檔 (rollover)，並依分段數與保留時間清除舊分段。
+ * 查詢直接在映射區上循序掃描，先以紀錄檔頭 (orderId hash、成功旗標) 過濾，
+ * 只解碼符合的 payload。
+ */
+public final class AuditSegmentStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSegmentStore.class);
+
+    static final int SEGMENT_MAGIC = 0x52444153; // "RDAS"
+    static final short SEGMENT_VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 24;
+
+    private static final byte FLAG_SUCCESS = 1;
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final ObjectWriter writer = SnapshotCodec.mapper().writerFor(AuditLog.class);
+    private static final ObjectReader reader = SnapshotCodec.mapper().readerFor(AuditLog.class);
+
+    /**
+     * 分段設定
+     *
+     * @param segmentSize 單一分段大小 (bytes)
+     * @param maxSegments 最多保留分段數 (含目前寫入中的分段)
+     * @param retention   分段最後一筆紀錄超過此時間即刪除 (null 表示不限)
+     */
+    public record Options(Path directory, int segmentSize, int maxSegments, Duration retention) {
+    }
+
+    /**
+     * 紀錄檔頭 (不需解碼 payload 即可過濾)
+     */
+    public record RecordHeader(long timestamp, int orderIdHash, boolean success) {
+
+        public boolean matchesOrder(String orderId) {
+            return orderIdHash == hash(orderId);
+        }
+    }
+
+    private static final class Segment {
+        final long id;
+        final Path path;
+        MappedByteBuffer buffer;
+        int end;
+        long lastTimestamp;
+        int records;
+
+        Segment(long id, Path path) {
+            this.id = id;
+            this.path = path;
+        }
+    }
+
+    private final Options options;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private Segment active;
+    private long recordCount;
+
+    private AuditSegmentStore(Options options) {
+        this.options = options;
+    }
+
+    /**
+     * 開啟 (或建立) 分段目錄，並復原最後一個分段的寫入游標
+     */
+    public static AuditSegmentStore open(Options options) throws IOException {
+        if (options.segmentSize() <= SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("分段大小過小: " + options.segmentSize());
+        }
+        Files.createDirectories(options.directory());
+        AuditSegmentStore store = new AuditSegmentStore(options);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(options.directory())) {
+            files = list.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            Segment segment = new Segment(parseId(file), file);
+            segment.buffer = map(file, FileChannel.MapMode.READ_ONLY, 0);
+            store.recover(segment);
+            store.segments.addLast(segment);
+            store.recordCount += segment.records;
+        }
+        if (store.segments.isEmpty()) {
+            store.active = store.createSegment(0);
+        } else {
+            // 最後一個分段重新以可寫方式映射並接續寫入
+            Segment last = store.segments.peekLast();
+            last.buffer = map(last.path, FileChannel.MapMode.READ_WRITE, options.segmentSize());
+            store.active = last;
+            store.enforceRetention();
+        }
+        logger.info("Opened audit segments in {}: {} segments, {} records",
+                options.directory(), store.segments.size(), store.recordCount);
+        return store;
+    }
+
+    /**
+     * 附加一筆紀錄
+     */
+    public synchronized void append(AuditLog log) {
+        byte[] payload;
+        try {
+            payload = writer.writeValueAsBytes(log);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        if (SEGMENT_HEADER_SIZE + recordSize > options.segmentSize()) {
+            throw new IllegalStateException("審計紀錄超過分段大小: " + recordSize + " bytes");
+        }
+        if (active.end + recordSize > active.buffer.capacity()) {
+            rollover();
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        long timestamp = log.getTimestamp() != null ? log.getTimestamp().toEpochMilli() : System.currentTimeMillis();
+
+        ByteBuffer buffer = active.buffer;
+        int position = active.end;
+        // 先寫 payload 與其餘欄位，最後才寫長度，長度非 0 代表紀錄完整
+        buffer.put(position + RECORD_HEADER_SIZE, payload);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putLong(position + 8, timestamp);
+        buffer.putInt(position + 16, hash(log.getOrderId()));
+        buffer.put(position + 20, log.isSuccess() ? FLAG_SUCCESS : 0);
+        buffer.putInt(position, payload.length);
+
+        active.records++;
+        active.lastTimestamp = timestamp;
+        active.end = position + recordSize;
+        recordCount++;
+        // 清掉下一筆的長度欄位，避免復原時誤讀先前被捨棄紀錄的殘留資料
+        if (active.end + Integer.BYTES <= buffer.capacity()) {
+            buffer.putInt(active.end, 0);
+        }
+    }
+
+    /**
+     * 循序掃描所有紀錄，只解碼檔頭符合 filter 的 payload
+     */
+    public void scan(Predicate<RecordHeader> filter, Consumer<AuditLog> sink) {
+        scanRaw(filter, (header, payload) -> {
+            try {
+                sink.accept(reader.readValue(new ByteBufferBackedInputStream(payload)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 循序掃描原始 payload (Smile)，payload 為映射區的唯讀切片，不複製資料
+     */
+    public void scanRaw(Predicate<RecordHeader> filter, BiConsumer<RecordHeader, ByteBuffer> sink) {
+        for (ByteBuffer buffer : committedViews()) {
+            int end = buffer.limit();
+            int position = SEGMENT_HEADER_SIZE;
+            while (position < end) {
+                int length = buffer.getInt(position);
+                RecordHeader header = new RecordHeader(
+                        buffer.getLong(position + 8),
+                        buffer.getInt(position + 16),
+                        (buffer.get(position + 20) & FLAG_SUCCESS) != 0);
+                if (filter.test(header)) {
+                    sink.accept(header, buffer.slice(position + RECORD_HEADER_SIZE, length));
+                }
+                position += RECORD_HEADER_SIZE + length;
+            }
+        }
+    }
+
+    /**
+     * 讀出全部紀錄
+     */
+    public List<AuditLog> readAll() {
+        List<AuditLog> result = new ArrayList<>();
+        scan(header -> true, result::add);
+        return result;
+    }
+
+    public synchronized long count() {
+        return recordCount;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * 刪除所有分段並重新開始
+     */
+    public synchronized void clear() throws IOException {
+        long nextId = active.id + 1;
+        for (Segment segment : segments) {
+            segment.buffer = null;
+            Files.deleteIfExists(segment.path);
+        }
+        segments.clear();
+        recordCount = 0;
+        active = createSegment(nextId);
+    }
+
+    /**
+     * 將目前分段寫回磁碟
+     */
+    public synchronized void flush() {
+        active.buffer.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+    }
+
+    /**
+     * 取得各分段已寫入範圍的唯讀視圖 (之後的 append 與分段刪除不影響本次掃描)
+     */
+    private synchronized List<ByteBuffer> committedViews() {
+        List<ByteBuffer> views = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            views.add(segment.buffer.slice(0, segment.end).asReadOnlyBuffer());
+        }
+        return views;
+    }
+
+    private void rollover() {
+        active.buffer.force();
+        try {
+            active = createSegment(active.id + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        enforceRetention();
+    }
+
+    /**
+     * 刪除超過保留時間或超過分段數上限的舊分段 (保留寫入中的分段)
+     *
+     * 換檔時會自動執行；寫入量低、久久不換檔時由呼叫端定期執行。
+     */
+    public synchronized void enforceRetention() {
+        enforceRetention(System.currentTimeMillis());
+    }
+
+    synchronized void enforceRetention(long now) {
+        long cutoff = options.retention() != null
+                ? now - options.retention().toMillis()
+                : Long.MIN_VALUE;
+        while (segments.size() > 1) {
+            Segment oldest = segments.peekFirst();
+            boolean tooMany = segments.size() > options.maxSegments();
+            boolean expired = oldest.lastTimestamp < cutoff;
+            if (!tooMany && !expired) {
+                break;
+            }
+            segments.removeFirst();
+            recordCount -= oldest.records;
+            oldest.buffer = null;
+            try {
+                Files.deleteIfExists(oldest.path);
+                logger.info("Deleted audit segment {} ({} records)", oldest.path.getFileName(), oldest.records);
+            } catch (IOException e) {
+                logger.warn("Failed to delete audit segment {}: {}", oldest.path, e.getMessage());
+            }
+        }
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Path path = options.directory().resolve(String.format("%s%012d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = new Segment(id, path);
+        segment.buffer = map(path, FileChannel.MapMode.READ_WRITE, options.segmentSize());
+        segment.buffer.putInt(0, SEGMENT_MAGIC);
+        segment.buffer.putShort(4, SEGMENT_VERSION);
+        segment.buffer.putLong(8, System.currentTimeMillis());
+        segment.end = SEGMENT_HEADER_SIZE;
+        segment.lastTimestamp = System.currentTimeMillis();
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * 掃描分段找出最後一筆完整紀錄，之後的內容 (寫到一半或損毀) 視為未寫入
+     */
+    private void recover(Segment segment) throws IOException {
+        ByteBuffer buffer = segment.buffer;
+        if (buffer.getInt(0) != SEGMENT_MAGIC) {
+            throw new SnapshotCorruptedException("不是審計分段檔案: " + segment.path);
+        }
+        int capacity = buffer.capacity();
+        int position = SEGMENT_HEADER_SIZE;
+        long lastTimestamp = buffer.getLong(8);
+        CRC32C crc = new CRC32C();
+        while (position + RECORD_HEADER_SIZE <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > capacity) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(position + RECORD_HEADER_SIZE, length));
+            if (buffer.getInt(position + 4) != (int) crc.getValue()) {
+                logger.warn("Audit segment {} has a torn record at offset {}", segment.path.getFileName(), position);
+                break;
+            }
+            lastTimestamp = buffer.getLong(position + 8);
+            segment.records++;
+            position += RECORD_HEADER_SIZE + length;
+        }
+        segment.end = position;
+        segment.lastTimestamp = lastTimestamp;
+    }
+
+    /**
+     * 映射分段檔案；唯讀映射使用檔案實際大小，可寫映射至少為 size
+     * (設定的分段大小變更後，舊分段仍以原大小讀取)
+     */
+    private static MappedByteBuffer map(Path path, FileChannel.MapMode mode, int size) throws IOException {
+        if (mode == FileChannel.MapMode.READ_ONLY) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(mode, 0, channel.size());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            // 映射在 channel 關閉後仍然有效
+            return channel.map(mode, 0, Math.max(size, channel.size()));
+        }
+    }
+
+    private static long parseId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static int hash(String orderId) {
+        return orderId == null ? 0 : orderId.hashCode();
+    }
+}
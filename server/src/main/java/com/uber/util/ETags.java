@@ -0,0 +1,39 @@
+package com.uber.util;
+
+import com.uber.repository.ChangeFeed;
+
+/**
+ * 以實體版本產生 ETag，並比對 If-None-Match
+ *
+ * 版本序號只存在記憶體，因此 ETag 帶入本次啟動的 epoch，重新啟動後舊的 ETag 一律不符。
+ */
+public final class ETags {
+
+    private static final String PREFIX = "\"" + ChangeFeed.epoch().substring(0, 8) + "-";
+
+    private ETags() {
+    }
+
+    public static String of(long version) {
+        return PREFIX + Long.toHexString(version) + "\"";
+    }
+
+    /**
+     * If-None-Match 是否包含此 ETag (弱比對，支援多個值與 *)
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,171 @@
+package com.uber.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 逐筆寫出匯出資料 (NDJSON 或 CSV，可選 gzip)
+ *
+ * 每筆資料寫入固定大小的緩衝區後即送出，記憶體用量與匯出筆數無關。
+ * close() 只結束 gzip 與緩衝，不關閉底層的 OutputStream。
+ */
+public final class ExportWriter<T> implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        /**
+         * 解析格式參數，未指定時為 NDJSON
+         */
+        public static Format parse(String value) {
+            if (value == null || value.isEmpty()) {
+                return NDJSON;
+            }
+            return Format.valueOf(value.toUpperCase());
+        }
+    }
+
+    private final Format format;
+    private final GZIPOutputStream gzip;
+    private final OutputStream buffered;
+    private final JsonGenerator json;
+    private final Writer csv;
+    private final Function<T, Object[]> row;
+    private long count;
+
+    /**
+     * @param columns CSV 欄位名稱 (NDJSON 不使用)
+     * @param row     將一筆資料轉為 CSV 欄位值，順序與 columns 相同
+     */
+    public ExportWriter(OutputStream out, Format format, boolean compress, ObjectMapper mapper,
+                        List<String> columns, Function<T, Object[]> row) throws IOException {
+        this.format = format;
+        this.row = row;
+        OutputStream target = new NonClosingOutputStream(out);
+        this.gzip = compress ? new GZIPOutputStream(target, BUFFER_SIZE) : null;
+        this.buffered = new BufferedOutputStream(gzip != null ? gzip : target, BUFFER_SIZE);
+        if (format == Format.NDJSON) {
+            this.json = mapper.getFactory().createGenerator(buffered);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setCodec(mapper);
+            this.csv = null;
+        } else {
+            this.json = null;
+            this.csv = new OutputStreamWriter(buffered, StandardCharsets.UTF_8);
+            writeCsvLine(columns.toArray());
+        }
+    }
+
+    public void write(T record) throws IOException {
+        if (json != null) {
+            json.writeObject(record);
+            json.writeRaw('\n');
+        } else {
+            writeCsvLine(row.apply(record));
+        }
+        count++;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();
+        } else {
+            csv.flush();
+        }
+        buffered.flush();
+        if (gzip != null) {
+            gzip.finish();
+        }
+        buffered.close();
+    }
+
+    private void writeCsvLine(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.write(',');
+            }
+            csv.write(escapeCsv(values[i]));
+        }
+        csv.write("\r\n");
+    }
+
+    /**
+     * RFC 4180：含逗號、引號或換行的值以引號包住，引號重複一次
+     */
+    static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        return quote ? '"' + text.replace("\"", "\"\"") + '"' : text;
+    }
+
+    /**
+     * 關閉時只 flush，底層串流由呼叫端 (Servlet 容器) 負責關閉
+     */
+    private static final class NonClosingOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+
+        NonClosingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.flush();
+        }
+    }
+}
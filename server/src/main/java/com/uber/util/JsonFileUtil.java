@@ -1,15 +1,24 @@
 package com.uber.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.uber.jfr.SnapshotWriteEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class JsonFileUtil {
     private static final Logger logger = LoggerFactory.getLogger(JsonFileUtil.class);
@@ -40,14 +49,63 @@ public class JsonFileUtil {
         if (isTestEnv()) {
             return;
         }
+        SnapshotWriteEvent event = new SnapshotWriteEvent();
+        event.begin();
         try {
             File file = new File(DATA_DIR, filename);
-            objectMapper.writeValue(file, data);
+            // 先寫暫存檔再 rename，當機時不會留下寫到一半的 JSON
+            AtomicFiles.write(file.toPath(), false, channel -> {
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+                objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, data);
+                out.flush();
+            });
+            event.end();
+            if (event.shouldCommit()) {
+                event.file = filename;
+                event.format = "JSON";
+                event.records = data.size();
+                event.bytes = file.length();
+                event.commit();
+            }
         } catch (IOException e) {
             logger.error("Failed to save data to file: {}", filename, e);
         }
     }
 
+    /**
+     * 資料目錄
+     */
+    public static File dataDir() {
+        return new File(DATA_DIR);
+    }
+
+    /**
+     * 以 token 串流逐筆讀取 JSON 陣列，不建立中間 List
+     *
+     * @return 讀取筆數 (檔案不存在時為 0)
+     */
+    public static <T> int streamFromFile(String filename, Class<T> type, Consumer<? super T> sink) throws IOException {
+        if (isTestEnv()) {
+            return 0;
+        }
+        File file = new File(DATA_DIR, filename);
+        if (!file.exists()) {
+            return 0;
+        }
+        ObjectReader reader = objectMapper.readerFor(type);
+        int count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected JSON array in " + filename);
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                sink.accept(reader.readValue(parser));
+                count++;
+            }
+        }
+        return count;
+    }
+
     public static <T> List<T> loadFromFile(String filename, TypeReference<List<T>> typeReference) {
         if (isTestEnv()) {
             return Collections.emptyList();
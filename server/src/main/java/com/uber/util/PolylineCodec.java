@@ -0,0 +1,127 @@
+package com.uber.util;
+
+import java.util.Arrays;
+
+/**
+ * 路徑壓縮編碼 (delta + zigzag varint)
+ *
+ * 座標先量化為整數 (精度 10^-5，約 1 公尺)，每個點只記錄與前一點的差值，
+ * 差值以 zigzag 轉為非負數後用 varint (每 byte 7 bits) 寫出：
+ * <pre>
+ * varint 點數 | 第一點 (x, y) | 之後每點 (dx, dy)
+ * </pre>
+ * 相鄰點通常很接近，每個座標約 1-3 bytes，相較 JSON 文字的 [[24.12345,120.67891],...] 小很多。
+ */
+public final class PolylineCodec {
+
+    static final double SCALE = 1e5;
+
+    private PolylineCodec() {
+    }
+
+    /**
+     * 編碼路徑
+     *
+     * @param points 每個點為 {x, y} (地圖路徑為 {lat, lng})
+     */
+    public static byte[] encode(double[][] points) {
+        Buffer out = new Buffer(points.length * 4 + 5);
+        out.writeVarint(points.length);
+        long previousX = 0;
+        long previousY = 0;
+        for (double[] point : points) {
+            if (point == null || point.length != 2 || !Double.isFinite(point[0]) || !Double.isFinite(point[1])) {
+                throw new IllegalArgumentException("路徑點必須為兩個有限數值");
+            }
+            long x = Math.round(point[0] * SCALE);
+            long y = Math.round(point[1] * SCALE);
+            out.writeVarint(zigzag(x - previousX));
+            out.writeVarint(zigzag(y - previousY));
+            previousX = x;
+            previousY = y;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解碼路徑
+     *
+     * @throws IllegalArgumentException 資料不完整或格式錯誤
+     */
+    public static double[][] decode(byte[] data) {
+        Reader in = new Reader(data);
+        long count = in.readVarint();
+        // 每個點至少 2 bytes，可據此排除損毀的點數
+        if (count < 0 || count > (data.length - in.position) / 2) {
+            throw new IllegalArgumentException("路徑資料損毀");
+        }
+        double[][] points = new double[(int) count][];
+        long x = 0;
+        long y = 0;
+        for (int i = 0; i < points.length; i++) {
+            x += unzigzag(in.readVarint());
+            y += unzigzag(in.readVarint());
+            points[i] = new double[] {x / SCALE, y / SCALE};
+        }
+        if (in.position != data.length) {
+            throw new IllegalArgumentException("路徑資料損毀");
+        }
+        return points;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Buffer {
+        private byte[] bytes;
+        private int size;
+
+        Buffer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void writeVarint(long value) {
+            if (size + 10 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + 10));
+            }
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= bytes.length) {
+                    throw new IllegalArgumentException("路徑資料損毀");
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("路徑資料損毀");
+        }
+    }
+}
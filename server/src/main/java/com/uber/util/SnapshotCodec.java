@@ -0,0 +1,280 @@
+package com.uber.util;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 二進位快照編解碼 (Smile)
+ *
+ * 檔案結構:
+ * <pre>
+ * magic     4 bytes  "RDSN"
+ * version   2 bytes  格式版本
+ * codec     1 byte   payload 編碼 (1 = Smile)
+ * flags     1 byte   保留
+ * count     4 bytes  實體筆數
+ * length    8 bytes  payload 長度
+ * payload   n bytes  Smile 編碼的實體陣列
+ * checksum  4 bytes  payload 的 CRC32C
+ * </pre>
+ *
+ * Smile 會共用重複出現的欄位名稱與短字串 (狀態、車種、動作代碼)，
+ * Instant 以 epoch 毫秒整數儲存，體積與解析時間都遠小於 JSON 文字。
+ */
+public final class SnapshotCodec {
+
+    public static final int MAGIC = 0x5244534E; // "RDSN"
+    public static final short VERSION = 1;
+    public static final byte CODEC_SMILE = 1;
+
+    static final int HEADER_SIZE = 20;
+    static final int TRAILER_SIZE = 4;
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectMapper smileMapper = new ObjectMapper(SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build())
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+            .disable(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .setDefaultPropertyInclusion(JsonInclude.Include.NON_NULL)
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+            .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+
+    private SnapshotCodec() {
+    }
+
+    /**
+     * 快照檔頭
+     */
+    public record Header(short version, byte codec, int count, long payloadLength) {
+    }
+
+    /**
+     * 取得快照使用的 Smile ObjectMapper
+     */
+    public static ObjectMapper mapper() {
+        return smileMapper;
+    }
+
+    /**
+     * 寫入快照 (覆寫目標檔案)
+     */
+    public static <T> void write(Path file, Collection<T> data) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, data);
+        }
+    }
+
+    /**
+     * 將快照寫入已開啟的 channel (自目前位置起)
+     */
+    public static <T> void write(FileChannel channel, Collection<T> data) throws IOException {
+        long start = channel.position();
+        // 先保留檔頭空間，payload 寫完後再回填長度
+        channel.write(ByteBuffer.allocate(HEADER_SIZE));
+
+        CRC32C crc = new CRC32C();
+        OutputStream out = new CheckedOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE), crc);
+        smileMapper.writeValue(out, data);
+        out.flush();
+
+        long payloadLength = channel.position() - start - HEADER_SIZE;
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE).putInt((int) crc.getValue());
+        trailer.flip();
+        writeFully(channel, trailer);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .put(CODEC_SMILE)
+                .put((byte) 0)
+                .putInt(data.size())
+                .putLong(payloadLength);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header, start + header.position());
+        }
+    }
+
+    /**
+     * 讀取整份快照
+     */
+    public static <T> List<T> read(Path file, Class<T> type) throws IOException {
+        List<T> result = new ArrayList<>();
+        stream(file, type, result::add);
+        return result;
+    }
+
+    /**
+     * 逐筆串流讀取快照，不建立中間 List
+     *
+     * checksum 於讀取過程中計算，讀完後才比對；
+     * 損毀時已送出的實體由呼叫端自行捨棄。
+     *
+     * @return 讀取筆數
+     */
+    public static <T> int stream(Path file, Class<T> type, Consumer<? super T> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            channel.position(HEADER_SIZE);
+
+            CRC32C crc = new CRC32C();
+            CheckedInputStream in = new CheckedInputStream(new LimitedInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel), IO_BUFFER_SIZE),
+                    header.payloadLength()), crc);
+            ObjectReader reader = smileMapper.readerFor(type);
+
+            int count = 0;
+            try (JsonParser parser = smileMapper.getFactory().createParser(in)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new SnapshotCorruptedException("快照 payload 不是陣列");
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    sink.accept(reader.readValue(parser));
+                    count++;
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    throw new SnapshotCorruptedException("快照 payload 結構錯誤");
+                }
+            } catch (JsonProcessingException e) {
+                throw new SnapshotCorruptedException("快照 payload 解析失敗: " + e.getOriginalMessage());
+            }
+            // 解析器不一定讀到 payload 最後一個 byte，剩餘部分也要納入 checksum
+            in.transferTo(OutputStream.nullOutputStream());
+
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            readFully(channel, trailer, HEADER_SIZE + header.payloadLength());
+            trailer.flip();
+            if (trailer.getInt() != (int) crc.getValue()) {
+                throw new SnapshotCorruptedException("快照 checksum 不符");
+            }
+            if (count != header.count()) {
+                throw new SnapshotCorruptedException("快照筆數不符: " + count + " / " + header.count());
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 讀取並驗證檔頭
+     */
+    public static Header readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE + TRAILER_SIZE) {
+            throw new SnapshotCorruptedException("快照檔案過短: " + channel.size() + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, buffer, 0);
+        buffer.flip();
+
+        int magic = buffer.getInt();
+        if (magic != MAGIC) {
+            throw new SnapshotCorruptedException("不是快照檔案 (magic 不符)");
+        }
+        short version = buffer.getShort();
+        if (version < 1 || version > VERSION) {
+            throw new SnapshotCorruptedException("不支援的快照版本: " + version);
+        }
+        byte codec = buffer.get();
+        if (codec != CODEC_SMILE) {
+            throw new SnapshotCorruptedException("不支援的快照編碼: " + codec);
+        }
+        buffer.get(); // flags
+        int count = buffer.getInt();
+        long payloadLength = buffer.getLong();
+        if (payloadLength != channel.size() - HEADER_SIZE - TRAILER_SIZE) {
+            throw new SnapshotCorruptedException("快照長度不符，檔案可能被截斷");
+        }
+        return new Header(version, codec, count, payloadLength);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new SnapshotCorruptedException("快照檔案非預期結束");
+            }
+        }
+    }
+
+    /**
+     * 限制讀取長度，避免緩衝讀取越過 payload 讀進 checksum
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            // channel 由呼叫端關閉
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
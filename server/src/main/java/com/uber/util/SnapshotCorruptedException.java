@@ -0,0 +1,13 @@
+package com.uber.util;
+
+import java.io.IOException;
+
+/**
+ * 快照檔案損毀 (檔頭錯誤、長度不符或 checksum 不符)
+ */
+public class SnapshotCorruptedException extends IOException {
+
+    public SnapshotCorruptedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,249 @@
+package com.uber.util;
+
+import com.uber.jfr.SnapshotWriteEvent;
+import com.uber.metrics.DispatchMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 儲存庫快照存取
+ *
+ * 預設以二進位快照 (SnapshotCodec) 存放於 data/&lt;name&gt;.snap；
+ * 設定 -Ddata.snapshot.format=json 時改寫回 JSON 文字 (data/&lt;name&gt;.json)。
+ * 讀取時若沒有快照但有舊的 JSON 檔，會讀入 JSON 並在下次儲存時轉為快照。
+ *
+ * 快照以 AtomicFiles 原子發佈，並保留上一代 (&lt;name&gt;.snap.prev)；
+ * 目前版本 checksum 驗證失敗時隔離為 .corrupt 並改讀上一代。
+ *
+ * 設定 -Ddata.snapshot.interval-ms=N (N &gt; 0) 時，N 毫秒內的多次儲存合併為一次寫入；
+ * 預設為 0，每次儲存立即寫入。
+ */
+public final class SnapshotFileUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotFileUtil.class);
+
+    static final String FORMAT_PROPERTY = "data.snapshot.format";
+    static final String INTERVAL_PROPERTY = "data.snapshot.interval-ms";
+    static final String SNAPSHOT_SUFFIX = ".snap";
+    static final String JSON_SUFFIX = ".json";
+    static final String CORRUPT_SUFFIX = ".corrupt";
+
+    // 同一快照同時只有一個寫入者 (暫存檔名固定)
+    private static final Map<String, Object> locks = new ConcurrentHashMap<>();
+    // 等待合併寫入的快照；值為寫入時才取得內容的 supplier
+    private static final Map<String, Supplier<? extends List<?>>> pending = new ConcurrentHashMap<>();
+    private static volatile ScheduledExecutorService scheduler;
+
+    private SnapshotFileUtil() {
+    }
+
+    /**
+     * 是否使用 JSON 文字格式
+     */
+    public static boolean jsonFormat() {
+        return "json".equalsIgnoreCase(System.getProperty(FORMAT_PROPERTY));
+    }
+
+    /**
+     * 合併寫入的間隔 (毫秒)，0 表示立即寫入
+     */
+    public static long intervalMillis() {
+        return Long.getLong(INTERVAL_PROPERTY, 0L);
+    }
+
+    public static <T> void save(String name, List<T> data) {
+        save(name, () -> data);
+    }
+
+    /**
+     * 儲存快照；合併寫入時於排程執行當下才呼叫 snapshot 取得內容
+     */
+    public static <T> void save(String name, Supplier<? extends List<T>> snapshot) {
+        if (JsonFileUtil.isTestEnv()) {
+            return;
+        }
+        DispatchMetrics.repositorySave(name).record(() -> {
+            long interval = intervalMillis();
+            if (interval <= 0) {
+                write(name, snapshot.get());
+                return;
+            }
+            if (pending.put(name, snapshot) == null) {
+                scheduler().schedule(() -> flush(name), interval, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    /**
+     * 立即寫入所有等待中的快照 (關閉時呼叫)
+     */
+    public static void flushAll() {
+        for (String name : List.copyOf(pending.keySet())) {
+            flush(name);
+        }
+    }
+
+    /**
+     * 目前等待寫入的快照數
+     */
+    public static int pendingCount() {
+        return pending.size();
+    }
+
+    private static void flush(String name) {
+        Supplier<? extends List<?>> snapshot = pending.remove(name);
+        if (snapshot != null) {
+            write(name, snapshot.get());
+        }
+    }
+
+    private static void write(String name, List<?> data) {
+        Timer.Sample sample = Timer.start();
+        try {
+            writeLocked(name, data);
+        } finally {
+            sample.stop(DispatchMetrics.repositoryPersist(name));
+        }
+    }
+
+    private static void writeLocked(String name, List<?> data) {
+        synchronized (locks.computeIfAbsent(name, key -> new Object())) {
+            if (jsonFormat()) {
+                JsonFileUtil.saveToFile(name + JSON_SUFFIX, data);
+                return;
+            }
+            SnapshotWriteEvent event = new SnapshotWriteEvent();
+            event.begin();
+            try {
+                File file = snapshotFile(name);
+                AtomicFiles.write(file.toPath(), true, channel -> SnapshotCodec.write(channel, data));
+                event.end();
+                if (event.shouldCommit()) {
+                    event.file = file.getName();
+                    event.format = "SMILE";
+                    event.records = data.size();
+                    event.bytes = file.length();
+                    event.commit();
+                }
+            } catch (IOException e) {
+                logger.error("Failed to save snapshot: {}", name, e);
+            }
+        }
+    }
+
+    private static ScheduledExecutorService scheduler() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            synchronized (SnapshotFileUtil.class) {
+                current = scheduler;
+                if (current == null) {
+                    current = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "snapshot-writer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    scheduler = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 逐筆串流載入快照
+     *
+     * 依序嘗試目前快照、上一代快照；checksum 等驗證失敗的檔案改名為 &lt;file&gt;.corrupt 隔離，
+     * 之後的儲存不會把它輪替成上一代而蓋掉仍可用的 .prev。
+     * 只有兩代快照都不存在時才讀取舊版 JSON 檔；快照存在但全部損毀時以空資料啟動。
+     * 每次失敗都先呼叫 reset 捨棄已載入的部分。
+     *
+     * @param sink  每讀出一筆即呼叫
+     * @param reset 捨棄已送出的實體
+     * @return 載入筆數
+     */
+    public static <T> int load(String name, Class<T> type, Consumer<? super T> sink, Runnable reset) {
+        if (JsonFileUtil.isTestEnv()) {
+            return 0;
+        }
+        if (!jsonFormat()) {
+            Path snapshot = snapshotFile(name).toPath();
+            if (Files.exists(snapshot) || Files.exists(AtomicFiles.previousOf(snapshot))) {
+                return loadGenerations(snapshot, type, sink, reset);
+            }
+        }
+        // 舊版 JSON 檔 (或 JSON 格式模式)
+        try {
+            return JsonFileUtil.streamFromFile(name + JSON_SUFFIX, type, sink);
+        } catch (IOException e) {
+            logger.error("Failed to load data from file: {}{}", name, JSON_SUFFIX, e);
+            reset.run();
+            return 0;
+        }
+    }
+
+    static <T> int loadGenerations(Path snapshot, Class<T> type, Consumer<? super T> sink, Runnable reset) {
+        for (Path candidate : List.of(snapshot, AtomicFiles.previousOf(snapshot))) {
+            if (!Files.exists(candidate)) {
+                continue;
+            }
+            try {
+                int count = SnapshotCodec.stream(candidate, type, sink);
+                if (!candidate.equals(snapshot)) {
+                    logger.warn("Recovered {} from previous snapshot generation", snapshot.getFileName());
+                }
+                return count;
+            } catch (SnapshotCorruptedException e) {
+                logger.error("Corrupted snapshot: {}", candidate, e);
+                reset.run();
+                quarantine(candidate);
+            } catch (IOException e) {
+                logger.error("Failed to load snapshot: {}", candidate, e);
+                reset.run();
+            }
+        }
+        logger.error("No loadable snapshot generation for {}, starting empty", snapshot.getFileName());
+        return 0;
+    }
+
+    /**
+     * 損毀檔案的隔離路徑
+     */
+    static Path corruptOf(Path file) {
+        return file.resolveSibling(file.getFileName() + CORRUPT_SUFFIX);
+    }
+
+    private static void quarantine(Path file) {
+        try {
+            Files.move(file, corruptOf(file), StandardCopyOption.REPLACE_EXISTING);
+            logger.warn("Moved corrupted snapshot to {}", corruptOf(file));
+        } catch (IOException e) {
+            logger.error("Failed to quarantine corrupted snapshot: {}", file, e);
+        }
+    }
+
+    /**
+     * 匯出為 JSON 文字 (data/&lt;name&gt;.json)，不影響快照
+     */
+    public static <T> void exportJson(String name, List<T> data) {
+        JsonFileUtil.saveToFile(name + JSON_SUFFIX, data);
+    }
+
+    static File snapshotFile(String name) {
+        return new File(JsonFileUtil.dataDir(), name + SNAPSHOT_SUFFIX);
+    }
+}
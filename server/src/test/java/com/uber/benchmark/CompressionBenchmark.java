@@ -0,0 +1,133 @@
+package com.uber.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.uber.RideDispatchApplication;
+import com.uber.model.Location;
+import com.uber.model.Order;
+import com.uber.model.OrderStatus;
+import com.uber.model.VehicleType;
+import com.uber.repository.OrderRepository;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 列表回應的大小與端對端延遲 (手動執行的 benchmark，非單元測試)
+ *
+ * 啟動完整伺服器 (隨機 port)，建立 10,000 筆訂單後以
+ * GET /api/admin/orders?size=10000 比較 JSON / JSON+gzip / Smile / Smile+gzip：
+ * 傳輸位元組數，以及從送出請求到用戶端解析完成的延遲。
+ *
+ * 執行: mvn -q test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.uber.benchmark.CompressionBenchmark
+ */
+public final class CompressionBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final int WARMUP = 20;
+    private static final int MEASURED = 100;
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private CompressionBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // 不寫入 data/ 目錄
+        System.setProperty("skip.data.persistence", "true");
+        ConfigurableApplicationContext context = SpringApplication.run(RideDispatchApplication.class,
+                "--server.port=0", "--logging.level.com.uber=WARN");
+        try {
+            seed(context.getBean(OrderRepository.class));
+            int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+            URI uri = URI.create("http://localhost:" + port + "/api/admin/orders?page=0&size=" + ROWS);
+
+            HttpClient client = HttpClient.newHttpClient();
+            ObjectMapper json = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+            System.out.printf("GET /api/admin/orders (%,d rows)%n", ROWS);
+            run("JSON        ", client, uri, "application/json", false, json);
+            run("JSON + gzip ", client, uri, "application/json", true, json);
+            run("Smile       ", client, uri, SMILE, false, smile);
+            run("Smile + gzip", client, uri, SMILE, true, smile);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void seed(OrderRepository repository) {
+        Instant now = Instant.now();
+        VehicleType[] types = VehicleType.values();
+        for (int i = 0; i < ROWS; i++) {
+            boolean completed = i % 3 == 0;
+            repository.save(Order.builder()
+                    .orderId("order-" + i)
+                    .passengerId("passenger-" + (i % 500))
+                    .driverId(completed ? "driver-" + (i % 200) : null)
+                    .status(completed ? OrderStatus.COMPLETED : OrderStatus.PENDING)
+                    .vehicleType(types[i % types.length])
+                    .pickupLocation(new Location(i % 100, i % 50))
+                    .dropoffLocation(new Location(i % 70, i % 90))
+                    .estimatedFare(120.0 + i % 300)
+                    .actualFare(completed ? 130.0 + i % 300 : null)
+                    .distance(3.5)
+                    .createdAt(now.minusSeconds(i))
+                    .completedAt(completed ? now : null)
+                    .build());
+        }
+    }
+
+    private static void run(String label, HttpClient client, URI uri, String accept, boolean gzip,
+                            ObjectMapper mapper) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).header("Accept", accept).GET();
+        if (gzip) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+        HttpRequest request = builder.build();
+
+        long bytes = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            bytes = fetch(client, request, mapper);
+        }
+        long[] samples = new long[MEASURED];
+        for (int i = 0; i < MEASURED; i++) {
+            long start = System.nanoTime();
+            fetch(client, request, mapper);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%s  %,10d bytes  p50 %6.1f ms  p99 %6.1f ms%n", label, bytes,
+                samples[MEASURED / 2] / 1e6, samples[(int) (MEASURED * 0.99)] / 1e6);
+    }
+
+    /**
+     * 送出請求並解析回應，回傳傳輸的 body 位元組數
+     */
+    private static long fetch(HttpClient client, HttpRequest request, ObjectMapper mapper)
+            throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        byte[] body = response.body();
+        InputStream in = new ByteArrayInputStream(body);
+        if ("gzip".equalsIgnoreCase(response.headers().firstValue("Content-Encoding").orElse(""))) {
+            in = new GZIPInputStream(in);
+        }
+        JsonNode tree = mapper.readTree(in);
+        if (tree.path("data").path("orders").size() != ROWS) {
+            throw new IllegalStateException("unexpected response: " + response.statusCode());
+        }
+        return body.length;
+    }
+}
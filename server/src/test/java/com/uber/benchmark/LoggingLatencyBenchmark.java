@@ -0,0 +1,157 @@
+package com.uber.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.uber.model.*;
+import com.uber.repository.AuditLogRepository;
+import com.uber.repository.DriverRepository;
+import com.uber.repository.OrderRepository;
+import com.uber.routing.StraightLineEtaProvider;
+import com.uber.service.AuditService;
+import com.uber.service.DriverService;
+import com.uber.service.FareService;
+import com.uber.service.OrderService;
+import com.uber.service.SurgePricingService;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 日誌模式對請求延遲的影響 (手動執行的 benchmark，非單元測試)
+ *
+ * 以同一組派單流程 (上線 → 建立訂單 → offers → 接單 → 開始 → 完成) 比較：
+ * 1. 同步 appender + com.uber DEBUG (目前 application.yml 的設定)
+ * 2. 同步 appender + com.uber INFO
+ * 3. AsyncAppender + com.uber INFO (prod profile)
+ *
+ * 執行: mvn -q test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.uber.benchmark.LoggingLatencyBenchmark
+ */
+public final class LoggingLatencyBenchmark {
+
+    private static final int DRIVERS = 50;
+    private static final int WARMUP = 20_000;
+    private static final int MEASURED = 50_000;
+    // 定期清空訂單與審計日誌，避免資料量成長影響各模式的比較
+    private static final int RESET_EVERY = 1_000;
+
+    private LoggingLatencyBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 不寫入 data/ 目錄
+        System.setProperty("skip.data.persistence", "true");
+        Path logFile = Files.createTempFile("dispatch-bench", ".log");
+        try {
+            run("sync  / DEBUG", false, Level.DEBUG, logFile);
+            run("sync  / INFO ", false, Level.INFO, logFile);
+            run("async / INFO ", true, Level.INFO, logFile);
+        } finally {
+            ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    private static void run(String label, boolean async, Level level, Path logFile) {
+        configureLogging(async, level, logFile);
+
+        OrderRepository orderRepository = new OrderRepository();
+        DriverRepository driverRepository = new DriverRepository();
+        FareService fareService = new FareService();
+        fareService.initRatePlans();
+        AuditLogRepository auditLogRepository = new AuditLogRepository();
+        OrderService orderService = new OrderService(orderRepository, driverRepository,
+                new AuditService(auditLogRepository), fareService,
+                new SurgePricingService(orderRepository, driverRepository), new StraightLineEtaProvider());
+        DriverService driverService = new DriverService(driverRepository, orderRepository, new StraightLineEtaProvider());
+
+        for (int i = 0; i < DRIVERS; i++) {
+            driverService.registerDriver("d" + i, "Driver " + i, "0900000000", "BEN-" + i, VehicleType.STANDARD);
+        }
+
+        for (int i = 0; i < WARMUP; i++) {
+            if (i % RESET_EVERY == 0) {
+                orderRepository.deleteAll();
+                auditLogRepository.deleteAll();
+            }
+            trip(orderService, driverService, i);
+        }
+        long[] samples = new long[MEASURED];
+        for (int i = 0; i < MEASURED; i++) {
+            if (i % RESET_EVERY == 0) {
+                orderRepository.deleteAll();
+                auditLogRepository.deleteAll();
+            }
+            long start = System.nanoTime();
+            trip(orderService, driverService, i);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%s  mean %7.1f us  p50 %7.1f us  p99 %7.1f us  p99.9 %7.1f us%n",
+                label, Arrays.stream(samples).average().orElse(0) / 1_000.0,
+                samples[MEASURED / 2] / 1_000.0,
+                samples[(int) (MEASURED * 0.99)] / 1_000.0,
+                samples[(int) (MEASURED * 0.999)] / 1_000.0);
+    }
+
+    /**
+     * 一趟完整行程 (每個請求各自記錄日誌)
+     */
+    private static void trip(OrderService orderService, DriverService driverService, int i) {
+        String driverId = "d" + (i % DRIVERS);
+        double x = (i % DRIVERS) * 0.01;
+        driverService.goOnline(driverId, new Location(x, 0));
+
+        Order order = orderService.createOrder("p" + i, new Location(x, 0.001), new Location(x + 0.05, 0.05),
+                VehicleType.STANDARD);
+        String assigned = order.getAssignedDriverId();
+        driverService.getOffers(assigned);
+        orderService.acceptOrder(order.getOrderId(), assigned);
+        orderService.startTrip(order.getOrderId(), assigned);
+        orderService.completeTrip(order.getOrderId(), assigned);
+    }
+
+    private static void configureLogging(boolean async, Level level, Path logFile) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %t --- %-40.40logger{39} : %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setAppend(false);
+        file.setImmediateFlush(true);
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (async) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(context);
+            asyncAppender.setQueueSize(8192);
+            asyncAppender.setNeverBlock(true);
+            asyncAppender.setIncludeCallerData(false);
+            asyncAppender.addAppender(file);
+            asyncAppender.start();
+            appender = asyncAppender;
+        }
+
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        context.getLogger("com.uber").setLevel(level);
+    }
+}
@@ -0,0 +1,179 @@
+package com.uber.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.uber.dto.ApiResponse;
+import com.uber.dto.OfferListResponse;
+import com.uber.dto.OfferResponse;
+import com.uber.dto.OrderPageResponse;
+import com.uber.dto.OrderSummaryResponse;
+import com.uber.model.Location;
+import com.uber.model.Order;
+import com.uber.model.OrderStatus;
+import com.uber.model.VehicleType;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 回應建構 + JSON 序列化的耗時與配置量 (手動執行的 benchmark，非單元測試)
+ *
+ * 比較 /api/admin/orders (每頁 20 筆) 與 /api/drivers/{id}/offers (10 筆)：
+ * 1. 每筆實體建立 HashMap (改版前的寫法)
+ * 2. record DTO
+ * 3. record DTO + Blackbird 模組 (JacksonConfig)
+ *
+ * 執行: mvn -q test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.uber.benchmark.ResponseSerializationBenchmark
+ */
+public final class ResponseSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int OFFERS = 10;
+    private static final int WARMUP = 50_000;
+    private static final int MEASURED = 200_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // 避免 JIT 消除序列化結果
+    private static long sink;
+
+    private ResponseSerializationBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper plain = mapper();
+        ObjectMapper blackbird = mapper().registerModule(new BlackbirdModule());
+        List<Order> orders = orders(PAGE_SIZE);
+        List<Order> offers = orders.subList(0, OFFERS);
+
+        System.out.println("GET /api/admin/orders");
+        run("  HashMap           ", plain, () -> ordersAsMaps(orders));
+        run("  record            ", plain, () -> ordersAsRecords(orders));
+        run("  record + blackbird", blackbird, () -> ordersAsRecords(orders));
+
+        System.out.println("GET /api/drivers/{id}/offers");
+        run("  HashMap           ", plain, () -> offersAsMaps(offers));
+        run("  record            ", plain, () -> offersAsRecords(offers));
+        run("  record + blackbird", blackbird, () -> offersAsRecords(offers));
+    }
+
+    private static void run(String label, ObjectMapper mapper, Supplier<Object> response) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            sink += mapper.writeValueAsBytes(ApiResponse.success(response.get())).length;
+        }
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            sink += mapper.writeValueAsBytes(ApiResponse.success(response.get())).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - allocatedBefore;
+        System.out.printf("%s  %8.2f us/op  %8d B/op%n",
+                label, elapsed / 1_000.0 / MEASURED, allocated / MEASURED);
+    }
+
+    private static ObjectMapper mapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < count; i++) {
+            boolean completed = i % 2 == 0;
+            orders.add(Order.builder()
+                    .orderId("order-" + i)
+                    .passengerId("p" + i)
+                    .driverId(completed ? "d" + i : null)
+                    .status(completed ? OrderStatus.COMPLETED : OrderStatus.PENDING)
+                    .vehicleType(VehicleType.STANDARD)
+                    .pickupLocation(new Location(i, i))
+                    .dropoffLocation(new Location(i + 5, i + 5))
+                    .estimatedFare(180.0 + i)
+                    .actualFare(completed ? 190.0 + i : null)
+                    .distance(7.07)
+                    .duration(completed ? 12 : null)
+                    .createdAt(now)
+                    .completedAt(completed ? now : null)
+                    .build());
+        }
+        return orders;
+    }
+
+    private static Object ordersAsRecords(List<Order> orders) {
+        return new OrderPageResponse(orders.stream().map(OrderSummaryResponse::from).toList(),
+                new OrderPageResponse.Pagination(0, PAGE_SIZE, orders.size(), 1));
+    }
+
+    private static Object offersAsRecords(List<Order> offers) {
+        return OfferListResponse.of(offers.stream().map(OfferResponse::from).toList());
+    }
+
+    // ====== 改版前的 Map 回應 ======
+
+    private static Object ordersAsMaps(List<Order> orders) {
+        List<Map<String, Object>> orderList = new ArrayList<>();
+        for (Order order : orders) {
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("orderId", order.getOrderId());
+            summary.put("passengerId", order.getPassengerId());
+            summary.put("status", order.getStatus().name());
+            summary.put("vehicleType", order.getVehicleType().name());
+            summary.put("createdAt", order.getCreatedAt());
+            if (order.getDriverId() != null) {
+                summary.put("driverId", order.getDriverId());
+            }
+            if (order.getActualFare() != null && order.getActualFare() > 0) {
+                summary.put("fare", order.getActualFare());
+            }
+            if (order.getCompletedAt() != null) {
+                summary.put("completedAt", order.getCompletedAt());
+            }
+            if (order.getCancelledAt() != null) {
+                summary.put("cancelledAt", order.getCancelledAt());
+            }
+            orderList.add(summary);
+        }
+        Map<String, Object> pagination = new HashMap<>();
+        pagination.put("page", 0);
+        pagination.put("size", PAGE_SIZE);
+        pagination.put("totalElements", orders.size());
+        pagination.put("totalPages", 1);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("orders", orderList);
+        response.put("pagination", pagination);
+        return response;
+    }
+
+    private static Object offersAsMaps(List<Order> offers) {
+        List<Map<String, Object>> offerList = new ArrayList<>();
+        for (Order order : offers) {
+            Map<String, Object> offer = new HashMap<>();
+            offer.put("orderId", order.getOrderId());
+            offer.put("pickupLocation", order.getPickupLocation());
+            offer.put("dropoffLocation", order.getDropoffLocation());
+            offer.put("vehicleType", order.getVehicleType().name());
+            offer.put("distance", order.getDistance());
+            offer.put("estimatedFare", order.getEstimatedFare());
+            offer.put("createdAt", order.getCreatedAt());
+            offerList.add(offer);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("offers", offerList);
+        response.put("count", offerList.size());
+        return response;
+    }
+}
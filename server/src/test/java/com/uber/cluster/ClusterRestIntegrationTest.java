@@ -0,0 +1,265 @@
+package com.uber.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.uber.config.ClusterProperties;
+import com.uber.controller.ClusterEndpointController;
+import com.uber.controller.DriverController;
+import com.uber.controller.IdempotencyCache;
+import com.uber.controller.OrderController;
+import com.uber.exception.BusinessException;
+import com.uber.exception.GlobalExceptionHandler;
+import com.uber.model.Location;
+import com.uber.model.OrderStatus;
+import com.uber.repository.AuditLogRepository;
+import com.uber.repository.DriverRepository;
+import com.uber.repository.OrderRepository;
+import com.uber.repository.RouteRepository;
+import com.uber.routing.StraightLineEtaProvider;
+import com.uber.service.AuditService;
+import com.uber.service.DriverService;
+import com.uber.service.FareService;
+import com.uber.service.OrderService;
+import com.uber.service.RouteService;
+import com.uber.service.SurgePricingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 叢集 REST 整合測試
+ *
+ * 在同一個 JVM 內組出兩個節點 (各自的 Repository / Service / Controller)，
+ * 節點間訊息經由對方的 POST /internal/cluster/messages 傳遞，驗證：
+ * - 打到任一節點的 REST 請求都會送往擁有該分區的節點
+ * - 節點間端點需要共用密鑰
+ */
+@DisplayName("叢集 REST 整合測試")
+class ClusterRestIntegrationTest {
+
+    private static final List<String> NODE_IDS = List.of("node-a", "node-b");
+    private static final String SECRET = "test-cluster-secret";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final Map<String, MockMvc> nodes = new HashMap<>();
+    private final Map<String, OrderRepository> orderRepositories = new HashMap<>();
+    private final Map<String, DriverRepository> driverRepositories = new HashMap<>();
+    private final RegionPartitioner partitioner = new RegionPartitioner(1.0, NODE_IDS);
+
+    @BeforeEach
+    void setUp() {
+        FareService fareService = new FareService();
+        fareService.initRatePlans();
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setSecret(SECRET);
+
+        for (String nodeId : NODE_IDS) {
+            OrderRepository orderRepository = new OrderRepository();
+            DriverRepository driverRepository = new DriverRepository();
+            OrderService orderService = new OrderService(orderRepository, driverRepository,
+                    new AuditService(new AuditLogRepository()), fareService,
+                    new SurgePricingService(orderRepository, driverRepository), new StraightLineEtaProvider());
+            DriverService driverService = new DriverService(driverRepository, orderRepository,
+                    new StraightLineEtaProvider());
+            RouteService routeService = new RouteService(orderRepository, new RouteRepository());
+            ClusterNode node = new ClusterNode(nodeId, orderService, driverService, driverRepository, routeService);
+            ClusterRouter router = new ClusterRouter(partitioner, new MockMvcTransport());
+            IdempotencyCache idempotencyCache = new IdempotencyCache(Duration.ofHours(1), 100);
+
+            nodes.put(nodeId, MockMvcBuilders.standaloneSetup(
+                            new OrderController(orderService, fareService, routeService,
+                                    objectMapper, idempotencyCache, Optional.of(router)),
+                            new DriverController(driverService, idempotencyCache, Optional.of(router)),
+                            new ClusterEndpointController(node, properties))
+                    .setControllerAdvice(new GlobalExceptionHandler())
+                    .build());
+            orderRepositories.put(nodeId, orderRepository);
+            driverRepositories.put(nodeId, driverRepository);
+        }
+    }
+
+    /**
+     * 經由目標節點的 /internal/cluster/messages 傳遞訊息 (帶共用密鑰)
+     */
+    private final class MockMvcTransport implements ClusterTransport {
+
+        @Override
+        public ClusterReply send(String nodeId, ClusterMessage message) {
+            MockMvc node = nodes.get(nodeId);
+            if (node == null) {
+                throw new BusinessException("NODE_UNAVAILABLE", "叢集節點無法連線: " + nodeId, 503);
+            }
+            try {
+                MvcResult result = node.perform(post(HttpClusterTransport.MESSAGE_PATH)
+                                .header(HttpClusterTransport.SECRET_HEADER, SECRET)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(ClusterCodec.encode(message)))
+                        .andReturn();
+                if (result.getResponse().getStatus() != 200) {
+                    throw new BusinessException("NODE_UNAVAILABLE",
+                            "叢集節點回應異常: " + nodeId + " (" + result.getResponse().getStatus() + ")", 503);
+                }
+                return ClusterCodec.decode(result.getResponse().getContentAsByteArray(), ClusterReply.class);
+            } catch (BusinessException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 找出一個由指定節點擁有的分區中心點
+     */
+    private Location locationOwnedBy(String nodeId) {
+        for (int x = 0; x < 100; x++) {
+            for (int y = 0; y < 100; y++) {
+                Location candidate = new Location(x + 0.5, y + 0.5);
+                if (partitioner.ownerOf(candidate).equals(nodeId)) {
+                    return candidate;
+                }
+            }
+        }
+        throw new IllegalStateException("找不到屬於 " + nodeId + " 的分區");
+    }
+
+    private JsonNode data(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("data");
+    }
+
+    private String createOrder(MockMvc node, Location pickup) throws Exception {
+        Map<String, Object> request = Map.of(
+                "passengerId", "passenger-1",
+                "pickupX", pickup.getX(),
+                "pickupY", pickup.getY(),
+                "dropoffX", pickup.getX() + 0.2,
+                "dropoffY", pickup.getY(),
+                "vehicleType", "STANDARD");
+        MvcResult result = node.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return data(result).get("orderId").asText();
+    }
+
+    private void goOnline(MockMvc node, String driverId, Location location) throws Exception {
+        node.perform(put("/api/drivers/" + driverId + "/online")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("x", location.getX(), "y", location.getY()))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("任一節點建立的訂單存放在上車點所屬節點，並可由其他節點查詢")
+    void createAndGetOrder_RoutedToOwningNode() throws Exception {
+        Location inB = locationOwnedBy("node-b");
+
+        String orderId = createOrder(nodes.get("node-a"), inB);
+
+        assertTrue(orderRepositories.get("node-b").findById(orderId).isPresent());
+        assertTrue(orderRepositories.get("node-a").findById(orderId).isEmpty());
+        nodes.get("node-a").perform(get("/api/orders/" + orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.orderId").value(orderId))
+                .andExpect(jsonPath("$.data.status").value("PENDING"));
+    }
+
+    @Test
+    @DisplayName("司機上線、位置更新、取得派單與接單都送往所屬節點，跨分區時交接")
+    void driverFlow_RoutedAcrossNodes() throws Exception {
+        Location inA = locationOwnedBy("node-a");
+        Location inB = locationOwnedBy("node-b");
+        MockMvc nodeA = nodes.get("node-a");
+
+        goOnline(nodeA, "driver-1", inA);
+        assertTrue(driverRepositories.get("node-a").findById("driver-1").isPresent());
+
+        // 由 node-a 收到的位置更新使司機交接到 node-b
+        nodeA.perform(put("/api/drivers/driver-1/location")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("x", inB.getX(), "y", inB.getY()))))
+                .andExpect(status().isOk());
+        assertTrue(driverRepositories.get("node-b").findById("driver-1").isPresent());
+        assertTrue(driverRepositories.get("node-a").findById("driver-1").isEmpty());
+
+        String orderId = createOrder(nodeA, new Location(inB.getX() + 0.1, inB.getY()));
+
+        nodeA.perform(get("/api/drivers/driver-1/offers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.offers[0].orderId").value(orderId));
+
+        nodeA.perform(put("/api/orders/" + orderId + "/accept")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("driverId", "driver-1"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("ACCEPTED"))
+                .andExpect(jsonPath("$.data.driverId").value("driver-1"));
+        assertEquals(OrderStatus.ACCEPTED,
+                orderRepositories.get("node-b").findById(orderId).orElseThrow().getStatus());
+
+        // 行程其餘步驟打到不擁有訂單的 node-a 也能完成
+        nodeA.perform(put("/api/orders/" + orderId + "/start")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("driverId", "driver-1"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("ONGOING"));
+        nodeA.perform(put("/api/orders/" + orderId + "/route")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("routePathJson", "[[24.1,120.6],[24.2,120.7]]"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.points").value(2));
+        nodeA.perform(get("/api/orders/" + orderId + "/route"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.points").value(2));
+        nodeA.perform(put("/api/orders/" + orderId + "/complete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("driverId", "driver-1"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("COMPLETED"));
+        nodeA.perform(put("/api/drivers/driver-1/offline"))
+                .andExpect(status().isOk());
+        nodeA.perform(get("/api/drivers/driver-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("OFFLINE"));
+    }
+
+    @Test
+    @DisplayName("節點間端點缺少或帶錯密鑰時回傳 401 且不處理訊息")
+    void clusterEndpoint_RequiresSecret() throws Exception {
+        MockMvc nodeA = nodes.get("node-a");
+        byte[] message = ClusterCodec.encode(new ClusterMessage.RegisterDriver(
+                "driver-x", "Mallory", "0900000000", "XXX-0000", null));
+
+        nodeA.perform(post(HttpClusterTransport.MESSAGE_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(message))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error.code").value("UNAUTHORIZED"));
+        nodeA.perform(post(HttpClusterTransport.MESSAGE_PATH)
+                        .header(HttpClusterTransport.SECRET_HEADER, "wrong")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(message))
+                .andExpect(status().isUnauthorized());
+
+        assertTrue(driverRepositories.get("node-a").findById("driver-x").isEmpty());
+    }
+}
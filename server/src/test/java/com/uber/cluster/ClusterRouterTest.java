@@ -0,0 +1,237 @@
+package com.uber.cluster;
+
+import com.uber.exception.BusinessException;
+import com.uber.model.*;
+import com.uber.repository.AuditLogRepository;
+import com.uber.repository.DriverRepository;
+import com.uber.repository.OrderRepository;
+import com.uber.repository.RouteRepository;
+import com.uber.routing.StraightLineEtaProvider;
+import com.uber.service.AuditService;
+import com.uber.service.DriverService;
+import com.uber.service.FareService;
+import com.uber.service.OrderService;
+import com.uber.service.RouteService;
+import com.uber.service.SurgePricingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 叢集路由測試
+ *
+ * 以 InProcessClusterTransport 在單一 JVM 內啟動三個節點，
+ * 驗證分區路由、司機跨分區交接與跨節點接單。
+ */
+@DisplayName("ClusterRouter 測試")
+class ClusterRouterTest {
+
+    private static final List<String> NODE_IDS = List.of("node-a", "node-b", "node-c");
+
+    private final Map<String, OrderRepository> orderRepositories = new HashMap<>();
+    private final Map<String, DriverRepository> driverRepositories = new HashMap<>();
+    private ClusterRouter router;
+
+    @BeforeEach
+    void setUp() {
+        FareService fareService = new FareService();
+        fareService.initRatePlans();
+
+        InProcessClusterTransport transport = new InProcessClusterTransport();
+        for (String nodeId : NODE_IDS) {
+            OrderRepository orderRepository = new OrderRepository();
+            DriverRepository driverRepository = new DriverRepository();
+            AuditService auditService = new AuditService(new AuditLogRepository());
+            OrderService orderService = new OrderService(orderRepository, driverRepository, auditService, fareService,
+                    new SurgePricingService(orderRepository, driverRepository), new StraightLineEtaProvider());
+            DriverService driverService = new DriverService(driverRepository, orderRepository, new StraightLineEtaProvider());
+
+            RouteService routeService = new RouteService(orderRepository, new RouteRepository());
+            transport.register(new ClusterNode(nodeId, orderService, driverService, driverRepository, routeService));
+            orderRepositories.put(nodeId, orderRepository);
+            driverRepositories.put(nodeId, driverRepository);
+        }
+        router = new ClusterRouter(new RegionPartitioner(1.0, NODE_IDS), transport);
+    }
+
+    /**
+     * 找出一個由指定節點擁有的分區中心點
+     */
+    private Location locationOwnedBy(String nodeId) {
+        for (int x = 0; x < 100; x++) {
+            for (int y = 0; y < 100; y++) {
+                Location candidate = new Location(x + 0.5, y + 0.5);
+                if (router.nodeFor(candidate).equals(nodeId)) {
+                    return candidate;
+                }
+            }
+        }
+        throw new IllegalStateException("找不到屬於 " + nodeId + " 的分區");
+    }
+
+    private static Location offset(Location base, double dx) {
+        return new Location(base.getX() + dx, base.getY());
+    }
+
+    @Test
+    @DisplayName("相同節點清單下分區歸屬一致")
+    void partitionOwnershipIsDeterministic() {
+        RegionPartitioner other = new RegionPartitioner(1.0, List.of("node-c", "node-a", "node-b"));
+        for (int i = 0; i < 50; i++) {
+            Location location = new Location(i * 0.7, i * 1.3);
+            assertEquals(router.nodeFor(location), other.ownerOf(location));
+        }
+    }
+
+    @Test
+    @DisplayName("訂單建立於上車點所屬節點")
+    void createOrder_RoutesToOwningNode() {
+        Location pickup = locationOwnedBy("node-b");
+
+        Order order = router.createOrder("p1", pickup, offset(pickup, 0.2), VehicleType.STANDARD);
+
+        assertTrue(orderRepositories.get("node-b").findById(order.getOrderId()).isPresent());
+        assertTrue(orderRepositories.get("node-a").findById(order.getOrderId()).isEmpty());
+        assertTrue(orderRepositories.get("node-c").findById(order.getOrderId()).isEmpty());
+        assertEquals(order.getOrderId(), router.getOrder(order.getOrderId()).getOrderId());
+    }
+
+    @Test
+    @DisplayName("司機跨分區時交接至新節點")
+    void updateLocation_CrossingPartition_HandsOffDriver() {
+        Location inA = locationOwnedBy("node-a");
+        Location inC = locationOwnedBy("node-c");
+
+        router.registerDriver("d1", "Driver 1", "0912345678", "ABC-1234", VehicleType.STANDARD);
+        router.goOnline("d1", inA);
+        assertTrue(driverRepositories.get("node-a").findById("d1").isPresent());
+
+        Driver moved = router.updateDriverLocation("d1", inC);
+
+        assertEquals(DriverStatus.ONLINE, moved.getStatus());
+        assertEquals("node-c", router.driverHome("d1"));
+        assertTrue(driverRepositories.get("node-c").findById("d1").isPresent());
+        assertTrue(driverRepositories.get("node-a").findById("d1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("跨節點接單時司機先交接至訂單所屬節點")
+    void acceptOrder_DriverOnOtherNode_IsHandedOff() {
+        Location inA = locationOwnedBy("node-a");
+        Location inB = locationOwnedBy("node-b");
+
+        Order order = router.createOrder("p1", inB, offset(inB, 0.2), VehicleType.STANDARD);
+        router.registerDriver("d1", "Driver 1", "0912345678", "ABC-1234", VehicleType.STANDARD);
+        router.goOnline("d1", inA);
+
+        Order accepted = router.acceptOrder(order.getOrderId(), "d1");
+
+        assertEquals(OrderStatus.ACCEPTED, accepted.getStatus());
+        assertEquals("d1", accepted.getDriverId());
+        assertEquals("node-b", router.driverHome("d1"));
+        assertTrue(driverRepositories.get("node-b").findById("d1").orElseThrow().isBusy());
+    }
+
+    @Test
+    @DisplayName("行程中的司機不交接")
+    void updateLocation_BusyDriver_StaysOnOrderNode() {
+        Location inA = locationOwnedBy("node-a");
+        Location inB = locationOwnedBy("node-b");
+
+        router.registerDriver("d1", "Driver 1", "0912345678", "ABC-1234", VehicleType.STANDARD);
+        router.goOnline("d1", inA);
+        Order order = router.createOrder("p1", inA, offset(inA, 0.2), VehicleType.STANDARD);
+        router.acceptOrder(order.getOrderId(), "d1");
+
+        Driver driver = router.updateDriverLocation("d1", inB);
+
+        assertEquals("node-a", router.driverHome("d1"));
+        assertEquals(inB.getX(), driver.getLocation().getX());
+        assertTrue(driverRepositories.get("node-b").findById("d1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("司機取得所在節點的派單")
+    void getOffers_ReturnsOrderFromSamePartition() {
+        Location inC = locationOwnedBy("node-c");
+
+        router.registerDriver("d1", "Driver 1", "0912345678", "ABC-1234", VehicleType.STANDARD);
+        router.goOnline("d1", inC);
+        Order order = router.createOrder("p1", offset(inC, 0.1), offset(inC, 0.3), VehicleType.STANDARD);
+
+        List<Order> offers = router.getOffers("d1");
+
+        assertEquals(1, offers.size());
+        assertEquals(order.getOrderId(), offers.get(0).getOrderId());
+    }
+
+    @Test
+    @DisplayName("開始、完成行程送往訂單所屬節點，司機由其他節點接單後仍可完成")
+    void tripLifecycle_RoutedToOrderNode() {
+        Location inA = locationOwnedBy("node-a");
+        Location inB = locationOwnedBy("node-b");
+
+        Order order = router.createOrder("p1", inB, offset(inB, 0.2), VehicleType.STANDARD);
+        router.registerDriver("d1", "Driver 1", "0912345678", "ABC-1234", VehicleType.STANDARD);
+        router.goOnline("d1", inA);
+        router.acceptOrder(order.getOrderId(), "d1");
+
+        assertEquals(OrderStatus.ONGOING, router.startTrip(order.getOrderId(), "d1").getStatus());
+        Order completed = router.completeTrip(order.getOrderId(), "d1", 10);
+
+        assertEquals(OrderStatus.COMPLETED, completed.getStatus());
+        assertFalse(driverRepositories.get("node-b").findById("d1").orElseThrow().isBusy());
+        assertEquals(DriverStatus.OFFLINE, router.goOffline("d1").getStatus());
+        assertEquals(DriverStatus.OFFLINE, router.getDriver("d1").getStatus());
+    }
+
+    @Test
+    @DisplayName("取消、拒絕與路徑送往訂單所屬節點")
+    void cancelDeclineAndRoute_RoutedToOrderNode() {
+        Location inC = locationOwnedBy("node-c");
+        router.registerDriver("d1", "Driver 1", "0912345678", "ABC-1234", VehicleType.STANDARD);
+        router.goOnline("d1", inC);
+        Order declined = router.createOrder("p1", inC, offset(inC, 0.2), VehicleType.STANDARD);
+        Order cancelled = router.createOrder("p2", inC, offset(inC, 0.3), VehicleType.STANDARD);
+
+        assertEquals(OrderStatus.PENDING, router.declineOrder(declined.getOrderId(), "d1").getStatus());
+        assertEquals(OrderStatus.CANCELLED, router.cancelOrder(cancelled.getOrderId(), "p2").getStatus());
+
+        int bytes = router.updateRoute(declined.getOrderId(), new double[][] {{24.1, 120.6}, {24.2, 120.7}});
+        assertTrue(bytes > 0);
+        double[][] route = router.getRoute(declined.getOrderId());
+        assertEquals(2, route.length);
+        assertEquals(120.7, route[1][1], 1e-5);
+    }
+
+    @Test
+    @DisplayName("查詢不存在的訂單")
+    void getOrder_Unknown_Throws() {
+        BusinessException ex = assertThrows(BusinessException.class, () -> router.getOrder("missing"));
+        assertEquals("ORDER_NOT_FOUND", ex.getCode());
+    }
+
+    @Test
+    @DisplayName("節點錯誤以相同的業務例外回傳")
+    void remoteBusinessError_IsRethrown() {
+        Location inA = locationOwnedBy("node-a");
+        Order order = router.createOrder("p1", inA, offset(inA, 0.2), VehicleType.STANDARD);
+        router.registerDriver("d1", "Driver 1", "0912345678", "ABC-1234", VehicleType.STANDARD);
+        router.goOnline("d1", inA);
+        router.acceptOrder(order.getOrderId(), "d1");
+
+        router.registerDriver("d2", "Driver 2", "0912345679", "ABC-1235", VehicleType.STANDARD);
+        router.goOnline("d2", inA);
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> router.acceptOrder(order.getOrderId(), "d2"));
+        assertEquals("ORDER_ALREADY_ACCEPTED", ex.getCode());
+        assertEquals(409, ex.getHttpStatus());
+    }
+}
@@ -1,8 +1,13 @@
 package com.uber.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.uber.dto.*;
 import com.uber.model.*;
+import com.uber.repository.ChangeFeed;
+import com.uber.repository.DemandHeatmap;
+import com.uber.repository.DriverRepository;
 import com.uber.service.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +23,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -214,6 +220,142 @@ class AdminControllerTest {
                     .andExpect(jsonPath("$.data.pagination.page").value(0))
                     .andExpect(jsonPath("$.data.pagination.size").value(10));
         }
+
+        @Test
+        @DisplayName("Accept 為 Smile 時以 Smile 回應，未指定時仍為 JSON")
+        void getAllOrders_SmileNegotiation() throws Exception {
+            when(orderService.getAllOrders()).thenReturn(List.of(sampleOrder));
+            MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+
+            byte[] body = mockMvc.perform(get("/api/admin/orders").accept(smile))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(smile))
+                    .andReturn().getResponse().getContentAsByteArray();
+            JsonNode tree = new ObjectMapper(new SmileFactory()).readTree(body);
+            assertEquals("order-123", tree.path("data").path("orders").get(0).path("orderId").asText());
+
+            mockMvc.perform(get("/api/admin/orders"))
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/admin/orders?limit= - 游標分頁")
+    class GetOrdersByCursorTests {
+
+        @Test
+        @DisplayName("多取一筆判斷下一頁並回傳游標")
+        void getOrdersByCursor_HasMore() throws Exception {
+            Order older = Order.builder()
+                    .orderId("order-older")
+                    .status(OrderStatus.PENDING)
+                    .vehicleType(VehicleType.STANDARD)
+                    .createdAt(Instant.now().minusSeconds(60))
+                    .build();
+            when(orderService.findOrders(any(), any(), anyInt())).thenReturn(List.of(sampleOrder, older));
+
+            mockMvc.perform(get("/api/admin/orders")
+                            .param("limit", "1")
+                            .param("status", "COMPLETED"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.orders.length()").value(1))
+                    .andExpect(jsonPath("$.data.orders[0].orderId").value("order-123"))
+                    .andExpect(jsonPath("$.data.hasMore").value(true))
+                    .andExpect(jsonPath("$.data.nextCursor").isString());
+        }
+
+        @Test
+        @DisplayName("最後一頁不回傳游標")
+        void getOrdersByCursor_LastPage() throws Exception {
+            when(orderService.findOrders(any(), any(), anyInt())).thenReturn(List.of(sampleOrder));
+
+            mockMvc.perform(get("/api/admin/orders")
+                            .param("limit", "20"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.hasMore").value(false))
+                    .andExpect(jsonPath("$.data.nextCursor").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("無效的游標回傳 400")
+        void getOrdersByCursor_InvalidCursor() throws Exception {
+            mockMvc.perform(get("/api/admin/orders")
+                            .param("limit", "20")
+                            .param("cursor", "%%%"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error.code").value("INVALID_CURSOR"));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/admin/heatmap - 需求熱度圖")
+    class HeatmapTests {
+
+        @Test
+        @DisplayName("依視窗回傳各格子的叫車與完成數")
+        void getHeatmap_ReturnsCells() throws Exception {
+            when(orderService.getDemandHeatmap(DemandHeatmap.Window.ONE_HOUR))
+                    .thenReturn(List.of(new DemandHeatmap.CellCount(4827, 24137, 3, 1)));
+            when(orderService.getDemandHeatmapCellSize()).thenReturn(0.005);
+
+            mockMvc.perform(get("/api/admin/heatmap").param("window", "1h"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.window").value("1h"))
+                    .andExpect(jsonPath("$.data.cellSize").value(0.005))
+                    .andExpect(jsonPath("$.data.cells[0].x").value(4827 * 0.005))
+                    .andExpect(jsonPath("$.data.cells[0].y").value(24137 * 0.005))
+                    .andExpect(jsonPath("$.data.cells[0].pickups").value(3))
+                    .andExpect(jsonPath("$.data.cells[0].completions").value(1));
+        }
+
+        @Test
+        @DisplayName("無效的視窗回傳 400")
+        void getHeatmap_InvalidWindow() throws Exception {
+            mockMvc.perform(get("/api/admin/heatmap").param("window", "2h"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error.code").value("INVALID_REQUEST"));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/admin/changes - 增量同步")
+    class GetChangesTests {
+
+        @Test
+        @DisplayName("首次同步回傳完整資料")
+        void getChanges_InitialSyncReturnsFullData() throws Exception {
+            when(orderService.findOrders(any(), any(), anyInt())).thenReturn(List.of(sampleOrder));
+            when(driverService.getAllDrivers()).thenReturn(List.of(sampleDriver));
+
+            mockMvc.perform(get("/api/admin/changes"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.reset").value(true))
+                    .andExpect(jsonPath("$.data.epoch").value(ChangeFeed.epoch()))
+                    .andExpect(jsonPath("$.data.orders[0].orderId").value("order-123"))
+                    .andExpect(jsonPath("$.data.drivers[0].driverId").value("driver-456"));
+        }
+
+        @Test
+        @DisplayName("epoch 相符時只回傳變更項目")
+        void getChanges_DeltaSinceSequence() throws Exception {
+            // 產生一筆變更，確保序號大於 0
+            new DriverRepository().save(sampleDriver);
+            long since = ChangeFeed.currentSequence();
+            when(orderService.getOrdersChangedSince(anyLong()))
+                    .thenReturn(new ChangeFeed.Delta<>(List.of(sampleOrder), List.of(), false));
+            when(driverService.getDriversChangedSince(anyLong()))
+                    .thenReturn(new ChangeFeed.Delta<>(List.of(), List.of("driver-gone"), false));
+
+            mockMvc.perform(get("/api/admin/changes")
+                            .param("since", String.valueOf(since))
+                            .param("epoch", ChangeFeed.epoch()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.reset").value(false))
+                    .andExpect(jsonPath("$.data.orders[0].orderId").value("order-123"))
+                    .andExpect(jsonPath("$.data.deletedDriverIds[0]").value("driver-gone"));
+
+            verify(driverService, never()).getAllDrivers();
+        }
     }
 
     @Nested
@@ -4,13 +4,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uber.dto.*;
 import com.uber.model.*;
 import com.uber.service.*;
+import com.uber.util.ETags;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -28,6 +31,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Issue #16: 驗證 DriverController REST API 完整性
  */
 @WebMvcTest(DriverController.class)
+@Import(IdempotencyCache.class)
 class DriverControllerTest {
 
     @Autowired
@@ -114,6 +118,34 @@ class DriverControllerTest {
                     .andExpect(jsonPath("$.data.driverId").value("driver-456"))
                     .andExpect(jsonPath("$.data.status").value("ONLINE"));
         }
+
+        @Test
+        @DisplayName("相同 Idempotency-Key 重送時回傳原回應，不再呼叫服務")
+        void goOnline_IdempotentReplay() throws Exception {
+            Driver onlineDriver = Driver.builder()
+                    .driverId("driver-456")
+                    .status(DriverStatus.ONLINE)
+                    .vehicleType(VehicleType.STANDARD)
+                    .location(new Location(20.0, 25.0))
+                    .build();
+            when(driverService.goOnline(eq("driver-456"), any(Location.class)))
+                    .thenReturn(onlineDriver);
+
+            DriverOnlineRequest request = new DriverOnlineRequest();
+            request.setX(20.0);
+            request.setY(25.0);
+
+            for (int i = 0; i < 2; i++) {
+                mockMvc.perform(put("/api/drivers/driver-456/online")
+                                .header(IdempotencyCache.HEADER, "online-replay-1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.status").value("ONLINE"));
+            }
+
+            verify(driverService, times(1)).goOnline(eq("driver-456"), any(Location.class));
+        }
     }
 
     @Nested
@@ -208,6 +240,32 @@ class DriverControllerTest {
                     .andExpect(jsonPath("$.data.offers").isEmpty())
                     .andExpect(jsonPath("$.data.count").value(0));
         }
+
+        @Test
+        @DisplayName("If-None-Match 相符時回傳 304 且不含內容")
+        void getOffers_NotModified() throws Exception {
+            when(driverService.getOffers("driver-456")).thenReturn(List.of());
+            when(driverService.getOffersVersion(any())).thenReturn(42L);
+            String etag = ETags.of(42L);
+
+            mockMvc.perform(get("/api/drivers/driver-456/offers")
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @DisplayName("版本變更後 If-None-Match 不符回傳 200 與新 ETag")
+        void getOffers_ModifiedReturnsNewETag() throws Exception {
+            when(driverService.getOffers("driver-456")).thenReturn(List.of());
+            when(driverService.getOffersVersion(any())).thenReturn(43L);
+
+            mockMvc.perform(get("/api/drivers/driver-456/offers")
+                            .header(HttpHeaders.IF_NONE_MATCH, ETags.of(42L)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, ETags.of(43L)));
+        }
     }
 
     @Nested
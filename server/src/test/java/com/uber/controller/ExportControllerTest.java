@@ -0,0 +1,93 @@
+package com.uber.controller;
+
+import com.uber.model.*;
+import com.uber.service.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ExportController 測試
+ */
+@WebMvcTest(ExportController.class)
+class ExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuditService auditService;
+
+    @MockitoBean
+    private OrderService orderService;
+
+    @Test
+    @DisplayName("審計日誌以 NDJSON 串流輸出並套用篩選條件")
+    @SuppressWarnings("unchecked")
+    void exportAuditLogs_Ndjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<AuditLog> sink = invocation.getArgument(4);
+            sink.accept(AuditLog.builder().id("log-1").orderId("order-123").action("ACCEPT").success(true).build());
+            sink.accept(AuditLog.builder().id("log-2").orderId("order-123").action("ACCEPT").success(false).build());
+            return null;
+        }).when(auditService).forEachLog(eq("order-123"), eq("ACCEPT"), any(), isNull(), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/admin/export/audit-logs")
+                        .param("orderId", "order-123")
+                        .param("action", "accept")
+                        .param("from", "2025-01-01T00:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("audit-logs.ndjson")))
+                .andExpect(content().string(containsString("\"id\":\"log-1\"")))
+                .andExpect(content().string(containsString("\"id\":\"log-2\"")));
+
+        verify(auditService).forEachLog(eq("order-123"), eq("ACCEPT"),
+                eq(Instant.parse("2025-01-01T00:00:00Z")), isNull(), any(Consumer.class));
+    }
+
+    @Test
+    @DisplayName("訂單以 CSV 輸出")
+    @SuppressWarnings("unchecked")
+    void exportOrders_Csv() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Order> sink = invocation.getArgument(1);
+            sink.accept(Order.builder().orderId("order-123").status(OrderStatus.COMPLETED)
+                    .vehicleType(VehicleType.STANDARD).build());
+            return null;
+        }).when(orderService).forEachOrder(any(), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/admin/export/orders").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("orderId,passengerId,")))
+                .andExpect(content().string(containsString("order-123,,,COMPLETED,STANDARD")));
+    }
+
+    @Test
+    @DisplayName("不支援的格式回傳 400")
+    void export_InvalidFormat() throws Exception {
+        mockMvc.perform(get("/api/admin/export/orders").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
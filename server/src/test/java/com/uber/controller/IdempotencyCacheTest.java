@@ -0,0 +1,200 @@
+package com.uber.controller;
+
+import com.uber.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IdempotencyCache 測試
+ */
+@DisplayName("IdempotencyCache 測試")
+class IdempotencyCacheTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private IdempotencyCache cache;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        cache = new IdempotencyCache(Duration.ofMinutes(10), 3);
+        calls = new AtomicInteger();
+    }
+
+    private Supplier<ResponseEntity<String>> created() {
+        return () -> ResponseEntity.status(HttpStatus.CREATED).body("order-" + calls.incrementAndGet());
+    }
+
+    @Test
+    @DisplayName("相同 key 重送時回傳保存的回應，不再執行")
+    void testReplay() {
+        ResponseEntity<String> first = cache.execute("k1", "passenger-1", "create", "body", created(), NOW);
+        ResponseEntity<String> second = cache.execute("k1", "passenger-1", "create", "body", created(), NOW + 1000);
+
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals(first.getBody(), second.getBody());
+        assertNull(first.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("沒有 key 時每次都執行")
+    void testNoKey() {
+        cache.execute(null, "passenger-1", "create", "body", created(), NOW);
+        cache.execute(" ", "passenger-1", "create", "body", created(), NOW);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("相同 key 用於不同操作互不影響")
+    void testScopedByOperation() {
+        cache.execute("k1", "passenger-1", "accept order-1", "driver-1", created(), NOW);
+        cache.execute("k1", "passenger-1", "accept order-2", "driver-1", created(), NOW);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("相同 key 搭配不同請求內容回傳 422")
+    void testKeyReused() {
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW);
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> cache.execute("k1", "passenger-1", "create", "other", created(), NOW));
+
+        assertEquals("IDEMPOTENCY_KEY_REUSED", ex.getCode());
+        assertEquals(422, ex.getHttpStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("第一次請求處理中時重送回傳 409")
+    void testInProgress() {
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> cache.execute("k1", "passenger-1", "create", "body",
+                        () -> cache.execute("k1", "passenger-1", "create", "body", created(), NOW), NOW));
+
+        assertEquals("IDEMPOTENCY_IN_PROGRESS", ex.getCode());
+        assertEquals(409, ex.getHttpStatus());
+        // 失敗的請求不保存，可用相同 key 重試
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("失敗或非 2xx 回應不保存")
+    void testFailureNotStored() {
+        assertThrows(BusinessException.class, () -> cache.execute("k1", "passenger-1", "create", "body",
+                () -> {
+                    throw new BusinessException("ORDER_NOT_FOUND", "訂單不存在");
+                }, NOW));
+        cache.execute("k2", "passenger-1", "create", "body", () -> ResponseEntity.badRequest().body("bad"), NOW);
+
+        assertEquals(0, cache.size());
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("超過 ttl 後重新執行")
+    void testExpiry() {
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW);
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW + Duration.ofMinutes(10).toMillis() - 1);
+        assertEquals(1, calls.get());
+
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW + Duration.ofMinutes(10).toMillis());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("相同 key 由不同呼叫者使用互不影響")
+    void testScopedByCaller() {
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW);
+        ResponseEntity<String> other = cache.execute("k1", "passenger-2", "create", "body", created(), NOW);
+
+        assertEquals(2, calls.get());
+        assertNull(other.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+    }
+
+    @Test
+    @DisplayName("請求內容以 equals 比對，hashCode 相同的不同請求仍回傳 422")
+    void testHashCollisionRejected() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        cache.execute("k1", "passenger-1", "create", "Aa", created(), NOW);
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> cache.execute("k1", "passenger-1", "create", "BB", created(), NOW));
+
+        assertEquals("IDEMPOTENCY_KEY_REUSED", ex.getCode());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("重送不影響到期順序，過期紀錄依建立順序清除")
+    void testExpirySweepIgnoresAccess() {
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW);
+        cache.execute("k2", "passenger-1", "create", "body", created(), NOW + Duration.ofMinutes(5).toMillis());
+        // 重送 k1 不會讓它排到 k2 之後
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW + Duration.ofMinutes(6).toMillis());
+
+        cache.execute("k3", "passenger-1", "create", "body", created(), NOW + Duration.ofMinutes(10).toMillis());
+        assertEquals(2, cache.size());
+        cache.execute("k4", "passenger-1", "create", "body", created(), NOW + Duration.ofMinutes(15).toMillis());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("超過筆數上限時淘汰最舊的已完成紀錄")
+    void testEviction() {
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW);
+        cache.execute("k2", "passenger-1", "create", "body", created(), NOW);
+        cache.execute("k3", "passenger-1", "create", "body", created(), NOW);
+        cache.execute("k4", "passenger-1", "create", "body", created(), NOW);
+
+        assertEquals(3, cache.size());
+        assertEquals(4, calls.get());
+        cache.execute("k2", "passenger-1", "create", "body", created(), NOW);
+        assertEquals(4, calls.get());
+        cache.execute("k1", "passenger-1", "create", "body", created(), NOW);
+        assertEquals(5, calls.get());
+    }
+
+    @Test
+    @DisplayName("處理中的紀錄不會被淘汰")
+    void testInProgressNotEvicted() {
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> cache.execute("k1", "passenger-1", "create", "body", () -> {
+                    // k1 處理中時寫入超過上限的紀錄
+                    cache.execute("k2", "passenger-1", "create", "body", created(), NOW);
+                    cache.execute("k3", "passenger-1", "create", "body", created(), NOW);
+                    cache.execute("k4", "passenger-1", "create", "body", created(), NOW);
+                    return cache.execute("k1", "passenger-1", "create", "body", created(), NOW);
+                }, NOW));
+
+        assertEquals("IDEMPOTENCY_IN_PROGRESS", ex.getCode());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    @DisplayName("key 過長回傳 400")
+    void testKeyTooLong() {
+        String key = "k".repeat(IdempotencyCache.MAX_KEY_LENGTH + 1);
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> cache.execute(key, "passenger-1", "create", "body", created(), NOW));
+
+        assertEquals("INVALID_REQUEST", ex.getCode());
+    }
+}
@@ -4,13 +4,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uber.dto.*;
 import com.uber.model.*;
 import com.uber.service.*;
+import com.uber.util.ETags;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -27,6 +30,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Issue #15: 驗證 OrderController REST API 完整性
  */
 @WebMvcTest(OrderController.class)
+@Import(IdempotencyCache.class)
 class OrderControllerTest {
 
     @Autowired
@@ -41,6 +45,9 @@ class OrderControllerTest {
     @MockitoBean
     private FareService fareService;
 
+    @MockitoBean
+    private RouteService routeService;
+
     private Order sampleOrder;
     private RatePlan sampleRatePlan;
 
@@ -75,7 +82,7 @@ class OrderControllerTest {
         @Test
         @DisplayName("成功建立訂單回傳 201 Created")
         void createOrder_Success() throws Exception {
-            when(orderService.createOrder(anyString(), any(), any(), any()))
+            when(orderService.createOrder(anyString(), any(), any(), any(), anyBoolean()))
                     .thenReturn(sampleOrder);
 
             CreateOrderRequest request = new CreateOrderRequest();
@@ -96,6 +103,70 @@ class OrderControllerTest {
                     .andExpect(jsonPath("$.data.passengerId").value("passenger-001"));
         }
 
+        @Test
+        @DisplayName("相同 Idempotency-Key 重送時回傳原回應，不重複建立訂單")
+        void createOrder_IdempotentReplay() throws Exception {
+            when(orderService.createOrder(anyString(), any(), any(), any(), anyBoolean()))
+                    .thenReturn(sampleOrder);
+
+            CreateOrderRequest request = new CreateOrderRequest();
+            request.setPassengerId("passenger-001");
+            request.setPickupX(25.5);
+            request.setPickupY(30.2);
+            request.setDropoffX(45.8);
+            request.setDropoffY(60.1);
+            request.setVehicleType(VehicleType.STANDARD);
+            String body = objectMapper.writeValueAsString(request);
+
+            mockMvc.perform(post("/api/orders")
+                            .header(IdempotencyCache.HEADER, "create-replay-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().doesNotExist(IdempotencyCache.REPLAYED_HEADER));
+
+            mockMvc.perform(post("/api/orders")
+                            .header(IdempotencyCache.HEADER, "create-replay-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string(IdempotencyCache.REPLAYED_HEADER, "true"))
+                    .andExpect(jsonPath("$.data.orderId").value("order-123"));
+
+            verify(orderService, times(1)).createOrder(anyString(), any(), any(), any(), anyBoolean());
+        }
+
+        @Test
+        @DisplayName("相同 Idempotency-Key 用於不同內容回傳 422")
+        void createOrder_IdempotencyKeyReused() throws Exception {
+            when(orderService.createOrder(anyString(), any(), any(), any(), anyBoolean()))
+                    .thenReturn(sampleOrder);
+
+            CreateOrderRequest request = new CreateOrderRequest();
+            request.setPassengerId("passenger-001");
+            request.setPickupX(25.5);
+            request.setPickupY(30.2);
+            request.setDropoffX(45.8);
+            request.setDropoffY(60.1);
+            request.setVehicleType(VehicleType.STANDARD);
+
+            mockMvc.perform(post("/api/orders")
+                            .header(IdempotencyCache.HEADER, "create-reused-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+
+            request.setDropoffX(50.0);
+            mockMvc.perform(post("/api/orders")
+                            .header(IdempotencyCache.HEADER, "create-reused-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isUnprocessableEntity())
+                    .andExpect(jsonPath("$.error.code").value("IDEMPOTENCY_KEY_REUSED"));
+
+            verify(orderService, times(1)).createOrder(anyString(), any(), any(), any(), anyBoolean());
+        }
+
         @Test
         @DisplayName("缺少必填欄位回傳 400 Bad Request")
         void createOrder_MissingFields() throws Exception {
@@ -125,6 +196,22 @@ class OrderControllerTest {
                     .andExpect(jsonPath("$.data.status").value("PENDING"));
         }
 
+        @Test
+        @DisplayName("訂單未變更時 If-None-Match 回傳 304")
+        void getOrder_NotModified() throws Exception {
+            when(orderService.getOrder("order-123")).thenReturn(sampleOrder);
+            when(orderService.getOrderVersion("order-123")).thenReturn(7L);
+
+            mockMvc.perform(get("/api/orders/order-123")
+                            .header(HttpHeaders.IF_NONE_MATCH, ETags.of(7L)))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            mockMvc.perform(get("/api/orders/order-123"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, ETags.of(7L)));
+        }
+
         @Test
         @DisplayName("已接單訂單包含 driverId 和 acceptedAt")
         void getOrder_AcceptedOrder() throws Exception {
@@ -665,4 +752,80 @@ class OrderControllerTest {
                     .andExpect(jsonPath("$.data.fareBreakdown").exists());
         }
     }
+
+    @Nested
+    @DisplayName("行程路徑")
+    class RouteTests {
+
+        @Test
+        @DisplayName("上傳路徑：解析 routePathJson 後交給 RouteService 壓縮儲存")
+        void updateRoute_Success() throws Exception {
+            when(routeService.updateRoute(eq("order-123"), any())).thenReturn(12);
+
+            mockMvc.perform(put("/api/orders/order-123/route")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"routePathJson\":\"[[24.1,120.6],[24.2,120.7]]\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.points").value(2))
+                    .andExpect(jsonPath("$.data.encodedBytes").value(12));
+
+            verify(routeService).updateRoute(eq("order-123"),
+                    argThat(points -> points.length == 2 && points[1][1] == 120.7));
+        }
+
+        @Test
+        @DisplayName("routePathJson 格式錯誤時回傳 400")
+        void updateRoute_InvalidJson() throws Exception {
+            mockMvc.perform(put("/api/orders/order-123/route")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"routePathJson\":\"not json\"}"))
+                    .andExpect(status().isBadRequest());
+
+            verify(routeService, never()).updateRoute(any(), any());
+        }
+
+        @Test
+        @DisplayName("查詢路徑：另外回傳，不在訂單回應中")
+        void getRoute_Success() throws Exception {
+            when(routeService.getRoute("order-123")).thenReturn(new double[][] {{24.1, 120.6}});
+            when(orderService.getOrder("order-123")).thenReturn(sampleOrder);
+
+            mockMvc.perform(get("/api/orders/order-123/route"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.points").value(1))
+                    .andExpect(jsonPath("$.data.routePathJson").value("[[24.1,120.6]]"));
+
+            mockMvc.perform(get("/api/orders/order-123"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.routePathJson").doesNotExist());
+        }
+
+        @Test
+        @DisplayName("查詢路徑：帶 ETag，路徑未變更時回傳 304 且不讀取路徑")
+        void getRoute_NotModified() throws Exception {
+            when(routeService.getRouteVersion("order-123")).thenReturn(42L);
+            when(routeService.getRoute("order-123")).thenReturn(new double[][] {{24.1, 120.6}});
+
+            mockMvc.perform(get("/api/orders/order-123/route"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, ETags.of(42L)));
+
+            mockMvc.perform(get("/api/orders/order-123/route")
+                            .header(HttpHeaders.IF_NONE_MATCH, ETags.of(42L)))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+            verify(routeService, times(1)).getRoute("order-123");
+        }
+
+        @Test
+        @DisplayName("尚未上傳路徑時沒有 routePathJson")
+        void getRoute_Empty() throws Exception {
+            when(routeService.getRoute("order-123")).thenReturn(new double[0][]);
+
+            mockMvc.perform(get("/api/orders/order-123/route"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.points").value(0))
+                    .andExpect(jsonPath("$.data.routePathJson").doesNotExist());
+        }
+    }
 }
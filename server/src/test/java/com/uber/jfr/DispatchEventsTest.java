@@ -0,0 +1,100 @@
+package com.uber.jfr;
+
+import com.uber.model.*;
+import com.uber.repository.AuditLogRepository;
+import com.uber.repository.DriverRepository;
+import com.uber.repository.OrderRepository;
+import com.uber.routing.StraightLineEtaProvider;
+import com.uber.service.AuditService;
+import com.uber.service.DriverService;
+import com.uber.service.FareService;
+import com.uber.service.OrderService;
+import com.uber.service.SurgePricingService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 自訂 JFR 事件測試
+ */
+@DisplayName("JFR 派單事件測試")
+class DispatchEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("配對、接單鎖與 offers 事件")
+    void testEventsRecorded() throws IOException {
+        OrderRepository orderRepository = new OrderRepository();
+        DriverRepository driverRepository = new DriverRepository();
+        FareService fareService = new FareService();
+        fareService.initRatePlans();
+        OrderService orderService = new OrderService(orderRepository, driverRepository,
+                new AuditService(new AuditLogRepository()), fareService,
+                new SurgePricingService(orderRepository, driverRepository), new StraightLineEtaProvider());
+        DriverService driverService = new DriverService(driverRepository, orderRepository, new StraightLineEtaProvider());
+        driverRepository.save(Driver.builder()
+                .driverId("d1")
+                .name("d1")
+                .vehicleType(VehicleType.STANDARD)
+                .status(DriverStatus.ONLINE)
+                .location(new Location(10, 10))
+                .lastUpdatedAt(Instant.now())
+                .build());
+        // 離線司機會被掃描但不是候選
+        driverRepository.save(Driver.builder()
+                .driverId("d2")
+                .name("d2")
+                .vehicleType(VehicleType.STANDARD)
+                .status(DriverStatus.OFFLINE)
+                .location(new Location(10, 12))
+                .lastUpdatedAt(Instant.now())
+                .build());
+
+        Path file = tempDir.resolve("dispatch.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(MatchDecisionEvent.class).withoutThreshold();
+            recording.enable(AcceptLockEvent.class).withoutThreshold();
+            recording.enable(OfferComputationEvent.class).withoutThreshold();
+            recording.start();
+
+            Order order = orderService.createOrder("p1", new Location(10, 11), new Location(20, 20), VehicleType.STANDARD);
+            driverService.getOffers("d1");
+            orderService.acceptOrder(order.getOrderId(), "d1");
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent match = find(events, "com.uber.MatchDecision");
+        assertEquals("CREATE_ORDER", match.getString("source"));
+        assertEquals("d1", match.getString("chosenDriverId"));
+        assertEquals(2, match.getInt("driversScanned"));
+        assertEquals(1, match.getInt("candidates"));
+
+        RecordedEvent offer = find(events, "com.uber.OfferComputation");
+        assertTrue(offer.getBoolean("assigned"));
+
+        RecordedEvent lock = find(events, "com.uber.AcceptLock");
+        assertEquals("d1", lock.getString("driverId"));
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("missing event " + name));
+    }
+}
@@ -0,0 +1,96 @@
+package com.uber.metrics;
+
+import com.uber.exception.BusinessException;
+import com.uber.model.*;
+import com.uber.repository.AuditLogRepository;
+import com.uber.repository.DriverRepository;
+import com.uber.repository.OrderRepository;
+import com.uber.routing.StraightLineEtaProvider;
+import com.uber.service.AuditService;
+import com.uber.service.FareService;
+import com.uber.service.OrderService;
+import com.uber.service.SurgePricingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 派單指標測試
+ */
+@DisplayName("DispatchMetrics 測試")
+class DispatchMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private OrderService orderService;
+    private DriverRepository driverRepository;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+
+        OrderRepository orderRepository = new OrderRepository();
+        driverRepository = new DriverRepository();
+        FareService fareService = new FareService();
+        fareService.initRatePlans();
+        orderService = new OrderService(orderRepository, driverRepository,
+                new AuditService(new AuditLogRepository()), fareService,
+                new SurgePricingService(orderRepository, driverRepository), new StraightLineEtaProvider());
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.removeRegistry(registry);
+    }
+
+    private void onlineDriver(String driverId, Location location) {
+        driverRepository.save(Driver.builder()
+                .driverId(driverId)
+                .name(driverId)
+                .vehicleType(VehicleType.STANDARD)
+                .status(DriverStatus.ONLINE)
+                .location(location)
+                .lastUpdatedAt(Instant.now())
+                .build());
+    }
+
+    @Test
+    @DisplayName("建立與接單會記錄耗時")
+    void testTimersRecorded() {
+        onlineDriver("d1", new Location(10, 10));
+        Order order = orderService.createOrder("p1", new Location(10, 11), new Location(20, 20), VehicleType.STANDARD);
+        orderService.acceptOrder(order.getOrderId(), "d1");
+
+        Timer create = registry.find("dispatch.order.create").timer();
+        Timer accept = registry.find("dispatch.order.accept").timer();
+        Timer timeToAccept = registry.find("dispatch.order.time_to_accept").timer();
+        assertNotNull(create);
+        assertTrue(create.count() >= 1);
+        assertTrue(accept.count() >= 1);
+        assertTrue(timeToAccept.count() >= 1);
+    }
+
+    @Test
+    @DisplayName("接單衝突依原因計數")
+    void testAcceptConflictCountedByReason() {
+        onlineDriver("d1", new Location(10, 10));
+        onlineDriver("d2", new Location(50, 50));
+        Order order = orderService.createOrder("p1", new Location(10, 11), new Location(20, 20), VehicleType.STANDARD);
+        orderService.acceptOrder(order.getOrderId(), "d1");
+
+        assertThrows(BusinessException.class, () -> orderService.acceptOrder(order.getOrderId(), "d2"));
+
+        Counter conflicts = registry.find("dispatch.accept.conflicts").tag("reason", "ORDER_ALREADY_ACCEPTED").counter();
+        assertNotNull(conflicts);
+        assertEquals(1.0, conflicts.count());
+    }
+}
@@ -0,0 +1,84 @@
+package com.uber.repository;
+
+import com.uber.exception.BusinessException;
+import com.uber.model.Location;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DemandHeatmap 測試
+ */
+@DisplayName("DemandHeatmap 測試")
+class DemandHeatmapTest {
+
+    // 台中車站與北方約 330 公尺處 (緯度, 經度)，以預設 0.005° 格子劃分時位於相鄰的兩格
+    private static final Location CELL_A = new Location(24.1372, 120.6869);
+    private static final Location CELL_B = new Location(24.1402, 120.6869);
+
+    @Test
+    @DisplayName("各視窗只加總視窗內的事件")
+    void testSlidingWindows() {
+        DemandHeatmap heatmap = new DemandHeatmap();
+        Instant now = Instant.now();
+        heatmap.recordPickup(CELL_A, now);
+        heatmap.recordPickup(CELL_A, now.minus(Duration.ofMinutes(5)));
+        heatmap.recordCompletion(CELL_A, now.minus(Duration.ofMinutes(30)));
+        heatmap.recordPickup(CELL_B, now.minus(Duration.ofMinutes(50)));
+
+        assertEquals(List.of(new DemandHeatmap.CellCount(4827, 24137, 1, 0)),
+                heatmap.snapshot(DemandHeatmap.Window.ONE_MINUTE, now));
+        assertEquals(List.of(new DemandHeatmap.CellCount(4827, 24137, 2, 0)),
+                heatmap.snapshot(DemandHeatmap.Window.FIFTEEN_MINUTES, now));
+
+        List<DemandHeatmap.CellCount> hour = heatmap.snapshot(DemandHeatmap.Window.ONE_HOUR, now);
+        assertEquals(2, hour.size());
+        assertTrue(hour.contains(new DemandHeatmap.CellCount(4827, 24137, 2, 1)));
+        // 相距數百公尺的點分在不同格子
+        assertTrue(hour.contains(new DemandHeatmap.CellCount(4828, 24137, 1, 0)));
+    }
+
+    @Test
+    @DisplayName("格子邊長可設定，負座標落在 floor 後的格子")
+    void testConfiguredCellSize() {
+        DemandHeatmap heatmap = new DemandHeatmap(2.0);
+        Instant now = Instant.now();
+        heatmap.recordPickup(new Location(-3, 7), now);
+        heatmap.recordPickup(CELL_A, now);
+        heatmap.recordPickup(CELL_B, now);
+
+        List<DemandHeatmap.CellCount> cells = heatmap.snapshot(DemandHeatmap.Window.ONE_MINUTE, now);
+        assertEquals(2, cells.size());
+        assertTrue(cells.contains(new DemandHeatmap.CellCount(-2, 3, 1, 0)));
+        // 較粗的格子把兩個點合併
+        assertTrue(cells.contains(new DemandHeatmap.CellCount(12, 60, 2, 0)));
+        assertThrows(IllegalArgumentException.class, () -> new DemandHeatmap(0));
+    }
+
+    @Test
+    @DisplayName("超過一小時的事件不計入，過期格子會被移除")
+    void testExpiredCellsAreEvicted() {
+        DemandHeatmap heatmap = new DemandHeatmap();
+        Instant now = Instant.now();
+        heatmap.recordPickup(CELL_A, now.minus(Duration.ofHours(2)));
+        assertEquals(0, heatmap.cellCount());
+
+        heatmap.recordPickup(CELL_A, now);
+        assertEquals(1, heatmap.cellCount());
+        assertTrue(heatmap.snapshot(DemandHeatmap.Window.ONE_HOUR, now.plus(Duration.ofMinutes(61))).isEmpty());
+        assertEquals(0, heatmap.cellCount());
+    }
+
+    @Test
+    @DisplayName("視窗參數解析")
+    void testParseWindow() {
+        assertEquals(DemandHeatmap.Window.ONE_MINUTE, DemandHeatmap.Window.parse("1m"));
+        assertEquals(DemandHeatmap.Window.ONE_HOUR, DemandHeatmap.Window.parse("1H"));
+        assertThrows(BusinessException.class, () -> DemandHeatmap.Window.parse("2h"));
+    }
+}
@@ -378,5 +378,71 @@ class DriverRepositoryTest {
         assertThat(repository.findAvailableDrivers(VehicleType.STANDARD)).hasSize(1);
         assertThat(repository.findAvailableDrivers(VehicleType.PREMIUM)).hasSize(1);
     }
-}
 
+    @Test
+    @DisplayName("availableCount() - 依車種計數，隨上下線、忙碌與刪除更新")
+    void availableCount_FollowsSaves() {
+        sampleDriver.setStatus(DriverStatus.ONLINE);
+        sampleDriver.setLocation(new Location(24.1372, 120.6869));
+        repository.save(sampleDriver);
+        Driver premium = Driver.builder()
+                .driverId("driver-002")
+                .vehicleType(VehicleType.PREMIUM)
+                .status(DriverStatus.ONLINE)
+                .location(new Location(24.1446, 120.6838))
+                .build();
+        repository.save(premium);
+
+        assertThat(repository.availableCount(VehicleType.STANDARD)).isEqualTo(1);
+        assertThat(repository.availableCount(VehicleType.PREMIUM)).isEqualTo(1);
+
+        // 位置更新不重複計入
+        sampleDriver.setLocation(new Location(24.1786, 120.6465));
+        repository.save(sampleDriver);
+        assertThat(repository.availableCount(VehicleType.STANDARD)).isEqualTo(1);
+
+        sampleDriver.setBusy(true);
+        repository.save(sampleDriver);
+        assertThat(repository.availableCount(VehicleType.STANDARD)).isZero();
+
+        repository.deleteById("driver-002");
+        assertThat(repository.availableCount(VehicleType.PREMIUM)).isZero();
+        assertThat(repository.availableCount(VehicleType.STANDARD))
+                .isEqualTo(repository.findAvailableDrivers(VehicleType.STANDARD).size());
+    }
+
+    @Test
+    @DisplayName("findChangedSince() - 只回傳序號之後變更的司機，同一司機只出現一次")
+    void findChangedSince_ReturnsOnlyLaterChanges() {
+        repository.save(sampleDriver);
+        long since = ChangeFeed.currentSequence();
+
+        Driver other = Driver.builder()
+                .driverId("driver-002")
+                .vehicleType(VehicleType.STANDARD)
+                .status(DriverStatus.ONLINE)
+                .build();
+        repository.save(other);
+        repository.save(other);
+
+        ChangeFeed.Delta<Driver> delta = repository.findChangedSince(since);
+
+        assertThat(delta.reset()).isFalse();
+        assertThat(delta.updated()).extracting(Driver::getDriverId).containsExactly("driver-002");
+        assertThat(delta.deleted()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findChangedSince() - 刪除產生 tombstone，清空要求完整重新載入")
+    void findChangedSince_DeleteAndReset() {
+        repository.save(sampleDriver);
+        long since = ChangeFeed.currentSequence();
+
+        repository.deleteById("driver-001");
+        assertThat(repository.findChangedSince(since).deleted()).containsExactly("driver-001");
+
+        repository.deleteAll();
+        assertThat(repository.findChangedSince(since).reset()).isTrue();
+        assertThat(repository.findChangedSince(ChangeFeed.currentSequence()).reset()).isFalse();
+    }
+}
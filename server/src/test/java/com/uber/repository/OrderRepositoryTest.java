@@ -292,5 +292,154 @@ class OrderRepositoryTest {
         List<Order> nullDriver = repository.findByDriverId(null);
         assertTrue(nullDriver.isEmpty());
     }
-}
 
+    private Order orderAt(String orderId, long second, OrderStatus status, String driverId) {
+        return Order.builder()
+                .orderId(orderId)
+                .passengerId("p-" + orderId)
+                .driverId(driverId)
+                .status(status)
+                .vehicleType(VehicleType.STANDARD)
+                .createdAt(Instant.ofEpochSecond(second))
+                .build();
+    }
+
+    @Test
+    @DisplayName("游標分頁由新到舊且不重複")
+    void testFindPageWithCursor() {
+        for (int i = 0; i < 5; i++) {
+            repository.save(orderAt("o" + i, 100 + i, OrderStatus.PENDING, null));
+        }
+
+        List<Order> first = repository.findPage(OrderQuery.ALL, null, 2);
+        assertEquals(List.of("o4", "o3"), first.stream().map(Order::getOrderId).toList());
+
+        // 翻頁期間新增的訂單不影響後續頁
+        repository.save(orderAt("o9", 200, OrderStatus.PENDING, null));
+        OrderCursor cursor = OrderCursor.decode(OrderCursor.of(first.get(1)).encode());
+        List<Order> second = repository.findPage(OrderQuery.ALL, cursor, 10);
+        assertEquals(List.of("o2", "o1", "o0"), second.stream().map(Order::getOrderId).toList());
+    }
+
+    @Test
+    @DisplayName("游標分頁依狀態與司機篩選，狀態變更後索引同步")
+    void testFindPageWithFilters() {
+        Order order = orderAt("o1", 100, OrderStatus.PENDING, null);
+        repository.save(order);
+        repository.save(orderAt("o2", 101, OrderStatus.PENDING, null));
+
+        order.setStatus(OrderStatus.ACCEPTED);
+        order.setDriverId("d1");
+        repository.save(order);
+
+        OrderQuery pending = OrderQuery.builder().status(OrderStatus.PENDING).build();
+        OrderQuery byDriver = OrderQuery.builder().driverId("d1").build();
+        assertEquals(List.of("o2"), repository.findPage(pending, null, 10).stream().map(Order::getOrderId).toList());
+        assertEquals(List.of("o1"), repository.findPage(byDriver, null, 10).stream().map(Order::getOrderId).toList());
+    }
+
+    @Test
+    @DisplayName("車種與 (狀態, 車種) 篩選直接使用子索引，不逐筆過濾")
+    void testFindPageByVehicleType() {
+        OrderIndex index = new OrderIndex();
+        for (int i = 0; i < 20; i++) {
+            Order order = orderAt("o" + i, 100 + i, i % 2 == 0 ? OrderStatus.PENDING : OrderStatus.COMPLETED, null);
+            repository.save(order);
+            index.update(order);
+        }
+        Order xl = orderAt("x1", 50, OrderStatus.PENDING, null);
+        xl.setVehicleType(VehicleType.XL);
+        repository.save(xl);
+        index.update(xl);
+        Order xlDone = orderAt("x2", 60, OrderStatus.COMPLETED, null);
+        xlDone.setVehicleType(VehicleType.XL);
+        repository.save(xlDone);
+        index.update(xlDone);
+
+        OrderQuery byType = OrderQuery.builder().vehicleType(VehicleType.XL).build();
+        OrderQuery pendingXl = OrderQuery.builder().status(OrderStatus.PENDING).vehicleType(VehicleType.XL).build();
+        assertEquals(2, index.candidates(byType).size());
+        assertEquals(1, index.candidates(pendingXl).size());
+        assertTrue(index.candidates(OrderQuery.builder().vehicleType(VehicleType.PREMIUM).build()).isEmpty());
+        assertEquals(List.of("x2", "x1"), repository.findPage(byType, null, 10).stream().map(Order::getOrderId).toList());
+        assertEquals(List.of("x1"), repository.findPage(pendingXl, null, 10).stream().map(Order::getOrderId).toList());
+
+        // 狀態改變後移到新的組合索引
+        xl.setStatus(OrderStatus.CANCELLED);
+        repository.save(xl);
+        index.update(xl);
+        assertTrue(index.candidates(pendingXl).isEmpty());
+        assertTrue(repository.findPage(pendingXl, null, 10).isEmpty());
+        assertEquals(2, index.candidates(byType).size());
+    }
+
+    @Test
+    @DisplayName("游標分頁依時間範圍篩選 (from 含、to 不含)")
+    void testFindPageWithTimeRange() {
+        for (int i = 0; i < 5; i++) {
+            repository.save(orderAt("o" + i, 100 + i, OrderStatus.COMPLETED, null));
+        }
+
+        OrderQuery range = OrderQuery.builder()
+                .from(Instant.ofEpochSecond(101))
+                .to(Instant.ofEpochSecond(103))
+                .build();
+        assertEquals(List.of("o2", "o1"), repository.findPage(range, null, 10).stream().map(Order::getOrderId).toList());
+
+        repository.deleteAll();
+        assertTrue(repository.findPage(OrderQuery.ALL, null, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("待派訂單總數隨狀態變更與清空更新")
+    void testPendingCount() {
+        Order standard = orderAt("o1", 1, OrderStatus.PENDING, null);
+        standard.setPickupLocation(new Location(24.1372, 120.6869));
+        Order premium = orderAt("o2", 2, OrderStatus.PENDING, null);
+        premium.setVehicleType(VehicleType.PREMIUM);
+        premium.setPickupLocation(new Location(24.1446, 120.6838));
+        repository.save(standard);
+        repository.save(premium);
+        repository.save(standard);
+        assertEquals(2, repository.pendingCount());
+
+        standard.setStatus(OrderStatus.ACCEPTED);
+        repository.save(standard);
+        assertEquals(1, repository.pendingCount());
+        assertEquals(repository.findByStatus(OrderStatus.PENDING).size(), repository.pendingCount());
+
+        repository.deleteAll();
+        assertEquals(0, repository.pendingCount());
+    }
+
+    @Test
+    @DisplayName("熱度圖計入新訂單上車點與完成訂單下車點")
+    void testHeatmapFollowsSaves() {
+        Instant now = Instant.now();
+        Order order = Order.builder()
+                .orderId("o1")
+                .passengerId("p1")
+                .status(OrderStatus.PENDING)
+                .vehicleType(VehicleType.STANDARD)
+                .pickupLocation(new Location(24.1372, 120.6869))
+                .dropoffLocation(new Location(24.1786, 120.6465))
+                .createdAt(now)
+                .build();
+        repository.save(order);
+        // 再次儲存同一筆 PENDING 訂單不重複計入
+        repository.save(order);
+
+        order.setStatus(OrderStatus.COMPLETED);
+        order.setCompletedAt(now);
+        repository.save(order);
+        repository.save(order);
+
+        List<DemandHeatmap.CellCount> cells = repository.heatmap(DemandHeatmap.Window.FIFTEEN_MINUTES);
+        assertEquals(2, cells.size());
+        assertTrue(cells.contains(new DemandHeatmap.CellCount(4827, 24137, 1, 0)));
+        assertTrue(cells.contains(new DemandHeatmap.CellCount(4835, 24129, 0, 1)));
+
+        repository.deleteAll();
+        assertTrue(repository.heatmap(DemandHeatmap.Window.ONE_HOUR).isEmpty());
+    }
+}
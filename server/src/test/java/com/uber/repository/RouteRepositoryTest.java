@@ -0,0 +1,145 @@
+package com.uber.repository;
+
+import com.uber.model.Location;
+import com.uber.model.Order;
+import com.uber.model.OrderStatus;
+import com.uber.model.VehicleType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RouteRepository 測試
+ */
+@DisplayName("RouteRepository 測試")
+class RouteRepositoryTest {
+
+    private static final double[][] ROUTE = {{24.1371, 120.6864}, {24.1375, 120.6860}, {24.1380, 120.6851}};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("路徑壓縮後寫入獨立檔案")
+    void testSaveWritesFile() throws IOException {
+        RouteRepository repository = new RouteRepository(tempDir);
+
+        int size = repository.save("order-1", ROUTE);
+
+        Path file = tempDir.resolve("order-1.route");
+        assertTrue(Files.exists(file));
+        assertEquals(size, Files.size(file));
+        assertArrayEquals(ROUTE[2], repository.findById("order-1").orElseThrow()[2], 1e-5);
+    }
+
+    @Test
+    @DisplayName("啟動時不載入，第一次查詢才讀檔")
+    void testLazyLoad() {
+        new RouteRepository(tempDir).save("order-1", ROUTE);
+
+        RouteRepository reopened = new RouteRepository(tempDir);
+        assertEquals(0, reopened.loadedCount());
+
+        double[][] loaded = reopened.findById("order-1").orElseThrow();
+
+        assertEquals(3, loaded.length);
+        assertEquals(1, reopened.loadedCount());
+        assertTrue(reopened.findById("order-2").isEmpty());
+        assertEquals(1, reopened.loadedCount());
+    }
+
+    @Test
+    @DisplayName("取代既有路徑")
+    void testReplace() {
+        RouteRepository repository = new RouteRepository(tempDir);
+        repository.save("order-1", ROUTE);
+
+        repository.save("order-1", new double[][] {{1, 2}});
+
+        assertEquals(1, new RouteRepository(tempDir).findById("order-1").orElseThrow().length);
+    }
+
+    @Test
+    @DisplayName("沒有資料目錄時只保存在記憶體")
+    void testMemoryOnly() {
+        RouteRepository repository = new RouteRepository(null);
+
+        repository.save("order-1", ROUTE);
+
+        assertEquals(3, repository.findById("order-1").orElseThrow().length);
+        assertTrue(repository.findById("order-2").isEmpty());
+    }
+
+    @Test
+    @DisplayName("檔案損毀時視為沒有路徑")
+    void testCorruptedFile() throws IOException {
+        Files.write(tempDir.resolve("order-1.route"), new byte[] {5, 1});
+
+        RouteRepository repository = new RouteRepository(tempDir);
+
+        assertTrue(repository.findById("order-1").isEmpty());
+        assertEquals(0, repository.loadedCount());
+    }
+
+    @Test
+    @DisplayName("記憶體中最多保存 MAX_CACHED 筆，被淘汰的路徑由檔案讀回")
+    void testBoundedCache() {
+        RouteRepository repository = new RouteRepository(tempDir);
+        for (int i = 0; i <= RouteRepository.MAX_CACHED; i++) {
+            repository.save("order-" + i, ROUTE);
+        }
+
+        assertEquals(RouteRepository.MAX_CACHED, repository.loadedCount());
+        assertEquals(3, repository.findById("order-0").orElseThrow().length);
+        assertEquals(RouteRepository.MAX_CACHED, repository.loadedCount());
+    }
+
+    @Test
+    @DisplayName("訂單完成或取消後釋放記憶體中的路徑，檔案保留")
+    void testEvictOnFinished() {
+        RouteRepository repository = new RouteRepository(tempDir);
+        OrderRepository orderRepository = new OrderRepository(repository);
+        repository.save("order-1", ROUTE);
+        repository.save("order-2", ROUTE);
+
+        orderRepository.save(order("order-1", OrderStatus.ONGOING));
+        orderRepository.save(order("order-2", OrderStatus.CANCELLED));
+        assertEquals(1, repository.loadedCount());
+
+        orderRepository.save(order("order-1", OrderStatus.COMPLETED));
+        assertEquals(0, repository.loadedCount());
+        assertTrue(repository.findById("order-2").isPresent());
+    }
+
+    @Test
+    @DisplayName("刪除所有訂單時一併刪除路徑檔")
+    void testDeleteAllWithOrders() {
+        RouteRepository repository = new RouteRepository(tempDir);
+        OrderRepository orderRepository = new OrderRepository(repository);
+        orderRepository.save(order("order-1", OrderStatus.ACCEPTED));
+        repository.save("order-1", ROUTE);
+
+        orderRepository.deleteAll();
+
+        assertFalse(Files.exists(tempDir.resolve("order-1.route")));
+        assertEquals(0, repository.loadedCount());
+        assertTrue(repository.findById("order-1").isEmpty());
+    }
+
+    private static Order order(String orderId, OrderStatus status) {
+        return Order.builder()
+                .orderId(orderId)
+                .passengerId("passenger-1")
+                .status(status)
+                .vehicleType(VehicleType.STANDARD)
+                .pickupLocation(new Location(24.1, 120.6))
+                .dropoffLocation(new Location(24.2, 120.7))
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.uber.routing;
+
+import com.uber.model.Driver;
+import com.uber.model.DriverStatus;
+import com.uber.model.Location;
+import com.uber.model.VehicleType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RoadGraphEtaProvider 測試
+ */
+@DisplayName("RoadGraphEtaProvider 測試")
+class RoadGraphEtaProviderTest {
+
+    private static final Location PICKUP = new Location(0, 0);
+
+    private RoadGraphEtaProvider provider;
+    private Driver acrossRiver;
+    private Driver sameBank;
+
+    @BeforeEach
+    void setUp() {
+        provider = new RoadGraphEtaProvider(RoadGraph.parse(RoadGraphTest.RIVER));
+        acrossRiver = driver("driver-001", new Location(0, 2));
+        sameBank = driver("driver-002", new Location(4, 0));
+    }
+
+    private static Driver driver(String driverId, Location location) {
+        return Driver.builder()
+                .driverId(driverId)
+                .status(DriverStatus.ONLINE)
+                .vehicleType(VehicleType.STANDARD)
+                .location(location)
+                .build();
+    }
+
+    @Test
+    @DisplayName("直線較近但需繞路的司機輸給 ETA 較短者")
+    void testFastestByRoad() {
+        Optional<EtaProvider.Candidate> byRoad = provider.fastest(List.of(acrossRiver, sameBank), PICKUP);
+        Optional<EtaProvider.Candidate> straight = new StraightLineEtaProvider()
+                .fastest(List.of(acrossRiver, sameBank), PICKUP);
+
+        assertEquals("driver-002", byRoad.orElseThrow().driver().getDriverId());
+        assertEquals(240.0, byRoad.get().etaSeconds(), 1e-6);
+        assertEquals(4.0, byRoad.get().distance(), 1e-9);
+        assertEquals("driver-001", straight.orElseThrow().driver().getDriverId());
+    }
+
+    @Test
+    @DisplayName("不在節點上的座標加計接駁時間")
+    void testAccessTime() {
+        double seconds = provider.etaSeconds(new Location(4, 1), PICKUP);
+
+        // 最慢路段 60 → 接駁車速 60 * ACCESS_SPEED_RATIO
+        assertEquals(240.0 + 1.0 / (60 * RoadGraphEtaProvider.ACCESS_SPEED_RATIO) * 3600, seconds, 1e-6);
+    }
+
+    @Test
+    @DisplayName("相同節點對的查詢命中快取")
+    void testCache() {
+        provider.fastest(List.of(acrossRiver, sameBank), PICKUP);
+        assertEquals(2, provider.cacheSize());
+
+        Optional<EtaProvider.Candidate> again = provider.fastest(List.of(acrossRiver, sameBank), PICKUP);
+
+        assertEquals(2, provider.cacheSize());
+        assertEquals("driver-002", again.orElseThrow().driver().getDriverId());
+    }
+
+    @Test
+    @DisplayName("無法到達的司機不列入候選")
+    void testUnreachable() {
+        RoadGraphEtaProvider island = new RoadGraphEtaProvider(RoadGraph.parse(List.of(
+                "node a 0 0",
+                "node b 20 0")));
+
+        assertTrue(island.fastest(List.of(driver("driver-003", new Location(20, 0))), PICKUP).isEmpty());
+    }
+}
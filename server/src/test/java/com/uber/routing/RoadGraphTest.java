@@ -0,0 +1,109 @@
+package com.uber.routing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RoadGraph 測試
+ */
+@DisplayName("RoadGraph 測試")
+class RoadGraphTest {
+
+    /**
+     * 河流地圖：n2 與 n1 直線距離只有 2，但必須繞經 n3、n4 的橋 (行駛距離 22)
+     */
+    static final List<String> RIVER = List.of(
+            "# 測試路網",
+            "node n1 0 0",
+            "node n2 0 2",
+            "node n3 10 2",
+            "node n4 10 0",
+            "node n5 4 0",
+            "edge n2 n3 60",
+            "edge n3 n4 60",
+            "edge n4 n1 60",
+            "edge n5 n1 60");
+
+    @Test
+    @DisplayName("解析節點與路段")
+    void testParse() {
+        RoadGraph graph = RoadGraph.parse(RIVER);
+
+        assertEquals(5, graph.nodeCount());
+        assertEquals(10.0, graph.x(2));
+        assertEquals(2.0, graph.y(2));
+    }
+
+    @Test
+    @DisplayName("格式錯誤或引用不存在的節點時拋出例外")
+    void testParseInvalid() {
+        assertThrows(IllegalStateException.class, () -> RoadGraph.parse(List.of()));
+        assertThrows(IllegalStateException.class, () -> RoadGraph.parse(List.of("node a 0 0", "edge a b 60")));
+        assertThrows(IllegalStateException.class, () -> RoadGraph.parse(List.of("node a 0 0", "node a 1 1")));
+        assertThrows(IllegalStateException.class, () -> RoadGraph.parse(List.of("road a b")));
+    }
+
+    @Test
+    @DisplayName("座標吸附到最近的節點")
+    void testNearestNode() {
+        RoadGraph graph = RoadGraph.parse(RIVER);
+
+        assertEquals(4, graph.nearestNode(3.6, 0.1));
+        assertEquals(1, graph.nearestNode(0.4, 1.5));
+        assertEquals(2, graph.nearestNode(50, 50));
+    }
+
+    @Test
+    @DisplayName("吸附格子邊長依路網密度決定，經緯度路網也能吸附")
+    void testSnapCellFollowsDensity() {
+        // 10 × 2 的範圍內 5 個節點 → 每格約 4 (邊長 2)
+        assertEquals(2.0, RoadGraph.parse(RIVER).snapCell(), 1e-9);
+
+        // 台中市區約 200 公尺間距的經緯度路網
+        RoadGraph city = RoadGraph.parse(List.of(
+                "node a 24.1372 120.6869",
+                "node b 24.1390 120.6869",
+                "node c 24.1372 120.6889",
+                "node d 24.1390 120.6889",
+                "edge a b 0.3",
+                "edge a c 0.3",
+                "edge b d 0.3",
+                "edge c d 0.3"));
+        assertTrue(city.snapCell() < 0.01);
+        assertEquals(3, city.nearestNode(24.1389, 120.6887));
+        assertEquals(0, city.nearestNode(24.1300, 120.6800));
+        assertEquals(0.3, city.minSpeed(), 1e-9);
+
+        assertEquals(1.0, RoadGraph.parse(List.of("node a 5 5")).snapCell());
+    }
+
+    @Test
+    @DisplayName("多起點一次搜尋求得各自的最短行駛時間")
+    void testTravelSeconds() {
+        RoadGraph graph = RoadGraph.parse(RIVER);
+
+        double[] seconds = graph.travelSeconds(new int[] {1, 4, 0}, 0);
+
+        assertEquals(22.0 / 60 * 3600, seconds[0], 1e-6);
+        assertEquals(4.0 / 60 * 3600, seconds[1], 1e-6);
+        assertEquals(0.0, seconds[2]);
+    }
+
+    @Test
+    @DisplayName("單行道只能順向通行，無法到達時為無限大")
+    void testOneway() {
+        RoadGraph graph = RoadGraph.parse(List.of(
+                "node a 0 0",
+                "node b 3 4",
+                "node c 9 9",
+                "edge a b 30 oneway"));
+
+        assertEquals(5.0 / 30 * 3600, graph.travelSeconds(new int[] {0}, 1)[0], 1e-6);
+        assertTrue(Double.isInfinite(graph.travelSeconds(new int[] {1}, 0)[0]));
+        assertTrue(Double.isInfinite(graph.travelSeconds(new int[] {2}, 0)[0]));
+    }
+}
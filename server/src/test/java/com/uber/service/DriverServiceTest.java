@@ -4,6 +4,10 @@ import com.uber.exception.BusinessException;
 import com.uber.model.*;
 import com.uber.repository.DriverRepository;
 import com.uber.repository.OrderRepository;
+import com.uber.routing.EtaProvider;
+import com.uber.routing.RoadGraph;
+import com.uber.routing.RoadGraphEtaProvider;
+import com.uber.routing.StraightLineEtaProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -33,7 +37,7 @@ class DriverServiceTest {
     void setUp() {
         driverRepository = new DriverRepository();
         orderRepository = new OrderRepository();
-        driverService = new DriverService(driverRepository, orderRepository);
+        driverService = new DriverService(driverRepository, orderRepository, new StraightLineEtaProvider());
     }
     
     // =========================================================================
@@ -262,6 +266,100 @@ class DriverServiceTest {
             // Then
             assertTrue(offers.isEmpty());
         }
+        
+        @Test
+        @DisplayName("只對直線距離最近的 TOP_K 張訂單計算 ETA")
+        void testGetOffers_EvaluatesNearestOrdersOnly() {
+            // Given - 另有 20 張較遠的待派訂單
+            for (int i = 0; i < 20; i++) {
+                orderRepository.save(Order.builder()
+                        .orderId("far-" + i)
+                        .passengerId("passenger-far-" + i)
+                        .status(OrderStatus.PENDING)
+                        .vehicleType(VehicleType.STANDARD)
+                        .pickupLocation(new Location(40.0 + i, 40.0))
+                        .dropoffLocation(new Location(80.0, 80.0))
+                        .build());
+            }
+            int[] searches = new int[1];
+            driverService = new DriverService(driverRepository, orderRepository, new StraightLineEtaProvider() {
+                @Override
+                public double[] etaSeconds(List<Location> from, Location to) {
+                    searches[0]++;
+                    return super.etaSeconds(from, to);
+                }
+            });
+            driverService.goOnline("driver-1", new Location(10.0, 20.0));
+            
+            // When
+            List<Order> offers = driverService.getOffers("driver-1");
+            
+            // Then
+            assertEquals("order-2", offers.get(0).getOrderId());
+            assertEquals(EtaProvider.TOP_K, searches[0]);
+        }
+    }
+    
+    @Nested
+    @DisplayName("getOffers() - 路網 ETA")
+    class GetOffersByRoadTests {
+        
+        // 司機 A (0,2) 直線距離較近，但需繞過河才能到上車點 (0,0)；司機 B (4,0) 在同一側
+        private final RoadGraph river = RoadGraph.parse(List.of(
+                "node n1 0 0",
+                "node n2 0 2",
+                "node n3 10 2",
+                "node n4 10 0",
+                "node n5 4 0",
+                "edge n2 n3 60",
+                "edge n3 n4 60",
+                "edge n4 n1 60",
+                "edge n5 n1 60"));
+        
+        @BeforeEach
+        void useRoadGraph() {
+            driverService = new DriverService(driverRepository, orderRepository, new RoadGraphEtaProvider(river));
+        }
+        
+        private void savePending(String orderId, Location pickup) {
+            orderRepository.save(Order.builder()
+                    .orderId(orderId)
+                    .passengerId("passenger-" + orderId)
+                    .status(OrderStatus.PENDING)
+                    .vehicleType(VehicleType.STANDARD)
+                    .pickupLocation(pickup)
+                    .dropoffLocation(new Location(10, 0))
+                    .build());
+        }
+        
+        @Test
+        @DisplayName("直線較近但 ETA 較長的司機收不到訂單，由 ETA 最短的司機接單")
+        void testGetOffers_RankedByEta() {
+            savePending("order-1", new Location(0, 0));
+            driverService.goOnline("driver-a", new Location(0, 2));
+            driverService.goOnline("driver-b", new Location(4, 0));
+            
+            assertTrue(driverService.getOffers("driver-a").isEmpty());
+            List<Order> offers = driverService.getOffers("driver-b");
+            
+            assertEquals(1, offers.size());
+            assertEquals("order-1", offers.get(0).getOrderId());
+            assertEquals("driver-b", offers.get(0).getAssignedDriverId());
+        }
+        
+        @Test
+        @DisplayName("同一司機有多張可接訂單時，回傳 ETA 最短而非直線最近的一張")
+        void testGetOffers_ClosestOrderByEta() {
+            // 由 (0,0) 出發：order-1 (0,2) 直線 2 但需繞路，order-2 (4,0) 直線 4 可直達
+            savePending("order-1", new Location(0, 2));
+            savePending("order-2", new Location(4, 0));
+            driverService.goOnline("driver-a", new Location(0, 0));
+            
+            List<Order> offers = driverService.getOffers("driver-a");
+            
+            assertEquals(1, offers.size());
+            assertEquals("order-2", offers.get(0).getOrderId());
+        }
     }
     
     // =========================================================================
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -88,6 +89,14 @@ class FareServiceTest {
             double fare = fareService.calculateEstimatedFare(VehicleType.STANDARD, 0);
             assertEquals(70.0, fare, 0.01);
         }
+
+        @Test
+        @DisplayName("動態加價倍率套用於最低車資之後")
+        void testCalculateEstimatedFare_Surge() {
+            // (Base (50) + 10km * 15/km) * 1.5 = 300；最低車資 70 * 1.5 = 105
+            assertEquals(300.0, fareService.calculateEstimatedFare(VehicleType.STANDARD, 10.0, 1.5), 0.01);
+            assertEquals(105.0, fareService.calculateEstimatedFare(VehicleType.STANDARD, 0, 1.5), 0.01);
+        }
     }
 
     @Nested
@@ -102,6 +111,13 @@ class FareServiceTest {
             assertEquals(155.0, fare, 0.01);
         }
 
+        @Test
+        @DisplayName("實際車資套用鎖定的加價倍率")
+        void testCalculateFare_Surge() {
+            // 155 * 1.3 = 201.5
+            assertEquals(201.5, fareService.calculateFare(VehicleType.STANDARD, 5.0, 10, 1.3), 0.01);
+        }
+
         @Test
         @DisplayName("UT-F01: PREMIUM 車資計算正確")
         void testCalculateFare_Premium() {
@@ -270,4 +286,29 @@ class FareServiceTest {
             assertEquals(150.0, plan.getMinFare(), 0.01);
         }
     }
+
+    @Nested
+    @DisplayName("共乘車資分攤測試")
+    class PooledFareTests {
+
+        @Test
+        @DisplayName("依直線距離比例分攤整條路線的車資")
+        void testSplitProportionally() {
+            // 路線 14km: 50 + 14 * 15 = 260，兩人各 130；獨乘各 200
+            Map<String, Double> shares = fareService.splitPooledFare(VehicleType.STANDARD, 14.0,
+                    Map.of("a", 10.0, "b", 10.0));
+
+            assertEquals(0.65, shares.get("a"), 0.001);
+            assertEquals(0.65, shares.get("b"), 0.001);
+        }
+
+        @Test
+        @DisplayName("分攤金額不超過獨乘車資")
+        void testShareCappedAtSoloFare() {
+            Map<String, Double> shares = fareService.splitPooledFare(VehicleType.STANDARD, 40.0,
+                    Map.of("a", 10.0, "b", 10.0));
+
+            assertEquals(1.0, shares.get("a"), 0.001);
+        }
+    }
 }
@@ -1,5 +1,11 @@
 package com.uber.service;
 
+import com.uber.controller.IdempotencyCache;
+import com.uber.controller.OrderController;
+import com.uber.dto.ApiResponse;
+import com.uber.dto.CreateOrderRequest;
+import com.uber.dto.OrderResponse;
+import com.uber.exception.BusinessException;
 import com.uber.model.Driver;
 import com.uber.model.Location;
 import com.uber.model.Order;
@@ -10,6 +16,8 @@ import com.uber.repository.OrderRepository;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +32,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * 測試場景:
  * - 重複執行相同操作不產生副作用
  * - 所有操作都應保持冪等性
+ * - 建立訂單以 Idempotency-Key 去重 (重送不重複建立)
  */
 @SpringBootTest
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -38,6 +47,9 @@ class IdempotencyH4Test {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderController orderController;
+
     @Autowired
     private DriverRepository driverRepository;
 
@@ -48,6 +60,84 @@ class IdempotencyH4Test {
         driverRepository.deleteAll();
     }
 
+    @Nested
+    @DisplayName("Create 操作冪等性測試 (Idempotency-Key)")
+    class CreateIdempotencyTests {
+
+        private CreateOrderRequest request(String passengerId) {
+            CreateOrderRequest request = new CreateOrderRequest();
+            request.setPassengerId(passengerId);
+            request.setPickupX(10.0);
+            request.setPickupY(10.0);
+            request.setDropoffX(20.0);
+            request.setDropoffY(20.0);
+            request.setVehicleType(VehicleType.STANDARD);
+            return request;
+        }
+
+        private long ordersOf(String passengerId) {
+            return orderRepository.findByPassengerId(passengerId).size();
+        }
+
+        @Test
+        @DisplayName("H4: 相同 Idempotency-Key 重送只建立一張訂單")
+        void testCreate_SameKey_Idempotent() {
+            ResponseEntity<ApiResponse<OrderResponse>> first =
+                    orderController.createOrder("h4-create-1", request("passenger-create-1"));
+            ResponseEntity<ApiResponse<OrderResponse>> second =
+                    orderController.createOrder("h4-create-1", request("passenger-create-1"));
+
+            assertEquals(HttpStatus.CREATED, second.getStatusCode());
+            assertEquals(first.getBody().getData().orderId(), second.getBody().getData().orderId());
+            assertEquals("true", second.getHeaders().getFirst(IdempotencyCache.REPLAYED_HEADER));
+            assertEquals(1, ordersOf("passenger-create-1"));
+        }
+
+        @Test
+        @DisplayName("H4: 沒有 Idempotency-Key 或 key 不同時各自建立")
+        void testCreate_DifferentKeys() {
+            orderController.createOrder(null, request("passenger-create-2"));
+            orderController.createOrder(null, request("passenger-create-2"));
+            orderController.createOrder("h4-create-2a", request("passenger-create-2"));
+            orderController.createOrder("h4-create-2b", request("passenger-create-2"));
+
+            assertEquals(4, ordersOf("passenger-create-2"));
+        }
+
+        @Test
+        @DisplayName("H4: 併發重送相同 key 只建立一張訂單")
+        void testCreate_SameKey_Concurrent() throws InterruptedException {
+            ExecutorService executor = Executors.newFixedThreadPool(5);
+            CountDownLatch startLatch = new CountDownLatch(1);
+            AtomicInteger successCount = new AtomicInteger(0);
+            AtomicInteger inProgressCount = new AtomicInteger(0);
+
+            for (int i = 0; i < 5; i++) {
+                executor.submit(() -> {
+                    try {
+                        startLatch.await();
+                        orderController.createOrder("h4-create-3", request("passenger-create-3"));
+                        successCount.incrementAndGet();
+                    } catch (BusinessException e) {
+                        if ("IDEMPOTENCY_IN_PROGRESS".equals(e.getCode())) {
+                            inProgressCount.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            startLatch.countDown();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+
+            // 重送者不是拿到原回應就是被告知處理中，不會建立第二張訂單
+            assertEquals(5, successCount.get() + inProgressCount.get());
+            assertEquals(1, ordersOf("passenger-create-3"));
+        }
+    }
+
     @Nested
     @DisplayName("Accept 操作冪等性測試")
     class AcceptIdempotencyTests {
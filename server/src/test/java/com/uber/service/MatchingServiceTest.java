@@ -3,6 +3,10 @@ package com.uber.service;
 import com.uber.model.*;
 import com.uber.repository.DriverRepository;
 import com.uber.repository.OrderRepository;
+import com.uber.routing.EtaProvider;
+import com.uber.routing.RoadGraph;
+import com.uber.routing.RoadGraphEtaProvider;
+import com.uber.routing.StraightLineEtaProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -10,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
@@ -38,6 +43,9 @@ class MatchingServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Spy
+    private EtaProvider etaProvider = new StraightLineEtaProvider();
+
     @InjectMocks
     private MatchingService matchingService;
 
@@ -286,6 +294,43 @@ class MatchingServiceTest {
             assertEquals("order-002", orders.get(1).getOrderId());
         }
 
+        @Test
+        @DisplayName("設定路網時依 ETA 排序，直線較近但需繞路的訂單排在後面")
+        void testGetAvailableOrders_RankedByEta() {
+            // 由 (0,0) 到 (0,2) 需繞過河 (約 22 單位)，到 (4,0) 可直達
+            EtaProvider byRoad = new RoadGraphEtaProvider(RoadGraph.parse(List.of(
+                    "node n1 0 0",
+                    "node n2 0 2",
+                    "node n3 10 2",
+                    "node n4 10 0",
+                    "node n5 4 0",
+                    "edge n2 n3 60",
+                    "edge n3 n4 60",
+                    "edge n4 n1 60",
+                    "edge n5 n1 60")));
+            MatchingService roadMatching = new MatchingService(driverRepository, orderRepository, byRoad);
+            Order acrossRiver = Order.builder()
+                    .orderId("order-001")
+                    .status(OrderStatus.PENDING)
+                    .vehicleType(VehicleType.STANDARD)
+                    .pickupLocation(new Location(0, 2))
+                    .build();
+            Order sameBank = Order.builder()
+                    .orderId("order-002")
+                    .status(OrderStatus.PENDING)
+                    .vehicleType(VehicleType.STANDARD)
+                    .pickupLocation(new Location(4, 0))
+                    .build();
+            when(orderRepository.findByStatus(OrderStatus.PENDING))
+                    .thenReturn(List.of(acrossRiver, sameBank));
+
+            List<Order> straight = matchingService.getAvailableOrders(onlineDriver1);
+            List<Order> road = roadMatching.getAvailableOrders(onlineDriver1);
+
+            assertEquals(List.of("order-001", "order-002"), straight.stream().map(Order::getOrderId).toList());
+            assertEquals(List.of("order-002", "order-001"), road.stream().map(Order::getOrderId).toList());
+        }
+
         @Test
         @DisplayName("離線司機無法取得訂單")
         void testGetAvailableOrders_OfflineDriver() {
@@ -5,11 +5,15 @@ import com.uber.model.*;
 import com.uber.repository.DriverRepository;
 import com.uber.repository.OrderRepository;
 import com.uber.repository.AuditLogRepository;
+import com.uber.routing.StraightLineEtaProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -40,7 +44,8 @@ class OrderServiceTest {
         fareService = new FareService();
         fareService.initRatePlans();
         
-        orderService = new OrderService(orderRepository, driverRepository, auditService, fareService);
+        orderService = new OrderService(orderRepository, driverRepository, auditService, fareService,
+                new SurgePricingService(orderRepository, driverRepository), new StraightLineEtaProvider());
     }
     
     // =========================================================================
@@ -508,4 +513,123 @@ class OrderServiceTest {
             assertEquals("INVALID_STATE", ex.getCode());
         }
     }
+    
+    // =========================================================================
+    // 共乘測試
+    // =========================================================================
+    
+    @Nested
+    @DisplayName("共乘 - 同一司機載送多筆訂單")
+    class PoolingTests {
+        
+        @BeforeEach
+        void createDriver() {
+            driverRepository.save(Driver.builder()
+                    .driverId("driver-1")
+                    .name("Pool Driver")
+                    .status(DriverStatus.ONLINE)
+                    .busy(false)
+                    .vehicleType(VehicleType.STANDARD)
+                    .location(new Location(0.0, 0.0))
+                    .build());
+        }
+        
+        private Order createPooled(String passengerId, Location pickup, Location dropoff) {
+            return orderService.createOrder(passengerId, pickup, dropoff, VehicleType.STANDARD, true);
+        }
+        
+        @Test
+        @DisplayName("順路的共乘訂單指派給同一司機並分攤車資")
+        void testTwoRidersShareDriver() {
+            Order first = createPooled("passenger-1", new Location(1.0, 0.0), new Location(11.0, 0.0));
+            orderService.acceptOrder(first.getOrderId(), "driver-1");
+            
+            Order second = createPooled("passenger-2", new Location(2.0, 0.5), new Location(10.0, 0.5));
+            assertEquals("driver-1", second.getAssignedDriverId());
+            orderService.acceptOrder(second.getOrderId(), "driver-1");
+            
+            Driver driver = driverRepository.findById("driver-1").orElseThrow();
+            assertTrue(driver.isBusy());
+            assertEquals(first.getOrderId(), driver.getCurrentOrderId());
+            assertEquals(4, driver.getRoute().size());
+            assertTrue(orderRepository.findById(first.getOrderId()).orElseThrow().getPoolFareShare() < 1.0);
+            assertTrue(orderRepository.findById(second.getOrderId()).orElseThrow().getPoolFareShare() < 1.0);
+            
+            // 共乘行程中不接獨乘訂單
+            Order solo = orderService.createOrder("passenger-3", new Location(1.0, 1.0),
+                    new Location(5.0, 5.0), VehicleType.STANDARD);
+            assertNull(solo.getAssignedDriverId());
+            BusinessException ex = assertThrows(BusinessException.class, () ->
+                orderService.acceptOrder(solo.getOrderId(), "driver-1")
+            );
+            assertEquals("DRIVER_BUSY", ex.getCode());
+        }
+        
+        @Test
+        @DisplayName("最後一位乘客下車後才釋放司機")
+        void testDriverReleasedAfterLastDropoff() {
+            Order first = createPooled("passenger-1", new Location(1.0, 0.0), new Location(11.0, 0.0));
+            orderService.acceptOrder(first.getOrderId(), "driver-1");
+            Order second = createPooled("passenger-2", new Location(2.0, 0.5), new Location(10.0, 0.5));
+            orderService.acceptOrder(second.getOrderId(), "driver-1");
+            
+            orderService.startTrip(first.getOrderId(), "driver-1");
+            orderService.startTrip(second.getOrderId(), "driver-1");
+            assertEquals(2, driverRepository.findById("driver-1").orElseThrow().getRoute().size());
+            
+            Order completed = orderService.completeTrip(second.getOrderId(), "driver-1", 10);
+            Driver driver = driverRepository.findById("driver-1").orElseThrow();
+            assertTrue(driver.isBusy());
+            assertEquals(first.getOrderId(), driver.getCurrentOrderId());
+            double soloFare = fareService.calculateFare(VehicleType.STANDARD, second.getDistance(), 10);
+            assertTrue(completed.getActualFare() < soloFare);
+            
+            orderService.completeTrip(first.getOrderId(), "driver-1", 12);
+            driver = driverRepository.findById("driver-1").orElseThrow();
+            assertFalse(driver.isBusy());
+            assertNull(driver.getCurrentOrderId());
+            assertNull(driver.getRoute());
+        }
+        
+        @Test
+        @DisplayName("拒絕共乘訂單時可改派給其他共乘行程中的司機")
+        void testDeclinePooledReassignsToPoolingDriver() {
+            Order first = createPooled("passenger-1", new Location(1.0, 0.0), new Location(11.0, 0.0));
+            orderService.acceptOrder(first.getOrderId(), "driver-1");
+            // driver-2 正在另一趟共乘行程中 (busy，獨乘改派不會選到)
+            driverRepository.save(Driver.builder()
+                    .driverId("driver-2")
+                    .name("Pool Driver 2")
+                    .status(DriverStatus.ONLINE)
+                    .busy(true)
+                    .vehicleType(VehicleType.STANDARD)
+                    .location(new Location(0.0, 1.0))
+                    .currentOrderId("other-order")
+                    .route(new ArrayList<>(List.of(new RouteStop("other-order", new Location(1.0, 1.0), false))))
+                    .build());
+            Order second = createPooled("passenger-2", new Location(2.0, 0.5), new Location(10.0, 0.5));
+            assertEquals("driver-1", second.getAssignedDriverId());
+            
+            Order declined = orderService.declineOrder(second.getOrderId(), "driver-1");
+            
+            assertEquals(OrderStatus.PENDING, declined.getStatus());
+            assertEquals("driver-2", declined.getAssignedDriverId());
+        }
+        
+        @Test
+        @DisplayName("取消共乘訂單只移除該訂單的停靠點")
+        void testCancelKeepsOtherRiders() {
+            Order first = createPooled("passenger-1", new Location(1.0, 0.0), new Location(11.0, 0.0));
+            orderService.acceptOrder(first.getOrderId(), "driver-1");
+            Order second = createPooled("passenger-2", new Location(2.0, 0.5), new Location(10.0, 0.5));
+            orderService.acceptOrder(second.getOrderId(), "driver-1");
+            
+            orderService.cancelOrder(first.getOrderId(), "passenger-1");
+            
+            Driver driver = driverRepository.findById("driver-1").orElseThrow();
+            assertTrue(driver.isBusy());
+            assertEquals(second.getOrderId(), driver.getCurrentOrderId());
+            assertTrue(driver.getRoute().stream().allMatch(stop -> stop.orderId().equals(second.getOrderId())));
+        }
+    }
 }
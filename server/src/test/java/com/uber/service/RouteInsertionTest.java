@@ -0,0 +1,81 @@
+package com.uber.service;
+
+import com.uber.model.Location;
+import com.uber.model.RouteStop;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RouteInsertion 測試
+ */
+@DisplayName("RouteInsertion 測試")
+class RouteInsertionTest {
+
+    private static final Location START = new Location(0, 0);
+
+    private static RouteStop pickup(String orderId, double x, double y) {
+        return new RouteStop(orderId, new Location(x, y), true);
+    }
+
+    private static RouteStop dropoff(String orderId, double x, double y) {
+        return new RouteStop(orderId, new Location(x, y), false);
+    }
+
+    @Test
+    @DisplayName("空路線直接接送")
+    void testEmptyRoute() {
+        RouteInsertion.Insertion insertion = RouteInsertion.best(START, null,
+                pickup("a", 3, 4), dropoff("a", 3, 14));
+
+        assertNotNull(insertion);
+        assertEquals(List.of(pickup("a", 3, 4), dropoff("a", 3, 14)), insertion.route());
+        assertEquals(15.0, insertion.addedDistance(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("順路的訂單插入現有行程中間")
+    void testInsertAlongRoute() {
+        List<RouteStop> route = List.of(pickup("a", 1, 0), dropoff("a", 11, 0));
+
+        RouteInsertion.Insertion insertion = RouteInsertion.best(START, route,
+                pickup("b", 3, 0), dropoff("b", 9, 0));
+
+        assertNotNull(insertion);
+        assertEquals(List.of(pickup("a", 1, 0), pickup("b", 3, 0), dropoff("b", 9, 0), dropoff("a", 11, 0)),
+                insertion.route());
+        assertEquals(0.0, insertion.addedDistance(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("超出已上車乘客的繞路上限時改排在其下車之後")
+    void testDetourBudget() {
+        // 乘客 a 已上車，直線距離 10，最多可乘 15
+        List<RouteStop> route = List.of(dropoff("a", 10, 0));
+
+        RouteInsertion.Insertion insertion = RouteInsertion.best(START, route,
+                pickup("b", 0, 10), dropoff("b", 0, 20));
+
+        assertNotNull(insertion);
+        assertEquals(dropoff("a", 10, 0), insertion.route().get(0));
+    }
+
+    @Test
+    @DisplayName("車上座位已滿時不可先載新乘客")
+    void testCapacity() {
+        List<RouteStop> route = List.of(dropoff("a", 5, 0), dropoff("b", 5, 0), dropoff("c", 5, 0));
+
+        RouteInsertion.Insertion insertion = RouteInsertion.best(START, route,
+                pickup("d", 1, 0), dropoff("d", 4, 0));
+
+        assertNotNull(insertion);
+        assertEquals(pickup("d", 1, 0), insertion.route().get(3));
+
+        List<RouteStop> overfull = List.of(dropoff("a", 5, 0), dropoff("b", 5, 0),
+                dropoff("c", 5, 0), dropoff("e", 5, 0));
+        assertNull(RouteInsertion.best(START, overfull, pickup("d", 1, 0), dropoff("d", 4, 0)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.uber.service;
+
+import com.uber.exception.BusinessException;
+import com.uber.model.Location;
+import com.uber.model.Order;
+import com.uber.model.OrderStatus;
+import com.uber.model.VehicleType;
+import com.uber.repository.OrderRepository;
+import com.uber.repository.RouteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RouteService 測試
+ */
+@DisplayName("RouteService 測試")
+class RouteServiceTest {
+
+    private OrderRepository orderRepository;
+    private RouteService routeService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = new OrderRepository();
+        routeService = new RouteService(orderRepository, new RouteRepository());
+        orderRepository.save(Order.builder()
+                .orderId("order-1")
+                .passengerId("passenger-1")
+                .status(OrderStatus.ACCEPTED)
+                .vehicleType(VehicleType.STANDARD)
+                .pickupLocation(new Location(24.1, 120.6))
+                .dropoffLocation(new Location(24.2, 120.7))
+                .build());
+    }
+
+    @Test
+    @DisplayName("上傳後可查詢，訂單版本不變")
+    void testUpdateAndGet() {
+        long version = orderRepository.versionOf("order-1");
+
+        int size = routeService.updateRoute("order-1", new double[][] {{24.1, 120.6}, {24.15, 120.65}});
+
+        assertTrue(size > 0);
+        double[][] route = routeService.getRoute("order-1");
+        assertEquals(2, route.length);
+        assertEquals(120.65, route[1][1], 1e-5);
+        assertEquals(version, orderRepository.versionOf("order-1"));
+    }
+
+    @Test
+    @DisplayName("尚未上傳時回傳空路徑")
+    void testEmpty() {
+        assertEquals(0, routeService.getRoute("order-1").length);
+        assertEquals(0, routeService.getRouteVersion("order-1"));
+    }
+
+    @Test
+    @DisplayName("路徑版本只在內容改變時改變")
+    void testRouteVersion() {
+        routeService.updateRoute("order-1", new double[][] {{24.1, 120.6}, {24.15, 120.65}});
+        long version = routeService.getRouteVersion("order-1");
+
+        routeService.updateRoute("order-1", new double[][] {{24.1, 120.6}, {24.15, 120.65}});
+        assertEquals(version, routeService.getRouteVersion("order-1"));
+
+        routeService.updateRoute("order-1", new double[][] {{24.1, 120.6}, {24.16, 120.66}});
+        assertNotEquals(version, routeService.getRouteVersion("order-1"));
+    }
+
+    @Test
+    @DisplayName("訂單不存在或路徑無效時拋出例外")
+    void testInvalid() {
+        BusinessException notFound = assertThrows(BusinessException.class,
+                () -> routeService.updateRoute("missing", new double[][] {{1, 2}}));
+        assertEquals("ORDER_NOT_FOUND", notFound.getCode());
+        assertThrows(BusinessException.class, () -> routeService.getRoute("missing"));
+
+        assertThrows(BusinessException.class, () -> routeService.updateRoute("order-1", new double[0][]));
+        BusinessException invalid = assertThrows(BusinessException.class,
+                () -> routeService.updateRoute("order-1", new double[][] {{1, 2, 3}}));
+        assertEquals("INVALID_REQUEST", invalid.getCode());
+        assertThrows(BusinessException.class,
+                () -> routeService.updateRoute("order-1", new double[RouteService.MAX_POINTS + 1][]));
+    }
+}
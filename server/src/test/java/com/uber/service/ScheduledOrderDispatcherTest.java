@@ -0,0 +1,139 @@
+package com.uber.service;
+
+import com.uber.exception.BusinessException;
+import com.uber.model.*;
+import com.uber.repository.AuditLogRepository;
+import com.uber.repository.DriverRepository;
+import com.uber.repository.OrderRepository;
+import com.uber.routing.StraightLineEtaProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 預約叫車與 ScheduledOrderDispatcher 測試
+ */
+@DisplayName("ScheduledOrderDispatcher 測試")
+class ScheduledOrderDispatcherTest {
+
+    private static final Location PICKUP = new Location(10.0, 20.0);
+    private static final Location DROPOFF = new Location(30.0, 40.0);
+
+    private OrderRepository orderRepository;
+    private DriverRepository driverRepository;
+    private OrderService orderService;
+    private ScheduledOrderDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = new OrderRepository();
+        driverRepository = new DriverRepository();
+        FareService fareService = new FareService();
+        fareService.initRatePlans();
+        orderService = new OrderService(orderRepository, driverRepository,
+                new AuditService(new AuditLogRepository()), fareService,
+                new SurgePricingService(orderRepository, driverRepository), new StraightLineEtaProvider());
+        dispatcher = new ScheduledOrderDispatcher(orderRepository, orderService,
+                Duration.ofMinutes(10), Duration.ofSeconds(1));
+
+        driverRepository.save(Driver.builder()
+                .driverId("driver-1")
+                .status(DriverStatus.ONLINE)
+                .vehicleType(VehicleType.STANDARD)
+                .location(new Location(12.0, 22.0))
+                .build());
+    }
+
+    @Test
+    @DisplayName("預約訂單不參與配對，到 lead time 才釋放並指派司機")
+    void testReleasedAtLeadTime() {
+        Instant now = Instant.now();
+        Order order = orderService.scheduleOrder("passenger-1", PICKUP, DROPOFF,
+                VehicleType.STANDARD, false, now.plus(Duration.ofHours(1)));
+        assertEquals(OrderStatus.SCHEDULED, order.getStatus());
+        assertNull(order.getAssignedDriverId());
+        assertTrue(orderService.getPendingOrders().isEmpty());
+
+        assertEquals(0, dispatcher.dispatchDue(now.plus(Duration.ofMinutes(45))));
+        assertEquals(1, dispatcher.dispatchDue(now.plus(Duration.ofMinutes(50))));
+
+        Order released = orderService.getOrder(order.getOrderId());
+        assertEquals(OrderStatus.PENDING, released.getStatus());
+        assertEquals("driver-1", released.getAssignedDriverId());
+        assertEquals(0, orderRepository.scheduledCount());
+    }
+
+    @Test
+    @DisplayName("依預約時間先後釋放，已取消的預約不會釋放")
+    void testOrderingAndCancellation() {
+        Instant now = Instant.now();
+        Order later = orderService.scheduleOrder("passenger-1", PICKUP, DROPOFF,
+                VehicleType.STANDARD, false, now.plus(Duration.ofHours(2)));
+        Order sooner = orderService.scheduleOrder("passenger-2", PICKUP, DROPOFF,
+                VehicleType.STANDARD, false, now.plus(Duration.ofHours(1)));
+        Order cancelled = orderService.scheduleOrder("passenger-3", PICKUP, DROPOFF,
+                VehicleType.STANDARD, false, now.plus(Duration.ofMinutes(30)));
+        orderService.cancelOrder(cancelled.getOrderId(), "passenger-3");
+
+        assertEquals(1, dispatcher.dispatchDue(now.plus(Duration.ofMinutes(55))));
+        assertEquals(OrderStatus.PENDING, orderService.getOrder(sooner.getOrderId()).getStatus());
+        assertEquals(OrderStatus.SCHEDULED, orderService.getOrder(later.getOrderId()).getStatus());
+        assertEquals(OrderStatus.CANCELLED, orderService.getOrder(cancelled.getOrderId()).getStatus());
+        assertEquals(0.0, orderService.getOrder(cancelled.getOrderId()).getCancelFee());
+    }
+
+    @Test
+    @DisplayName("同時取消與釋放預約訂單時，取消不會被釋放覆蓋")
+    void testConcurrentCancelAndRelease() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 200; i++) {
+                Order order = orderService.scheduleOrder("passenger-" + i, PICKUP, DROPOFF,
+                        VehicleType.STANDARD, false, Instant.now().plus(Duration.ofHours(1)));
+                CountDownLatch startLatch = new CountDownLatch(1);
+                Future<?> release = executor.submit(() -> {
+                    startLatch.await();
+                    return orderService.releaseScheduledOrder(order.getOrderId());
+                });
+                Future<?> cancel = executor.submit(() -> {
+                    startLatch.await();
+                    return orderService.cancelOrder(order.getOrderId(), order.getPassengerId());
+                });
+                startLatch.countDown();
+                release.get(5, TimeUnit.SECONDS);
+                cancel.get(5, TimeUnit.SECONDS);
+
+                // 無論先後，PENDING 與 SCHEDULED 都可取消，最終一定是 CANCELLED
+                assertEquals(OrderStatus.CANCELLED, orderService.getOrder(order.getOrderId()).getStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, orderRepository.scheduledCount());
+        assertTrue(orderService.getPendingOrders().isEmpty());
+    }
+
+    @Test
+    @DisplayName("預約時間必須在未來 30 天內")
+    void testInvalidPickupTime() {
+        Instant now = Instant.now();
+        BusinessException past = assertThrows(BusinessException.class, () ->
+                orderService.scheduleOrder("passenger-1", PICKUP, DROPOFF,
+                        VehicleType.STANDARD, false, now.minusSeconds(60)));
+        assertEquals("INVALID_REQUEST", past.getCode());
+
+        assertThrows(BusinessException.class, () ->
+                orderService.scheduleOrder("passenger-1", PICKUP, DROPOFF,
+                        VehicleType.STANDARD, false, now.plus(Duration.ofDays(31))));
+    }
+}
@@ -5,6 +5,7 @@ import com.uber.model.*;
 import com.uber.repository.AuditLogRepository;
 import com.uber.repository.DriverRepository;
 import com.uber.repository.OrderRepository;
+import com.uber.routing.StraightLineEtaProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -39,7 +40,8 @@ class StateMachineTest {
         fareService = new FareService();
         fareService.initRatePlans();
 
-        orderService = new OrderService(orderRepository, driverRepository, auditService, fareService);
+        orderService = new OrderService(orderRepository, driverRepository, auditService, fareService,
+                new SurgePricingService(orderRepository, driverRepository), new StraightLineEtaProvider());
     }
 
     // =========================================================================
@@ -0,0 +1,161 @@
+package com.uber.service;
+
+import com.uber.model.Driver;
+import com.uber.model.DriverStatus;
+import com.uber.model.Location;
+import com.uber.model.Order;
+import com.uber.model.OrderStatus;
+import com.uber.model.VehicleType;
+import com.uber.repository.DemandGrid;
+import com.uber.repository.DemandHeatmap;
+import com.uber.repository.DriverRepository;
+import com.uber.repository.OrderRepository;
+import com.uber.repository.RouteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SurgePricingService 測試
+ */
+@DisplayName("SurgePricingService 測試")
+class SurgePricingServiceTest {
+
+    // 台中車站與約 800 公尺外的台中公園 (緯度, 經度)，以預設 0.01° 格子劃分時位於相鄰的兩格
+    private static final Location STATION = new Location(24.1372, 120.6869);
+    private static final Location NEAR_STATION = new Location(24.1378, 120.6875);
+    private static final Location PARK = new Location(24.1446, 120.6838);
+
+    private OrderRepository orderRepository;
+    private DriverRepository driverRepository;
+    private SurgePricingService surgePricingService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = new OrderRepository();
+        driverRepository = new DriverRepository();
+        surgePricingService = new SurgePricingService(orderRepository, driverRepository);
+    }
+
+    private DemandGrid.Cell cell(Location location) {
+        return orderRepository.demandCell(location, VehicleType.STANDARD);
+    }
+
+    private Order pendingOrder(String orderId, Location pickup) {
+        return orderRepository.save(Order.builder()
+                .orderId(orderId)
+                .passengerId("p-" + orderId)
+                .status(OrderStatus.PENDING)
+                .vehicleType(VehicleType.STANDARD)
+                .pickupLocation(pickup)
+                .dropoffLocation(new Location(24.1810, 120.6460))
+                .build());
+    }
+
+    private Driver onlineDriver(String driverId, Location location) {
+        return driverRepository.save(Driver.builder()
+                .driverId(driverId)
+                .status(DriverStatus.ONLINE)
+                .vehicleType(VehicleType.STANDARD)
+                .location(location)
+                .build());
+    }
+
+    @Test
+    @DisplayName("供需平衡時不加價，失衡時依比例加價並有上限")
+    void testRawMultiplier() {
+        assertEquals(1.0, SurgePricingService.rawMultiplier(0, 0));
+        assertEquals(1.0, SurgePricingService.rawMultiplier(3, 5));
+        assertEquals(1.75, SurgePricingService.rawMultiplier(4, 1), 1e-9);
+        assertEquals(SurgePricingService.MAX_MULTIPLIER, SurgePricingService.rawMultiplier(100, 0));
+    }
+
+    @Test
+    @DisplayName("訂單與司機狀態改變時增量更新格子計數")
+    void testCountersFollowTransitions() {
+        Order order = pendingOrder("o1", STATION);
+        pendingOrder("o2", STATION);
+        Driver driver = onlineDriver("d1", NEAR_STATION);
+        assertEquals(cell(STATION), cell(NEAR_STATION));
+        assertEquals(2, orderRepository.pendingCount(cell(STATION)));
+        assertEquals(1, driverRepository.availableCount(cell(STATION)));
+
+        // 接單：訂單離開 PENDING，司機變為 busy
+        order.setStatus(OrderStatus.ACCEPTED);
+        orderRepository.save(order);
+        driver.setBusy(true);
+        driverRepository.save(driver);
+        assertEquals(1, orderRepository.pendingCount(cell(STATION)));
+        assertEquals(0, driverRepository.availableCount(cell(STATION)));
+
+        // 司機移動到相鄰格子
+        driver.setBusy(false);
+        driver.setLocation(PARK);
+        driverRepository.save(driver);
+        assertEquals(0, driverRepository.availableCount(cell(STATION)));
+        assertEquals(1, driverRepository.availableCount(cell(PARK)));
+
+        // 其他車種不計入
+        assertEquals(0, orderRepository.pendingCount(orderRepository.demandCell(STATION, VehicleType.XL)));
+    }
+
+    @Test
+    @DisplayName("倍率隨時間平滑趨近供需比例")
+    void testSmoothing() {
+        for (int i = 0; i < 5; i++) {
+            pendingOrder("o" + i, STATION);
+        }
+        onlineDriver("d1", NEAR_STATION);
+        long now = 1_000_000L;
+
+        // 第一次觀察不會立即跳價
+        assertEquals(1.0, surgePricingService.surgeMultiplier(STATION, VehicleType.STANDARD, now));
+        // 一個時間常數後約走完 63%
+        double partial = surgePricingService.surgeMultiplier(STATION, VehicleType.STANDARD,
+                now + SurgePricingService.SMOOTHING_MILLIS);
+        assertEquals(1.6, partial, 1e-9);
+        // 長時間後收斂到 1 + (5 - 1) * 0.25 = 2.0
+        assertEquals(2.0, surgePricingService.surgeMultiplier(STATION, VehicleType.STANDARD,
+                now + SurgePricingService.SMOOTHING_MILLIS * 20));
+    }
+
+    @Test
+    @DisplayName("相距數百公尺的兩個商圈各自計算倍率")
+    void testNearbyZonesPricedSeparately() {
+        // 車站：5 張待派、1 位司機；公園：1 張待派、2 位司機
+        for (int i = 0; i < 5; i++) {
+            pendingOrder("s" + i, STATION);
+        }
+        onlineDriver("d1", NEAR_STATION);
+        pendingOrder("p1", PARK);
+        onlineDriver("d2", PARK);
+        onlineDriver("d3", PARK);
+        assertNotEquals(cell(STATION), cell(PARK));
+
+        long now = 1_000_000L;
+        surgePricingService.surgeMultiplier(STATION, VehicleType.STANDARD, now);
+        surgePricingService.surgeMultiplier(PARK, VehicleType.STANDARD, now);
+        long later = now + SurgePricingService.SMOOTHING_MILLIS * 20;
+
+        assertEquals(2.0, surgePricingService.surgeMultiplier(STATION, VehicleType.STANDARD, later));
+        assertEquals(1.0, surgePricingService.surgeMultiplier(PARK, VehicleType.STANDARD, later));
+    }
+
+    @Test
+    @DisplayName("格子邊長可設定，較粗的格子會把兩個商圈合併")
+    void testConfiguredCellSize() {
+        OrderRepository coarse = new OrderRepository(new RouteRepository(), 0.05,
+                DemandHeatmap.DEFAULT_CELL_SIZE);
+
+        assertEquals(coarse.demandCell(STATION, VehicleType.STANDARD), coarse.demandCell(PARK, VehicleType.STANDARD));
+        assertThrows(IllegalArgumentException.class, () -> new DriverRepository(0));
+    }
+
+    @Test
+    @DisplayName("沒有上車點時不加價")
+    void testNullPickup() {
+        assertEquals(1.0, surgePricingService.surgeMultiplier(null, VehicleType.STANDARD));
+    }
+}
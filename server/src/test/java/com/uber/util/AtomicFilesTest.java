@@ -0,0 +1,73 @@
+package com.uber.util;
+
+import com.uber.model.Location;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AtomicFiles 測試
+ */
+@DisplayName("AtomicFiles 測試")
+class AtomicFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static AtomicFiles.ChannelWriter text(String content) {
+        return channel -> channel.write(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("取代檔案並保留上一代")
+    void testKeepsPreviousGeneration() throws IOException {
+        Path target = tempDir.resolve("orders.snap");
+
+        AtomicFiles.write(target, true, text("v1"));
+        AtomicFiles.write(target, true, text("v2"));
+
+        assertEquals("v2", Files.readString(target));
+        assertEquals("v1", Files.readString(AtomicFiles.previousOf(target)));
+        assertFalse(Files.exists(tempDir.resolve("orders.snap.tmp")));
+    }
+
+    @Test
+    @DisplayName("寫入失敗時原檔不變且不留暫存檔")
+    void testFailedWriteLeavesTargetIntact() throws IOException {
+        Path target = tempDir.resolve("orders.snap");
+        AtomicFiles.write(target, true, text("v1"));
+
+        assertThrows(IOException.class, () -> AtomicFiles.write(target, true, channel -> {
+            channel.write(ByteBuffer.wrap("partial".getBytes(StandardCharsets.UTF_8)));
+            throw new IOException("disk full");
+        }));
+
+        assertEquals("v1", Files.readString(target));
+        assertFalse(Files.exists(AtomicFiles.previousOf(target)));
+        assertFalse(Files.exists(tempDir.resolve("orders.snap.tmp")));
+    }
+
+    @Test
+    @DisplayName("目前快照損毀時上一代仍可讀取")
+    void testPreviousSnapshotReadableAfterCorruption() throws IOException {
+        Path target = tempDir.resolve("drivers.snap");
+        List<Location> v1 = List.of(new Location(1, 1), new Location(2, 2));
+        List<Location> v2 = List.of(new Location(1, 1), new Location(2, 2), new Location(3, 3));
+        AtomicFiles.write(target, true, channel -> SnapshotCodec.write(channel, v1));
+        AtomicFiles.write(target, true, channel -> SnapshotCodec.write(channel, v2));
+        Files.write(target, new byte[]{1, 2, 3}, StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertThrows(SnapshotCorruptedException.class, () -> SnapshotCodec.read(target, Location.class));
+        assertEquals(2, SnapshotCodec.read(AtomicFiles.previousOf(target), Location.class).size());
+    }
+}
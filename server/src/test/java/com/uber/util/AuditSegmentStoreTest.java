@@ -0,0 +1,153 @@
+package com.uber.util;
+
+import com.uber.model.AuditLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AuditSegmentStore 測試
+ */
+@DisplayName("AuditSegmentStore 測試")
+class AuditSegmentStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AuditSegmentStore open(int segmentSize, int maxSegments) throws IOException {
+        return AuditSegmentStore.open(new AuditSegmentStore.Options(tempDir, segmentSize, maxSegments, null));
+    }
+
+    private static AuditLog log(String orderId, String action, boolean success) {
+        return AuditLog.builder()
+                .id(orderId + "-" + action)
+                .timestamp(Instant.now().truncatedTo(ChronoUnit.MILLIS))
+                .orderId(orderId)
+                .action(action)
+                .actorType("DRIVER")
+                .actorId("d1")
+                .previousState("PENDING")
+                .newState(success ? "ACCEPTED" : "PENDING")
+                .success(success)
+                .build();
+    }
+
+    @Test
+    @DisplayName("append 後依 orderId 掃描")
+    void testAppendAndScan() throws IOException {
+        try (AuditSegmentStore store = open(64 * 1024, 4)) {
+            store.append(log("o1", "CREATE", true));
+            store.append(log("o2", "CREATE", true));
+            store.append(log("o1", "ACCEPT", false));
+
+            List<AuditLog> found = new ArrayList<>();
+            store.scan(header -> header.matchesOrder("o1"), found::add);
+
+            assertEquals(3, store.count());
+            assertEquals(2, found.size());
+            assertEquals("ACCEPT", found.get(1).getAction());
+            assertFalse(found.get(1).isSuccess());
+        }
+    }
+
+    @Test
+    @DisplayName("重新開啟後接續寫入")
+    void testReopen() throws IOException {
+        try (AuditSegmentStore store = open(64 * 1024, 4)) {
+            store.append(log("o1", "CREATE", true));
+        }
+        try (AuditSegmentStore store = open(64 * 1024, 4)) {
+            store.append(log("o1", "ACCEPT", true));
+
+            List<AuditLog> all = store.readAll();
+            assertEquals(2, all.size());
+            assertEquals("CREATE", all.get(0).getAction());
+        }
+    }
+
+    @Test
+    @DisplayName("分段寫滿後換新檔並刪除超量的舊分段")
+    void testRolloverAndRetention() throws IOException {
+        try (AuditSegmentStore store = open(1024, 3)) {
+            for (int i = 0; i < 100; i++) {
+                store.append(log("o" + i, "CREATE", true));
+            }
+
+            assertEquals(3, store.segmentCount());
+            assertTrue(store.count() < 100);
+            assertEquals(store.count(), store.readAll().size());
+            List<AuditLog> all = store.readAll();
+            assertEquals("o99", all.get(all.size() - 1).getOrderId());
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("未換檔時定期保留檢查仍刪除過期分段")
+    void testEnforceRetentionWithoutRollover() throws IOException {
+        Duration retention = Duration.ofHours(1);
+        try (AuditSegmentStore store = AuditSegmentStore.open(
+                new AuditSegmentStore.Options(tempDir, 1024, 100, retention))) {
+            for (int i = 0; i < 30; i++) {
+                store.append(log("o" + i, "CREATE", true));
+            }
+            int segments = store.segmentCount();
+            assertTrue(segments > 1);
+
+            store.enforceRetention();
+            assertEquals(segments, store.segmentCount());
+
+            store.enforceRetention(System.currentTimeMillis() + retention.multipliedBy(2).toMillis());
+            assertEquals(1, store.segmentCount());
+            assertEquals(store.count(), store.readAll().size());
+            List<AuditLog> all = store.readAll();
+            assertEquals("o29", all.get(all.size() - 1).getOrderId());
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("寫到一半的紀錄在重新開啟時捨棄")
+    void testTornRecordIsDropped() throws IOException {
+        try (AuditSegmentStore store = open(64 * 1024, 4)) {
+            store.append(log("o1", "CREATE", true));
+            store.append(log("o1", "ACCEPT", true));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        // 破壞第二筆紀錄的 payload
+        int firstLength;
+        try (RandomAccessFile raf = new RandomAccessFile(segment.toFile(), "rw")) {
+            raf.seek(AuditSegmentStore.SEGMENT_HEADER_SIZE);
+            firstLength = raf.readInt();
+            long second = AuditSegmentStore.SEGMENT_HEADER_SIZE + AuditSegmentStore.RECORD_HEADER_SIZE + firstLength;
+            raf.seek(second + AuditSegmentStore.RECORD_HEADER_SIZE + 2);
+            raf.write(0x7F);
+        }
+
+        try (AuditSegmentStore store = open(64 * 1024, 4)) {
+            assertEquals(1, store.count());
+            store.append(log("o1", "START", true));
+            assertEquals(List.of("CREATE", "START"), store.readAll().stream().map(AuditLog::getAction).toList());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.uber.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uber.model.Location;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExportWriter 測試
+ */
+@DisplayName("ExportWriter 測試")
+class ExportWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ExportWriter<Location> writer(ByteArrayOutputStream out, ExportWriter.Format format, boolean gzip)
+            throws IOException {
+        return new ExportWriter<>(out, format, gzip, mapper, List.of("x", "y", "address"),
+                location -> new Object[]{location.getX(), location.getY(), location.getAddress()});
+    }
+
+    @Test
+    @DisplayName("NDJSON 每筆一行")
+    void testNdjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter<Location> writer = writer(out, ExportWriter.Format.NDJSON, false)) {
+            writer.write(new Location(1, 2));
+            writer.write(new Location(3, 4, "台北"));
+            assertEquals(2, writer.count());
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(3.0, mapper.readValue(lines[1], Location.class).getX());
+        assertEquals("台北", mapper.readValue(lines[1], Location.class).getAddress());
+    }
+
+    @Test
+    @DisplayName("CSV 含標題列並跳脫逗號與引號")
+    void testCsvEscaping() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter<Location> writer = writer(out, ExportWriter.Format.CSV, false)) {
+            writer.write(new Location(1, 2, "信義路, \"101\""));
+            writer.write(new Location(3, 4));
+        }
+
+        assertEquals("x,y,address\r\n1.0,2.0,\"信義路, \"\"101\"\"\"\r\n3.0,4.0,\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("gzip 輸出可還原")
+    void testGzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter<Location> writer = writer(out, ExportWriter.Format.NDJSON, true)) {
+            for (int i = 0; i < 1000; i++) {
+                writer.write(new Location(i, i));
+            }
+        }
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(1000, text.lines().count());
+        }
+    }
+}
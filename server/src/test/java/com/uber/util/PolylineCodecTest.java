@@ -0,0 +1,81 @@
+package com.uber.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PolylineCodec 測試
+ */
+@DisplayName("PolylineCodec 測試")
+class PolylineCodecTest {
+
+    private static double[][] path(int count) {
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = new double[] {24.13712 + i * 0.00011, 120.68643 - i * 0.00007};
+        }
+        return points;
+    }
+
+    @Test
+    @DisplayName("編碼後解碼還原到 10^-5 精度")
+    void testRoundTrip() {
+        double[][] points = {{24.137123, 120.686431}, {24.13, 120.69}, {-33.5, -70.25}, {0, 0}};
+
+        double[][] decoded = PolylineCodec.decode(PolylineCodec.encode(points));
+
+        assertEquals(points.length, decoded.length);
+        for (int i = 0; i < points.length; i++) {
+            assertEquals(points[i][0], decoded[i][0], 1e-5);
+            assertEquals(points[i][1], decoded[i][1], 1e-5);
+        }
+    }
+
+    @Test
+    @DisplayName("空路徑")
+    void testEmpty() {
+        assertEquals(0, PolylineCodec.decode(PolylineCodec.encode(new double[0][])).length);
+    }
+
+    @Test
+    @DisplayName("相鄰點只記錄差值，遠小於 JSON 文字")
+    void testCompact() {
+        double[][] points = path(500);
+        String json = Arrays.deepToString(points).replace(" ", "");
+
+        byte[] encoded = PolylineCodec.encode(points);
+
+        // 第一點之後每點兩個差值各 2 bytes
+        assertTrue(encoded.length <= 2 + 10 + 499 * 4, "encoded=" + encoded.length);
+        assertTrue(encoded.length * 5 < json.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    @DisplayName("無效的路徑點拋出例外")
+    void testInvalidPoint() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PolylineCodec.encode(new double[][] {{1, 2, 3}}));
+        assertThrows(IllegalArgumentException.class,
+                () -> PolylineCodec.encode(new double[][] {{Double.NaN, 2}}));
+        assertThrows(IllegalArgumentException.class,
+                () -> PolylineCodec.encode(new double[][] {null}));
+    }
+
+    @Test
+    @DisplayName("資料截斷或有多餘 bytes 時拋出例外")
+    void testCorrupted() {
+        byte[] encoded = PolylineCodec.encode(path(10));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PolylineCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> PolylineCodec.decode(Arrays.copyOf(encoded, encoded.length + 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> PolylineCodec.decode(new byte[] {(byte) 0xFF, (byte) 0xFF, 0x7F}));
+    }
+}
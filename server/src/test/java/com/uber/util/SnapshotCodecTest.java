@@ -0,0 +1,131 @@
+package com.uber.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.uber.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SnapshotCodec 測試
+ */
+@DisplayName("SnapshotCodec 測試")
+class SnapshotCodecTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Order order(String orderId) {
+        return Order.builder()
+                .orderId(orderId)
+                .passengerId("p1")
+                .status(OrderStatus.COMPLETED)
+                .vehicleType(VehicleType.STANDARD)
+                .pickupLocation(new Location(25.03, 121.56))
+                .dropoffLocation(new Location(25.05, 121.60))
+                .estimatedFare(180.0)
+                .createdAt(Instant.now().truncatedTo(ChronoUnit.MILLIS))
+                .build();
+    }
+
+    @Test
+    @DisplayName("寫入後讀回內容相同")
+    void testRoundTrip() throws IOException {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            orders.add(order("o" + i));
+        }
+        Path file = tempDir.resolve("orders.snap");
+
+        SnapshotCodec.write(file, orders);
+        List<Order> loaded = SnapshotCodec.read(file, Order.class);
+
+        assertEquals(orders, loaded);
+    }
+
+    @Test
+    @DisplayName("串流讀取逐筆送出")
+    void testStream() throws IOException {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            orders.add(order("o" + i));
+        }
+        Path file = tempDir.resolve("orders.snap");
+        SnapshotCodec.write(file, orders);
+
+        Map<String, Order> loaded = new HashMap<>();
+        int count = SnapshotCodec.stream(file, Order.class, o -> loaded.put(o.getOrderId(), o));
+
+        assertEquals(50, count);
+        assertEquals(orders.get(49), loaded.get("o49"));
+    }
+
+    @Test
+    @DisplayName("快照比 JSON 文字小")
+    void testSmallerThanJson() throws IOException {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            orders.add(order("o" + i));
+        }
+        Path file = tempDir.resolve("orders.snap");
+
+        SnapshotCodec.write(file, orders);
+        byte[] json = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .writeValueAsBytes(orders);
+
+        assertTrue(Files.size(file) < json.length);
+    }
+
+    @Test
+    @DisplayName("payload 損毀時 checksum 驗證失敗")
+    void testCorruptedPayload() throws IOException {
+        Path file = tempDir.resolve("orders.snap");
+        SnapshotCodec.write(file, List.of(order("o1")));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(SnapshotCodec.HEADER_SIZE + 10);
+            int b = raf.read();
+            raf.seek(SnapshotCodec.HEADER_SIZE + 10);
+            raf.write(b ^ 0xFF);
+        }
+
+        assertThrows(SnapshotCorruptedException.class, () -> SnapshotCodec.read(file, Order.class));
+    }
+
+    @Test
+    @DisplayName("截斷的快照")
+    void testTruncated() throws IOException {
+        Path file = tempDir.resolve("orders.snap");
+        SnapshotCodec.write(file, List.of(order("o1"), order("o2")));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 8);
+        }
+
+        assertThrows(SnapshotCorruptedException.class, () -> SnapshotCodec.read(file, Order.class));
+    }
+
+    @Test
+    @DisplayName("非快照檔案")
+    void testBadMagic() throws IOException {
+        Path file = tempDir.resolve("orders.json");
+        Files.writeString(file, "[{\"orderId\":\"o1\"},{\"orderId\":\"o2\"}]");
+
+        assertThrows(SnapshotCorruptedException.class, () -> SnapshotCodec.read(file, Order.class));
+    }
+}
@@ -0,0 +1,108 @@
+package com.uber.util;
+
+import com.uber.model.Order;
+import com.uber.model.OrderStatus;
+import com.uber.model.VehicleType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SnapshotFileUtil 載入 (多代快照回復) 測試
+ */
+@DisplayName("SnapshotFileUtil 測試")
+class SnapshotFileUtilTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            orders.add(Order.builder()
+                    .orderId("o" + i)
+                    .passengerId("p1")
+                    .status(OrderStatus.COMPLETED)
+                    .vehicleType(VehicleType.STANDARD)
+                    .build());
+        }
+        return orders;
+    }
+
+    private static void corrupt(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(SnapshotCodec.HEADER_SIZE + 10);
+            int b = raf.read();
+            raf.seek(SnapshotCodec.HEADER_SIZE + 10);
+            raf.write(b ^ 0xFF);
+        }
+    }
+
+    private static void save(Path snapshot, List<Order> data) throws IOException {
+        AtomicFiles.write(snapshot, true, channel -> SnapshotCodec.write(channel, data));
+    }
+
+    @Test
+    @DisplayName("讀取目前快照")
+    void testLoadCurrent() throws IOException {
+        Path snapshot = tempDir.resolve("orders.snap");
+        save(snapshot, orders(2));
+        save(snapshot, orders(3));
+
+        List<Order> loaded = new ArrayList<>();
+        assertEquals(3, SnapshotFileUtil.loadGenerations(snapshot, Order.class, loaded::add, loaded::clear));
+        assertEquals(3, loaded.size());
+    }
+
+    @Test
+    @DisplayName("目前快照損毀時隔離並改讀上一代，下次儲存不會蓋掉上一代")
+    void testCorruptCurrentIsQuarantined() throws IOException {
+        Path snapshot = tempDir.resolve("orders.snap");
+        save(snapshot, orders(2));
+        save(snapshot, orders(3));
+        corrupt(snapshot);
+
+        List<Order> loaded = new ArrayList<>();
+        int count = SnapshotFileUtil.loadGenerations(snapshot, Order.class, loaded::add, loaded::clear);
+
+        assertEquals(2, count);
+        assertEquals(2, loaded.size());
+        assertFalse(Files.exists(snapshot));
+        assertTrue(Files.exists(SnapshotFileUtil.corruptOf(snapshot)));
+
+        // 下一次儲存：損毀檔不會被輪替成 .prev
+        save(snapshot, orders(4));
+        Path previous = AtomicFiles.previousOf(snapshot);
+        assertEquals(2, SnapshotCodec.read(previous, Order.class).size());
+        assertEquals(4, SnapshotCodec.read(snapshot, Order.class).size());
+    }
+
+    @Test
+    @DisplayName("兩代都損毀時全部隔離並以空資料啟動")
+    void testAllGenerationsCorrupt() throws IOException {
+        Path snapshot = tempDir.resolve("orders.snap");
+        save(snapshot, orders(2));
+        save(snapshot, orders(3));
+        corrupt(snapshot);
+        corrupt(AtomicFiles.previousOf(snapshot));
+
+        AtomicInteger resets = new AtomicInteger();
+        int count = SnapshotFileUtil.loadGenerations(snapshot, Order.class, order -> { }, resets::incrementAndGet);
+
+        assertEquals(0, count);
+        assertEquals(2, resets.get());
+        assertTrue(Files.exists(SnapshotFileUtil.corruptOf(snapshot)));
+        assertTrue(Files.exists(SnapshotFileUtil.corruptOf(AtomicFiles.previousOf(snapshot))));
+        assertFalse(Files.exists(snapshot));
+    }
+}